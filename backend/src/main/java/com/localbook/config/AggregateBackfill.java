@@ -0,0 +1,39 @@
+package com.localbook.config;
+import com.localbook.service.AnalyticsRollupService;
+import com.localbook.service.BusinessStatsService;
+import com.localbook.service.CustomerSketchService;
+import com.localbook.service.RetentionService;
+import com.localbook.service.SlotReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AggregateBackfill implements CommandLineRunner {
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    @Autowired
+    private BusinessStatsService businessStatsService;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private CustomerSketchService customerSketchService;
+
+    @Override
+    public void run(String... args) throws Exception {
+        // Appointments made before these tables existed must be counted too; each step
+        // does nothing once its table has rows
+        slotReservationService.backfillFutureClaims();
+        businessStatsService.backfillIfEmpty();
+        analyticsRollupService.backfillIfEmpty();
+        retentionService.backfillIfEmpty();
+        customerSketchService.backfillIfEmpty();
+    }
+}
@@ -0,0 +1,33 @@
+package com.localbook.config;
+import com.localbook.service.BusinessFacetIndex;
+import com.localbook.service.BusinessGeoIndex;
+import com.localbook.service.BusinessSearchIndex;
+import com.localbook.service.TypeaheadIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SearchIndexWarmup implements CommandLineRunner {
+
+    @Autowired
+    private BusinessSearchIndex businessSearchIndex;
+
+    @Autowired
+    private BusinessGeoIndex businessGeoIndex;
+
+    @Autowired
+    private BusinessFacetIndex businessFacetIndex;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Override
+    public void run(String... args) throws Exception {
+        // Build the indexes before the first search rather than during it
+        businessSearchIndex.rebuild();
+        businessGeoIndex.rebuild();
+        businessFacetIndex.rebuild();
+        typeaheadIndex.rebuild();
+    }
+}
@@ -0,0 +1,113 @@
+package com.localbook.controller;
+
+import com.localbook.service.AnalyticsRollupService;
+import com.localbook.service.CustomerSketchService;
+import com.localbook.service.PlatformAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Pre-aggregated platform figures for the admin Analytics page. Every response is
+ * a few KB at most, however many bookings, users and businesses there are.
+ */
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "*")
+public class AdminAnalyticsController {
+
+    @Autowired
+    private PlatformAnalyticsService platformAnalyticsService;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private CustomerSketchService customerSketchService;
+
+    // GET /api/admin/analytics/overview?timeframe=MONTH
+    @GetMapping("/overview")
+    public ResponseEntity<?> getOverview(@RequestParam(defaultValue = "MONTH") String timeframe) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.getOverview(timeframe));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/admin/analytics/bookings-per-day?from=2025-01-01&to=2025-01-31
+    @GetMapping("/bookings-per-day")
+    public ResponseEntity<?> getBookingsPerDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.getBookingsPerDay(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/admin/analytics/revenue-by-category?from=2025-01-01&to=2025-01-31
+    @GetMapping("/revenue-by-category")
+    public ResponseEntity<?> getRevenueByCategory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.getRevenueByCategory(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/admin/analytics/signups-per-week?from=2025-01-06&to=2025-03-30
+    @GetMapping("/signups-per-week")
+    public ResponseEntity<?> getSignupsPerWeek(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.getSignupsPerWeek(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/admin/analytics/unique-customers?groupBy=category&from=2025-01-01&to=2025-01-31
+    // groupBy: platform (default), category or county
+    @GetMapping("/unique-customers")
+    public ResponseEntity<?> getUniqueCustomers(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(customerSketchService.getGroupedCustomers(groupBy, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/admin/analytics/approval-backlog
+    @GetMapping("/approval-backlog")
+    public ResponseEntity<?> getApprovalBacklog() {
+        return ResponseEntity.ok(platformAnalyticsService.getApprovalBacklog());
+    }
+
+    // GET /api/admin/analytics/activity?granularity=DAY&from=2025-01-01&to=2025-01-31&category=Barber
+    @GetMapping("/activity")
+    public ResponseEntity<?> getActivity(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long businessId,
+            @RequestParam(required = false) String category) {
+        try {
+            return ResponseEntity.ok(analyticsRollupService.getSeries(
+                AnalyticsRollupService.parseGranularity(granularity), from, to, businessId, category));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.localbook.controller;
+
+import com.localbook.service.DashboardCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Hit/miss figures for the in-memory caches, counted since the server started.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*")
+public class AdminCacheController {
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    // GET /api/admin/cache/dashboard
+    @GetMapping("/dashboard")
+    public ResponseEntity<?> getDashboardCacheStats() {
+        return ResponseEntity.ok(dashboardCache.getStats());
+    }
+}
@@ -1,8 +1,12 @@
 package com.localbook.controller;
 
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.SlotAvailabilityDTO;
 import com.localbook.model.Appointment;
 import com.localbook.model.AppointmentStatus;
 import com.localbook.service.AppointmentService;
+import com.localbook.service.SlotAvailabilityService;
+import com.localbook.service.SlotReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -13,6 +17,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.time.format.DateTimeFormatter;
 
@@ -24,6 +29,9 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
     
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+    
     @PostMapping
     public ResponseEntity<Appointment> createAppointment(
             @RequestParam Long userId,
@@ -36,13 +44,26 @@ public class AppointmentController {
                 userId, businessId, serviceId, dateTime, notes);
             return new ResponseEntity<>(appointment, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
+            if (SlotReservationService.SLOT_TAKEN_MESSAGE.equals(e.getMessage())) {
+                return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+            }
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
     
+    // Pass size and/or cursor for a keyset page; without them the full list is returned as before
     @GetMapping
-    public ResponseEntity<List<Appointment>> getAllAppointments() {
-        List<Appointment> appointments = appointmentService.getAllAppointments();
+    public ResponseEntity<?> getAllAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (cursor != null || size != null) {
+            try {
+                return ResponseEntity.ok(appointmentService.getAppointmentsPage(cursor, size));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<AppointmentSummaryDTO> appointments = appointmentService.getAllAppointments();
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
     
@@ -58,20 +79,30 @@ public class AppointmentController {
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Appointment>> getUserAppointments(@PathVariable Long userId) {
-        List<Appointment> appointments = appointmentService.getUserAppointments(userId);
+    public ResponseEntity<?> getUserAppointments(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (cursor != null || size != null) {
+            try {
+                return ResponseEntity.ok(appointmentService.getUserAppointmentsPage(userId, cursor, size));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<AppointmentSummaryDTO> appointments = appointmentService.getUserAppointments(userId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
     
     @GetMapping("/user/{userId}/upcoming")
-    public ResponseEntity<List<Appointment>> getUpcomingUserAppointments(@PathVariable Long userId) {
-        List<Appointment> appointments = appointmentService.getUpcomingUserAppointments(userId);
+    public ResponseEntity<List<AppointmentSummaryDTO>> getUpcomingUserAppointments(@PathVariable Long userId) {
+        List<AppointmentSummaryDTO> appointments = appointmentService.getUpcomingUserAppointments(userId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 @GetMapping("/business/{businessId}/today")
-public ResponseEntity<List<Appointment>> getTodayBusinessAppointments(@PathVariable Long businessId) {
+public ResponseEntity<List<AppointmentSummaryDTO>> getTodayBusinessAppointments(@PathVariable Long businessId) {
     try {
-        List<Appointment> appointments = appointmentService.getTodayBusinessAppointments(businessId);
+        List<AppointmentSummaryDTO> appointments = appointmentService.getTodayBusinessAppointments(businessId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     } catch (Exception e) {
         System.err.println("❌ Error fetching today's appointments: " + e.getMessage());
@@ -80,20 +111,30 @@ public ResponseEntity<List<Appointment>> getTodayBusinessAppointments(@PathVaria
 }
     
     @GetMapping("/user/{userId}/past")
-    public ResponseEntity<List<Appointment>> getPastUserAppointments(@PathVariable Long userId) {
-        List<Appointment> appointments = appointmentService.getPastUserAppointments(userId);
+    public ResponseEntity<List<AppointmentSummaryDTO>> getPastUserAppointments(@PathVariable Long userId) {
+        List<AppointmentSummaryDTO> appointments = appointmentService.getPastUserAppointments(userId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
     
     @GetMapping("/business/{businessId}")
-    public ResponseEntity<List<Appointment>> getBusinessAppointments(@PathVariable Long businessId) {
-        List<Appointment> appointments = appointmentService.getBusinessAppointments(businessId);
+    public ResponseEntity<?> getBusinessAppointments(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (cursor != null || size != null) {
+            try {
+                return ResponseEntity.ok(appointmentService.getBusinessAppointmentsPage(businessId, cursor, size));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        List<AppointmentSummaryDTO> appointments = appointmentService.getBusinessAppointments(businessId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
     
     @GetMapping("/business/{businessId}/upcoming")
-    public ResponseEntity<List<Appointment>> getUpcomingBusinessAppointments(@PathVariable Long businessId) {
-        List<Appointment> appointments = appointmentService.getUpcomingBusinessAppointments(businessId);
+    public ResponseEntity<List<AppointmentSummaryDTO>> getUpcomingBusinessAppointments(@PathVariable Long businessId) {
+        List<AppointmentSummaryDTO> appointments = appointmentService.getUpcomingBusinessAppointments(businessId);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
     
@@ -115,43 +156,39 @@ public ResponseEntity<List<Appointment>> getTodayBusinessAppointments(@PathVaria
     }
 
     @GetMapping("/business/{businessId}/booked-slots")
-public ResponseEntity<List<String>> getBookedSlots(
-        @PathVariable Long businessId,
-        @RequestParam String date) {
-    try {
-        System.out.println("📅 Fetching booked slots for business: " + businessId + " on date: " + date);
-        
-        // Parse date: YYYY-MM-DD
-        LocalDate selectedDate = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
-        
-        // Get all appointments for the business on that date
-        List<Appointment> appointments = appointmentService.getBusinessAppointments(businessId);
-        
-        List<String> bookedSlots = new ArrayList<>();
-        
-        for (Appointment apt : appointments) {
-            LocalDate appointmentDate = apt.getAppointmentDateTime().toLocalDate();
+    public ResponseEntity<List<String>> getBookedSlots(
+            @PathVariable Long businessId,
+            @RequestParam String date) {
+        try {
+            // Parse date: YYYY-MM-DD
+            LocalDate selectedDate = LocalDate.parse(date.trim(), DateTimeFormatter.ISO_DATE);
             
-            // Only include appointments on the selected date that are CONFIRMED
-            if (appointmentDate. equals(selectedDate) && apt.getStatus() == AppointmentStatus.CONFIRMED) {
-                // Extract time: HH:MM
-                String time = apt.getAppointmentDateTime().format(DateTimeFormatter.ofPattern("HH:mm"));
-                bookedSlots.add(time);
-                
-                System.out.println("  ✓ Booked: " + time);
-            }
+            // Served from the in-memory occupancy bitmap (HH:mm of every booked slot)
+            List<String> bookedSlots = slotAvailabilityService.getBookedSlots(businessId, selectedDate);
+            
+            return ResponseEntity.ok(bookedSlots);
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error fetching booked slots: " + e.getMessage());
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+    }
+    
+    @GetMapping("/business/{businessId}/availability")
+    public ResponseEntity<SlotAvailabilityDTO> getAvailability(
+            @PathVariable Long businessId,
+            @RequestParam String date,
+            @RequestParam(required = false, defaultValue = "30") Integer durationMinutes) {
+        try {
+            LocalDate selectedDate = LocalDate.parse(date.trim(), DateTimeFormatter.ISO_DATE);
+            SlotAvailabilityDTO availability = slotAvailabilityService.getAvailability(
+                businessId, selectedDate, durationMinutes);
+            return ResponseEntity.ok(availability);
+        } catch (Exception e) {
+            System.err.println("❌ Error fetching availability: " + e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
-        
-        System.out.println("✅ Total booked slots: " + bookedSlots.size());
-        
-        return ResponseEntity.ok(bookedSlots);
-        
-    } catch (Exception e) {
-        System.err.println("❌ Error fetching booked slots: " + e.getMessage());
-        e.printStackTrace();
-        return ResponseEntity.ok(new ArrayList<>());
     }
-}
     
     // ✅ FIXED: Cancel now uses userId (no changes needed, already correct)
     @PutMapping("/{id}/cancel")
@@ -165,6 +202,27 @@ public ResponseEntity<List<String>> getBookedSlots(
         }
     }
     
+    // Close out many appointments at once: body is a JSON array of appointment ids
+    @PutMapping("/bulk/cancel")
+    public ResponseEntity<?> bulkCancelAppointments(@RequestBody List<Long> appointmentIds,
+                                                    @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(appointmentService.bulkTransition(appointmentIds, userId, AppointmentStatus.CANCELED));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/bulk/complete")
+    public ResponseEntity<?> bulkCompleteAppointments(@RequestBody List<Long> appointmentIds,
+                                                      @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(appointmentService.bulkTransition(appointmentIds, userId, AppointmentStatus.COMPLETED));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     // ✅ FIXED: Complete now uses userId instead of businessId
     @PutMapping("/{id}/complete")
     public ResponseEntity<Appointment> completeAppointment(@PathVariable Long id, 
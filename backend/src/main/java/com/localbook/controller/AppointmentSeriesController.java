@@ -0,0 +1,118 @@
+package com.localbook.controller;
+
+import com.localbook.dto.SeriesOccurrenceDTO;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.RecurrenceFrequency;
+import com.localbook.service.AppointmentSeriesService;
+import com.localbook.service.SlotReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/appointment-series")
+@CrossOrigin(origins = "*")
+public class AppointmentSeriesController {
+
+    @Autowired
+    private AppointmentSeriesService appointmentSeriesService;
+
+    @PostMapping
+    public ResponseEntity<?> createSeries(
+            @RequestParam Long userId,
+            @RequestParam Long businessId,
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime firstDateTime,
+            @RequestParam RecurrenceFrequency frequency,
+            @RequestParam(required = false, defaultValue = "1") Integer interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate untilDate,
+            @RequestParam(required = false) Integer maxOccurrences,
+            @RequestParam(required = false) String notes) {
+        try {
+            AppointmentSeries series = appointmentSeriesService.createSeries(
+                userId, businessId, serviceId, firstDateTime, frequency, interval, untilDate, maxOccurrences, notes);
+            return new ResponseEntity<>(series, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            HttpStatus status = SlotReservationService.SLOT_TAKEN_MESSAGE.equals(e.getMessage())
+                ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<AppointmentSeries>> getUserSeries(@PathVariable Long userId) {
+        return ResponseEntity.ok(appointmentSeriesService.getUserSeries(userId));
+    }
+
+    @GetMapping("/business/{businessId}")
+    public ResponseEntity<List<AppointmentSeries>> getBusinessSeries(@PathVariable Long businessId) {
+        return ResponseEntity.ok(appointmentSeriesService.getBusinessSeries(businessId));
+    }
+
+    // Occurrences are expanded for the requested dates only (both inclusive)
+    @GetMapping("/{id}/occurrences")
+    public ResponseEntity<?> getSeriesOccurrences(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<SeriesOccurrenceDTO> occurrences = appointmentSeriesService.getSeriesOccurrences(id, from, to);
+            return ResponseEntity.ok(occurrences);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/user/{userId}/occurrences")
+    public ResponseEntity<?> getUserOccurrences(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(appointmentSeriesService.getUserOccurrences(userId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/business/{businessId}/occurrences")
+    public ResponseEntity<?> getBusinessOccurrences(
+            @PathVariable Long businessId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(appointmentSeriesService.getBusinessOccurrences(businessId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Skip a single occurrence (holiday, sick day) without touching the rest of the series
+    @PutMapping("/{id}/skip")
+    public ResponseEntity<?> skipOccurrence(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(appointmentSeriesService.skipOccurrence(id, date, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelSeries(@PathVariable Long id, @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(appointmentSeriesService.cancelSeries(id, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
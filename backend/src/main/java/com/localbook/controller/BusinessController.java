@@ -1,17 +1,36 @@
 package com.localbook.controller;
 
-import com.localbook.model.Appointment;
-import com.localbook.model.AppointmentStatus;
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.BusinessDashboardStatsDTO;
+import com.localbook.dto.CalendarSyncStateDTO;
+import com.localbook.dto.EarliestAvailabilityDTO;
+import com.localbook.dto.FacetedSearchDTO;
+import com.localbook.dto.NearbyBusinessDTO;
 import com.localbook.model.Business;
+import com.localbook.service.AnalyticsRollupService;
 import com.localbook.service.AppointmentService;
+import com.localbook.service.BusinessGeoIndex;
+import com.localbook.service.BusinessCustomerService;
 import com.localbook.service.BusinessService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localbook.service.BusinessStatsService;
+import com.localbook.service.CalendarFeedService;
+import com.localbook.service.CustomerSketchService;
+import com.localbook.service.DashboardCache;
+import com.localbook.service.EarliestAvailabilityService;
+import com.localbook.service.OccupancyHeatmapService;
+import com.localbook.service.OpeningHoursService;
+import com.localbook.service.PeerBenchmarkService;
+import com.localbook.service.RetentionService;
+import com.localbook.service.TypeaheadIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -31,7 +50,145 @@ public class BusinessController {
     @Autowired
     private AppointmentService appointmentService;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private BusinessStatsService businessStatsService;
+    
+    @Autowired
+    private EarliestAvailabilityService earliestAvailabilityService;
+    
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+    
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+    
+    @Autowired
+    private BusinessCustomerService businessCustomerService;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private OccupancyHeatmapService occupancyHeatmapService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private CustomerSketchService customerSketchService;
+
+    @Autowired
+    private PeerBenchmarkService peerBenchmarkService;
+    
+    @Autowired
+    private BusinessGeoIndex businessGeoIndex;
+    
+    @Autowired
+    private OpeningHoursService openingHoursService;
+    
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+    
+    // GET /api/businesses/{businessId}/customers?sort=recent&search=anne&size=50&cursor=...
+    // sort: recent (default), visits, spend or name
+    @GetMapping("/{businessId}/customers")
+    public ResponseEntity<?> getBusinessCustomers(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (!businessService.getBusinessById(businessId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        try {
+            return ResponseEntity.ok(businessCustomerService.getCustomers(businessId, sort, search, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/{businessId}/occupancy-heatmap?weeks=12
+    @GetMapping("/{businessId}/occupancy-heatmap")
+    public ResponseEntity<?> getOccupancyHeatmap(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) Integer weeks) {
+        if (!businessService.getBusinessById(businessId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        try {
+            return ResponseEntity.ok(occupancyHeatmapService.getHeatmap(businessId, weeks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/{businessId}/retention?months=12
+    @GetMapping("/{businessId}/retention")
+    public ResponseEntity<?> getRetention(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) Integer months) {
+        if (!businessService.getBusinessById(businessId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        try {
+            return ResponseEntity.ok(retentionService.getReport(businessId, months));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/{businessId}/unique-customers?from=2025-01-01&to=2025-01-31
+    @GetMapping("/{businessId}/unique-customers")
+    public ResponseEntity<?> getUniqueCustomers(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!businessService.getBusinessById(businessId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        try {
+            return ResponseEntity.ok(customerSketchService.getBusinessCustomers(businessId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/{businessId}/benchmarks?scope=county
+    // scope: county (default: same category and county) or category (same category anywhere)
+    @GetMapping("/{businessId}/benchmarks")
+    public ResponseEntity<?> getPeerBenchmarks(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) String scope) {
+        if (!businessService.getBusinessById(businessId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        try {
+            return ResponseEntity.ok(peerBenchmarkService.getBenchmarks(businessId, scope));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/{businessId}/activity?granularity=DAY&from=2025-01-01&to=2025-01-31
+    @GetMapping("/{businessId}/activity")
+    public ResponseEntity<?> getBusinessActivity(
+            @PathVariable Long businessId,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(analyticsRollupService.getSeries(
+                AnalyticsRollupService.parseGranularity(granularity), from, to, businessId, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
     
     @GetMapping("/{businessId}/dashboard")
     public ResponseEntity<?> getBusinessDashboard(@PathVariable Long businessId) {
@@ -45,68 +202,17 @@ public class BusinessController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
             
-            LocalDateTime now = LocalDateTime.now();
-            LocalDate today = LocalDate.now();
-            
-            LocalDateTime startOfToday = today.atStartOfDay();
-            LocalDateTime endOfToday = today.atTime(23, 59, 59);
-            
-            LocalDate startOfWeekDate = today.with(DayOfWeek.MONDAY);
-            LocalDateTime startOfWeek = startOfWeekDate.atStartOfDay();
-            
-            LocalDate startOfMonthDate = today.withDayOfMonth(1);
-            LocalDateTime startOfMonth = startOfMonthDate.atStartOfDay();
-            
-            List<Appointment> allAppointments = appointmentService.getBusinessAppointments(businessId);
-            
-            long todayAppointments = 0;
-            long weekAppointments = 0;
-            double monthRevenue = 0.0;
-            
-            for (Appointment apt : allAppointments) {
-                LocalDateTime aptDateTime = apt.getAppointmentDateTime();
+            // Served from memory until one of the business's appointments, services or ratings changes
+            Map<String, Object> response = dashboardCache.get(businessId, () -> {
+                // Pre-aggregated counters: the same few rows whether the business has 50 bookings or 500,000
+                BusinessDashboardStatsDTO stats = businessStatsService.getDashboardStats(businessId);
+                List<AppointmentSummaryDTO> todaySchedule = appointmentService.getBusinessAppointmentsOn(businessId, LocalDate.now());
                 
-                if (aptDateTime.isAfter(startOfToday.minusSeconds(1)) && aptDateTime.isBefore(endOfToday.plusSeconds(1))) {
-                    todayAppointments++;
-                }
-                
-                if (aptDateTime.isAfter(startOfWeek.minusSeconds(1)) && aptDateTime.isBefore(now.plusDays(1))) {
-                    weekAppointments++;
-                }
-                
-                if (aptDateTime.isAfter(startOfMonth.minusSeconds(1)) && 
-                    aptDateTime.isBefore(now.plusDays(1)) && 
-                    apt.getStatus() == AppointmentStatus.COMPLETED) {
-                    double price = apt.getService() != null ? apt.getService().getPrice() : 0.0;
-                    monthRevenue = monthRevenue + price;
-                }
-            }
-            
-            long totalCustomers = allAppointments.stream()
-                .filter(apt -> apt.getUser() != null)
-                .map(apt -> apt.getUser().getId())
-                .distinct()
-                .count();
-            
-            List<Appointment> todaySchedule = allAppointments.stream()
-                .filter(apt -> {
-                    LocalDateTime aptDateTime = apt.getAppointmentDateTime();
-                    return aptDateTime.isAfter(startOfToday.minusSeconds(1)) && 
-                           aptDateTime.isBefore(endOfToday.plusSeconds(1));
-                })
-                .sorted((a1, a2) -> a1.getAppointmentDateTime().compareTo(a2.getAppointmentDateTime()))
-                .collect(Collectors.toList());
-            
-            Map<String, Object> response = new HashMap<>();
-            
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("todayAppointments", todayAppointments);
-            stats.put("weekAppointments", weekAppointments);
-            stats.put("monthRevenue", monthRevenue);
-            stats.put("totalCustomers", totalCustomers);
-            
-            response.put("stats", stats);
-            response.put("todaySchedule", todaySchedule);
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("stats", stats);
+                payload.put("todaySchedule", todaySchedule);
+                return payload;
+            });
             
             return ResponseEntity.ok(response);
             
@@ -118,6 +224,43 @@ public class BusinessController {
         }
     }
     
+    // Subscribable .ics feed. Unchanged calendars answer 304 to If-None-Match; clients that
+    // send back the X-Sync-Token from the last response only get what changed since.
+    @GetMapping("/{businessId}/calendar.ics")
+    public ResponseEntity<?> getCalendarFeed(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) String syncToken,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        Optional<Business> businessOpt = businessService.getBusinessById(businessId);
+        if (!businessOpt.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Business not found with ID: " + businessId));
+        }
+        String businessName = businessOpt.get().getBusinessName();
+        
+        CalendarSyncStateDTO state = calendarFeedService.getState(businessId);
+        String etag = "\"" + calendarFeedService.etagFor(state, syncToken) + "\"";
+        
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        
+        LocalDateTime since;
+        try {
+            since = calendarFeedService.resolveSince(businessId, state, syncToken);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        StreamingResponseBody body = output -> calendarFeedService.writeFeed(businessId, businessName, since, output);
+        
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .header("X-Sync-Token", calendarFeedService.syncTokenFor(state))
+            .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+            .body(body);
+    }
+    
     @PostMapping("/register")
     public ResponseEntity<Business> registerBusiness(@RequestBody Business business, 
                                                      @RequestParam Long ownerId) {
@@ -198,14 +341,21 @@ public class BusinessController {
         }
     }
     
+    // GET /api/businesses/search/location/{location}?page=1&size=50
+    // Best matches first, 200 per page by default; a shorter page is the last one
     @GetMapping("/search/location/{location}")
-    public ResponseEntity<List<Map<String, Object>>> searchByLocation(@PathVariable String location) {
+    public ResponseEntity<?> searchByLocation(
+            @PathVariable String location,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Business> businesses = businessService.searchByLocation(location);
+            List<Business> businesses = businessService.searchByLocation(location, page, size);
             List<Map<String, Object>> response = businesses.stream()
                 .map(this::buildBusinessResponse)
                 .collect(Collectors.toList());
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -241,14 +391,117 @@ public class BusinessController {
         }
     }
     
+    // "First free haircut in Dublin today": earliest bookable start per business, soonest first.
+    // Window defaults to the rest of today; results cut off at the latency budget are marked incomplete.
+    @GetMapping("/search/earliest-available")
+    public ResponseEntity<?> searchEarliestAvailable(
+            @RequestParam String category,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "30") Integer durationMinutes,
+            @RequestParam(required = false, defaultValue = "" + EarliestAvailabilityService.DEFAULT_LIMIT) Integer limit) {
+        try {
+            EarliestAvailabilityDTO result = earliestAvailabilityService.findEarliest(
+                category, location, from, to, durationMinutes, limit);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/search/text?q=barber+carlow&limit=50
+    // Every word must match a listed business's name, description, category or place; prefixes and small typos count
+    @GetMapping("/search/text")
+    public ResponseEntity<List<Map<String, Object>>> searchText(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<Business> businesses = businessService.search(q, limit);
+            List<Map<String, Object>> response = businesses.stream()
+                .map(this::buildBusinessResponse)
+                .collect(Collectors.toList());
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // GET /api/businesses/search/faceted?category=Barber&county=Carlow&minPrice=10&maxPrice=30&minRating=4&openNow=true
+    // One page of listed businesses matching every filter, best rated first, with counts per category,
+    // county, price range and rating that each leave out their own filter.
+    // openAt=2026-03-14T18:30 keeps businesses open at that time instead of now
+    @GetMapping("/search/faceted")
+    public ResponseEntity<?> searchFaceted(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String county,
+            @RequestParam(required = false) String town,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime openAt,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            FacetedSearchDTO<Business> found = businessService.facetedSearch(category, county, town,
+                minPrice, maxPrice, minRating, openAt != null ? openAt : openNow ? LocalDateTime.now() : null,
+                page, size);
+            List<Map<String, Object>> items = found.getItems().stream()
+                .map(this::buildBusinessResponse)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(found.withItems(items));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/search/nearby?lat=52.84&lng=-6.93&radiusKm=10&category=Barber&limit=20
+    // Listed businesses within the radius, nearest first; a wide radius with a small limit gives the k nearest
+    @GetMapping("/search/nearby")
+    public ResponseEntity<?> searchNearby(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<NearbyBusinessDTO> results = businessGeoIndex.nearby(lat, lng, radiusKm, category, limit);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/search/suggest?q=kates%20c&limit=8
+    // Search-box suggestions as the user types: business names, service names and towns, most booked first
+    @GetMapping("/search/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(typeaheadIndex.suggest(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // GET /api/businesses/search/name/{keyword}?page=1&size=50
+    // Best matches first, 200 per page by default; a shorter page is the last one
     @GetMapping("/search/name/{keyword}")
-    public ResponseEntity<List<Map<String, Object>>> searchByName(@PathVariable String keyword) {
+    public ResponseEntity<?> searchByName(
+            @PathVariable String keyword,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Business> businesses = businessService.searchByName(keyword);
+            List<Business> businesses = businessService.searchByName(keyword, page, size);
             List<Map<String, Object>> response = businesses.stream()
                 .map(this::buildBusinessResponse)
                 .collect(Collectors.toList());
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -291,6 +544,8 @@ public class BusinessController {
                     .body(Map.of("error", "Unauthorized"));
             }
             
+            String previousCategory = business.getCategory();
+            
             if (updates.containsKey("businessName")) {
                 business.setBusinessName((String) updates.get("businessName"));
             }
@@ -338,7 +593,7 @@ public class BusinessController {
             }
             
             business.setUpdatedAt(LocalDateTime.now());
-            Business updated = businessService.saveBusinessDirect(business);
+            Business updated = businessService.saveBusinessDirect(business, previousCategory);
             
             System.out.println("✅ Business updated successfully");
             
@@ -539,85 +794,9 @@ public ResponseEntity<?> deleteBusiness(
         response.put("createdAt", business.getCreatedAt());
         response.put("updatedAt", business.getUpdatedAt());
         
-        Map<String, Map<String, Object>> openingHours = parseOpeningHours(business.getOpeningHours());
+        Map<String, Map<String, Object>> openingHours = openingHoursService.displayHours(business);
         response.put("openingHours", openingHours);
         
         return response;
     }
-    
-    // ⭐ HELPER METHOD: Parse opening hours with normalization
-    private Map<String, Map<String, Object>> parseOpeningHours(String openingHoursJson) {
-        if (openingHoursJson == null || openingHoursJson.trim().isEmpty()) {
-            return createDefaultOpeningHours();
-        }
-        
-        try {
-            Map<String, Object> rawMap = objectMapper.readValue(openingHoursJson, Map.class);
-            Map<String, Map<String, Object>> openingHours = new HashMap<>();
-            
-            for (Map.Entry<String, Object> entry : rawMap.entrySet()) {
-                String day = entry.getKey();
-                Object value = entry.getValue();
-                
-                if (value instanceof Map) {
-                    Map<String, Object> dayHours = (Map<String, Object>) value;
-                    Map<String, Object> normalizedHours = new HashMap<>();
-                    
-                    // Normalize field names
-                    if (dayHours.containsKey("open")) {
-                        normalizedHours.put("openTime", dayHours.get("open"));
-                    } else if (dayHours.containsKey("openTime")) {
-                        normalizedHours.put("openTime", dayHours.get("openTime"));
-                    }
-                    
-                    if (dayHours.containsKey("close")) {
-                        normalizedHours.put("closeTime", dayHours.get("close"));
-                    } else if (dayHours.containsKey("closeTime")) {
-                        normalizedHours.put("closeTime", dayHours.get("closeTime"));
-                    }
-                    
-                    if (dayHours.containsKey("enabled")) {
-                        Boolean enabled = (Boolean) dayHours.get("enabled");
-                        normalizedHours.put("isClosed", !enabled);
-                    } else if (dayHours.containsKey("isClosed")) {
-                        normalizedHours.put("isClosed", dayHours.get("isClosed"));
-                    }
-                    
-                    openingHours.put(day, normalizedHours);
-                }
-            }
-            
-            return openingHours;
-            
-        } catch (Exception e) {
-            System.out.println("⚠️ Failed to parse opening hours, using defaults");
-            return createDefaultOpeningHours();
-        }
-    }
-    
-    // ⭐ HELPER METHOD: Create default opening hours
-    private Map<String, Map<String, Object>> createDefaultOpeningHours() {
-        Map<String, Map<String, Object>> hours = new HashMap<>();
-        
-        String[] weekdays = {"monday", "tuesday", "wednesday", "thursday", "friday"};
-        for (String day : weekdays) {
-            Map<String, Object> dayHours = new HashMap<>();
-            dayHours.put("openTime", "09:00");
-            dayHours.put("closeTime", "18:00");
-            dayHours.put("isClosed", false);
-            hours.put(day, dayHours);
-        }
-        
-        Map<String, Object> saturdayHours = new HashMap<>();
-        saturdayHours.put("openTime", "10:00");
-        saturdayHours.put("closeTime", "16:00");
-        saturdayHours.put("isClosed", false);
-        hours.put("saturday", saturdayHours);
-        
-        Map<String, Object> sundayHours = new HashMap<>();
-        sundayHours.put("isClosed", true);
-        hours.put("sunday", sundayHours);
-        
-        return hours;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.localbook.controller;
+
+import com.localbook.model.WaitlistEntry;
+import com.localbook.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "*")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(
+            @RequestParam Long userId,
+            @RequestParam Long businessId,
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            WaitlistEntry entry = waitlistService.join(userId, businessId, serviceId, date);
+            return new ResponseEntity<>(entry, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long id, @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(waitlistService.leave(id, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<WaitlistEntry>> getUserEntries(@PathVariable Long userId) {
+        return ResponseEntity.ok(waitlistService.getUserEntries(userId));
+    }
+
+    @GetMapping("/business/{businessId}")
+    public ResponseEntity<List<WaitlistEntry>> getBusinessQueue(
+            @PathVariable Long businessId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(waitlistService.getBusinessQueue(businessId, date));
+    }
+}
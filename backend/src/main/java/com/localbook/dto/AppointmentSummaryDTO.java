@@ -0,0 +1,194 @@
+package com.localbook.dto;
+
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Read-side view of an appointment for list screens. Serializes with the same
+ * nested user/business/service shape the web and mobile clients already read,
+ * but only carries the columns they display, and is filled by a single
+ * constructor-expression query instead of loading whole entity graphs.
+ */
+public class AppointmentSummaryDTO {
+    private Long id;
+    private LocalDateTime appointmentDateTime;
+    private AppointmentStatus status;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private UserSummary user;
+    private BusinessSummary business;
+    private ServiceSummary service;
+
+    // Used by JPQL "SELECT new ..." projections
+    public AppointmentSummaryDTO(Long id, LocalDateTime appointmentDateTime, AppointmentStatus status, String notes,
+                                 LocalDateTime createdAt, LocalDateTime updatedAt,
+                                 Long userId, String userName, String userEmail, String userPhoneNumber,
+                                 Long businessId, String businessName, String businessAddress, String businessTown,
+                                 Long serviceId, String serviceName, Integer durationMinutes, Double price) {
+        this.id = id;
+        this.appointmentDateTime = appointmentDateTime;
+        this.status = status;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.user = new UserSummary(userId, userName, userEmail, userPhoneNumber);
+        this.business = new BusinessSummary(businessId, businessName, businessAddress, businessTown);
+        this.service = new ServiceSummary(serviceId, serviceName, durationMinutes, price);
+    }
+
+    // Constructor from an already loaded Appointment entity
+    public AppointmentSummaryDTO(Appointment appointment) {
+        this.id = appointment.getId();
+        this.appointmentDateTime = appointment.getAppointmentDateTime();
+        this.status = appointment.getStatus();
+        this.notes = appointment.getNotes();
+        this.createdAt = appointment.getCreatedAt();
+        this.updatedAt = appointment.getUpdatedAt();
+        if (appointment.getUser() != null) {
+            this.user = new UserSummary(appointment.getUser().getId(), appointment.getUser().getName(),
+                appointment.getUser().getEmail(), appointment.getUser().getPhoneNumber());
+        }
+        if (appointment.getBusiness() != null) {
+            this.business = new BusinessSummary(appointment.getBusiness().getId(), appointment.getBusiness().getBusinessName(),
+                appointment.getBusiness().getAddress(), appointment.getBusiness().getTown());
+        }
+        if (appointment.getService() != null) {
+            this.service = new ServiceSummary(appointment.getService().getId(), appointment.getService().getServiceName(),
+                appointment.getService().getDurationMinutes(), appointment.getService().getPrice());
+        }
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public BusinessSummary getBusiness() {
+        return business;
+    }
+
+    public ServiceSummary getService() {
+        return service;
+    }
+
+    public static class UserSummary {
+        private Long id;
+        private String name;
+        private String email;
+        private String phoneNumber;
+
+        public UserSummary(Long id, String name, String email, String phoneNumber) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.phoneNumber = phoneNumber;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getPhoneNumber() {
+            return phoneNumber;
+        }
+    }
+
+    public static class BusinessSummary {
+        private Long id;
+        private String businessName;
+        private String address;
+        private String town;
+
+        public BusinessSummary(Long id, String businessName, String address, String town) {
+            this.id = id;
+            this.businessName = businessName;
+            this.address = address;
+            this.town = town;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getBusinessName() {
+            return businessName;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public String getTown() {
+            return town;
+        }
+    }
+
+    public static class ServiceSummary {
+        private Long id;
+        private String serviceName;
+        private Integer durationMinutes;
+        private Double price;
+
+        public ServiceSummary(Long id, String serviceName, Integer durationMinutes, Double price) {
+            this.id = id;
+            this.serviceName = serviceName;
+            this.durationMinutes = durationMinutes;
+            this.price = price;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        // Same alias the Service entity exposes
+        public String getName() {
+            return serviceName;
+        }
+
+        public Integer getDurationMinutes() {
+            return durationMinutes;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+    }
+}
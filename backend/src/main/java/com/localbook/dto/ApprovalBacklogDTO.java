@@ -0,0 +1,29 @@
+package com.localbook.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ApprovalBacklogDTO {
+    private long pendingBusinesses;
+    private LocalDateTime oldestPendingSince;  // null when nothing is waiting
+    private List<NamedCountDTO> byAge;  // fixed buckets, youngest first
+
+    public ApprovalBacklogDTO(long pendingBusinesses, LocalDateTime oldestPendingSince, List<NamedCountDTO> byAge) {
+        this.pendingBusinesses = pendingBusinesses;
+        this.oldestPendingSince = oldestPendingSince;
+        this.byAge = byAge;
+    }
+
+    // Getters
+    public long getPendingBusinesses() {
+        return pendingBusinesses;
+    }
+
+    public LocalDateTime getOldestPendingSince() {
+        return oldestPendingSince;
+    }
+
+    public List<NamedCountDTO> getByAge() {
+        return byAge;
+    }
+}
@@ -0,0 +1,60 @@
+package com.localbook.dto;
+
+public class BenchmarkDTO {
+    private String metric;
+    private Double value;
+    private Double percentile;
+    private long peers;
+    private Double p25;
+    private Double p50;
+    private Double p75;
+    private Double p90;
+
+    public BenchmarkDTO(String metric, Double value, Double percentile, long peers,
+                        Double p25, Double p50, Double p75, Double p90) {
+        this.metric = metric;
+        this.value = value;
+        this.percentile = percentile;
+        this.peers = peers;
+        this.p25 = p25;
+        this.p50 = p50;
+        this.p75 = p75;
+        this.p90 = p90;
+    }
+
+    // Getters
+    public String getMetric() {
+        return metric;
+    }
+
+    // The business's own figure; null when it has none (no services, no ratings)
+    public Double getValue() {
+        return value;
+    }
+
+    // Share of peer values at or below the business's, 0-100 (80 = top 20%)
+    public Double getPercentile() {
+        return percentile;
+    }
+
+    // Values the distribution was built from: services for price, businesses otherwise
+    public long getPeers() {
+        return peers;
+    }
+
+    public Double getP25() {
+        return p25;
+    }
+
+    public Double getP50() {
+        return p50;
+    }
+
+    public Double getP75() {
+        return p75;
+    }
+
+    public Double getP90() {
+        return p90;
+    }
+}
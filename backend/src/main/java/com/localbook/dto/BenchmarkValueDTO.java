@@ -0,0 +1,36 @@
+package com.localbook.dto;
+
+public class BenchmarkValueDTO {
+    private Long businessId;
+    private String category;
+    private String county;
+    private Double value;
+
+    public BenchmarkValueDTO(Long businessId, String category, String county) {
+        this(businessId, category, county, null);
+    }
+
+    public BenchmarkValueDTO(Long businessId, String category, String county, Double value) {
+        this.businessId = businessId;
+        this.category = category;
+        this.county = county;
+        this.value = value;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getCounty() {
+        return county;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+}
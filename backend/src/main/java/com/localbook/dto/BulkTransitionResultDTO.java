@@ -0,0 +1,40 @@
+package com.localbook.dto;
+
+import com.localbook.model.AppointmentStatus;
+import java.util.List;
+import java.util.Map;
+
+public class BulkTransitionResultDTO {
+    private AppointmentStatus status;
+    private int requested;
+    private List<Long> updatedIds;
+    private Map<Long, String> skipped;  // appointment id -> reason it was left alone
+
+    public BulkTransitionResultDTO(AppointmentStatus status, int requested, List<Long> updatedIds, Map<Long, String> skipped) {
+        this.status = status;
+        this.requested = requested;
+        this.updatedIds = updatedIds;
+        this.skipped = skipped;
+    }
+
+    // Getters
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public List<Long> getUpdatedIds() {
+        return updatedIds;
+    }
+
+    public int getUpdated() {
+        return updatedIds.size();
+    }
+
+    public Map<Long, String> getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,66 @@
+package com.localbook.dto;
+
+import java.time.LocalDateTime;
+
+public class BusinessCustomerDTO {
+    private Long userId;
+    private String name;
+    private String email;
+    private String phoneNumber;
+    private long totalBookings;
+    private long visitCount;         // completed bookings
+    private long cancellationCount;
+    private LocalDateTime lastVisit; // most recent completed booking; null before the first
+    private double totalSpend;       // price of completed bookings
+
+    public BusinessCustomerDTO(Long userId, String name, String email, String phoneNumber,
+                               Long totalBookings, Long visitCount, Long cancellationCount,
+                               LocalDateTime lastVisit, Double totalSpend) {
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.totalBookings = totalBookings == null ? 0L : totalBookings;
+        this.visitCount = visitCount == null ? 0L : visitCount;
+        this.cancellationCount = cancellationCount == null ? 0L : cancellationCount;
+        this.lastVisit = lastVisit;
+        this.totalSpend = totalSpend == null ? 0.0 : totalSpend;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+
+    public long getVisitCount() {
+        return visitCount;
+    }
+
+    public long getCancellationCount() {
+        return cancellationCount;
+    }
+
+    public LocalDateTime getLastVisit() {
+        return lastVisit;
+    }
+
+    public double getTotalSpend() {
+        return totalSpend;
+    }
+}
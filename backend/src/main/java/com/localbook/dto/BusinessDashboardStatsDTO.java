@@ -0,0 +1,32 @@
+package com.localbook.dto;
+
+public class BusinessDashboardStatsDTO {
+    private long todayAppointments;
+    private long weekAppointments;
+    private double monthRevenue;
+    private long totalCustomers;
+
+    public BusinessDashboardStatsDTO(long todayAppointments, long weekAppointments, double monthRevenue, long totalCustomers) {
+        this.todayAppointments = todayAppointments;
+        this.weekAppointments = weekAppointments;
+        this.monthRevenue = monthRevenue;
+        this.totalCustomers = totalCustomers;
+    }
+
+    // Getters
+    public long getTodayAppointments() {
+        return todayAppointments;
+    }
+
+    public long getWeekAppointments() {
+        return weekAppointments;
+    }
+
+    public double getMonthRevenue() {
+        return monthRevenue;
+    }
+
+    public long getTotalCustomers() {
+        return totalCustomers;
+    }
+}
@@ -0,0 +1,22 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+public class BusinessDayCustomerDTO {
+    private LocalDate date;
+    private Long userId;
+
+    public BusinessDayCustomerDTO(LocalDate date, Long userId) {
+        this.date = date;
+        this.userId = userId;
+    }
+
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
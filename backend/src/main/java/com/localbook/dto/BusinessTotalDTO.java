@@ -0,0 +1,20 @@
+package com.localbook.dto;
+
+public class BusinessTotalDTO {
+    private Long businessId;
+    private long total;
+
+    public BusinessTotalDTO(Long businessId, Long total) {
+        this.businessId = businessId;
+        this.total = total != null ? total : 0L;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
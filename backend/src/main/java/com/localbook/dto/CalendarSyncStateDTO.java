@@ -0,0 +1,37 @@
+package com.localbook.dto;
+
+import java.time.LocalDateTime;
+
+public class CalendarSyncStateDTO {
+    private LocalDateTime lastUpdatedAt;  // high-water mark of appointment updatedAt
+    private Long maxId;
+    private long count;
+    private String seriesVersion;         // recurring series and the feed window, set by CalendarFeedService
+
+    public CalendarSyncStateDTO(LocalDateTime lastUpdatedAt, Long maxId, Long count) {
+        this.lastUpdatedAt = lastUpdatedAt;
+        this.maxId = maxId == null ? 0L : maxId;
+        this.count = count == null ? 0L : count;
+    }
+
+    // Getters
+    public LocalDateTime getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getSeriesVersion() {
+        return seriesVersion;
+    }
+
+    public void setSeriesVersion(String seriesVersion) {
+        this.seriesVersion = seriesVersion;
+    }
+}
@@ -0,0 +1,32 @@
+package com.localbook.dto;
+
+public class CategoryRevenueDTO {
+    private String category;
+    private double revenue;  // completed bookings only
+    private long completedBookings;
+    private long bookings;
+
+    public CategoryRevenueDTO(String category, Double revenue, Long completedBookings, Long bookings) {
+        this.category = category;
+        this.revenue = revenue == null ? 0.0 : revenue;
+        this.completedBookings = completedBookings == null ? 0L : completedBookings;
+        this.bookings = bookings == null ? 0L : bookings;
+    }
+
+    // Getters
+    public String getCategory() {
+        return category;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getCompletedBookings() {
+        return completedBookings;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+}
@@ -0,0 +1,40 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+public class DailyBookingsDTO {
+    private LocalDate date;
+    private long bookings;
+    private long completed;
+    private long canceled;
+    private double revenue;  // completed bookings only
+
+    public DailyBookingsDTO(LocalDate date, Long bookings, Long completed, Long canceled, Double revenue) {
+        this.date = date;
+        this.bookings = bookings == null ? 0L : bookings;
+        this.completed = completed == null ? 0L : completed;
+        this.canceled = canceled == null ? 0L : canceled;
+        this.revenue = revenue == null ? 0.0 : revenue;
+    }
+
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCanceled() {
+        return canceled;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,22 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+public class DailyCountDTO {
+    private LocalDate date;
+    private long count;
+
+    public DailyCountDTO(LocalDate date, Long count) {
+        this.date = date;
+        this.count = count == null ? 0L : count;
+    }
+
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
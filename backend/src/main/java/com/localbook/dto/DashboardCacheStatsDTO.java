@@ -0,0 +1,52 @@
+package com.localbook.dto;
+
+public class DashboardCacheStatsDTO {
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long invalidations;
+    private long evictions;
+
+    public DashboardCacheStatsDTO(int size, int maxEntries, long hits, long misses,
+                                  long invalidations, long evictions) {
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hits + misses == 0 ? 0.0 : Math.round(hits * 1000.0 / (hits + misses)) / 10.0;
+        this.invalidations = invalidations;
+        this.evictions = evictions;
+    }
+
+    // Getters
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // Percentage of reads answered from memory
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
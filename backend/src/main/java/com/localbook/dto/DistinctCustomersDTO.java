@@ -0,0 +1,28 @@
+package com.localbook.dto;
+
+public class DistinctCustomersDTO {
+    private String group;
+    private long estimate;
+    private double relativeError;
+
+    public DistinctCustomersDTO(String group, long estimate, double relativeError) {
+        this.group = group;
+        this.estimate = estimate;
+        this.relativeError = relativeError;
+    }
+
+    // Getters
+    public String getGroup() {
+        return group;
+    }
+
+    // Approximate number of distinct customers
+    public long getEstimate() {
+        return estimate;
+    }
+
+    // One standard error, as a fraction of the estimate (0.016 = about 1.6%)
+    public double getRelativeError() {
+        return relativeError;
+    }
+}
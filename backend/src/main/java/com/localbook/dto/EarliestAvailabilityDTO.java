@@ -0,0 +1,32 @@
+package com.localbook.dto;
+
+import java.util.List;
+
+public class EarliestAvailabilityDTO {
+    private List<EarliestSlotDTO> results;
+    private int businessesMatched;
+    private int businessesChecked;  // the rest did not answer within the latency budget
+
+    public EarliestAvailabilityDTO(List<EarliestSlotDTO> results, int businessesMatched, int businessesChecked) {
+        this.results = results;
+        this.businessesMatched = businessesMatched;
+        this.businessesChecked = businessesChecked;
+    }
+
+    // Getters
+    public List<EarliestSlotDTO> getResults() {
+        return results;
+    }
+
+    public int getBusinessesMatched() {
+        return businessesMatched;
+    }
+
+    public int getBusinessesChecked() {
+        return businessesChecked;
+    }
+
+    public boolean isComplete() {
+        return businessesChecked == businessesMatched;
+    }
+}
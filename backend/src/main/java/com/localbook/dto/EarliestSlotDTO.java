@@ -0,0 +1,40 @@
+package com.localbook.dto;
+
+import java.time.LocalDateTime;
+
+public class EarliestSlotDTO {
+    private Long businessId;
+    private String businessName;
+    private String town;
+    private String county;
+    private LocalDateTime start;
+
+    public EarliestSlotDTO(Long businessId, String businessName, String town, String county, LocalDateTime start) {
+        this.businessId = businessId;
+        this.businessName = businessName;
+        this.town = town;
+        this.county = county;
+        this.start = start;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public String getTown() {
+        return town;
+    }
+
+    public String getCounty() {
+        return county;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+}
@@ -0,0 +1,69 @@
+package com.localbook.dto;
+
+import java.util.List;
+
+public class FacetedSearchDTO<T> {
+    private List<T> items;
+    private long total;
+    private int page;
+    private int size;
+    // Each facet counts the matches of every filter except its own
+    private List<NamedCountDTO> categories;
+    private List<NamedCountDTO> counties;
+    private List<NamedCountDTO> priceRanges;  // businesses with a service in the range
+    private List<NamedCountDTO> ratings;
+
+    public FacetedSearchDTO(List<T> items, long total, int page, int size, List<NamedCountDTO> categories,
+                            List<NamedCountDTO> counties, List<NamedCountDTO> priceRanges, List<NamedCountDTO> ratings) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.categories = categories;
+        this.counties = counties;
+        this.priceRanges = priceRanges;
+        this.ratings = ratings;
+    }
+
+    // Same page and facets around other items, e.g. the businesses loaded for these ids
+    public <U> FacetedSearchDTO<U> withItems(List<U> items) {
+        return new FacetedSearchDTO<>(items, total, page, size, categories, counties, priceRanges, ratings);
+    }
+
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasMore() {
+        return (long) (page + 1) * size < total;
+    }
+
+    public List<NamedCountDTO> getCategories() {
+        return categories;
+    }
+
+    public List<NamedCountDTO> getCounties() {
+        return counties;
+    }
+
+    public List<NamedCountDTO> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public List<NamedCountDTO> getRatings() {
+        return ratings;
+    }
+}
@@ -0,0 +1,20 @@
+package com.localbook.dto;
+
+public class NamedCountDTO {
+    private String name;
+    private long count;
+
+    public NamedCountDTO(String name, Long count) {
+        this.name = name;
+        this.count = count == null ? 0L : count;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package com.localbook.dto;
+
+public class NearbyBusinessDTO {
+    private Long businessId;
+    private String businessName;
+    private String category;
+    private String town;
+    private String county;
+    private Double lat;
+    private Double lng;
+    private double distanceKm;
+
+    public NearbyBusinessDTO(Long businessId, String businessName, String category, String town, String county,
+                             Double lat, Double lng, double distanceKm) {
+        this.businessId = businessId;
+        this.businessName = businessName;
+        this.category = category;
+        this.town = town;
+        this.county = county;
+        this.lat = lat;
+        this.lng = lng;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getTown() {
+        return town;
+    }
+
+    public String getCounty() {
+        return county;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public Double getLng() {
+        return lng;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
@@ -0,0 +1,80 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Weekday x time-of-day occupancy for a business. Every grid is [7][96]: rows are
+ * Monday to Sunday, columns the 15-minute cells of the day from midnight.
+ */
+public class OccupancyHeatmapDTO {
+    private Long businessId;
+    private LocalDate from;
+    private LocalDate to;
+    private int weeks;
+    private int cellMinutes;
+    private int[][] bookedMinutes;
+    private int[][] openMinutes;
+    private double[][] utilization;
+    private double overallUtilization;
+    private long bookedMinutesOutsideHours;
+
+    public OccupancyHeatmapDTO(Long businessId, LocalDate from, LocalDate to, int weeks, int cellMinutes,
+                               int[][] bookedMinutes, int[][] openMinutes, double[][] utilization,
+                               double overallUtilization, long bookedMinutesOutsideHours) {
+        this.businessId = businessId;
+        this.from = from;
+        this.to = to;
+        this.weeks = weeks;
+        this.cellMinutes = cellMinutes;
+        this.bookedMinutes = bookedMinutes;
+        this.openMinutes = openMinutes;
+        this.utilization = utilization;
+        this.overallUtilization = overallUtilization;
+        this.bookedMinutesOutsideHours = bookedMinutesOutsideHours;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    // Exclusive
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public int getWeeks() {
+        return weeks;
+    }
+
+    public int getCellMinutes() {
+        return cellMinutes;
+    }
+
+    // Appointment-minutes in each cell, summed over all the weeks
+    public int[][] getBookedMinutes() {
+        return bookedMinutes;
+    }
+
+    // Minutes of each cell the business is open in one week (0 = closed)
+    public int[][] getOpenMinutes() {
+        return openMinutes;
+    }
+
+    // bookedMinutes / (openMinutes * weeks); 0 for closed cells
+    public double[][] getUtilization() {
+        return utilization;
+    }
+
+    public double getOverallUtilization() {
+        return overallUtilization;
+    }
+
+    public long getBookedMinutesOutsideHours() {
+        return bookedMinutesOutsideHours;
+    }
+}
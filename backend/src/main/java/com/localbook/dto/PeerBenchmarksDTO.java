@@ -0,0 +1,41 @@
+package com.localbook.dto;
+
+import java.util.List;
+
+public class PeerBenchmarksDTO {
+    private Long businessId;
+    private String category;
+    private String county;
+    private String scope;
+    private List<BenchmarkDTO> benchmarks;
+
+    public PeerBenchmarksDTO(Long businessId, String category, String county, String scope, List<BenchmarkDTO> benchmarks) {
+        this.businessId = businessId;
+        this.category = category;
+        this.county = county;
+        this.scope = scope;
+        this.benchmarks = benchmarks;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    // null when the comparison covers the whole category
+    public String getCounty() {
+        return county;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public List<BenchmarkDTO> getBenchmarks() {
+        return benchmarks;
+    }
+}
@@ -0,0 +1,100 @@
+package com.localbook.dto;
+
+import java.util.List;
+
+public class PlatformOverviewDTO {
+    private String timeframe;
+    private long totalBookings;
+    private double bookingGrowth;
+    private long newBusinesses;
+    private double businessGrowth;
+    private long newClients;
+    private double clientGrowth;
+    private long totalBusinesses;
+    private long activeBusinesses;
+    private long pendingBusinesses;
+    private long carlowBusinesses;
+    private long nonCarlowBusinesses;
+    private List<NamedCountDTO> popularCategories;
+    private List<NamedCountDTO> carlowTowns;
+
+    public PlatformOverviewDTO(String timeframe,
+                               long totalBookings, double bookingGrowth,
+                               long newBusinesses, double businessGrowth,
+                               long newClients, double clientGrowth,
+                               long totalBusinesses, long activeBusinesses, long pendingBusinesses,
+                               long carlowBusinesses, long nonCarlowBusinesses,
+                               List<NamedCountDTO> popularCategories, List<NamedCountDTO> carlowTowns) {
+        this.timeframe = timeframe;
+        this.totalBookings = totalBookings;
+        this.bookingGrowth = bookingGrowth;
+        this.newBusinesses = newBusinesses;
+        this.businessGrowth = businessGrowth;
+        this.newClients = newClients;
+        this.clientGrowth = clientGrowth;
+        this.totalBusinesses = totalBusinesses;
+        this.activeBusinesses = activeBusinesses;
+        this.pendingBusinesses = pendingBusinesses;
+        this.carlowBusinesses = carlowBusinesses;
+        this.nonCarlowBusinesses = nonCarlowBusinesses;
+        this.popularCategories = popularCategories;
+        this.carlowTowns = carlowTowns;
+    }
+
+    // Getters
+    public String getTimeframe() {
+        return timeframe;
+    }
+
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+
+    public double getBookingGrowth() {
+        return bookingGrowth;
+    }
+
+    public long getNewBusinesses() {
+        return newBusinesses;
+    }
+
+    public double getBusinessGrowth() {
+        return businessGrowth;
+    }
+
+    public long getNewClients() {
+        return newClients;
+    }
+
+    public double getClientGrowth() {
+        return clientGrowth;
+    }
+
+    public long getTotalBusinesses() {
+        return totalBusinesses;
+    }
+
+    public long getActiveBusinesses() {
+        return activeBusinesses;
+    }
+
+    public long getPendingBusinesses() {
+        return pendingBusinesses;
+    }
+
+    public long getCarlowBusinesses() {
+        return carlowBusinesses;
+    }
+
+    public long getNonCarlowBusinesses() {
+        return nonCarlowBusinesses;
+    }
+
+    public List<NamedCountDTO> getPopularCategories() {
+        return popularCategories;
+    }
+
+    public List<NamedCountDTO> getCarlowTowns() {
+        return carlowTowns;
+    }
+}
@@ -0,0 +1,37 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+public class RetentionCohortDTO {
+    private LocalDate cohortMonth;  // month of the customers' first visit
+    private long customers;
+    private long[] returning;
+    private double[] retention;
+
+    public RetentionCohortDTO(LocalDate cohortMonth, long customers, long[] returning, double[] retention) {
+        this.cohortMonth = cohortMonth;
+        this.customers = customers;
+        this.returning = returning;
+        this.retention = retention;
+    }
+
+    // Getters
+    public LocalDate getCohortMonth() {
+        return cohortMonth;
+    }
+
+    // First-time customers that month
+    public long getCustomers() {
+        return customers;
+    }
+
+    // returning[k - 1]: how many of them visited again k months later, up to the current month
+    public long[] getReturning() {
+        return returning;
+    }
+
+    // retention[k - 1] = returning[k - 1] / customers
+    public double[] getRetention() {
+        return retention;
+    }
+}
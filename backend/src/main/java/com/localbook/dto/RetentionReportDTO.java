@@ -0,0 +1,45 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class RetentionReportDTO {
+    private Long businessId;
+    private LocalDate fromMonth;
+    private LocalDate toMonth;
+    private List<RetentionCohortDTO> cohorts;
+    private double[] averageRetention;
+
+    public RetentionReportDTO(Long businessId, LocalDate fromMonth, LocalDate toMonth,
+                              List<RetentionCohortDTO> cohorts, double[] averageRetention) {
+        this.businessId = businessId;
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+        this.cohorts = cohorts;
+        this.averageRetention = averageRetention;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public LocalDate getFromMonth() {
+        return fromMonth;
+    }
+
+    // The current month (inclusive)
+    public LocalDate getToMonth() {
+        return toMonth;
+    }
+
+    // One per month, oldest first
+    public List<RetentionCohortDTO> getCohorts() {
+        return cohorts;
+    }
+
+    // averageRetention[k - 1]: share of all customers in cohorts at least k months old that returned k months later
+    public double[] getAverageRetention() {
+        return averageRetention;
+    }
+}
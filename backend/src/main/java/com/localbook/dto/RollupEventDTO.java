@@ -0,0 +1,50 @@
+package com.localbook.dto;
+
+import com.localbook.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// One appointment as the rollup backfill sees it: when it was booked and when it last changed status
+public class RollupEventDTO {
+    private String category;
+    private AppointmentStatus status;
+    private LocalDateTime appointmentDateTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Double price;
+
+    public RollupEventDTO(String category, AppointmentStatus status, LocalDateTime appointmentDateTime,
+                          LocalDateTime createdAt, LocalDateTime updatedAt, Double price) {
+        this.category = category;
+        this.status = status;
+        this.appointmentDateTime = appointmentDateTime;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.price = price;
+    }
+
+    // Getters
+    public String getCategory() {
+        return category;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,52 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class RollupPointDTO {
+    private LocalDateTime bucketStart;
+    private long bookings;
+    private long cancellations;
+    private long completions;
+    private double revenue;
+
+    // Hourly buckets
+    public RollupPointDTO(LocalDateTime bucketStart, Long bookings, Long cancellations, Long completions, Double revenue) {
+        this.bucketStart = bucketStart;
+        this.bookings = bookings == null ? 0L : bookings;
+        this.cancellations = cancellations == null ? 0L : cancellations;
+        this.completions = completions == null ? 0L : completions;
+        this.revenue = revenue == null ? 0.0 : revenue;
+    }
+
+    // Daily buckets
+    public RollupPointDTO(LocalDate day, Long bookings, Long cancellations, Long completions, Double revenue) {
+        this(day.atStartOfDay(), bookings, cancellations, completions, revenue);
+    }
+
+    // Monthly buckets
+    public RollupPointDTO(Integer year, Integer month, Long bookings, Long cancellations, Long completions, Double revenue) {
+        this(LocalDate.of(year, month, 1).atStartOfDay(), bookings, cancellations, completions, revenue);
+    }
+
+    // Getters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getCancellations() {
+        return cancellations;
+    }
+
+    public long getCompletions() {
+        return completions;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,69 @@
+package com.localbook.dto;
+
+import com.localbook.model.AppointmentSeries;
+import java.time.LocalDateTime;
+
+/**
+ * One expanded occurrence of an AppointmentSeries. Not stored anywhere:
+ * built on demand for the window a screen asks for.
+ */
+public class SeriesOccurrenceDTO {
+    private Long seriesId;
+    private LocalDateTime appointmentDateTime;
+    private Integer durationMinutes;
+    private Long userId;
+    private String userName;
+    private Long businessId;
+    private Long serviceId;
+    private String serviceName;
+    private String notes;
+
+    public SeriesOccurrenceDTO(AppointmentSeries series, LocalDateTime appointmentDateTime) {
+        this.seriesId = series.getId();
+        this.appointmentDateTime = appointmentDateTime;
+        this.durationMinutes = series.getService().getDurationMinutes();
+        this.userId = series.getUser().getId();
+        this.userName = series.getUser().getName();
+        this.businessId = series.getBusiness().getId();
+        this.serviceId = series.getService().getId();
+        this.serviceName = series.getService().getServiceName();
+        this.notes = series.getNotes();
+    }
+
+    // Getters
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+}
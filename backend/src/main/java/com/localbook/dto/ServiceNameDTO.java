@@ -0,0 +1,26 @@
+package com.localbook.dto;
+
+public class ServiceNameDTO {
+    private Long serviceId;
+    private Long businessId;
+    private String serviceName;
+
+    public ServiceNameDTO(Long serviceId, Long businessId, String serviceName) {
+        this.serviceId = serviceId;
+        this.businessId = businessId;
+        this.serviceName = serviceName;
+    }
+
+    // Getters
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+}
@@ -0,0 +1,36 @@
+package com.localbook.dto;
+
+public class SketchRegisterDTO {
+    private String group;
+    private int precision;
+    private int index;
+    private int value;
+
+    public SketchRegisterDTO(int precision, int index, int value) {
+        this(null, precision, index, value);
+    }
+
+    public SketchRegisterDTO(String group, int precision, int index, int value) {
+        this.group = group;
+        this.precision = precision;
+        this.index = index;
+        this.value = value;
+    }
+
+    // Getters
+    public String getGroup() {
+        return group;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
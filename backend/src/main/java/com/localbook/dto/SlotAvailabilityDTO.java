@@ -0,0 +1,42 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class SlotAvailabilityDTO {
+    private Long businessId;
+    private LocalDate date;
+    private int slotMinutes;
+    private List<String> freeSlots;
+    private List<String> bookedSlots;
+
+    public SlotAvailabilityDTO(Long businessId, LocalDate date, int slotMinutes,
+                               List<String> freeSlots, List<String> bookedSlots) {
+        this.businessId = businessId;
+        this.date = date;
+        this.slotMinutes = slotMinutes;
+        this.freeSlots = freeSlots;
+        this.bookedSlots = bookedSlots;
+    }
+
+    // Getters
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public List<String> getFreeSlots() {
+        return freeSlots;
+    }
+
+    public List<String> getBookedSlots() {
+        return bookedSlots;
+    }
+}
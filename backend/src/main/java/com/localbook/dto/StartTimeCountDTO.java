@@ -0,0 +1,39 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+/**
+ * How many appointments of one length started at one time on one day.
+ */
+public class StartTimeCountDTO {
+    private LocalDate date;
+    private int startMinute;
+    private Integer durationMinutes;
+    private long count;
+
+    public StartTimeCountDTO(LocalDate date, Integer startMinute, Integer durationMinutes, Long count) {
+        this.date = date;
+        this.startMinute = startMinute == null ? 0 : startMinute;
+        this.durationMinutes = durationMinutes;
+        this.count = count == null ? 0L : count;
+    }
+
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // Minutes after midnight
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    // Null when the appointment has no service
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
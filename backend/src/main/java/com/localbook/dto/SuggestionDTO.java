@@ -0,0 +1,32 @@
+package com.localbook.dto;
+
+public class SuggestionDTO {
+    private String type;        // BUSINESS, SERVICE or TOWN
+    private String text;
+    private Long businessId;    // set for BUSINESS only
+    private long popularity;    // bookings behind it, the rank order
+
+    public SuggestionDTO(String type, String text, Long businessId, long popularity) {
+        this.type = type;
+        this.text = text;
+        this.businessId = businessId;
+        this.popularity = popularity;
+    }
+
+    // Getters
+    public String getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public long getPopularity() {
+        return popularity;
+    }
+}
@@ -0,0 +1,34 @@
+package com.localbook.dto;
+
+import java.time.LocalDate;
+
+public class WeeklySignupsDTO {
+    private LocalDate weekStart;  // Monday
+    private long newClients;
+    private long newBusinessOwners;
+    private long newBusinesses;
+
+    public WeeklySignupsDTO(LocalDate weekStart, long newClients, long newBusinessOwners, long newBusinesses) {
+        this.weekStart = weekStart;
+        this.newClients = newClients;
+        this.newBusinessOwners = newBusinessOwners;
+        this.newBusinesses = newBusinesses;
+    }
+
+    // Getters
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public long getNewClients() {
+        return newClients;
+    }
+
+    public long getNewBusinessOwners() {
+        return newBusinessOwners;
+    }
+
+    public long getNewBusinesses() {
+        return newBusinesses;
+    }
+}
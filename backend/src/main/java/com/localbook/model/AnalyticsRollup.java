@@ -0,0 +1,135 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Booking activity of one business (and its category) in one time bucket.
+ *
+ * Events are recorded into HOUR buckets at the time they happen; the compaction
+ * job later folds closed hours into DAY buckets and old days into MONTH buckets,
+ * so the table stays small while recent activity keeps its fine resolution.
+ */
+@Entity
+@Table(
+    name = "analytics_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_analytics_rollups_bucket",
+                          columnNames = {"business_id", "granularity", "bucket_start", "category"})
+    },
+    indexes = {
+        // Series reads: a bucket range across businesses, optionally one category
+        @Index(name = "idx_analytics_rollups_bucket_category", columnList = "bucket_start, category"),
+        // Compaction: which businesses still have buckets older than the cutoff
+        @Index(name = "idx_analytics_rollups_granularity_bucket", columnList = "granularity, bucket_start, business_id")
+    }
+)
+public class AnalyticsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    // The business's category when the events happened ("Other" when it had none)
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long bookings;
+
+    @Column(nullable = false)
+    private long cancellations;
+
+    @Column(nullable = false)
+    private long completions;
+
+    // Price of the completed bookings
+    @Column(nullable = false)
+    private double revenue;
+
+    public AnalyticsRollup() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+
+    public long getCancellations() {
+        return cancellations;
+    }
+
+    public void setCancellations(long cancellations) {
+        this.cancellations = cancellations;
+    }
+
+    public long getCompletions() {
+        return completions;
+    }
+
+    public void setCompletions(long completions) {
+        this.completions = completions;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -5,26 +5,37 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(
+    name = "appointments",
+    indexes = {
+        // Also serves the business's keyset pages: same leading columns, so only ties on a start time need sorting by id
+        @Index(name = "idx_appointments_business_time_status", columnList = "business_id, appointment_date_time, status"),
+        // Keyset pagination: each scope is an index range ordered exactly like the page
+        @Index(name = "idx_appointments_time_id", columnList = "appointment_date_time, id"),
+        @Index(name = "idx_appointments_user_time_id", columnList = "user_id, appointment_date_time, id"),
+        // Incremental calendar feed: changes since a sync token's high-water mark
+        @Index(name = "idx_appointments_business_updated_id", columnList = "business_id, updated_at, id")
+    }
+)
 public class Appointment {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
-    @JsonIgnoreProperties({"appointments", "reviews", "favorites", "password"})
+    @JsonIgnoreProperties({"appointments", "reviews", "favorites", "password", "hibernateLazyInitializer", "handler"})
     private User user;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "business_id", nullable = false)
-    @JsonIgnoreProperties({"appointments", "services", "reviews", "favorites", "businessHours", "password"})
+    @JsonIgnoreProperties({"appointments", "services", "reviews", "favorites", "businessHours", "password", "hibernateLazyInitializer", "handler"})
     private Business business;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
-    @JsonIgnoreProperties({"appointments", "business"})
+    @JsonIgnoreProperties({"appointments", "business", "hibernateLazyInitializer", "handler"})
     private Service service;
     
     @Column(name = "appointment_date_time", nullable = false)
@@ -0,0 +1,231 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A repeating booking (weekly haircut, fortnightly physio). Only the rule is
+ * stored; individual occurrences are expanded on demand for whatever window
+ * is being looked at, so a long-running series is a single row.
+ */
+@Entity
+@Table(
+    name = "appointment_series",
+    indexes = {
+        @Index(name = "idx_appointment_series_business_active", columnList = "business_id, active"),
+        @Index(name = "idx_appointment_series_user", columnList = "user_id")
+    }
+)
+public class AppointmentSeries {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"appointments", "reviews", "favorites", "password", "hibernateLazyInitializer", "handler"})
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_id", nullable = false)
+    @JsonIgnoreProperties({"appointments", "services", "reviews", "favorites", "businessHours", "password", "hibernateLazyInitializer", "handler"})
+    private Business business;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_id", nullable = false)
+    @JsonIgnoreProperties({"appointments", "business", "hibernateLazyInitializer", "handler"})
+    private Service service;
+    
+    // Date and time of the first occurrence; later ones keep the same time of day
+    @Column(name = "first_occurrence", nullable = false)
+    private LocalDateTime firstOccurrence;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceFrequency frequency;
+    
+    // Every N days/weeks/months (2 + WEEKLY = fortnightly)
+    @Column(name = "interval_count", nullable = false)
+    private Integer intervalCount = 1;
+    
+    // Optional end of the series: last date and/or number of occurrences
+    @Column(name = "until_date")
+    private LocalDate untilDate;
+    
+    @Column(name = "max_occurrences")
+    private Integer maxOccurrences;
+    
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+    
+    @Column(nullable = false)
+    private Boolean active = true;
+    
+    // Exceptions: dates on which the occurrence is skipped
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "appointment_series_exceptions", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "occurrence_date", nullable = false)
+    private Set<LocalDate> skippedDates = new HashSet<>();
+    
+    // Latest occurrence each reminder was sent for (series have no per-occurrence rows to flag)
+    @Column(name = "last_reminder_24hr")
+    private LocalDateTime lastReminder24hr;
+    
+    @Column(name = "last_reminder_30min")
+    private LocalDateTime lastReminder30min;
+    
+    @Column(name = "last_reminder_start")
+    private LocalDateTime lastReminderStart;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public AppointmentSeries() {
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public Business getBusiness() {
+        return business;
+    }
+    
+    public void setBusiness(Business business) {
+        this.business = business;
+    }
+    
+    public Service getService() {
+        return service;
+    }
+    
+    public void setService(Service service) {
+        this.service = service;
+    }
+    
+    public LocalDateTime getFirstOccurrence() {
+        return firstOccurrence;
+    }
+    
+    public void setFirstOccurrence(LocalDateTime firstOccurrence) {
+        this.firstOccurrence = firstOccurrence;
+    }
+    
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+    
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+    
+    public Integer getIntervalCount() {
+        return intervalCount;
+    }
+    
+    public void setIntervalCount(Integer intervalCount) {
+        this.intervalCount = intervalCount;
+    }
+    
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+    
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+    
+    public Integer getMaxOccurrences() {
+        return maxOccurrences;
+    }
+    
+    public void setMaxOccurrences(Integer maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+    
+    public Set<LocalDate> getSkippedDates() {
+        return skippedDates;
+    }
+    
+    public void setSkippedDates(Set<LocalDate> skippedDates) {
+        this.skippedDates = skippedDates;
+    }
+    
+    public LocalDateTime getLastReminder24hr() {
+        return lastReminder24hr;
+    }
+    
+    public void setLastReminder24hr(LocalDateTime lastReminder24hr) {
+        this.lastReminder24hr = lastReminder24hr;
+    }
+    
+    public LocalDateTime getLastReminder30min() {
+        return lastReminder30min;
+    }
+    
+    public void setLastReminder30min(LocalDateTime lastReminder30min) {
+        this.lastReminder30min = lastReminder30min;
+    }
+    
+    public LocalDateTime getLastReminderStart() {
+        return lastReminderStart;
+    }
+    
+    public void setLastReminderStart(LocalDateTime lastReminderStart) {
+        this.lastReminderStart = lastReminderStart;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -5,12 +5,19 @@ import java.time.LocalDateTime;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "businesses")
+@Table(
+    name = "businesses",
+    indexes = {
+        // Admin analytics: registrations over a date range
+        @Index(name = "idx_businesses_created", columnList = "created_at")
+    }
+)
 public class Business {
     
     @Id
@@ -214,7 +221,13 @@ public class Business {
     public void setIsApproved(boolean isApproved) {
         this.isApproved = isApproved;
     }
-    
+
+    // Approved and not suspended: customers can find and book it (BusinessRepository.LISTED in queries)
+    @JsonIgnore
+    public boolean isListed() {
+        return isApproved && !"SUSPENDED".equals(status);
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,73 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+
+/**
+ * How many appointments a customer has with a business. One row per distinct
+ * customer, so the dashboard's customer total is a count of these rows.
+ */
+@Entity
+@Table(
+    name = "business_customers",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_business_customers_business_user", columnNames = {"business_id", "user_id"})
+    }
+)
+public class BusinessCustomer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "appointment_count", nullable = false)
+    private long appointmentCount;
+
+    // Constructors
+    public BusinessCustomer() {
+    }
+
+    public BusinessCustomer(Long businessId, Long userId, long appointmentCount) {
+        this.businessId = businessId;
+        this.userId = userId;
+        this.appointmentCount = appointmentCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public void setAppointmentCount(long appointmentCount) {
+        this.appointmentCount = appointmentCount;
+    }
+}
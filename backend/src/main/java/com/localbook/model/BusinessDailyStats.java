@@ -0,0 +1,118 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated appointment counters for one business on one day. Kept up to
+ * date by BusinessStatsService in the same transaction as every appointment
+ * change, so the dashboard reads a few of these rows instead of every booking.
+ */
+@Entity
+@Table(
+    name = "business_daily_stats",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_business_daily_stats_business_date", columnNames = {"business_id", "stat_date"})
+    },
+    indexes = {
+        // Platform-wide series (admin analytics) read a date range across all businesses
+        @Index(name = "idx_business_daily_stats_date", columnList = "stat_date, business_id")
+    }
+)
+public class BusinessDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    // Every appointment dated that day, whatever its status (as the dashboard has always counted)
+    @Column(name = "appointment_count", nullable = false)
+    private long appointmentCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    @Column(name = "canceled_count", nullable = false)
+    private long canceledCount;
+
+    // Service price of each COMPLETED appointment, taken when it was completed
+    @Column(name = "completed_revenue", nullable = false)
+    private double completedRevenue;
+
+    // Constructors
+    public BusinessDailyStats() {
+    }
+
+    public BusinessDailyStats(Long businessId, LocalDate statDate, long appointmentCount,
+                              long completedCount, long canceledCount, double completedRevenue) {
+        this.businessId = businessId;
+        this.statDate = statDate;
+        this.appointmentCount = appointmentCount;
+        this.completedCount = completedCount;
+        this.canceledCount = canceledCount;
+        this.completedRevenue = completedRevenue;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public long getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public void setAppointmentCount(long appointmentCount) {
+        this.appointmentCount = appointmentCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getCanceledCount() {
+        return canceledCount;
+    }
+
+    public void setCanceledCount(long canceledCount) {
+        this.canceledCount = canceledCount;
+    }
+
+    public double getCompletedRevenue() {
+        return completedRevenue;
+    }
+
+    public void setCompletedRevenue(double completedRevenue) {
+        this.completedRevenue = completedRevenue;
+    }
+}
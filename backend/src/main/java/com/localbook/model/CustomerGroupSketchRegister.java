@@ -0,0 +1,106 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One register of the day's sketch for the whole platform, a category or a
+ * county: the register-wise maximum of the business sketches in it, kept up to
+ * date booking by booking like CustomerSketchRegister. Platform and grouped
+ * counts read these rather than every business's sketch.
+ */
+@Entity
+@Table(
+    name = "customer_group_sketch_registers",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customer_group_sketch_registers",
+            columnNames = {"group_type", "sketch_date", "group_name", "sketch_precision", "register_index"})
+    }
+)
+public class CustomerGroupSketchRegister {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "PLATFORM", "CATEGORY" or "COUNTY"
+    @Column(name = "group_type", nullable = false, length = 16)
+    private String groupType;
+
+    // Category or county name as the business had it when the customer booked
+    @Column(name = "group_name", nullable = false)
+    private String groupName;
+
+    @Column(name = "sketch_date", nullable = false)
+    private LocalDate sketchDate;
+
+    @Column(name = "sketch_precision", nullable = false)
+    private int sketchPrecision;
+
+    @Column(name = "register_index", nullable = false)
+    private int registerIndex;
+
+    @Column(name = "register_value", nullable = false)
+    private int registerValue;
+
+    // Constructors
+    public CustomerGroupSketchRegister() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getGroupType() {
+        return groupType;
+    }
+
+    public void setGroupType(String groupType) {
+        this.groupType = groupType;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    public LocalDate getSketchDate() {
+        return sketchDate;
+    }
+
+    public void setSketchDate(LocalDate sketchDate) {
+        this.sketchDate = sketchDate;
+    }
+
+    public int getSketchPrecision() {
+        return sketchPrecision;
+    }
+
+    public void setSketchPrecision(int sketchPrecision) {
+        this.sketchPrecision = sketchPrecision;
+    }
+
+    public int getRegisterIndex() {
+        return registerIndex;
+    }
+
+    public void setRegisterIndex(int registerIndex) {
+        this.registerIndex = registerIndex;
+    }
+
+    public int getRegisterValue() {
+        return registerValue;
+    }
+
+    public void setRegisterValue(int registerValue) {
+        this.registerValue = registerValue;
+    }
+}
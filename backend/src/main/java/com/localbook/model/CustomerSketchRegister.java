@@ -0,0 +1,94 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One register of the HyperLogLog sketch (see util.HyperLogLog) of the customers
+ * who booked with a business on one day. A sketch is stored register by register
+ * so a booking raises its register with a single upsert, without reading or
+ * locking the rest of the sketch. Registers never seen are not stored.
+ */
+@Entity
+@Table(
+    name = "customer_sketch_registers",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customer_sketch_registers",
+            columnNames = {"business_id", "sketch_date", "sketch_precision", "register_index"})
+    }
+)
+public class CustomerSketchRegister {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "sketch_date", nullable = false)
+    private LocalDate sketchDate;
+
+    // Registers written at different precisions are kept apart and folded when read
+    @Column(name = "sketch_precision", nullable = false)
+    private int sketchPrecision;
+
+    @Column(name = "register_index", nullable = false)
+    private int registerIndex;
+
+    @Column(name = "register_value", nullable = false)
+    private int registerValue;
+
+    // Constructors
+    public CustomerSketchRegister() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public LocalDate getSketchDate() {
+        return sketchDate;
+    }
+
+    public void setSketchDate(LocalDate sketchDate) {
+        this.sketchDate = sketchDate;
+    }
+
+    public int getSketchPrecision() {
+        return sketchPrecision;
+    }
+
+    public void setSketchPrecision(int sketchPrecision) {
+        this.sketchPrecision = sketchPrecision;
+    }
+
+    public int getRegisterIndex() {
+        return registerIndex;
+    }
+
+    public void setRegisterIndex(int registerIndex) {
+        this.registerIndex = registerIndex;
+    }
+
+    public int getRegisterValue() {
+        return registerValue;
+    }
+
+    public void setRegisterValue(int registerValue) {
+        this.registerValue = registerValue;
+    }
+}
@@ -0,0 +1,89 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * How many completed appointments a customer had with a business in one calendar
+ * month. A row exists only while that number is above zero, so a customer's first
+ * row is their retention cohort and every other row a month they came back.
+ */
+@Entity
+@Table(
+    name = "customer_visit_months",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customer_visit_months_business_user_month",
+            columnNames = {"business_id", "user_id", "visit_month"})
+    }
+)
+public class CustomerVisitMonth {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // First day of the month
+    @Column(name = "visit_month", nullable = false)
+    private LocalDate visitMonth;
+
+    @Column(name = "visits", nullable = false)
+    private int visits;
+
+    // Constructors
+    public CustomerVisitMonth() {
+    }
+
+    public CustomerVisitMonth(Long businessId, Long userId, LocalDate visitMonth, int visits) {
+        this.businessId = businessId;
+        this.userId = userId;
+        this.visitMonth = visitMonth;
+        this.visits = visits;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getVisitMonth() {
+        return visitMonth;
+    }
+
+    public void setVisitMonth(LocalDate visitMonth) {
+        this.visitMonth = visitMonth;
+    }
+
+    public int getVisits() {
+        return visits;
+    }
+
+    public void setVisits(int visits) {
+        this.visits = visits;
+    }
+}
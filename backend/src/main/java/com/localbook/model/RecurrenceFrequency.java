@@ -0,0 +1,8 @@
+package com.localbook.model;
+
+public enum RecurrenceFrequency {
+    
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
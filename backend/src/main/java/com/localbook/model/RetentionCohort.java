@@ -0,0 +1,89 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One cell of a business's retention matrix: of the customers whose first completed
+ * visit was in cohortMonth, how many also had one monthsAfter months later
+ * (monthsAfter = 0 is the cohort's size). Kept up to date by RetentionService.
+ */
+@Entity
+@Table(
+    name = "retention_cohorts",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_retention_cohorts_business_month_offset",
+            columnNames = {"business_id", "cohort_month", "months_after"})
+    }
+)
+public class RetentionCohort {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    // First day of the month
+    @Column(name = "cohort_month", nullable = false)
+    private LocalDate cohortMonth;
+
+    @Column(name = "months_after", nullable = false)
+    private int monthsAfter;
+
+    @Column(name = "customers", nullable = false)
+    private long customers;
+
+    // Constructors
+    public RetentionCohort() {
+    }
+
+    public RetentionCohort(Long businessId, LocalDate cohortMonth, int monthsAfter, long customers) {
+        this.businessId = businessId;
+        this.cohortMonth = cohortMonth;
+        this.monthsAfter = monthsAfter;
+        this.customers = customers;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public LocalDate getCohortMonth() {
+        return cohortMonth;
+    }
+
+    public void setCohortMonth(LocalDate cohortMonth) {
+        this.cohortMonth = cohortMonth;
+    }
+
+    public int getMonthsAfter() {
+        return monthsAfter;
+    }
+
+    public void setMonthsAfter(int monthsAfter) {
+        this.monthsAfter = monthsAfter;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(long customers) {
+        this.customers = customers;
+    }
+}
@@ -0,0 +1,7 @@
+package com.localbook.model;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    MONTH
+}
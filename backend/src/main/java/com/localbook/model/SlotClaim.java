@@ -0,0 +1,74 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row per booked slot of a CONFIRMED appointment. The unique key on
+ * (business_id, slot_start) is what makes double-booking impossible, even
+ * across application instances.
+ */
+@Entity
+@Table(
+    name = "slot_claims",
+    uniqueConstraints = @UniqueConstraint(name = "uk_slot_claims_business_slot", columnNames = {"business_id", "slot_start"}),
+    indexes = @Index(name = "idx_slot_claims_appointment", columnList = "appointment_id")
+)
+public class SlotClaim {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "slot_start", nullable = false)
+    private LocalDateTime slotStart;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    // Constructors
+    public SlotClaim() {
+    }
+
+    public SlotClaim(Long businessId, LocalDateTime slotStart, Long appointmentId) {
+        this.businessId = businessId;
+        this.slotStart = slotStart;
+        this.appointmentId = appointmentId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+
+    public void setSlotStart(LocalDateTime slotStart) {
+        this.slotStart = slotStart;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+}
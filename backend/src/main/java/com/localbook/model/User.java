@@ -8,7 +8,13 @@ import jakarta.persistence.*;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "users")
+@Table(
+    name = "users",
+    indexes = {
+        // Admin analytics: sign-ups per role over a date range
+        @Index(name = "idx_users_role_created", columnList = "role, created_at")
+    }
+)
 public class User {
     
     @Id
@@ -0,0 +1,159 @@
+package com.localbook.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A customer waiting for any slot at a business on a given day. The live queue
+ * is kept in memory by WaitlistService; these rows are what it is rebuilt from.
+ */
+@Entity
+@Table(
+    name = "waitlist_entries",
+    indexes = {
+        @Index(name = "idx_waitlist_business_date_status", columnList = "business_id, wait_date, status"),
+        @Index(name = "idx_waitlist_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_waitlist_status_offered_at", columnList = "status, offered_at")
+    }
+)
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+
+    @Column(name = "wait_date", nullable = false)
+    private LocalDate waitDate;
+
+    // Snapshot of the service length when the customer joined
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // Start time of the slot offered to this customer, if any
+    @Column(name = "offered_start")
+    private LocalDateTime offeredStart;
+
+    @Column(name = "offered_at")
+    private LocalDateTime offeredAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(Long userId, Long businessId, Long serviceId, LocalDate waitDate, Integer durationMinutes) {
+        this.userId = userId;
+        this.businessId = businessId;
+        this.serviceId = serviceId;
+        this.waitDate = waitDate;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getBusinessId() {
+        return businessId;
+    }
+
+    public void setBusinessId(Long businessId) {
+        this.businessId = businessId;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(Long serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public LocalDate getWaitDate() {
+        return waitDate;
+    }
+
+    public void setWaitDate(LocalDate waitDate) {
+        this.waitDate = waitDate;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getOfferedStart() {
+        return offeredStart;
+    }
+
+    public void setOfferedStart(LocalDateTime offeredStart) {
+        this.offeredStart = offeredStart;
+    }
+
+    public LocalDateTime getOfferedAt() {
+        return offeredAt;
+    }
+
+    public void setOfferedAt(LocalDateTime offeredAt) {
+        this.offeredAt = offeredAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.localbook.model;
+
+public enum WaitlistStatus {
+    
+    WAITING,
+    OFFERED,
+    FULFILLED,
+    EXPIRED,
+    CANCELED
+}
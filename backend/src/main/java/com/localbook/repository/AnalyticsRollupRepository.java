@@ -0,0 +1,111 @@
+package com.localbook.repository;
+
+import com.localbook.dto.RollupEventDTO;
+import com.localbook.dto.RollupPointDTO;
+import com.localbook.model.AnalyticsRollup;
+import com.localbook.model.RollupGranularity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+    
+    // Atomic add into a bucket, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups " +
+                   "(business_id, granularity, bucket_start, category, bookings, cancellations, completions, revenue) " +
+                   "VALUES (:businessId, :granularity, :bucketStart, :category, :bookings, :cancellations, :completions, :revenue) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "bookings = bookings + VALUES(bookings), " +
+                   "cancellations = cancellations + VALUES(cancellations), " +
+                   "completions = completions + VALUES(completions), " +
+                   "revenue = revenue + VALUES(revenue)",
+           nativeQuery = true)
+    int addToBucket(
+        @Param("businessId") Long businessId,
+        @Param("granularity") String granularity,
+        @Param("bucketStart") LocalDateTime bucketStart,
+        @Param("category") String category,
+        @Param("bookings") long bookings,
+        @Param("cancellations") long cancellations,
+        @Param("completions") long completions,
+        @Param("revenue") double revenue
+    );
+    
+    @Modifying
+    @Query(value = "DELETE FROM analytics_rollups", nativeQuery = true)
+    int deleteAllRows();
+    
+    // ========== BACKFILL ==========
+    
+    @Query("SELECT DISTINCT a.business.id FROM Appointment a ORDER BY a.business.id")
+    List<Long> findBusinessIdsWithAppointments();
+    
+    @Query("SELECT new com.localbook.dto.RollupEventDTO(b.category, a.status, a.appointmentDateTime, " +
+           "a.createdAt, a.updatedAt, s.price) " +
+           "FROM Appointment a JOIN a.business b LEFT JOIN a.service s WHERE b.id = :businessId")
+    List<RollupEventDTO> findRollupEvents(@Param("businessId") Long businessId);
+    
+    // ========== COMPACTION ==========
+    
+    @Query("SELECT DISTINCT r.businessId FROM AnalyticsRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    List<Long> findBusinessIdsWithBucketsBefore(@Param("granularity") RollupGranularity granularity,
+                                                @Param("before") LocalDateTime before);
+    
+    // Locked, so two compactions of the same business cannot both fold the same buckets
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.businessId = :businessId " +
+           "AND r.granularity = :granularity AND r.bucketStart < :before")
+    List<AnalyticsRollup> findBucketsForCompaction(@Param("businessId") Long businessId,
+                                                   @Param("granularity") RollupGranularity granularity,
+                                                   @Param("before") LocalDateTime before);
+    
+    @Modifying
+    @Query("DELETE FROM AnalyticsRollup r WHERE r.businessId = :businessId " +
+           "AND r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteBuckets(@Param("businessId") Long businessId,
+                      @Param("granularity") RollupGranularity granularity,
+                      @Param("before") LocalDateTime before);
+    
+    // ========== SERIES (businessId / category null = all) ==========
+    
+    @Query("SELECT new com.localbook.dto.RollupPointDTO(r.bucketStart, SUM(r.bookings), SUM(r.cancellations), " +
+           "SUM(r.completions), SUM(r.revenue)) " +
+           "FROM AnalyticsRollup r WHERE r.granularity = com.localbook.model.RollupGranularity.HOUR " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:businessId IS NULL OR r.businessId = :businessId) " +
+           "AND (:category IS NULL OR r.category = :category) " +
+           "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<RollupPointDTO> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("businessId") Long businessId, @Param("category") String category);
+    
+    // Days not compacted yet are still in HOUR buckets
+    @Query("SELECT new com.localbook.dto.RollupPointDTO(CAST(r.bucketStart AS LocalDate), SUM(r.bookings), " +
+           "SUM(r.cancellations), SUM(r.completions), SUM(r.revenue)) " +
+           "FROM AnalyticsRollup r WHERE r.granularity <> com.localbook.model.RollupGranularity.MONTH " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:businessId IS NULL OR r.businessId = :businessId) " +
+           "AND (:category IS NULL OR r.category = :category) " +
+           "GROUP BY CAST(r.bucketStart AS LocalDate) ORDER BY CAST(r.bucketStart AS LocalDate)")
+    List<RollupPointDTO> sumByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                  @Param("businessId") Long businessId, @Param("category") String category);
+    
+    @Query("SELECT new com.localbook.dto.RollupPointDTO(YEAR(r.bucketStart), MONTH(r.bucketStart), SUM(r.bookings), " +
+           "SUM(r.cancellations), SUM(r.completions), SUM(r.revenue)) " +
+           "FROM AnalyticsRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:businessId IS NULL OR r.businessId = :businessId) " +
+           "AND (:category IS NULL OR r.category = :category) " +
+           "GROUP BY YEAR(r.bucketStart), MONTH(r.bucketStart) " +
+           "ORDER BY YEAR(r.bucketStart), MONTH(r.bucketStart)")
+    List<RollupPointDTO> sumByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                    @Param("businessId") Long businessId, @Param("category") String category);
+}
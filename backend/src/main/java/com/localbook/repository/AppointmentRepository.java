@@ -1,13 +1,22 @@
 package com.localbook.repository;
 
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.BusinessCustomerDTO;
+import com.localbook.dto.BusinessTotalDTO;
+import com.localbook.dto.CalendarSyncStateDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.dto.StartTimeCountDTO;
 import com.localbook.model.Appointment;
 import com.localbook.model.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,8 +46,162 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     
     List<Appointment> findByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
     
+    List<Appointment> findByStatusAndAppointmentDateTimeAfter(AppointmentStatus status, LocalDateTime dateTime);
+    
     List<Appointment> findByBusinessIdAndAppointmentDateTimeBetween(
         Long businessId, LocalDateTime start, LocalDateTime end);
+    
+    List<Appointment> findByBusinessIdAndStatusAndAppointmentDateTimeBetween(
+        Long businessId, AppointmentStatus status, LocalDateTime start, LocalDateTime end);
+    
+    // ========================================
+    // Bulk state transitions
+    // ========================================
+    
+    // Everything a bulk transition needs (owner for the ownership check, customer and service for pushes) in one query
+    @Query("SELECT a FROM Appointment a " +
+           "JOIN FETCH a.business b JOIN FETCH b.owner " +
+           "JOIN FETCH a.user JOIN FETCH a.service " +
+           "WHERE a.id IN :ids")
+    List<Appointment> findWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Set-based status change; only rows still in fromStatus are touched. Clears the
+    // persistence context so later reads see the new status, not stale managed copies
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :toStatus, a.updatedAt = :updatedAt " +
+           "WHERE a.id IN :ids AND a.status = :fromStatus")
+    int updateStatusByIdIn(
+        @Param("ids") Collection<Long> ids,
+        @Param("fromStatus") AppointmentStatus fromStatus,
+        @Param("toStatus") AppointmentStatus toStatus,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+    
+    // ========================================
+    // Read projections: one statement, only the columns list screens show
+    // ========================================
+    
+    String SUMMARY_SELECT = "SELECT new com.localbook.dto.AppointmentSummaryDTO(" +
+        "a.id, a.appointmentDateTime, a.status, a.notes, a.createdAt, a.updatedAt, " +
+        "u.id, u.name, u.email, u.phoneNumber, " +
+        "b.id, b.businessName, b.address, b.town, " +
+        "s.id, s.serviceName, s.durationMinutes, s.price) " +
+        "FROM Appointment a JOIN a.user u JOIN a.business b JOIN a.service s ";
+    
+    @Query(SUMMARY_SELECT + "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+    
+    @Query(SUMMARY_SELECT + "WHERE b.id = :businessId ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findSummariesByBusinessId(@Param("businessId") Long businessId);
+    
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND a.appointmentDateTime > :dateTime " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findUserSummariesAfter(
+        @Param("userId") Long userId, @Param("dateTime") LocalDateTime dateTime);
+    
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND a.appointmentDateTime < :dateTime " +
+           "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentSummaryDTO> findUserSummariesBefore(
+        @Param("userId") Long userId, @Param("dateTime") LocalDateTime dateTime);
+    
+    @Query(SUMMARY_SELECT + "WHERE b.id = :businessId AND a.appointmentDateTime > :dateTime " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findBusinessSummariesAfter(
+        @Param("businessId") Long businessId, @Param("dateTime") LocalDateTime dateTime);
+    
+    // Range scan on idx_appointments_business_time_status instead of loading the whole table
+    @Query(SUMMARY_SELECT +
+           "WHERE b.id = :businessId " +
+           "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end " +
+           "AND a.status NOT IN :excludedStatuses " +
+           "ORDER BY a.appointmentDateTime ASC")
+    List<AppointmentSummaryDTO> findBusinessAppointmentsInRangeExcludingStatuses(
+        @Param("businessId") Long businessId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("excludedStatuses") Collection<AppointmentStatus> excludedStatuses
+    );
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE b.id = :businessId " +
+           "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findBusinessSummariesInRange(
+        @Param("businessId") Long businessId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    // ========================================
+    // Keyset pagination on (appointmentDateTime, id)
+    // ========================================
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE a.appointmentDateTime > :afterTime " +
+           "OR (a.appointmentDateTime = :afterTime AND a.id > :afterId) " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findPageAfter(
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE u.id = :userId " +
+           "AND (a.appointmentDateTime > :afterTime " +
+           "OR (a.appointmentDateTime = :afterTime AND a.id > :afterId)) " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findUserPageAfter(
+        @Param("userId") Long userId,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE b.id = :businessId " +
+           "AND (a.appointmentDateTime > :afterTime " +
+           "OR (a.appointmentDateTime = :afterTime AND a.id > :afterId)) " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findBusinessPageAfter(
+        @Param("businessId") Long businessId,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    // ========================================
+    // Calendar feed: full feed by id, changes by (updatedAt, id)
+    // ========================================
+    
+    @Query(SUMMARY_SELECT + "WHERE b.id = :businessId AND a.id > :afterId ORDER BY a.id ASC")
+    List<AppointmentSummaryDTO> findBusinessFeedPageAfter(
+        @Param("businessId") Long businessId,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE b.id = :businessId " +
+           "AND (a.updatedAt > :afterTime " +
+           "OR (a.updatedAt = :afterTime AND a.id > :afterId)) " +
+           "ORDER BY a.updatedAt ASC, a.id ASC")
+    List<AppointmentSummaryDTO> findBusinessChangesAfter(
+        @Param("businessId") Long businessId,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT new com.localbook.dto.CalendarSyncStateDTO(MAX(a.updatedAt), MAX(a.id), COUNT(a.id)) " +
+           "FROM Appointment a WHERE a.business.id = :businessId")
+    CalendarSyncStateDTO findCalendarSyncState(@Param("businessId") Long businessId);
+    
+    long countByBusiness_IdAndIdLessThanEqual(Long businessId, Long id);
+    
     @Query("SELECT a FROM Appointment a WHERE a.status = 'CONFIRMED' " +
            "AND a.notification24hrSent = false " +
            "AND a.appointmentDateTime BETWEEN :start AND :end")
@@ -61,9 +224,128 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findAppointmentsNeedingStartReminder(
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
-    );    
+    );
+    
+    // ========================================
+    // Customer roster: one GROUP BY over the business's appointments, keyset
+    // paginated on (sort value, user id). Visits are completed appointments only.
+    // Spend is rounded so the cursor's value compares equal to the row it came
+    // from; customers with no visit yet sort after everyone as :never. The search
+    // term arrives with its LIKE wildcards escaped by '!'.
+    // ========================================
+    
+    String VISITS = "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END)";
+    String LAST_VISIT = "MAX(CASE WHEN a.status = 'COMPLETED' THEN a.appointmentDateTime ELSE NULL END)";
+    String LAST_VISIT_KEY = "COALESCE(" + LAST_VISIT + ", :never)";
+    String SPEND = "ROUND(SUM(CASE WHEN a.status = 'COMPLETED' THEN COALESCE(s.price, 0.0) ELSE 0.0 END), 2)";
+    
+    String CUSTOMER_SELECT = "SELECT new com.localbook.dto.BusinessCustomerDTO(" +
+        "u.id, u.name, u.email, u.phoneNumber, COUNT(a), " + VISITS + ", " +
+        "SUM(CASE WHEN a.status = 'CANCELED' THEN 1 ELSE 0 END), " + LAST_VISIT + ", " + SPEND + ") " +
+        "FROM Appointment a JOIN a.user u LEFT JOIN a.service s " +
+        "WHERE a.business.id = :businessId " +
+        "AND (:search IS NULL " +
+        "  OR LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '!' " +
+        "  OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '!' " +
+        "  OR u.phoneNumber LIKE CONCAT('%', :search, '%') ESCAPE '!') ";
+    
+    String CUSTOMER_GROUP = "GROUP BY u.id, u.name, u.email, u.phoneNumber ";
+    
+    @Query(CUSTOMER_SELECT + CUSTOMER_GROUP +
+           "HAVING " + LAST_VISIT_KEY + " < :afterTime " +
+           "OR (" + LAST_VISIT_KEY + " = :afterTime AND u.id > :afterId) " +
+           "ORDER BY " + LAST_VISIT_KEY + " DESC, u.id ASC")
+    List<BusinessCustomerDTO> findCustomersByRecent(
+        @Param("businessId") Long businessId,
+        @Param("search") String search,
+        @Param("never") LocalDateTime never,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(CUSTOMER_SELECT + CUSTOMER_GROUP +
+           "HAVING " + VISITS + " < :afterVisits " +
+           "OR (" + VISITS + " = :afterVisits AND u.id > :afterId) " +
+           "ORDER BY " + VISITS + " DESC, u.id ASC")
+    List<BusinessCustomerDTO> findCustomersByVisits(
+        @Param("businessId") Long businessId,
+        @Param("search") String search,
+        @Param("afterVisits") Long afterVisits,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(CUSTOMER_SELECT + CUSTOMER_GROUP +
+           "HAVING " + SPEND + " < :afterSpend " +
+           "OR (" + SPEND + " = :afterSpend AND u.id > :afterId) " +
+           "ORDER BY " + SPEND + " DESC, u.id ASC")
+    List<BusinessCustomerDTO> findCustomersBySpend(
+        @Param("businessId") Long businessId,
+        @Param("search") String search,
+        @Param("afterSpend") Double afterSpend,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query(CUSTOMER_SELECT +
+           "AND (u.name > :afterName OR (u.name = :afterName AND u.id > :afterId)) " +
+           CUSTOMER_GROUP +
+           "ORDER BY u.name ASC, u.id ASC")
+    List<BusinessCustomerDTO> findCustomersByName(
+        @Param("businessId") Long businessId,
+        @Param("search") String search,
+        @Param("afterName") String afterName,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
 
+    // ========================================
+    // OCCUPANCY
+    // ========================================
 
+    /**
+     * Non-cancelled appointments in [from, to) counted per (day, start time, length).
+     * The database does the per-appointment work: the result has at most one row per
+     * distinct start time and service length each day, however many bookings there are.
+     */
+    @Query("SELECT new com.localbook.dto.StartTimeCountDTO(CAST(a.appointmentDateTime AS LocalDate), " +
+           "HOUR(a.appointmentDateTime) * 60 + MINUTE(a.appointmentDateTime), s.durationMinutes, COUNT(a)) " +
+           "FROM Appointment a LEFT JOIN a.service s " +
+           "WHERE a.business.id = :businessId " +
+           "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+           "AND a.status <> 'CANCELED' " +
+           "GROUP BY CAST(a.appointmentDateTime AS LocalDate), " +
+           "HOUR(a.appointmentDateTime) * 60 + MINUTE(a.appointmentDateTime), s.durationMinutes")
+    List<StartTimeCountDTO> countStartTimes(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    /**
+     * Minutes booked in [from, to) per business (non-cancelled; a 30-minute slot when
+     * the service length is unknown), for the occupancy benchmark. All businesses
+     * when businessId is null.
+     */
+    @Query("SELECT new com.localbook.dto.BusinessTotalDTO(a.business.id, SUM(COALESCE(s.durationMinutes, 30))) " +
+           "FROM Appointment a LEFT JOIN a.service s " +
+           "WHERE a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+           "AND a.status <> 'CANCELED' " +
+           "AND (:businessId IS NULL OR a.business.id = :businessId) " +
+           "GROUP BY a.business.id")
+    List<BusinessTotalDTO> sumBookedMinutes(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
 
+    // Non-cancelled bookings per business and per service name, the typeahead's popularity
+    @Query("SELECT new com.localbook.dto.BusinessTotalDTO(a.business.id, COUNT(a.id)) " +
+           "FROM Appointment a WHERE a.status <> 'CANCELED' GROUP BY a.business.id")
+    List<BusinessTotalDTO> countBookingsByBusiness();
 
-}
\ No newline at end of file
+    @Query("SELECT new com.localbook.dto.NamedCountDTO(s.serviceName, COUNT(a.id)) " +
+           "FROM Appointment a JOIN a.service s WHERE a.status <> 'CANCELED' GROUP BY s.serviceName")
+    List<NamedCountDTO> countBookingsByServiceName();
+}
@@ -0,0 +1,69 @@
+package com.localbook.repository;
+
+import com.localbook.dto.CalendarSyncStateDTO;
+import com.localbook.model.AppointmentSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, Long> {
+    
+    // Active series of a business that can have an occurrence in [windowStart, windowEnd)
+    @Query("SELECT s FROM AppointmentSeries s " +
+           "JOIN FETCH s.user JOIN FETCH s.service " +
+           "WHERE s.business.id = :businessId AND s.active = true " +
+           "AND s.firstOccurrence < :windowEnd " +
+           "AND (s.untilDate IS NULL OR s.untilDate >= :windowStartDate)")
+    List<AppointmentSeries> findActiveForBusinessInWindow(
+        @Param("businessId") Long businessId,
+        @Param("windowStartDate") LocalDate windowStartDate,
+        @Param("windowEnd") LocalDateTime windowEnd
+    );
+    
+    // Active series of a business still running on or after a date, for the booking checks
+    @Query("SELECT s FROM AppointmentSeries s JOIN FETCH s.service " +
+           "WHERE s.business.id = :businessId AND s.active = true " +
+           "AND (s.untilDate IS NULL OR s.untilDate >= :fromDate)")
+    List<AppointmentSeries> findActiveForBusinessFrom(
+        @Param("businessId") Long businessId,
+        @Param("fromDate") LocalDate fromDate
+    );
+    
+    @Query("SELECT s FROM AppointmentSeries s " +
+           "JOIN FETCH s.user JOIN FETCH s.service " +
+           "WHERE s.user.id = :userId AND s.active = true " +
+           "AND s.firstOccurrence < :windowEnd " +
+           "AND (s.untilDate IS NULL OR s.untilDate >= :windowStartDate)")
+    List<AppointmentSeries> findActiveForUserInWindow(
+        @Param("userId") Long userId,
+        @Param("windowStartDate") LocalDate windowStartDate,
+        @Param("windowEnd") LocalDateTime windowEnd
+    );
+    
+    // Reminder scan: everything needed to build the pushes in one query
+    @Query("SELECT s FROM AppointmentSeries s " +
+           "JOIN FETCH s.user JOIN FETCH s.service " +
+           "JOIN FETCH s.business b JOIN FETCH b.owner " +
+           "WHERE s.active = true " +
+           "AND s.firstOccurrence < :windowEnd " +
+           "AND (s.untilDate IS NULL OR s.untilDate >= :windowStartDate)")
+    List<AppointmentSeries> findActiveInWindow(
+        @Param("windowStartDate") LocalDate windowStartDate,
+        @Param("windowEnd") LocalDateTime windowEnd
+    );
+    
+    // Calendar feed: changes whenever a series of the business is created, skipped or cancelled
+    @Query("SELECT new com.localbook.dto.CalendarSyncStateDTO(MAX(s.updatedAt), MAX(s.id), COUNT(s.id)) " +
+           "FROM AppointmentSeries s WHERE s.business.id = :businessId")
+    CalendarSyncStateDTO findCalendarSyncState(@Param("businessId") Long businessId);
+    
+    List<AppointmentSeries> findByUserIdAndActiveTrue(Long userId);
+    
+    List<AppointmentSeries> findByBusinessIdAndActiveTrue(Long businessId);
+}
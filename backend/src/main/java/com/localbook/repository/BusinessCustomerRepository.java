@@ -0,0 +1,47 @@
+package com.localbook.repository;
+
+import com.localbook.model.BusinessCustomer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BusinessCustomerRepository extends JpaRepository<BusinessCustomer, Long> {
+    
+    // Distinct customers of a business: an index range count on uk_business_customers_business_user
+    long countByBusinessId(Long businessId);
+    
+    // Serialises retention updates for one customer of one business
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BusinessCustomer c WHERE c.businessId = :businessId AND c.userId = :userId")
+    Optional<BusinessCustomer> lockCustomer(@Param("businessId") Long businessId, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO business_customers (business_id, user_id, appointment_count) " +
+                   "VALUES (:businessId, :userId, :delta) " +
+                   "ON DUPLICATE KEY UPDATE appointment_count = appointment_count + VALUES(appointment_count)",
+           nativeQuery = true)
+    int addAppointments(@Param("businessId") Long businessId, @Param("userId") Long userId, @Param("delta") long delta);
+    
+    // Customer's last appointment with the business was deleted
+    @Modifying
+    @Query("DELETE FROM BusinessCustomer c WHERE c.businessId = :businessId AND c.userId = :userId AND c.appointmentCount <= 0")
+    int deleteIfNoAppointments(@Param("businessId") Long businessId, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM business_customers", nativeQuery = true)
+    int deleteAllRows();
+    
+    @Modifying
+    @Query(value = "INSERT INTO business_customers (business_id, user_id, appointment_count) " +
+                   "SELECT a.business_id, a.user_id, COUNT(*) FROM appointments a " +
+                   "GROUP BY a.business_id, a.user_id",
+           nativeQuery = true)
+    int rebuildFromAppointments();
+}
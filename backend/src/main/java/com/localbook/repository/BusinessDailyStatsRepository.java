@@ -0,0 +1,75 @@
+package com.localbook.repository;
+
+import com.localbook.dto.CategoryRevenueDTO;
+import com.localbook.dto.DailyBookingsDTO;
+import com.localbook.model.BusinessDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BusinessDailyStatsRepository extends JpaRepository<BusinessDailyStats, Long> {
+    
+    List<BusinessDailyStats> findByBusinessIdAndStatDateBetween(Long businessId, LocalDate from, LocalDate to);
+    
+    // ========== PLATFORM ANALYTICS (one row per day / category, however many bookings) ==========
+    
+    @Query("SELECT new com.localbook.dto.DailyBookingsDTO(d.statDate, SUM(d.appointmentCount), " +
+           "SUM(d.completedCount), SUM(d.canceledCount), SUM(d.completedRevenue)) " +
+           "FROM BusinessDailyStats d WHERE d.statDate BETWEEN :from AND :to " +
+           "GROUP BY d.statDate ORDER BY d.statDate")
+    List<DailyBookingsDTO> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT COALESCE(SUM(d.appointmentCount), 0) FROM BusinessDailyStats d " +
+           "WHERE d.statDate BETWEEN :from AND :to")
+    long sumAppointments(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT new com.localbook.dto.CategoryRevenueDTO(COALESCE(b.category, 'Other'), SUM(d.completedRevenue), " +
+           "SUM(d.completedCount), SUM(d.appointmentCount)) " +
+           "FROM BusinessDailyStats d JOIN Business b ON b.id = d.businessId " +
+           "WHERE d.statDate BETWEEN :from AND :to " +
+           "GROUP BY COALESCE(b.category, 'Other') ORDER BY SUM(d.completedRevenue) DESC")
+    List<CategoryRevenueDTO> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // Atomic add: creates the day's row on first use, otherwise bumps it in place (no read, no lost update)
+    @Modifying
+    @Query(value = "INSERT INTO business_daily_stats " +
+                   "(business_id, stat_date, appointment_count, completed_count, canceled_count, completed_revenue) " +
+                   "VALUES (:businessId, :statDate, :appointments, :completed, :canceled, :revenue) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "appointment_count = appointment_count + VALUES(appointment_count), " +
+                   "completed_count = completed_count + VALUES(completed_count), " +
+                   "canceled_count = canceled_count + VALUES(canceled_count), " +
+                   "completed_revenue = completed_revenue + VALUES(completed_revenue)",
+           nativeQuery = true)
+    int addToDay(
+        @Param("businessId") Long businessId,
+        @Param("statDate") LocalDate statDate,
+        @Param("appointments") long appointments,
+        @Param("completed") long completed,
+        @Param("canceled") long canceled,
+        @Param("revenue") double revenue
+    );
+    
+    @Modifying
+    @Query(value = "DELETE FROM business_daily_stats", nativeQuery = true)
+    int deleteAllRows();
+    
+    // Rebuild every business's counters from the appointments table in one statement
+    @Modifying
+    @Query(value = "INSERT INTO business_daily_stats " +
+                   "(business_id, stat_date, appointment_count, completed_count, canceled_count, completed_revenue) " +
+                   "SELECT a.business_id, DATE(a.appointment_date_time), COUNT(*), " +
+                   "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN a.status = 'CANCELED' THEN 1 ELSE 0 END), " +
+                   "COALESCE(SUM(CASE WHEN a.status = 'COMPLETED' THEN s.price ELSE 0 END), 0) " +
+                   "FROM appointments a LEFT JOIN services s ON s.id = a.service_id " +
+                   "GROUP BY a.business_id, DATE(a.appointment_date_time)",
+           nativeQuery = true)
+    int rebuildFromAppointments();
+}
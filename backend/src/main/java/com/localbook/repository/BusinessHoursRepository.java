@@ -3,6 +3,7 @@ import com.localbook.model.BusinessHours;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +16,9 @@ public interface BusinessHoursRepository extends JpaRepository<BusinessHours, Lo
      */
     List<BusinessHours> findByBusinessId(Long businessId);
     
+    // Hours of several businesses at once, for BusinessFacetIndex
+    List<BusinessHours> findByBusinessIdIn(Collection<Long> businessIds);
+    
     /**
      * Find business hours for a specific business and day
      * @param businessId the business ID
@@ -1,14 +1,31 @@
 package com.localbook.repository;
 
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.DailyCountDTO;
+import com.localbook.dto.NamedCountDTO;
 import com.localbook.model.Business;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface BusinessRepository extends JpaRepository<Business, Long> {
     
+    // Same rule the admin pages have always used to place a business in County Carlow
+    String IN_CARLOW = "(LOWER(b.town) = 'carlow' OR LOWER(b.location) LIKE '%carlow%' " +
+                       "OR LOWER(b.address) LIKE '%carlow%' OR UPPER(b.eircode) LIKE 'R93%')";
+    
+    // Not yet approved and not explicitly rejected or suspended
+    String AWAITING_APPROVAL = "(b.isApproved = false AND (b.status IS NULL OR b.status NOT IN ('REJECTED', 'SUSPENDED')))";
+    
+    // Approved and not suspended: the businesses customers can find and book
+    String LISTED = "(b.isApproved = true AND (b.status IS NULL OR b.status <> 'SUSPENDED'))";
+    
     List<Business> findByIsApproved(boolean isApproved);
     
     List<Business> findByLocationContainingIgnoreCase(String location);
@@ -23,4 +40,62 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
 
     
     List<Business> findByOwner_Id(Long ownerId);
-}
\ No newline at end of file
+
+    // Approved, not suspended businesses of a category; location matches the location, town or county
+    @Query("SELECT b FROM Business b WHERE b.isApproved = true " +
+           "AND (b.status IS NULL OR b.status <> 'SUSPENDED') " +
+           "AND LOWER(b.category) = LOWER(:category) " +
+           "AND (:location IS NULL " +
+           "  OR LOWER(b.location) LIKE LOWER(CONCAT('%', :location, '%')) " +
+           "  OR LOWER(b.town) LIKE LOWER(CONCAT('%', :location, '%')) " +
+           "  OR LOWER(b.county) LIKE LOWER(CONCAT('%', :location, '%')))")
+    List<Business> findBookableByCategoryAndLocation(@Param("category") String category, @Param("location") String location);
+
+    // ========== PLATFORM ANALYTICS ==========
+    
+    long countByCreatedAtBetween(LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT COUNT(b) FROM Business b WHERE " + LISTED)
+    long countActive();
+    
+    @Query("SELECT COUNT(b) FROM Business b WHERE " + AWAITING_APPROVAL)
+    long countAwaitingApproval();
+    
+    @Query("SELECT MIN(b.createdAt) FROM Business b WHERE " + AWAITING_APPROVAL)
+    LocalDateTime findOldestAwaitingApproval();
+    
+    // Registration day of the pending businesses, for the backlog's age buckets
+    @Query("SELECT new com.localbook.dto.DailyCountDTO(CAST(b.createdAt AS LocalDate), COUNT(b)) " +
+           "FROM Business b WHERE " + AWAITING_APPROVAL + " " +
+           "GROUP BY CAST(b.createdAt AS LocalDate)")
+    List<DailyCountDTO> countAwaitingApprovalByDay();
+    
+    @Query("SELECT new com.localbook.dto.DailyCountDTO(CAST(b.createdAt AS LocalDate), COUNT(b)) " +
+           "FROM Business b WHERE b.createdAt >= :from AND b.createdAt < :to " +
+           "GROUP BY CAST(b.createdAt AS LocalDate)")
+    List<DailyCountDTO> countRegistrationsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT new com.localbook.dto.NamedCountDTO(COALESCE(b.category, 'Other'), COUNT(b)) " +
+           "FROM Business b GROUP BY COALESCE(b.category, 'Other') ORDER BY COUNT(b) DESC")
+    List<NamedCountDTO> countByCategoryDesc(Pageable pageable);
+    
+    // Every category's business count in one pass, for BusinessCategoryCounts
+    @Query("SELECT new com.localbook.dto.NamedCountDTO(b.category, COUNT(b)) " +
+           "FROM Business b WHERE b.category IS NOT NULL GROUP BY b.category")
+    List<NamedCountDTO> countAllByCategory();
+    
+    // Every listed business with its peer group, for PeerBenchmarkService
+    @Query("SELECT new com.localbook.dto.BenchmarkValueDTO(b.id, b.category, b.county) " +
+           "FROM Business b WHERE " + LISTED)
+    List<BenchmarkValueDTO> findBenchmarkPeers();
+    
+    @Query("SELECT COUNT(b) FROM Business b WHERE " + IN_CARLOW)
+    long countInCarlow();
+    
+    @Query("SELECT new com.localbook.dto.NamedCountDTO(" +
+           "LOWER(TRIM(COALESCE(NULLIF(b.town, ''), NULLIF(b.location, ''), 'Unknown'))), COUNT(b)) " +
+           "FROM Business b WHERE " + IN_CARLOW + " " +
+           "GROUP BY LOWER(TRIM(COALESCE(NULLIF(b.town, ''), NULLIF(b.location, ''), 'Unknown'))) " +
+           "ORDER BY COUNT(b) DESC")
+    List<NamedCountDTO> countInCarlowByTown();
+}
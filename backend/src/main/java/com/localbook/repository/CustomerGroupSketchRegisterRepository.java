@@ -0,0 +1,38 @@
+package com.localbook.repository;
+
+import com.localbook.dto.SketchRegisterDTO;
+import com.localbook.model.CustomerGroupSketchRegister;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CustomerGroupSketchRegisterRepository extends JpaRepository<CustomerGroupSketchRegister, Long> {
+    
+    // Same register-max upsert as CustomerSketchRegisterRepository.raise
+    @Modifying
+    @Query(value = "INSERT INTO customer_group_sketch_registers " +
+                   "(group_type, group_name, sketch_date, sketch_precision, register_index, register_value) " +
+                   "VALUES (:groupType, :groupName, :date, :precision, :index, :value) " +
+                   "ON DUPLICATE KEY UPDATE register_value = GREATEST(register_value, VALUES(register_value))",
+           nativeQuery = true)
+    int raise(@Param("groupType") String groupType, @Param("groupName") String groupName, @Param("date") LocalDate date,
+              @Param("precision") int precision, @Param("index") int index, @Param("value") int value);
+    
+    // Each group's sketch over the days, already merged: at most one row per group and register
+    @Query("SELECT new com.localbook.dto.SketchRegisterDTO(r.groupName, r.sketchPrecision, r.registerIndex, MAX(r.registerValue)) " +
+           "FROM CustomerGroupSketchRegister r " +
+           "WHERE r.groupType = :groupType AND r.sketchDate >= :from AND r.sketchDate < :to " +
+           "GROUP BY r.groupName, r.sketchPrecision, r.registerIndex")
+    List<SketchRegisterDTO> findGroupRegisters(@Param("groupType") String groupType,
+                                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Modifying
+    @Query(value = "DELETE FROM customer_group_sketch_registers", nativeQuery = true)
+    int deleteAllRows();
+}
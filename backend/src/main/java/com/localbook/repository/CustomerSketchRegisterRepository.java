@@ -0,0 +1,48 @@
+package com.localbook.repository;
+
+import com.localbook.dto.BusinessDayCustomerDTO;
+import com.localbook.dto.SketchRegisterDTO;
+import com.localbook.model.CustomerSketchRegister;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CustomerSketchRegisterRepository extends JpaRepository<CustomerSketchRegister, Long> {
+    
+    // Raise a register to at least value, creating it on first use; repeating it changes nothing
+    @Modifying
+    @Query(value = "INSERT INTO customer_sketch_registers " +
+                   "(business_id, sketch_date, sketch_precision, register_index, register_value) " +
+                   "VALUES (:businessId, :date, :precision, :index, :value) " +
+                   "ON DUPLICATE KEY UPDATE register_value = GREATEST(register_value, VALUES(register_value))",
+           nativeQuery = true)
+    int raise(@Param("businessId") Long businessId, @Param("date") LocalDate date,
+              @Param("precision") int precision, @Param("index") int index, @Param("value") int value);
+    
+    // The business's sketch over the days, already merged: at most one row per register
+    @Query("SELECT new com.localbook.dto.SketchRegisterDTO(r.sketchPrecision, r.registerIndex, MAX(r.registerValue)) " +
+           "FROM CustomerSketchRegister r " +
+           "WHERE r.businessId = :businessId AND r.sketchDate >= :from AND r.sketchDate < :to " +
+           "GROUP BY r.sketchPrecision, r.registerIndex")
+    List<SketchRegisterDTO> findBusinessRegisters(@Param("businessId") Long businessId,
+                                                  @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // Backfill: each business's distinct (day, customer) pairs, a day at a time
+    @Query("SELECT DISTINCT new com.localbook.dto.BusinessDayCustomerDTO(CAST(a.appointmentDateTime AS LocalDate), a.user.id) " +
+           "FROM Appointment a WHERE a.business.id = :businessId " +
+           "ORDER BY CAST(a.appointmentDateTime AS LocalDate)")
+    List<BusinessDayCustomerDTO> findDayCustomers(@Param("businessId") Long businessId);
+    
+    @Query("SELECT DISTINCT a.business.id FROM Appointment a")
+    List<Long> findBusinessIdsWithAppointments();
+    
+    @Modifying
+    @Query(value = "DELETE FROM customer_sketch_registers", nativeQuery = true)
+    int deleteAllRows();
+}
@@ -0,0 +1,55 @@
+package com.localbook.repository;
+
+import com.localbook.model.CustomerVisitMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CustomerVisitMonthRepository extends JpaRepository<CustomerVisitMonth, Long> {
+    
+    // First day of the appointment's month, as a DATE
+    String MONTH_OF_APPOINTMENT = "CAST(CONCAT(YEAR(a.appointment_date_time), '-', " +
+                                  "LPAD(MONTH(a.appointment_date_time), 2, '0'), '-01') AS DATE)";
+    
+    // The customer's visited months, earliest (their cohort) first
+    @Query("SELECT v.visitMonth FROM CustomerVisitMonth v " +
+           "WHERE v.businessId = :businessId AND v.userId = :userId ORDER BY v.visitMonth")
+    List<LocalDate> findMonths(@Param("businessId") Long businessId, @Param("userId") Long userId);
+    
+    @Query("SELECT v.visits FROM CustomerVisitMonth v " +
+           "WHERE v.businessId = :businessId AND v.userId = :userId AND v.visitMonth = :month")
+    Integer findVisits(@Param("businessId") Long businessId, @Param("userId") Long userId, @Param("month") LocalDate month);
+    
+    @Modifying
+    @Query(value = "INSERT INTO customer_visit_months (business_id, user_id, visit_month, visits) " +
+                   "VALUES (:businessId, :userId, :month, :delta) " +
+                   "ON DUPLICATE KEY UPDATE visits = visits + VALUES(visits)",
+           nativeQuery = true)
+    int addVisits(@Param("businessId") Long businessId, @Param("userId") Long userId,
+                  @Param("month") LocalDate month, @Param("delta") int delta);
+    
+    // The customer's last completed visit that month was undone
+    @Modifying
+    @Query("DELETE FROM CustomerVisitMonth v WHERE v.businessId = :businessId AND v.userId = :userId " +
+           "AND v.visitMonth = :month AND v.visits <= 0")
+    int deleteIfNoVisits(@Param("businessId") Long businessId, @Param("userId") Long userId, @Param("month") LocalDate month);
+    
+    @Modifying
+    @Query(value = "DELETE FROM customer_visit_months", nativeQuery = true)
+    int deleteAllRows();
+    
+    @Modifying
+    @Query(value = "INSERT INTO customer_visit_months (business_id, user_id, visit_month, visits) " +
+                   "SELECT a.business_id, a.user_id, " + MONTH_OF_APPOINTMENT + ", COUNT(*) FROM appointments a " +
+                   "WHERE a.status = 'COMPLETED' " +
+                   "GROUP BY a.business_id, a.user_id, " + MONTH_OF_APPOINTMENT,
+           nativeQuery = true)
+    int rebuildFromAppointments();
+
+}
@@ -4,6 +4,7 @@ import com.localbook.model.PushToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +17,7 @@ public interface PushTokenRepository extends JpaRepository<PushToken, Long> {
     
     List<PushToken> findAllByUserId(Long userId);
     
+    List<PushToken> findByUserIdIn(Collection<Long> userIds);
+    
     void deleteByUserId(Long userId);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.localbook.repository;
 
+import com.localbook.dto.BenchmarkValueDTO;
 import com.localbook.model.Appointment;
 import com.localbook.model.Business;
 import com.localbook.model.Rating;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,4 +44,15 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     
     // ✅ Get rating count for a business
     Long countByBusinessId(Long businessId);
-}
\ No newline at end of file
+    
+    // Average rating of every listed business that has ratings, for PeerBenchmarkService
+    @Query("SELECT new com.localbook.dto.BenchmarkValueDTO(b.id, b.category, b.county, AVG(r.rating)) " +
+           "FROM Rating r JOIN r.business b WHERE " + BusinessRepository.LISTED + " " +
+           "GROUP BY b.id, b.category, b.county")
+    List<BenchmarkValueDTO> findBenchmarkRatings();
+    
+    @Query("SELECT new com.localbook.dto.BenchmarkValueDTO(b.id, b.category, b.county, AVG(r.rating)) " +
+           "FROM Rating r JOIN r.business b WHERE b.id IN :businessIds " +
+           "GROUP BY b.id, b.category, b.county")
+    List<BenchmarkValueDTO> findBenchmarkRatings(@Param("businessIds") Collection<Long> businessIds);
+}
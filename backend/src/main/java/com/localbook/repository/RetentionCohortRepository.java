@@ -0,0 +1,47 @@
+package com.localbook.repository;
+
+import com.localbook.model.RetentionCohort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RetentionCohortRepository extends JpaRepository<RetentionCohort, Long> {
+    
+    // Whole months from the customer's first visit month to this one
+    String MONTHS_AFTER = "(YEAR(v.visit_month) - YEAR(f.first_month)) * 12 + MONTH(v.visit_month) - MONTH(f.first_month)";
+    
+    // The report: one row per (cohort, offset), an index range on the unique key
+    List<RetentionCohort> findByBusinessIdAndCohortMonthGreaterThanEqualOrderByCohortMonthAscMonthsAfterAsc(
+        Long businessId, LocalDate fromMonth);
+    
+    @Modifying
+    @Query(value = "INSERT INTO retention_cohorts (business_id, cohort_month, months_after, customers) " +
+                   "VALUES (:businessId, :cohortMonth, :monthsAfter, :delta) " +
+                   "ON DUPLICATE KEY UPDATE customers = customers + VALUES(customers)",
+           nativeQuery = true)
+    int addCustomers(@Param("businessId") Long businessId, @Param("cohortMonth") LocalDate cohortMonth,
+                     @Param("monthsAfter") int monthsAfter, @Param("delta") long delta);
+    
+    @Modifying
+    @Query(value = "DELETE FROM retention_cohorts", nativeQuery = true)
+    int deleteAllRows();
+    
+    // Every business's matrix from customer_visit_months (rebuild that first)
+    @Modifying
+    @Query(value = "INSERT INTO retention_cohorts (business_id, cohort_month, months_after, customers) " +
+                   "SELECT v.business_id, f.first_month, " + MONTHS_AFTER + ", COUNT(*) " +
+                   "FROM customer_visit_months v " +
+                   "JOIN (SELECT business_id, user_id, MIN(visit_month) AS first_month " +
+                   "      FROM customer_visit_months GROUP BY business_id, user_id) f " +
+                   "ON f.business_id = v.business_id AND f.user_id = v.user_id " +
+                   "GROUP BY v.business_id, f.first_month, " + MONTHS_AFTER,
+           nativeQuery = true)
+    int rebuildFromVisitMonths();
+
+}
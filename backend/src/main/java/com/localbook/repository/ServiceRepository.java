@@ -1,8 +1,13 @@
 package com.localbook.repository;
 
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.ServiceNameDTO;
 import com.localbook.model.Service;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,4 +33,19 @@ public interface ServiceRepository extends JpaRepository<Service, Long> {
     
     // Check if a service name exists for a specific business
     boolean existsByServiceNameAndBusiness_Id(String serviceName, Long businessId);
-}
\ No newline at end of file
+    
+    // Every listed business's mean service price with its peer group, for PeerBenchmarkService
+    @Query("SELECT new com.localbook.dto.BenchmarkValueDTO(b.id, b.category, b.county, AVG(s.price)) " +
+           "FROM Service s JOIN s.business b WHERE s.price IS NOT NULL AND " + BusinessRepository.LISTED + " " +
+           "GROUP BY b.id, b.category, b.county")
+    List<BenchmarkValueDTO> findBenchmarkPrices();
+    
+    @Query("SELECT new com.localbook.dto.BenchmarkValueDTO(b.id, b.category, b.county, AVG(s.price)) " +
+           "FROM Service s JOIN s.business b WHERE s.price IS NOT NULL AND b.id IN :businessIds " +
+           "GROUP BY b.id, b.category, b.county")
+    List<BenchmarkValueDTO> findBenchmarkPrices(@Param("businessIds") Collection<Long> businessIds);
+    
+    // Every service's name and business, for the typeahead
+    @Query("SELECT new com.localbook.dto.ServiceNameDTO(s.id, b.id, s.serviceName) FROM Service s JOIN s.business b")
+    List<ServiceNameDTO> findAllNames();
+}
@@ -0,0 +1,41 @@
+package com.localbook.repository;
+
+import com.localbook.model.SlotClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SlotClaimRepository extends JpaRepository<SlotClaim, Long> {
+
+    // Is any of these slots already taken at this business?
+    boolean existsByBusinessIdAndSlotStartIn(Long businessId, Collection<LocalDateTime> slotStarts);
+
+    // Every claimed slot of a business in [from, to), for checking a whole recurring series at once
+    @Query("SELECT c.slotStart FROM SlotClaim c WHERE c.businessId = :businessId " +
+           "AND c.slotStart >= :from AND c.slotStart < :to")
+    List<LocalDateTime> findSlotStartsInRange(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Latest claimed slot of a business: a new series can't clash with a booking after it
+    @Query("SELECT MAX(c.slotStart) FROM SlotClaim c WHERE c.businessId = :businessId")
+    LocalDateTime findLastSlotStart(@Param("businessId") Long businessId);
+
+    // Bulk delete so the rows are gone before new claims are inserted in the same transaction
+    @Modifying
+    @Query("DELETE FROM SlotClaim c WHERE c.appointmentId = :appointmentId")
+    int releaseByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @Modifying
+    @Query("DELETE FROM SlotClaim c WHERE c.appointmentId IN :appointmentIds")
+    int releaseByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
+}
@@ -4,10 +4,14 @@ import com.localbook.model.UserNotificationSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserNotificationSettingsRepository extends JpaRepository<UserNotificationSettings, Long> {
     
     Optional<UserNotificationSettings> findByUserId(Long userId);
+    
+    List<UserNotificationSettings> findByUserIdIn(Collection<Long> userIds);
 }
\ No newline at end of file
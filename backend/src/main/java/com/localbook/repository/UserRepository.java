@@ -1,9 +1,13 @@
 package com.localbook.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import com.localbook.dto.DailyCountDTO;
 import com.localbook.model.User;
 import com.localbook.model.UserRole;  // ✅ ADD THIS IMPORT
 
@@ -27,4 +31,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Delete user by email
     void deleteByEmail(String email);
+    
+    // Sign-ups of a role in [from, to] (admin analytics; idx_users_role_created)
+    long countByRoleAndCreatedAtBetween(UserRole role, LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT new com.localbook.dto.DailyCountDTO(CAST(u.createdAt AS LocalDate), COUNT(u)) " +
+           "FROM User u WHERE u.role = :role AND u.createdAt >= :from AND u.createdAt < :to " +
+           "GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<DailyCountDTO> countSignupsByDay(@Param("role") UserRole role, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.localbook.repository;
+
+import com.localbook.model.WaitlistEntry;
+import com.localbook.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    // Rebuilds one day's in-memory queue
+    List<WaitlistEntry> findByBusinessIdAndWaitDateAndStatus(Long businessId, LocalDate waitDate, WaitlistStatus status);
+    
+    List<WaitlistEntry> findByUserIdAndStatusInOrderByWaitDateAsc(Long userId, Collection<WaitlistStatus> statuses);
+    
+    List<WaitlistEntry> findByUserIdAndBusinessIdAndWaitDateAndStatusIn(
+        Long userId, Long businessId, LocalDate waitDate, Collection<WaitlistStatus> statuses);
+    
+    boolean existsByUserIdAndBusinessIdAndWaitDateAndStatusIn(
+        Long userId, Long businessId, LocalDate waitDate, Collection<WaitlistStatus> statuses);
+    
+    List<WaitlistEntry> findByStatusAndOfferedAtBefore(WaitlistStatus status, LocalDateTime offeredAt);
+}
@@ -0,0 +1,329 @@
+package com.localbook.service;
+
+import com.localbook.dto.RollupEventDTO;
+import com.localbook.dto.RollupPointDTO;
+import com.localbook.model.AnalyticsRollup;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.RollupGranularity;
+import com.localbook.repository.AnalyticsRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Booking activity rollups: how many bookings were made, cancelled and completed
+ * (and the revenue completed) per business and category over time.
+ *
+ * Events go into the current HOUR bucket in the same transaction as the change
+ * that caused them. RollupCompactionScheduler folds hours into DAY buckets once
+ * they are older than HOURLY_RETENTION_DAYS and days into MONTH buckets once they
+ * are older than DAILY_RETENTION_MONTHS, so resolution degrades with age and the
+ * table size depends on businesses and time, not on booking volume.
+ */
+@Service
+public class AnalyticsRollupService {
+
+    // Hourly detail for today and yesterday
+    public static final int HOURLY_RETENTION_DAYS = 2;
+    // Daily detail for the current month and the twelve before it
+    public static final int DAILY_RETENTION_MONTHS = 12;
+
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_MONTHS = 120;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    // ========================================
+    // RECORDING (inside the caller's transaction)
+    // ========================================
+
+    public void recordBooked(Appointment appointment) {
+        Buckets buckets = new Buckets();
+        buckets.add(appointment, AppointmentStatus.CONFIRMED);
+        buckets.flush(LocalDateTime.now());
+    }
+
+    /**
+     * The appointments have just moved to newStatus. Only cancellations and
+     * completions are events; other transitions record nothing.
+     */
+    public void recordStatusChange(Collection<Appointment> appointments, AppointmentStatus newStatus) {
+        if (newStatus != AppointmentStatus.CANCELED && newStatus != AppointmentStatus.COMPLETED) {
+            return;
+        }
+        Buckets buckets = new Buckets();
+        for (Appointment appointment : appointments) {
+            buckets.add(appointment, newStatus);
+        }
+        buckets.flush(LocalDateTime.now());
+    }
+
+    // ========================================
+    // BACKFILL
+    // ========================================
+
+    /**
+     * Recompute the rollups from the appointments table, a business at a time.
+     * Each appointment was booked at its createdAt; a cancelled or completed one
+     * changed status at its updatedAt. Events go straight into the bucket that
+     * compaction would have left them in by now, so nothing needs compacting after.
+     * Category and price are today's, as earlier ones were not kept.
+     */
+    @Transactional
+    public void rebuildFromAppointments() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hourCutoff = hourlyKeptFrom(now);
+        LocalDateTime dayCutoff = dailyKeptFrom(now);
+
+        rollupRepository.deleteAllRows();
+        int buckets = 0;
+        List<Long> businessIds = rollupRepository.findBusinessIdsWithAppointments();
+        for (Long businessId : businessIds) {
+            // (granularity, bucket, category) -> {bookings, cancellations, completions, revenue}
+            Map<RollupGranularity, Map<LocalDateTime, Map<String, double[]>>> sums = new TreeMap<>();
+            for (RollupEventDTO event : rollupRepository.findRollupEvents(businessId)) {
+                String category = event.getCategory() == null || event.getCategory().isBlank() ? "Other" : event.getCategory();
+                LocalDateTime booked = event.getCreatedAt() != null ? event.getCreatedAt() : event.getAppointmentDateTime();
+                bucket(sums, booked, hourCutoff, dayCutoff, category)[0]++;
+
+                if (event.getStatus() == AppointmentStatus.CANCELED || event.getStatus() == AppointmentStatus.COMPLETED) {
+                    LocalDateTime changed = event.getUpdatedAt() != null ? event.getUpdatedAt() : booked;
+                    double[] s = bucket(sums, changed, hourCutoff, dayCutoff, category);
+                    if (event.getStatus() == AppointmentStatus.CANCELED) {
+                        s[1]++;
+                    } else {
+                        s[2]++;
+                        s[3] += event.getPrice() == null ? 0.0 : event.getPrice();
+                    }
+                }
+            }
+
+            for (Map.Entry<RollupGranularity, Map<LocalDateTime, Map<String, double[]>>> granularity : sums.entrySet()) {
+                for (Map.Entry<LocalDateTime, Map<String, double[]>> bucket : granularity.getValue().entrySet()) {
+                    for (Map.Entry<String, double[]> category : bucket.getValue().entrySet()) {
+                        double[] s = category.getValue();
+                        rollupRepository.addToBucket(businessId, granularity.getKey().name(), bucket.getKey(),
+                            category.getKey(), (long) s[0], (long) s[1], (long) s[2], s[3]);
+                        buckets++;
+                    }
+                }
+            }
+        }
+        System.out.println("✅ Rebuilt analytics rollups: " + buckets + " buckets for " + businessIds.size() + " businesses");
+    }
+
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        rebuildFromAppointments();
+    }
+
+    // ========================================
+    // COMPACTION
+    // ========================================
+
+    // Anything before these has been (or is about to be) folded into the coarser granularity
+    public static LocalDateTime hourlyKeptFrom(LocalDateTime now) {
+        return now.toLocalDate().minusDays(HOURLY_RETENTION_DAYS - 1).atStartOfDay();
+    }
+
+    public static LocalDateTime dailyKeptFrom(LocalDateTime now) {
+        return now.toLocalDate().withDayOfMonth(1).minusMonths(DAILY_RETENTION_MONTHS).atStartOfDay();
+    }
+
+    /**
+     * Fold one business's HOUR buckets before hourCutoff into DAY buckets, then its
+     * DAY buckets before dayCutoff into MONTH buckets.
+     *
+     * The buckets are read under a write lock, added into the coarser buckets and
+     * deleted in one transaction, so a bucket is counted exactly once whether the
+     * run commits, fails or is repeated: a second run finds nothing left to fold.
+     * Events are only ever recorded into the current hour, well after both cutoffs.
+     */
+    @Transactional
+    public int compactBusiness(Long businessId, LocalDateTime hourCutoff, LocalDateTime dayCutoff) {
+        int folded = fold(businessId, RollupGranularity.HOUR, RollupGranularity.DAY, hourCutoff,
+            t -> t.truncatedTo(ChronoUnit.DAYS));
+        folded += fold(businessId, RollupGranularity.DAY, RollupGranularity.MONTH, dayCutoff,
+            t -> t.toLocalDate().withDayOfMonth(1).atStartOfDay());
+        return folded;
+    }
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Activity series at the given granularity for buckets starting in [from, to),
+     * optionally for one business and/or one category. Only ranges still held at
+     * that resolution can be read: hours for today and yesterday, days for the
+     * last DAILY_RETENTION_MONTHS months, months for any period.
+     */
+    public List<RollupPointDTO> getSeries(RollupGranularity granularity, LocalDate from, LocalDate to,
+                                          Long businessId, String category) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate end = to != null ? to : now.toLocalDate();
+        String categoryFilter = category == null || category.isBlank() ? null : category;
+
+        switch (granularity) {
+            case HOUR: {
+                LocalDateTime start = from != null ? from.atStartOfDay() : hourlyKeptFrom(now);
+                if (start.isBefore(hourlyKeptFrom(now))) {
+                    throw new IllegalArgumentException("Hourly figures are only kept for the last "
+                        + HOURLY_RETENTION_DAYS + " days; use DAY");
+                }
+                checkOrder(start.toLocalDate(), end);
+                return rollupRepository.sumByHour(start, end.plusDays(1).atStartOfDay(), businessId, categoryFilter);
+            }
+            case DAY: {
+                LocalDate start = from != null ? from : end.minusDays(29);
+                if (start.atStartOfDay().isBefore(dailyKeptFrom(now))) {
+                    throw new IllegalArgumentException("Daily figures are only kept for the last "
+                        + DAILY_RETENTION_MONTHS + " months; use MONTH");
+                }
+                checkOrder(start, end);
+                if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+                    throw new IllegalArgumentException("Date range cannot exceed " + MAX_DAYS + " days");
+                }
+                return rollupRepository.sumByDay(start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                    businessId, categoryFilter);
+            }
+            default: {
+                // Whole months only, so a MONTH bucket is never cut by the range
+                LocalDate start = (from != null ? from : end.minusMonths(11)).withDayOfMonth(1);
+                LocalDate endMonth = end.withDayOfMonth(1).plusMonths(1);
+                checkOrder(start, end);
+                if (ChronoUnit.MONTHS.between(start, endMonth) > MAX_MONTHS) {
+                    throw new IllegalArgumentException("Date range cannot exceed " + MAX_MONTHS + " months");
+                }
+                return rollupRepository.sumByMonth(start.atStartOfDay(), endMonth.atStartOfDay(),
+                    businessId, categoryFilter);
+            }
+        }
+    }
+
+    public static RollupGranularity parseGranularity(String granularity) {
+        try {
+            return RollupGranularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown granularity: " + granularity + " (use HOUR, DAY or MONTH)");
+        }
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private int fold(Long businessId, RollupGranularity source, RollupGranularity target,
+                     LocalDateTime cutoff, UnaryOperator<LocalDateTime> bucketOf) {
+        List<AnalyticsRollup> rows = rollupRepository.findBucketsForCompaction(businessId, source, cutoff);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // (bucket, category) -> {bookings, cancellations, completions, revenue}
+        Map<LocalDateTime, Map<String, double[]>> folded = new TreeMap<>();
+        for (AnalyticsRollup row : rows) {
+            double[] sums = folded
+                .computeIfAbsent(bucketOf.apply(row.getBucketStart()), bucket -> new TreeMap<>())
+                .computeIfAbsent(row.getCategory(), c -> new double[4]);
+            sums[0] += row.getBookings();
+            sums[1] += row.getCancellations();
+            sums[2] += row.getCompletions();
+            sums[3] += row.getRevenue();
+        }
+
+        for (Map.Entry<LocalDateTime, Map<String, double[]>> bucket : folded.entrySet()) {
+            for (Map.Entry<String, double[]> category : bucket.getValue().entrySet()) {
+                double[] s = category.getValue();
+                rollupRepository.addToBucket(businessId, target.name(), bucket.getKey(), category.getKey(),
+                    (long) s[0], (long) s[1], (long) s[2], s[3]);
+            }
+        }
+        rollupRepository.deleteBuckets(businessId, source, cutoff);
+        return rows.size();
+    }
+
+    // The sums for an event at time, in the bucket it would be in after compaction
+    private static double[] bucket(Map<RollupGranularity, Map<LocalDateTime, Map<String, double[]>>> sums,
+                                   LocalDateTime time, LocalDateTime hourCutoff, LocalDateTime dayCutoff, String category) {
+        RollupGranularity granularity;
+        LocalDateTime start;
+        if (!time.isBefore(hourCutoff)) {
+            granularity = RollupGranularity.HOUR;
+            start = time.truncatedTo(ChronoUnit.HOURS);
+        } else if (!time.isBefore(dayCutoff)) {
+            granularity = RollupGranularity.DAY;
+            start = time.truncatedTo(ChronoUnit.DAYS);
+        } else {
+            granularity = RollupGranularity.MONTH;
+            start = time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+        return sums.computeIfAbsent(granularity, g -> new TreeMap<>())
+            .computeIfAbsent(start, b -> new TreeMap<>())
+            .computeIfAbsent(category, c -> new double[4]);
+    }
+
+    private void checkOrder(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+    }
+
+    private static String categoryOf(Appointment appointment) {
+        String category = appointment.getBusiness().getCategory();
+        return category == null || category.isBlank() ? "Other" : category;
+    }
+
+    private static double priceOf(Appointment appointment) {
+        if (appointment.getService() == null || appointment.getService().getPrice() == null) {
+            return 0.0;
+        }
+        return appointment.getService().getPrice();
+    }
+
+    /**
+     * Event counts per (business, category) for one hour, written in key order so
+     * concurrent transactions lock the bucket rows in the same order.
+     */
+    private final class Buckets {
+        private final Map<Long, Map<String, double[]>> byBusiness = new TreeMap<>();
+
+        void add(Appointment appointment, AppointmentStatus event) {
+            double[] sums = byBusiness
+                .computeIfAbsent(appointment.getBusiness().getId(), id -> new TreeMap<>())
+                .computeIfAbsent(categoryOf(appointment), c -> new double[4]);
+            if (event == AppointmentStatus.CANCELED) {
+                sums[1]++;
+            } else if (event == AppointmentStatus.COMPLETED) {
+                sums[2]++;
+                sums[3] += priceOf(appointment);
+            } else {
+                sums[0]++;
+            }
+        }
+
+        void flush(LocalDateTime now) {
+            LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+            for (Map.Entry<Long, Map<String, double[]>> business : byBusiness.entrySet()) {
+                for (Map.Entry<String, double[]> category : business.getValue().entrySet()) {
+                    double[] s = category.getValue();
+                    rollupRepository.addToBucket(business.getKey(), RollupGranularity.HOUR.name(), hour,
+                        category.getKey(), (long) s[0], (long) s[1], (long) s[2], s[3]);
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.localbook.service;
 
 import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.Business;
 import com.localbook.model.PushToken;
+import com.localbook.model.User;
 import com.localbook.model.UserNotificationSettings;
 import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
 import com.localbook.repository.PushTokenRepository;
 import com.localbook.repository.UserNotificationSettingsRepository;
+import com.localbook.util.RecurrenceExpander;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -24,6 +29,9 @@ public class AppointmentNotificationScheduler {
     @Autowired
     private AppointmentRepository appointmentRepository;
     
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+    
     @Autowired
     private PushTokenRepository pushTokenRepository;
     
@@ -75,6 +83,8 @@ public class AppointmentNotificationScheduler {
             appointment.setNotification24hrSent(true);
             appointmentRepository.save(appointment);
         }
+        
+        sendSeriesReminders(start, end, "24hr_reminder");
     }
     
     // ========================================
@@ -101,6 +111,8 @@ public class AppointmentNotificationScheduler {
             appointment.setNotification30minSent(true);
             appointmentRepository.save(appointment);
         }
+        
+        sendSeriesReminders(start, end, "30min_reminder");
     }
     
     // ========================================
@@ -127,6 +139,72 @@ public class AppointmentNotificationScheduler {
             appointment.setNotificationStartSent(true);
             appointmentRepository.save(appointment);
         }
+        
+        sendSeriesReminders(start, end, "start_reminder");
+    }
+    
+    // ========================================
+    // RECURRING SERIES: occurrences are expanded for the reminder window only
+    // ========================================
+    
+    private void sendSeriesReminders(LocalDateTime start, LocalDateTime end, String type) {
+        // Window is inclusive on both ends, like the appointment queries
+        LocalDateTime windowEnd = end.plusNanos(1);
+        List<AppointmentSeries> seriesList = appointmentSeriesRepository.findActiveInWindow(start.toLocalDate(), windowEnd);
+        
+        int sent = 0;
+        for (AppointmentSeries series : seriesList) {
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(series, start, windowEnd)) {
+                LocalDateTime lastSent = lastReminder(series, type);
+                if (lastSent != null && !occurrence.isAfter(lastSent)) {
+                    continue;
+                }
+                
+                String businessName = series.getBusiness().getBusinessName();
+                String title;
+                String body;
+                if (type.equals("24hr_reminder")) {
+                    title = "Appointment Tomorrow 📅";
+                    body = "Your appointment at " + businessName + " is tomorrow at " + occurrence.format(formatter);
+                } else if (type.equals("30min_reminder")) {
+                    title = "Appointment Starting Soon! ⏰";
+                    body = "Your appointment at " + businessName + " starts in 30 minutes!";
+                } else {
+                    title = "Appointment Starting Now! 🚀";
+                    body = "Your appointment at " + businessName + " is starting now!";
+                }
+                
+                sendReminderToBoth(series.getUser(), series.getBusiness(), series.getService(),
+                                   title, body, type, "seriesId", series.getId());
+                
+                markReminderSent(series, type, occurrence);
+                appointmentSeriesRepository.save(series);
+                sent++;
+            }
+        }
+        
+        if (sent > 0) {
+            System.out.println("🔁 Sent " + sent + " recurring " + type + " reminders");
+        }
+    }
+    
+    private LocalDateTime lastReminder(AppointmentSeries series, String type) {
+        if (type.equals("24hr_reminder")) {
+            return series.getLastReminder24hr();
+        } else if (type.equals("30min_reminder")) {
+            return series.getLastReminder30min();
+        }
+        return series.getLastReminderStart();
+    }
+    
+    private void markReminderSent(AppointmentSeries series, String type, LocalDateTime occurrence) {
+        if (type.equals("24hr_reminder")) {
+            series.setLastReminder24hr(occurrence);
+        } else if (type.equals("30min_reminder")) {
+            series.setLastReminder30min(occurrence);
+        } else {
+            series.setLastReminderStart(occurrence);
+        }
     }
     
     // ========================================
@@ -134,20 +212,26 @@ public class AppointmentNotificationScheduler {
     // ========================================
     
     private void sendReminderNotification(Appointment appointment, String title, String body, String type) {
-        Long customerId = appointment.getUser().getId();
-        Long businessOwnerId = appointment.getBusiness().getOwner().getId();
+        sendReminderToBoth(appointment.getUser(), appointment.getBusiness(), appointment.getService(),
+                           title, body, type, "appointmentId", appointment.getId());
+    }
+    
+    private void sendReminderToBoth(User customer, Business business, com.localbook.model.Service service,
+                                    String title, String body, String type, String idKey, Long id) {
+        Long customerId = customer.getId();
+        Long businessOwnerId = business.getOwner().getId();
         
         // Send to customer
-        sendNotificationToUser(customerId, title, body, type, appointment.getId(), "customer");
+        sendNotificationToUser(customerId, title, body, type, idKey, id, "customer");
         
         // Send to business owner
-        String businessTitle = title + " - Customer: " + appointment.getUser().getName();
-        String businessBody = appointment.getUser().getName() + " has an appointment for " + 
-                             appointment.getService().getName();
-        sendNotificationToUser(businessOwnerId, businessTitle, businessBody, type, appointment.getId(), "business");
+        String businessTitle = title + " - Customer: " + customer.getName();
+        String businessBody = customer.getName() + " has an appointment for " + 
+                             service.getName();
+        sendNotificationToUser(businessOwnerId, businessTitle, businessBody, type, idKey, id, "business");
     }
     
-    private void sendNotificationToUser(Long userId, String title, String body, String type, Long appointmentId, String userType) {
+    private void sendNotificationToUser(Long userId, String title, String body, String type, String idKey, Long id, String userType) {
         // Check user notification settings
         Optional<UserNotificationSettings> settingsOpt = settingsRepository.findByUserId(userId);
         
@@ -174,7 +258,7 @@ public class AppointmentNotificationScheduler {
         if (tokenOpt.isPresent()) {
             Map<String, Object> data = new HashMap<>();
             data.put("type", type);
-            data.put("appointmentId", appointmentId.toString());
+            data.put(idKey, id.toString());
             data.put("userType", userType);
             
             expoPushService.sendPushNotification(
@@ -0,0 +1,230 @@
+package com.localbook.service;
+
+import com.localbook.dto.SeriesOccurrenceDTO;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.Business;
+import com.localbook.model.RecurrenceFrequency;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.repository.UserRepository;
+import com.localbook.util.RecurrenceExpander;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Recurring bookings. A series is stored once as a rule plus skipped dates and
+ * is expanded into occurrences only for the window being read; nothing is
+ * written to the appointments table per occurrence.
+ */
+@org.springframework.stereotype.Service
+public class AppointmentSeriesService {
+
+    // Longest gap a series may have between occurrences, in days, weeks or months
+    public static final int MAX_INTERVAL = 52;
+
+    // Largest window a single occurrences request may expand
+    public static final int MAX_WINDOW_DAYS = 366;
+
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    // ========================================
+    // CREATE SERIES
+    // ========================================
+
+    @Transactional
+    public AppointmentSeries createSeries(Long userId, Long businessId, Long serviceId,
+                                          LocalDateTime firstOccurrence, RecurrenceFrequency frequency,
+                                          Integer intervalCount, LocalDate untilDate, Integer maxOccurrences,
+                                          String notes) {
+        // Before the first read, so the checks below see every booking that got in first
+        slotReservationService.lockBusiness(businessId);
+
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+
+        Business business = businessRepository.findById(businessId)
+            .orElseThrow(() -> new IllegalArgumentException("Business not found with ID: " + businessId));
+
+        Service service = serviceRepository.findById(serviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Service not found with ID: " + serviceId));
+
+        if (firstOccurrence.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot start a recurring booking in the past");
+        }
+        if (intervalCount != null && intervalCount < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1");
+        }
+        if (intervalCount != null && intervalCount > MAX_INTERVAL) {
+            throw new IllegalArgumentException("Interval can be at most " + MAX_INTERVAL);
+        }
+        if (maxOccurrences != null && maxOccurrences < 1) {
+            throw new IllegalArgumentException("Number of occurrences must be at least 1");
+        }
+        if (untilDate != null && untilDate.isBefore(firstOccurrence.toLocalDate())) {
+            throw new IllegalArgumentException("End date must be on or after the first occurrence");
+        }
+
+        AppointmentSeries series = new AppointmentSeries();
+        series.setUser(user);
+        series.setBusiness(business);
+        series.setService(service);
+        series.setFirstOccurrence(firstOccurrence);
+        series.setFrequency(frequency);
+        series.setIntervalCount(intervalCount == null ? 1 : intervalCount);
+        series.setUntilDate(untilDate);
+        series.setMaxOccurrences(maxOccurrences);
+        series.setNotes(notes);
+        series.setActive(true);
+        series.setCreatedAt(LocalDateTime.now());
+        series.setUpdatedAt(LocalDateTime.now());
+
+        AppointmentSeries saved = appointmentSeriesRepository.save(series);
+
+        slotReservationService.assertSeriesFree(saved);
+        slotAvailabilityService.recordSeriesChanged(saved);
+
+        System.out.println("✅ Recurring series " + saved.getId() + " created: " + frequency + " x" + saved.getIntervalCount());
+        return saved;
+    }
+
+    public List<AppointmentSeries> getUserSeries(Long userId) {
+        return appointmentSeriesRepository.findByUserIdAndActiveTrue(userId);
+    }
+
+    public List<AppointmentSeries> getBusinessSeries(Long businessId) {
+        return appointmentSeriesRepository.findByBusinessIdAndActiveTrue(businessId);
+    }
+
+    // ========================================
+    // OCCURRENCES (expanded on demand)
+    // ========================================
+
+    @Transactional(readOnly = true)
+    public List<SeriesOccurrenceDTO> getSeriesOccurrences(Long seriesId, LocalDate from, LocalDate to) {
+        AppointmentSeries series = appointmentSeriesRepository.findById(seriesId)
+            .orElseThrow(() -> new IllegalArgumentException("Series not found with ID: " + seriesId));
+
+        checkWindow(from, to);
+        if (!Boolean.TRUE.equals(series.getActive())) {
+            return new ArrayList<>();
+        }
+        return expand(List.of(series), from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SeriesOccurrenceDTO> getUserOccurrences(Long userId, LocalDate from, LocalDate to) {
+        checkWindow(from, to);
+        return expand(appointmentSeriesRepository.findActiveForUserInWindow(userId, from, to.plusDays(1).atStartOfDay()), from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SeriesOccurrenceDTO> getBusinessOccurrences(Long businessId, LocalDate from, LocalDate to) {
+        checkWindow(from, to);
+        return expand(appointmentSeriesRepository.findActiveForBusinessInWindow(businessId, from, to.plusDays(1).atStartOfDay()), from, to);
+    }
+
+    // ========================================
+    // EXCEPTIONS AND CANCELLATION
+    // ========================================
+
+    @Transactional
+    public AppointmentSeries skipOccurrence(Long seriesId, LocalDate date, Long userId) {
+        AppointmentSeries series = findAuthorized(seriesId, userId);
+
+        LocalDateTime dayStart = date.atStartOfDay();
+        if (RecurrenceExpander.occurrences(series, dayStart, date.plusDays(1).atStartOfDay()).isEmpty()) {
+            throw new IllegalArgumentException("No occurrence of this series on " + date);
+        }
+
+        series.getSkippedDates().add(date);
+        series.setUpdatedAt(LocalDateTime.now());
+
+        AppointmentSeries saved = appointmentSeriesRepository.save(series);
+        slotAvailabilityService.recordSeriesChanged(saved);
+        return saved;
+    }
+
+    @Transactional
+    public AppointmentSeries cancelSeries(Long seriesId, Long userId) {
+        AppointmentSeries series = findAuthorized(seriesId, userId);
+
+        series.setActive(false);
+        series.setUpdatedAt(LocalDateTime.now());
+
+        AppointmentSeries saved = appointmentSeriesRepository.save(series);
+        slotAvailabilityService.recordSeriesChanged(saved);
+
+        System.out.println("✅ Recurring series " + seriesId + " cancelled");
+        return saved;
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private AppointmentSeries findAuthorized(Long seriesId, Long userId) {
+        AppointmentSeries series = appointmentSeriesRepository.findById(seriesId)
+            .orElseThrow(() -> new IllegalArgumentException("Series not found with ID: " + seriesId));
+
+        boolean isUser = series.getUser().getId().equals(userId);
+        boolean isBusinessOwner = series.getBusiness().getOwner().getId().equals(userId);
+
+        if (!isUser && !isBusinessOwner) {
+            throw new IllegalArgumentException("Unauthorized: You can only change your own recurring bookings");
+        }
+        if (!Boolean.TRUE.equals(series.getActive())) {
+            throw new IllegalArgumentException("This recurring booking has been cancelled");
+        }
+        return series;
+    }
+
+    private void checkWindow(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (from.plusDays(MAX_WINDOW_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Date range can be at most " + MAX_WINDOW_DAYS + " days");
+        }
+    }
+
+    // Inclusive date range [from, to], sorted by start time across all series
+    private List<SeriesOccurrenceDTO> expand(List<AppointmentSeries> seriesList, LocalDate from, LocalDate to) {
+        LocalDateTime windowStart = from.atStartOfDay();
+        LocalDateTime windowEnd = to.plusDays(1).atStartOfDay();
+
+        List<SeriesOccurrenceDTO> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesList) {
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(series, windowStart, windowEnd)) {
+                occurrences.add(new SeriesOccurrenceDTO(series, occurrence));
+            }
+        }
+
+        occurrences.sort(Comparator.comparing(SeriesOccurrenceDTO::getAppointmentDateTime));
+        return occurrences;
+    }
+}
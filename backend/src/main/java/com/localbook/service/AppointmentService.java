@@ -1,5 +1,8 @@
 package com.localbook.service;
 
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.BulkTransitionResultDTO;
+import com.localbook.dto.CursorPageDTO;
 import com.localbook.model.Appointment;
 import com.localbook.model.AppointmentStatus;
 import com.localbook.model.Business;
@@ -13,17 +16,26 @@ import com.localbook.repository.UserRepository;
 import com.localbook.repository.ServiceRepository;
 import com.localbook.repository.PushTokenRepository;
 import com.localbook.repository.UserNotificationSettingsRepository;
+import com.localbook.util.AfterCommit;
+import com.localbook.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @org.springframework.stereotype.Service
 public class AppointmentService {
@@ -49,8 +61,27 @@ public class AppointmentService {
     @Autowired
     private ExpoPushService expoPushService;
     
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+    
+    @Autowired
+    private SlotReservationService slotReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private BusinessStatsService businessStatsService;
+    
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK_SIZE = 500;
+    
+    // Keyset position before every real appointment (first page)
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    
     // ========================================
     // CREATE APPOINTMENT with notifications
     // ========================================
@@ -83,6 +114,12 @@ public class AppointmentService {
         
         Appointment saved = appointmentRepository.save(appointment);
         
+        // Claim the slots atomically; throws (and rolls back) if someone got there first
+        slotReservationService.reserve(saved);
+        slotAvailabilityService.occupy(saved);
+        waitlistService.markFulfilled(userId, businessId, appointmentDateTime.toLocalDate());
+        businessStatsService.recordCreated(saved);
+        
         // ✅ Send notifications
         Long customerId = saved.getUser().getId();
         Long businessOwnerId = saved.getBusiness().getOwner().getId();
@@ -116,66 +153,72 @@ public class AppointmentService {
     
     // ✅ YOUR EXISTING METHODS (keep all of these)
     
-    public List<Appointment> getAllAppointments() {
-        return appointmentRepository.findAll();
+    public List<AppointmentSummaryDTO> getAllAppointments() {
+        return appointmentRepository.findAllSummaries();
     }
     
     public Optional<Appointment> getAppointmentById(Long id) {
         return appointmentRepository.findById(id);
     }
     
-    public List<Appointment> getUserAppointments(Long userId) {
-        return appointmentRepository.findByUserId(userId);
+    public List<AppointmentSummaryDTO> getUserAppointments(Long userId) {
+        return appointmentRepository.findSummariesByUserId(userId);
     }
     
-    public List<Appointment> getUpcomingUserAppointments(Long userId) {
+    public List<AppointmentSummaryDTO> getUpcomingUserAppointments(Long userId) {
         LocalDateTime now = LocalDateTime.now();
-        return appointmentRepository.findByUserIdAndAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(userId, now);
+        return appointmentRepository.findUserSummariesAfter(userId, now);
     }
     
-    public List<Appointment> getPastUserAppointments(Long userId) {
+    public List<AppointmentSummaryDTO> getPastUserAppointments(Long userId) {
         LocalDateTime now = LocalDateTime.now();
-        return appointmentRepository.findByUserIdAndAppointmentDateTimeBeforeOrderByAppointmentDateTimeDesc(userId, now);
+        return appointmentRepository.findUserSummariesBefore(userId, now);
     }
     
-    public List<Appointment> getBusinessAppointments(Long businessId) {
-        return appointmentRepository.findByBusinessId(businessId);
+    public List<AppointmentSummaryDTO> getBusinessAppointments(Long businessId) {
+        return appointmentRepository.findSummariesByBusinessId(businessId);
     }
     
-    public List<Appointment> getTodayBusinessAppointments(Long businessId) {
-    System.out.println("=== FETCHING TODAY'S APPOINTMENTS ===");
-    System.out.println("Business ID: " + businessId);
+    // ========================================
+    // KEYSET PAGES (ordered by appointmentDateTime, id)
+    // ========================================
     
-    LocalDate today = LocalDate.now();
-    System.out.println("Today's date: " + today);
+    public CursorPageDTO<AppointmentSummaryDTO> getAppointmentsPage(String cursor, Integer size) {
+        return page(cursor, size, (afterTime, afterId, pageable) ->
+            appointmentRepository.findPageAfter(afterTime, afterId, pageable));
+    }
     
-    List<Appointment> allAppointments = appointmentRepository.findAll();
-    System.out.println("Total appointments in DB: " + allAppointments.size());
+    public CursorPageDTO<AppointmentSummaryDTO> getUserAppointmentsPage(Long userId, String cursor, Integer size) {
+        return page(cursor, size, (afterTime, afterId, pageable) ->
+            appointmentRepository.findUserPageAfter(userId, afterTime, afterId, pageable));
+    }
     
-    List<Appointment> todayActiveAppointments = allAppointments.stream()
-        .filter(apt -> {
-            boolean isThisBusiness = apt.getBusiness().getId().equals(businessId);
-            boolean isToday = apt.getAppointmentDateTime().toLocalDate().equals(today);
-            boolean isNotCanceled = apt.getStatus() != AppointmentStatus.CANCELED;
-            boolean isNotCompleted = apt.getStatus() != AppointmentStatus.COMPLETED;
-            
-            if (isThisBusiness && isToday) {
-                System.out.println("Appointment " + apt.getId() + ": Status=" + apt.getStatus() + 
-                                 ", Include=" + (isNotCanceled && isNotCompleted));
-            }
-            
-            return isThisBusiness && isToday && isNotCanceled && isNotCompleted;
-        })
-        .collect(Collectors.toList());
+    public CursorPageDTO<AppointmentSummaryDTO> getBusinessAppointmentsPage(Long businessId, String cursor, Integer size) {
+        return page(cursor, size, (afterTime, afterId, pageable) ->
+            appointmentRepository.findBusinessPageAfter(businessId, afterTime, afterId, pageable));
+    }
     
-    System.out.println("✅ Today's active appointments: " + todayActiveAppointments.size());
+    public List<AppointmentSummaryDTO> getTodayBusinessAppointments(Long businessId) {
+        LocalDate today = LocalDate.now();
+        
+        // Active (not cancelled, not completed) bookings for today, straight from the index
+        return appointmentRepository.findBusinessAppointmentsInRangeExcludingStatuses(
+            businessId,
+            today.atStartOfDay(),
+            today.plusDays(1).atStartOfDay(),
+            EnumSet.of(AppointmentStatus.CANCELED, AppointmentStatus.COMPLETED)
+        );
+    }
     
-    return todayActiveAppointments;
-}
+    // Every appointment on the day whatever its status (dashboard schedule)
+    public List<AppointmentSummaryDTO> getBusinessAppointmentsOn(Long businessId, LocalDate date) {
+        return appointmentRepository.findBusinessSummariesInRange(
+            businessId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
     
-    public List<Appointment> getUpcomingBusinessAppointments(Long businessId) {
+    public List<AppointmentSummaryDTO> getUpcomingBusinessAppointments(Long businessId) {
         LocalDateTime now = LocalDateTime.now();
-        return appointmentRepository.findByBusinessIdAndAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(businessId, now);
+        return appointmentRepository.findBusinessSummariesAfter(businessId, now);
     }
     
     public List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
@@ -191,10 +234,20 @@ public class AppointmentService {
             throw new IllegalArgumentException("Unauthorized: You can only confirm appointments for your business");
         }
         
+        AppointmentStatus previousStatus = appointment.getStatus();
+        boolean wasConfirmed = previousStatus == AppointmentStatus.CONFIRMED;
+        
         appointment.setStatus(AppointmentStatus.CONFIRMED);
         appointment.setUpdatedAt(LocalDateTime.now());
         
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        if (!wasConfirmed) {
+            slotReservationService.reserve(saved);
+            slotAvailabilityService.occupy(saved);
+        }
+        businessStatsService.recordStatusChange(saved, previousStatus);
+        
+        return saved;
     }
     
     // ========================================
@@ -220,10 +273,20 @@ public class AppointmentService {
             throw new IllegalArgumentException("Unauthorized: You can only cancel your own appointments");
         }
         
+        AppointmentStatus previousStatus = appointment.getStatus();
+        boolean wasConfirmed = previousStatus == AppointmentStatus.CONFIRMED;
+        
         appointment.setStatus(AppointmentStatus.CANCELED);
         appointment.setUpdatedAt(LocalDateTime.now());
         
         Appointment saved = appointmentRepository.save(appointment);
+        if (wasConfirmed) {
+            slotReservationService.release(saved.getId());
+            slotAvailabilityService.release(saved);
+            waitlistService.offerFreedSlot(saved.getBusiness().getId(), saved.getAppointmentDateTime(),
+                SlotAvailabilityService.durationOf(saved));
+        }
+        businessStatsService.recordStatusChange(saved, previousStatus);
         
         // ✅ Send cancellation notifications to BOTH
         Long customerId = saved.getUser().getId();
@@ -274,12 +337,112 @@ public class AppointmentService {
             throw new IllegalArgumentException("Cannot complete a future appointment");
         }
         
+        AppointmentStatus previousStatus = appointment.getStatus();
+        boolean wasConfirmed = previousStatus == AppointmentStatus.CONFIRMED;
+        
         appointment.setStatus(AppointmentStatus.COMPLETED);
         appointment.setUpdatedAt(LocalDateTime.now());
         
         System.out.println("✅ Appointment completed successfully");
         
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        if (wasConfirmed) {
+            slotAvailabilityService.release(saved);
+        }
+        businessStatsService.recordStatusChange(saved, previousStatus);
+        
+        return saved;
+    }
+    
+    // ========================================
+    // BULK COMPLETE / CANCEL (business owner closing out a day)
+    // ========================================
+    
+    @Transactional
+    public BulkTransitionResultDTO bulkTransition(List<Long> appointmentIds, Long userId, AppointmentStatus targetStatus) {
+        if (targetStatus != AppointmentStatus.COMPLETED && targetStatus != AppointmentStatus.CANCELED) {
+            throw new IllegalArgumentException("Bulk updates can only complete or cancel appointments");
+        }
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            throw new IllegalArgumentException("No appointments given");
+        }
+        
+        Set<Long> ids = new LinkedHashSet<>(appointmentIds);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " appointments can be updated at once");
+        }
+        
+        // One query loads every appointment with its owner, customer and service
+        Map<Long, Appointment> byId = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findWithOwnerByIdIn(ids)) {
+            byId.put(appointment.getId(), appointment);
+        }
+        
+        // All-or-nothing ownership check before anything is written
+        for (Long id : ids) {
+            Appointment appointment = byId.get(id);
+            if (appointment == null) {
+                throw new IllegalArgumentException("Appointment not found with ID: " + id);
+            }
+            if (!appointment.getBusiness().getOwner().getId().equals(userId)) {
+                throw new IllegalArgumentException("Unauthorized: You can only update appointments for your business");
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Appointment> eligible = new ArrayList<>();
+        Map<Long, String> skipped = new LinkedHashMap<>();
+        
+        for (Long id : ids) {
+            Appointment appointment = byId.get(id);
+            if (appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+                skipped.put(id, "Appointment is already " + appointment.getStatus());
+            } else if (targetStatus == AppointmentStatus.COMPLETED && appointment.getAppointmentDateTime().isAfter(now)) {
+                skipped.put(id, "Cannot complete a future appointment");
+            } else {
+                eligible.add(appointment);
+            }
+        }
+        
+        List<Long> updatedIds = new ArrayList<>();
+        for (Appointment appointment : eligible) {
+            updatedIds.add(appointment.getId());
+        }
+        
+        if (!updatedIds.isEmpty()) {
+            int updated = appointmentRepository.updateStatusByIdIn(
+                updatedIds, AppointmentStatus.CONFIRMED, targetStatus, now);
+            
+            // Someone else changed one of them since we read it: roll the whole batch back
+            if (updated != updatedIds.size()) {
+                throw new IllegalArgumentException("Some appointments were changed by someone else, please refresh and try again");
+            }
+            
+            // The update cleared the persistence context; keep the detached copies in step for what follows
+            for (Appointment appointment : eligible) {
+                appointment.setStatus(targetStatus);
+                appointment.setUpdatedAt(now);
+            }
+            
+            if (targetStatus == AppointmentStatus.CANCELED) {
+                slotReservationService.release(updatedIds);
+            }
+            for (Appointment appointment : eligible) {
+                slotAvailabilityService.release(appointment);
+            }
+            businessStatsService.recordStatusChange(eligible, AppointmentStatus.CONFIRMED, targetStatus);
+            
+            if (targetStatus == AppointmentStatus.CANCELED) {
+                for (Appointment appointment : eligible) {
+                    waitlistService.offerFreedSlot(appointment.getBusiness().getId(), appointment.getAppointmentDateTime(),
+                        SlotAvailabilityService.durationOf(appointment));
+                }
+                sendBulkCancellationNotifications(eligible, userId);
+            }
+        }
+        
+        System.out.println("✅ Bulk " + targetStatus + ": " + updatedIds.size() + " updated, " + skipped.size() + " skipped");
+        return new BulkTransitionResultDTO(targetStatus, ids.size(), updatedIds, skipped);
     }
     
     // ========================================
@@ -311,6 +474,7 @@ public class AppointmentService {
         }
         
         LocalDateTime oldDateTime = appointment.getAppointmentDateTime();
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setAppointmentDateTime(newDateTime);
         appointment.setStatus(AppointmentStatus.CONFIRMED);
         appointment.setUpdatedAt(LocalDateTime.now());
@@ -321,6 +485,11 @@ public class AppointmentService {
         appointment.setNotificationStartSent(false);
         
         Appointment saved = appointmentRepository.save(appointment);
+        slotReservationService.release(saved.getId());
+        slotReservationService.reserve(saved);
+        slotAvailabilityService.release(saved.getBusiness().getId(), oldDateTime, SlotAvailabilityService.durationOf(saved));
+        slotAvailabilityService.occupy(saved);
+        businessStatsService.recordRescheduled(saved, oldDateTime, previousStatus);
         
         // ✅ Send reschedule notifications to BOTH
         Long customerId = saved.getUser().getId();
@@ -364,6 +533,50 @@ public class AppointmentService {
         }
         
         appointmentRepository.delete(appointment);
+        slotReservationService.release(appointmentId);
+        businessStatsService.recordDeleted(appointment);
+        if (appointment.getStatus() == AppointmentStatus.CONFIRMED) {
+            slotAvailabilityService.release(appointment);
+            waitlistService.offerFreedSlot(appointment.getBusiness().getId(), appointment.getAppointmentDateTime(),
+                SlotAvailabilityService.durationOf(appointment));
+        }
+    }
+    
+    // ========================================
+    // HELPER: Keyset pagination
+    // ========================================
+    
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<AppointmentSummaryDTO> fetch(LocalDateTime afterTime, Long afterId, Pageable pageable);
+    }
+    
+    private CursorPageDTO<AppointmentSummaryDTO> page(String cursor, Integer size, KeysetQuery query) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        LocalDateTime afterTime = KEYSET_START;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                afterTime = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        // Fetch one extra row to know whether another page exists
+        List<AppointmentSummaryDTO> rows = query.fetch(afterTime, afterId, PageRequest.of(0, pageSize + 1));
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            AppointmentSummaryDTO last = rows.get(pageSize - 1);
+            nextCursor = CursorCodec.encode(last.getAppointmentDateTime(), last.getId());
+        }
+        
+        return new CursorPageDTO<>(rows, pageSize, nextCursor);
     }
     
     // ========================================
@@ -374,21 +587,7 @@ public class AppointmentService {
         // Check user notification settings
         Optional<UserNotificationSettings> settingsOpt = settingsRepository.findByUserId(userId);
         
-        boolean shouldSend = true;
-        if (settingsOpt.isPresent()) {
-            UserNotificationSettings settings = settingsOpt.get();
-            
-            try {
-                String methodName = "get" + settingField.substring(0, 1).toUpperCase() + settingField.substring(1);
-                Boolean enabled = (Boolean) settings.getClass().getMethod(methodName).invoke(settings);
-                
-                if (enabled != null && !enabled) {
-                    shouldSend = false;
-                }
-            } catch (Exception e) {
-                // If setting not found, send anyway
-            }
-        }
+        boolean shouldSend = isNotificationEnabled(settingsOpt.orElse(null), settingField);
         
         if (!shouldSend) {
             System.out.println("⚠️ User " + userId + " has disabled " + type + " notifications");
@@ -402,15 +601,90 @@ public class AppointmentService {
             data.put("type", type);
             data.put("appointmentId", appointmentId.toString());
             
-            expoPushService.sendPushNotification(
-                tokenOpt.get().getPushToken(),
-                title,
-                body,
-                data
-            );
-            System.out.println("✅ Mobile push sent to user " + userId);
+            String pushToken = tokenOpt.get().getPushToken();
+            
+            // Sent once the change is committed, outside the booking's slot lock
+            AfterCommit.run(() -> {
+                expoPushService.sendPushNotification(pushToken, title, body, data);
+                System.out.println("✅ Mobile push sent to user " + userId);
+            });
         } else {
             System.out.println("⚠️ No mobile token for user " + userId);
         }
     }
+    
+    private boolean isNotificationEnabled(UserNotificationSettings settings, String settingField) {
+        if (settings == null) {
+            return true;
+        }
+        
+        try {
+            String methodName = "get" + settingField.substring(0, 1).toUpperCase() + settingField.substring(1);
+            Boolean enabled = (Boolean) settings.getClass().getMethod(methodName).invoke(settings);
+            
+            return enabled == null || enabled;
+        } catch (Exception e) {
+            // If setting not found, send anyway
+            return true;
+        }
+    }
+    
+    // ========================================
+    // HELPER: Batched cancellation pushes for bulk updates
+    // ========================================
+    
+    private void sendBulkCancellationNotifications(List<Appointment> cancelled, Long businessOwnerId) {
+        Set<Long> userIds = new HashSet<>();
+        userIds.add(businessOwnerId);
+        for (Appointment appointment : cancelled) {
+            userIds.add(appointment.getUser().getId());
+        }
+        
+        // Two queries for the whole batch instead of two per recipient
+        Map<Long, UserNotificationSettings> settingsByUser = new HashMap<>();
+        for (UserNotificationSettings settings : settingsRepository.findByUserIdIn(userIds)) {
+            settingsByUser.put(settings.getUserId(), settings);
+        }
+        Map<Long, String> tokenByUser = new HashMap<>();
+        for (PushToken token : pushTokenRepository.findByUserIdIn(userIds)) {
+            tokenByUser.putIfAbsent(token.getUserId(), token.getPushToken());
+        }
+        
+        String settingField = "enableCancellationNotifications";
+        List<Map<String, Object>> messages = new ArrayList<>();
+        
+        for (Appointment appointment : cancelled) {
+            Long customerId = appointment.getUser().getId();
+            String token = tokenByUser.get(customerId);
+            if (token == null || !isNotificationEnabled(settingsByUser.get(customerId), settingField)) {
+                continue;
+            }
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("type", "cancelled");
+            data.put("appointmentId", appointment.getId().toString());
+            
+            String appointmentDetails = appointment.getService().getName() + " on " +
+                                       appointment.getAppointmentDateTime().format(formatter);
+            messages.add(expoPushService.buildMessage(token,
+                "Appointment Cancelled ❌",
+                "Your appointment for " + appointmentDetails + " has been cancelled",
+                data));
+        }
+        
+        // The owner gets one summary instead of a push per appointment
+        String ownerToken = tokenByUser.get(businessOwnerId);
+        if (ownerToken != null && isNotificationEnabled(settingsByUser.get(businessOwnerId), settingField)) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("type", "cancelled");
+            data.put("count", String.valueOf(cancelled.size()));
+            messages.add(expoPushService.buildMessage(ownerToken,
+                "Appointments Cancelled ❌",
+                cancelled.size() + " appointment(s) have been cancelled",
+                data));
+        }
+        
+        // Only push once the cancellations are actually committed
+        AfterCommit.run(() -> expoPushService.sendBatch(messages));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.localbook.service;
+
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.util.AfterCommit;
+import com.localbook.util.SearchText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How many businesses are in each category, held in memory for the category
+ * listing every visitor sees.
+ *
+ * Loaded with one GROUP BY on first use, then adjusted by BusinessService when a
+ * business registers, changes category or is deleted (after its transaction
+ * commits), and reloaded nightly to repair any drift from changes made outside
+ * the application. The reload queries without holding the counts' lock, so
+ * adjustments keep applying meanwhile; if any did, the rows may or may not
+ * include them, so it queries again rather than count them twice.
+ */
+@Service
+public class BusinessCategoryCounts {
+
+    // Reloads that keep racing adjustments install their last result anyway; the next night repairs it
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    // Guarded by this. Normalised category name -> businesses; null until first read
+    private Map<String, Long> counts;
+    // Guarded by this. Adjustments applied so far, loaded or not
+    private long adjustments;
+
+    // One reload at a time; reads and adjustments don't wait for it
+    private final Object reloadLock = new Object();
+
+    public long countFor(String category) {
+        if (!isLoaded()) {
+            synchronized (reloadLock) {
+                if (!isLoaded()) {
+                    reload();
+                }
+            }
+        }
+        synchronized (this) {
+            return category == null ? 0L : counts.getOrDefault(SearchText.nameKey(category), 0L);
+        }
+    }
+
+    /**
+     * A business left category from (null when it was just registered) for to
+     * (null when it was deleted). Applied once the current transaction commits.
+     */
+    public void recordMoved(String from, String to) {
+        if (SearchText.nameKey(from).equals(SearchText.nameKey(to))) {
+            return;
+        }
+        AfterCommit.run(() -> adjust(from, to));
+    }
+
+    @Scheduled(cron = "0 45 3 * * *")
+    public void reload() {
+        synchronized (reloadLock) {
+            for (int attempt = 1; ; attempt++) {
+                long seen;
+                synchronized (this) {
+                    seen = adjustments;
+                }
+                Map<String, Long> loaded = new HashMap<>();
+                for (NamedCountDTO row : businessRepository.countAllByCategory()) {
+                    loaded.merge(SearchText.nameKey(row.getName()), row.getCount(), Long::sum);
+                }
+                synchronized (this) {
+                    if (adjustments == seen || attempt == MAX_LOAD_ATTEMPTS) {
+                        counts = loaded;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private synchronized boolean isLoaded() {
+        return counts != null;
+    }
+
+    private synchronized void adjust(String from, String to) {
+        adjustments++;
+        // Not loaded yet: the first read will count the change from the database
+        if (counts == null) {
+            return;
+        }
+        if (from != null) {
+            counts.computeIfPresent(SearchText.nameKey(from), (k, n) -> n > 1 ? n - 1 : null);
+        }
+        if (to != null) {
+            counts.merge(SearchText.nameKey(to), 1L, Long::sum);
+        }
+    }
+}
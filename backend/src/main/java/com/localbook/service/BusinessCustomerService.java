@@ -0,0 +1,131 @@
+package com.localbook.service;
+
+import com.localbook.dto.BusinessCustomerDTO;
+import com.localbook.dto.CursorPageDTO;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.util.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * A business's customer roster: one row per customer with their booking, visit
+ * and cancellation counts, last visit and spend, aggregated by the database and
+ * served a page at a time.
+ */
+@Service
+public class BusinessCustomerService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // First-page keys: every real row sorts after these
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59);
+    // Last visit of a customer with none yet, so they sort after everyone else
+    private static final LocalDateTime NEVER = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public enum Sort {
+        RECENT,  // last completed visit, newest first; no visits yet last
+        VISITS,  // most visits first
+        SPEND,   // highest spend first
+        NAME     // A to Z
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    public CursorPageDTO<BusinessCustomerDTO> getCustomers(Long businessId, String sort, String search,
+                                                           String cursor, Integer size) {
+        Sort order = parseSort(sort);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String term = search == null || search.isBlank() ? null : escapeLike(search.trim());
+
+        String afterValue = null;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            if (!parts[0].equals(order.name())) {
+                throw new IllegalArgumentException("Cursor belongs to a different sort order");
+            }
+            afterValue = parts[2];
+            try {
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<BusinessCustomerDTO> rows = fetch(businessId, order, term, afterValue, afterId, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            BusinessCustomerDTO last = rows.get(pageSize - 1);
+            // Sort value last: a name may contain the cursor separator
+            nextCursor = CursorCodec.encode(order.name(), last.getUserId(), sortValue(order, last));
+        }
+
+        return new CursorPageDTO<>(rows, pageSize, nextCursor);
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private List<BusinessCustomerDTO> fetch(Long businessId, Sort order, String search,
+                                            String afterValue, Long afterId, Pageable pageable) {
+        try {
+            switch (order) {
+                case VISITS:
+                    return appointmentRepository.findCustomersByVisits(businessId, search,
+                        afterValue == null ? Long.MAX_VALUE : Long.parseLong(afterValue), afterId, pageable);
+                case SPEND:
+                    return appointmentRepository.findCustomersBySpend(businessId, search,
+                        afterValue == null ? Double.MAX_VALUE : Double.parseDouble(afterValue), afterId, pageable);
+                case NAME:
+                    return appointmentRepository.findCustomersByName(businessId, search,
+                        afterValue == null ? "" : afterValue, afterId, pageable);
+                default:
+                    return appointmentRepository.findCustomersByRecent(businessId, search, NEVER,
+                        afterValue == null ? NEWEST : LocalDateTime.parse(afterValue), afterId, pageable);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Object sortValue(Sort order, BusinessCustomerDTO customer) {
+        switch (order) {
+            case VISITS:
+                return customer.getVisitCount();
+            case SPEND:
+                return customer.getTotalSpend();
+            case NAME:
+                return customer.getName();
+            default:
+                return customer.getLastVisit() == null ? NEVER : customer.getLastVisit();
+        }
+    }
+
+    // The term matched literally: '%' and '_' are not wildcards ('!' is the query's escape)
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.RECENT;
+        }
+        try {
+            return Sort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + sort + " (use recent, visits, spend or name)");
+        }
+    }
+}
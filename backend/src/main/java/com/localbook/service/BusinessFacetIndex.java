@@ -0,0 +1,584 @@
+package com.localbook.service;
+
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.FacetedSearchDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.RatingRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.util.AfterCommit;
+import com.localbook.util.SearchText;
+import com.localbook.util.WeeklyHours;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory posting lists for the faceted business search: one bit set per
+ * category, county, town, price bucket and rating bucket, over a dense
+ * numbering of the businesses.
+ *
+ * A search turns each filter into a bit set and ANDs them for the results. Each
+ * facet value is counted by intersecting its posting with the AND of the other
+ * filters, so a value shows how many results picking it would give. Price and
+ * rating bounds that fall inside a bucket are checked exactly, but only for the
+ * businesses in that edge bucket. Businesses are also posted under their
+ * compiled WeeklyHours; schedules are interned and few, so "open at" tests one
+ * bit per distinct schedule and ORs the postings of those open.
+ *
+ * Built at startup from one read each of businesses, service prices, ratings
+ * and opening hours. BusinessService passes business changes once they commit.
+ * Price, rating and hours changes only mark the business, and marked businesses
+ * are reloaded with IN queries before the next search.
+ */
+@Service
+public class BusinessFacetIndex extends InMemoryIndex {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Lower bounds of the price buckets in euro; the last bucket is open-ended
+    private static final double[] PRICE_BOUNDS = {0, 20, 40, 60, 100, 150};
+    private static final String[] PRICE_LABELS = {"0-20", "20-40", "40-60", "60-100", "100-150", "150+"};
+
+    // Rating buckets by whole stars, 0 for unrated: 1-2, 2-3, 3-4 and 4-5 (5 included)
+    private static final int RATING_BUCKETS = 5;
+    private static final String[] RATING_LABELS = {"Unrated", "1-2", "2-3", "3-4", "4-5"};
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private BusinessHoursRepository businessHoursRepository;
+
+    @Autowired
+    private OpeningHoursService openingHoursService;
+
+    // Every business gets a number, in id order at load; postings only hold listed ones
+    private final Map<Long, Integer> docs = new HashMap<>();
+    private final List<Doc> documents = new ArrayList<>();
+    private final BitSet listed = new BitSet();
+    private final Map<String, BitSet> byCategory = new HashMap<>();
+    private final Map<String, BitSet> byCounty = new HashMap<>();
+    private final Map<String, BitSet> byTown = new HashMap<>();
+    private final BitSet[] byPrice = new BitSet[PRICE_BOUNDS.length];
+    private final BitSet[] byRating = new BitSet[RATING_BUCKETS];
+    private final Map<WeeklyHours, BitSet> bySchedule = new HashMap<>();
+    // Normalised name -> name as last saved, for the facet labels
+    private final Map<String, String> categoryNames = new HashMap<>();
+    private final Map<String, String> countyNames = new HashMap<>();
+
+    // Businesses whose prices, rating or hours changed since they were loaded
+    private final Set<Long> stale = new HashSet<>();
+
+    public BusinessFacetIndex() {
+        Arrays.setAll(byPrice, b -> new BitSet());
+        Arrays.setAll(byRating, b -> new BitSet());
+    }
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * One page of the listed businesses matching every given filter, highest rated
+     * first (ties by id), with the facet counts. category, county and town match
+     * ignoring case; the price range matches businesses with at least one service
+     * priced within it; openAt keeps businesses open at that minute of their week.
+     */
+    public FacetedSearchDTO<Long> search(String category, String county, String town, Double minPrice,
+                                         Double maxPrice, Double minRating, LocalDateTime openAt,
+                                         Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+            throw new IllegalArgumentException("Prices cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Minimum price cannot be above maximum price");
+        }
+        if (minRating != null && (minRating < 0 || minRating > 5)) {
+            throw new IllegalArgumentException("Minimum rating must be between 0 and 5");
+        }
+
+        ensureLoaded();
+        refreshStale();
+        lock.readLock().lock();
+        try {
+            BitSet categoryFilter = isBlank(category) ? null : posting(byCategory, category);
+            BitSet countyFilter = isBlank(county) ? null : posting(byCounty, county);
+            BitSet townFilter = isBlank(town) ? null : posting(byTown, town);
+            BitSet priceFilter = minPrice == null && maxPrice == null ? null : priceFilter(minPrice, maxPrice);
+            BitSet ratingFilter = minRating == null ? null : ratingFilter(minRating);
+            BitSet openFilter = openAt == null ? null : openAt(openAt);
+
+            BitSet results = intersect(categoryFilter, countyFilter, townFilter, priceFilter, ratingFilter, openFilter);
+            List<NamedCountDTO> categories = countNamed(byCategory, categoryNames,
+                intersect(countyFilter, townFilter, priceFilter, ratingFilter, openFilter));
+            List<NamedCountDTO> counties = countNamed(byCounty, countyNames,
+                intersect(categoryFilter, townFilter, priceFilter, ratingFilter, openFilter));
+            List<NamedCountDTO> priceRanges = countBuckets(byPrice, PRICE_LABELS,
+                intersect(categoryFilter, countyFilter, townFilter, ratingFilter, openFilter));
+            List<NamedCountDTO> ratings = countBuckets(byRating, RATING_LABELS,
+                intersect(categoryFilter, countyFilter, townFilter, priceFilter, openFilter));
+
+            return new FacetedSearchDTO<>(page(results, pageNumber, pageSize), results.cardinality(),
+                pageNumber, pageSize, categories, counties, priceRanges, ratings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================
+    // WRITES
+    // ========================================
+
+    /**
+     * Every business with its prices, rating and hours, read for rebuild(): at
+     * startup, by the first search if that comes earlier, or as a repair.
+     */
+    @Override
+    protected Runnable load() {
+        List<Business> businesses = new ArrayList<>(businessRepository.findAll());
+        businesses.sort(Comparator.comparing(Business::getId));
+        Map<Long, List<Double>> prices = pricesOf(serviceRepository.findBenchmarkPrices());
+        Map<Long, Double> ratings = ratingsOf(ratingRepository.findBenchmarkRatings());
+        Map<Long, List<BusinessHours>> hours = hoursOf(businessHoursRepository.findAll());
+
+        return () -> {
+            docs.clear();
+            documents.clear();
+            listed.clear();
+            byCategory.clear();
+            byCounty.clear();
+            byTown.clear();
+            Arrays.setAll(byPrice, b -> new BitSet());
+            Arrays.setAll(byRating, b -> new BitSet());
+            bySchedule.clear();
+            for (Business business : businesses) {
+                Long id = business.getId();
+                Map<String, Map<String, Object>> display = openingHoursService.displayHours(business);
+                put(new Doc(business, display, prices.getOrDefault(id, List.of()), ratings.get(id),
+                    OpeningHoursService.compile(hours.getOrDefault(id, List.of()), display)));
+            }
+            System.out.println("🧮 Facet index built: " + businesses.size() + " businesses, "
+                + byCategory.size() + " categories, " + byCounty.size() + " counties, "
+                + bySchedule.size() + " distinct weekly schedules");
+        };
+    }
+
+    // The business was registered or changed; applied once the current transaction commits
+    public void recordSaved(Business business) {
+        Doc saved = new Doc(business, openingHoursService.displayHours(business), List.of(), null,
+            WeeklyHours.CLOSED);
+        applyAfterCommit(() -> {
+            Integer doc = docs.get(saved.businessId);
+            Doc previous = doc == null ? null : documents.get(doc);
+            if (previous == null || !previous.listed) {
+                // Prices and ratings are only loaded for listed businesses: these come with the next refresh
+                put(saved);
+                markStale(saved.businessId);
+            } else if (previous.display != saved.display) {
+                // openingHours JSON changed (its parse is cached per string): recompile with the next refresh
+                put(new Doc(saved, previous.prices, previous.rating, previous.hours));
+                markStale(saved.businessId);
+            } else {
+                put(new Doc(saved, previous.prices, previous.rating, previous.hours));
+            }
+        });
+    }
+
+    public void recordDeleted(Long businessId) {
+        applyAfterCommit(() -> {
+            Integer doc = docs.remove(businessId);
+            if (doc != null) {
+                unindex(doc, documents.get(doc));
+                documents.set(doc, null);
+            }
+        });
+    }
+
+    // A service price, rating or opening hour of the business changed
+    public void recordChanged(Long businessId) {
+        AfterCommit.run(() -> markStale(businessId));
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Reload the prices, ratings and hours of businesses marked since the last search
+    private void refreshStale() {
+        List<Long> ids;
+        synchronized (stale) {
+            if (stale.isEmpty()) {
+                return;
+            }
+            ids = new ArrayList<>(stale);
+            stale.clear();
+        }
+        Map<Long, List<Double>> prices = new HashMap<>();
+        Map<Long, Double> ratings = new HashMap<>();
+        Map<Long, List<BusinessHours>> hours = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += 1000) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + 1000));
+            prices.putAll(pricesOf(serviceRepository.findBenchmarkPrices(chunk)));
+            ratings.putAll(ratingsOf(ratingRepository.findBenchmarkRatings(chunk)));
+            hours.putAll(hoursOf(businessHoursRepository.findByBusinessIdIn(chunk)));
+        }
+
+        // Through apply(), so a rebuild reading older values replays these onto its own
+        apply(() -> {
+            for (Long id : ids) {
+                Integer doc = docs.get(id);
+                if (doc != null) {
+                    Doc document = documents.get(doc);
+                    put(document.withValues(prices.getOrDefault(id, List.of()), ratings.get(id),
+                        OpeningHoursService.compile(hours.getOrDefault(id, List.of()), document.display)));
+                }
+            }
+        });
+    }
+
+    private void markStale(Long businessId) {
+        synchronized (stale) {
+            stale.add(businessId);
+        }
+    }
+
+    // Number a new business, or replace what an existing one was indexed as
+    private void put(Doc document) {
+        Integer doc = docs.get(document.businessId);
+        if (doc == null) {
+            doc = documents.size();
+            docs.put(document.businessId, doc);
+            documents.add(document);
+        } else {
+            unindex(doc, documents.get(doc));
+            documents.set(doc, document);
+        }
+        if (!document.listed) {
+            return;
+        }
+        listed.set(doc);
+        add(byCategory, document.categoryKey, doc);
+        add(byCounty, document.countyKey, doc);
+        add(byTown, document.townKey, doc);
+        for (int bucket : document.priceBuckets()) {
+            byPrice[bucket].set(doc);
+        }
+        byRating[document.ratingBucket()].set(doc);
+        bySchedule.computeIfAbsent(document.hours, h -> new BitSet()).set(doc);
+        if (!document.categoryKey.isEmpty()) {
+            categoryNames.put(document.categoryKey, document.category.trim());
+        }
+        if (!document.countyKey.isEmpty()) {
+            countyNames.put(document.countyKey, document.county.trim());
+        }
+    }
+
+    private void unindex(int doc, Doc document) {
+        listed.clear(doc);
+        remove(byCategory, document.categoryKey, doc);
+        remove(byCounty, document.countyKey, doc);
+        remove(byTown, document.townKey, doc);
+        for (BitSet bucket : byPrice) {
+            bucket.clear(doc);
+        }
+        for (BitSet bucket : byRating) {
+            bucket.clear(doc);
+        }
+        BitSet schedule = bySchedule.get(document.hours);
+        if (schedule != null) {
+            schedule.clear(doc);
+            if (schedule.isEmpty()) {
+                bySchedule.remove(document.hours);
+            }
+        }
+    }
+
+    private static void add(Map<String, BitSet> postings, String key, int doc) {
+        if (!key.isEmpty()) {
+            postings.computeIfAbsent(key, k -> new BitSet()).set(doc);
+        }
+    }
+
+    private static void remove(Map<String, BitSet> postings, String key, int doc) {
+        BitSet posting = postings.get(key);
+        if (posting != null) {
+            posting.clear(doc);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static BitSet posting(Map<String, BitSet> postings, String name) {
+        BitSet posting = postings.get(SearchText.nameKey(name));
+        return posting == null ? new BitSet() : posting;
+    }
+
+    // Listed businesses in every given filter; null filters are skipped
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) listed.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    // Businesses with a service priced from minPrice to maxPrice, either bound optional
+    private BitSet priceFilter(Double minPrice, Double maxPrice) {
+        double low = minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+        double high = maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+        BitSet whole = new BitSet();
+        BitSet edge = new BitSet();
+        for (int b = 0; b < PRICE_BOUNDS.length; b++) {
+            double from = b == 0 ? Double.NEGATIVE_INFINITY : PRICE_BOUNDS[b];
+            double to = b + 1 < PRICE_BOUNDS.length ? PRICE_BOUNDS[b + 1] : Double.POSITIVE_INFINITY;
+            if (from > high || to <= low) {
+                continue;
+            }
+            (from >= low && to <= high ? whole : edge).or(byPrice[b]);
+        }
+        edge.andNot(whole);
+        for (int doc = edge.nextSetBit(0); doc >= 0; doc = edge.nextSetBit(doc + 1)) {
+            if (documents.get(doc).hasPriceBetween(low, high)) {
+                whole.set(doc);
+            }
+        }
+        return whole;
+    }
+
+    private BitSet ratingFilter(double minRating) {
+        BitSet whole = new BitSet();
+        BitSet edge = new BitSet();
+        for (int b = 1; b < RATING_BUCKETS; b++) {
+            double to = b + 1 < RATING_BUCKETS ? b + 1 : Double.POSITIVE_INFINITY;
+            if (to <= minRating) {
+                continue;
+            }
+            (b >= minRating ? whole : edge).or(byRating[b]);
+        }
+        for (int doc = edge.nextSetBit(0); doc >= 0; doc = edge.nextSetBit(doc + 1)) {
+            if (documents.get(doc).rating >= minRating) {
+                whole.set(doc);
+            }
+        }
+        return whole;
+    }
+
+    private BitSet openAt(LocalDateTime time) {
+        int minute = WeeklyHours.minuteOfWeek(time);
+        BitSet open = new BitSet();
+        for (Map.Entry<WeeklyHours, BitSet> schedule : bySchedule.entrySet()) {
+            if (schedule.getKey().isOpenAt(minute)) {
+                open.or(schedule.getValue());
+            }
+        }
+        return open;
+    }
+
+    // Non-empty values by count, largest first
+    private static List<NamedCountDTO> countNamed(Map<String, BitSet> postings, Map<String, String> names, BitSet base) {
+        BitSet scratch = new BitSet();
+        List<NamedCountDTO> counts = new ArrayList<>();
+        for (Map.Entry<String, BitSet> posting : postings.entrySet()) {
+            long count = intersectionCount(scratch, base, posting.getValue());
+            if (count > 0) {
+                counts.add(new NamedCountDTO(names.get(posting.getKey()), count));
+            }
+        }
+        counts.sort(Comparator.comparingLong(NamedCountDTO::getCount).reversed()
+            .thenComparing(NamedCountDTO::getName));
+        return counts;
+    }
+
+    // Every bucket, in bucket order
+    private static List<NamedCountDTO> countBuckets(BitSet[] buckets, String[] labels, BitSet base) {
+        BitSet scratch = new BitSet();
+        List<NamedCountDTO> counts = new ArrayList<>();
+        for (int b = 0; b < buckets.length; b++) {
+            counts.add(new NamedCountDTO(labels[b], intersectionCount(scratch, base, buckets[b])));
+        }
+        return counts;
+    }
+
+    private static long intersectionCount(BitSet scratch, BitSet a, BitSet b) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.and(b);
+        return scratch.cardinality();
+    }
+
+    /**
+     * Ids of one page of results, highest rating first. Only the rating buckets the
+     * page reaches into are sorted; earlier ones are skipped by their count.
+     */
+    private List<Long> page(BitSet results, int page, int size) {
+        List<Long> ids = new ArrayList<>(size);
+        long skip = (long) page * size;
+        for (int b = RATING_BUCKETS - 1; b >= 0 && ids.size() < size; b--) {
+            BitSet bucket = (BitSet) results.clone();
+            bucket.and(byRating[b]);
+            int count = bucket.cardinality();
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            // Higher rating (to a thousandth) in the high bits, business number (id order) in the low
+            long[] keys = new long[count];
+            int k = 0;
+            for (int doc = bucket.nextSetBit(0); doc >= 0; doc = bucket.nextSetBit(doc + 1)) {
+                Doc document = documents.get(doc);
+                long rank = document.rating > 0 ? 5000 - Math.round(document.rating * 1000) : 0;
+                keys[k++] = rank << 32 | doc;
+            }
+            Arrays.sort(keys);
+            for (int i = (int) skip; i < keys.length && ids.size() < size; i++) {
+                ids.add(documents.get((int) keys[i]).businessId);
+            }
+            skip = 0;
+        }
+        return ids;
+    }
+
+    private static Map<Long, List<Double>> pricesOf(List<BenchmarkValueDTO> rows) {
+        Map<Long, List<Double>> prices = new HashMap<>();
+        for (BenchmarkValueDTO row : rows) {
+            if (row.getValue() != null) {
+                prices.computeIfAbsent(row.getBusinessId(), id -> new ArrayList<>()).add(row.getValue());
+            }
+        }
+        return prices;
+    }
+
+    private static Map<Long, Double> ratingsOf(List<BenchmarkValueDTO> rows) {
+        Map<Long, Double> ratings = new HashMap<>();
+        for (BenchmarkValueDTO row : rows) {
+            ratings.put(row.getBusinessId(), row.getValue());
+        }
+        return ratings;
+    }
+
+    private static Map<Long, List<BusinessHours>> hoursOf(List<BusinessHours> rows) {
+        Map<Long, List<BusinessHours>> hours = new HashMap<>();
+        for (BusinessHours row : rows) {
+            hours.computeIfAbsent(row.getBusinessId(), id -> new ArrayList<>()).add(row);
+        }
+        return hours;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * What the index knows of one business: the fields it filters on, copied when
+     * the change was made.
+     */
+    private static final class Doc {
+        private final Long businessId;
+        private final boolean listed;
+        private final String category;
+        private final String categoryKey;
+        private final String county;
+        private final String countyKey;
+        private final String townKey;
+        // Parsed openingHours JSON, the same instance until the JSON changes
+        private final Map<String, Map<String, Object>> display;
+        private final double[] prices;      // sorted
+        private final double rating;        // 0 when unrated
+        private final WeeklyHours hours;
+
+        private Doc(Business business, Map<String, Map<String, Object>> display, List<Double> prices, Double rating,
+                    WeeklyHours hours) {
+            this.businessId = business.getId();
+            this.listed = business.isListed();
+            this.category = business.getCategory();
+            this.categoryKey = SearchText.nameKey(business.getCategory());
+            this.county = business.getCounty();
+            this.countyKey = SearchText.nameKey(business.getCounty());
+            this.townKey = SearchText.nameKey(business.getTown());
+            this.display = display;
+            this.prices = sorted(prices);
+            this.rating = rating == null ? 0 : rating;
+            this.hours = hours;
+        }
+
+        private Doc(Doc doc, double[] prices, double rating, WeeklyHours hours) {
+            this.businessId = doc.businessId;
+            this.listed = doc.listed;
+            this.category = doc.category;
+            this.categoryKey = doc.categoryKey;
+            this.county = doc.county;
+            this.countyKey = doc.countyKey;
+            this.townKey = doc.townKey;
+            this.display = doc.display;
+            this.prices = prices;
+            this.rating = rating;
+            this.hours = hours;
+        }
+
+        Doc withValues(List<Double> prices, Double rating, WeeklyHours hours) {
+            return new Doc(this, sorted(prices), rating == null ? 0 : rating, hours);
+        }
+
+        List<Integer> priceBuckets() {
+            List<Integer> buckets = new ArrayList<>();
+            for (double price : prices) {
+                int bucket = 0;
+                while (bucket + 1 < PRICE_BOUNDS.length && price >= PRICE_BOUNDS[bucket + 1]) {
+                    bucket++;
+                }
+                if (buckets.isEmpty() || buckets.get(buckets.size() - 1) != bucket) {
+                    buckets.add(bucket);
+                }
+            }
+            return buckets;
+        }
+
+        int ratingBucket() {
+            return rating > 0 ? Math.max(1, Math.min(RATING_BUCKETS - 1, (int) rating)) : 0;
+        }
+
+        boolean hasPriceBetween(double low, double high) {
+            int i = Arrays.binarySearch(prices, low);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < prices.length && prices[i] <= high;
+        }
+
+        private static double[] sorted(List<Double> prices) {
+            return prices.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.localbook.service;
+
+import com.localbook.dto.NearbyBusinessDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.util.SearchText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory grid index over where listed businesses are, for "near me" search.
+ *
+ * The map is cut into cells of CELL_DEGREES latitude by CELL_DEGREES longitude
+ * and each business sits in the cell holding its lat/lng, so a move is one
+ * removal and one insertion. A query visits cells in growing rings around the
+ * searcher, keeping the nearest matches, and stops once the next ring is beyond
+ * the radius or further than the furthest of the limit matches already found.
+ * Built from one read of the businesses table at startup, then kept current by
+ * BusinessService after each business change commits.
+ */
+@Service
+public class BusinessGeoIndex extends InMemoryIndex {
+
+    public static final double DEFAULT_RADIUS_KM = 10;
+    public static final double MAX_RADIUS_KM = 100;
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 200;
+
+    // About 5.6 km north to south, and 3.3 km east to west in Ireland
+    private static final double CELL_DEGREES = 0.05;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    // Furthest first, then highest id: the head of a queue of hits is the one to drop
+    private static final Comparator<Hit> FURTHEST_FIRST = Comparator
+        .comparingDouble((Hit hit) -> hit.distanceKm)
+        .thenComparing((Hit hit) -> hit.entry.businessId)
+        .reversed();
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    // Cell (row * COLUMNS + column) -> the businesses in it
+    private final Map<Integer, List<Entry>> cells = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Listed businesses within radiusKm of (lat, lng), nearest first (ties by id),
+     * at most limit of them, so with a wide radius this is the limit nearest.
+     * category, when given, must match the business's category ignoring case.
+     */
+    public List<NearbyBusinessDTO> nearby(Double lat, Double lng, Double radiusKm, String category, Integer limit) {
+        if (lat == null || lng == null || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        double radius = radiusKm == null ? DEFAULT_RADIUS_KM : radiusKm;
+        if (!(radius > 0) || radius > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be more than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size <= 0 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String categoryKey = category == null || category.isBlank() ? null : SearchText.nameKey(category);
+
+        // A business in ring n + 1 or beyond is at least n cells away, and cells are
+        // narrowest on the side of the search area nearest the pole
+        double radiusDegrees = radius / KM_PER_DEGREE;
+        double poleward = Math.min(85, Math.abs(lat) + radiusDegrees);
+        double cellKm = CELL_DEGREES * KM_PER_DEGREE * Math.cos(Math.toRadians(poleward));
+        int maxRowOffset = (int) Math.ceil(radiusDegrees / CELL_DEGREES) + 1;
+        int row = row(lat);
+        int column = column(lng);
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Hit> nearest = new PriorityQueue<>(FURTHEST_FIRST);
+            for (int ring = 0; ; ring++) {
+                for (int r = row - ring; r <= row + ring; r++) {
+                    if (r < 0 || r >= ROWS || Math.abs(r - row) > maxRowOffset) {
+                        continue;
+                    }
+                    // Whole top and bottom rows of the ring, only the two ends of the others
+                    int step = Math.abs(r - row) == ring ? 1 : 2 * ring;
+                    for (int c = column - ring; c <= column + ring; c += step) {
+                        List<Entry> cell = cells.get(r * COLUMNS + Math.floorMod(c, COLUMNS));
+                        if (cell != null) {
+                            visit(cell, lat, lng, radius, categoryKey, size, nearest);
+                        }
+                    }
+                }
+                double covered = ring * cellKm;
+                if (covered > radius || (nearest.size() == size && nearest.peek().distanceKm <= covered)) {
+                    break;
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(nearest);
+            hits.sort(FURTHEST_FIRST.reversed());
+            List<NearbyBusinessDTO> results = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                Entry entry = hit.entry;
+                results.add(new NearbyBusinessDTO(entry.businessId, entry.businessName, entry.category,
+                    entry.town, entry.county, entry.lat, entry.lng, Math.round(hit.distanceKm * 1000) / 1000.0));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Great-circle (haversine) distance
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinLat * sinLat
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================
+    // WRITES
+    // ========================================
+
+    // Every business, read for rebuild(): at startup, by the first query if that comes earlier, or as a repair
+    @Override
+    protected Runnable load() {
+        List<Business> businesses = businessRepository.findAll();
+        return () -> {
+            cells.clear();
+            entries.clear();
+            for (Business business : businesses) {
+                Entry entry = Entry.of(business);
+                if (entry != null) {
+                    put(entry);
+                }
+            }
+            System.out.println("📍 Geo index built: " + entries.size() + " located businesses in " + cells.size() + " cells");
+        };
+    }
+
+    // The business was registered, changed or moved; applied once the current transaction commits
+    public void recordSaved(Business business) {
+        Long businessId = business.getId();
+        Entry entry = Entry.of(business);
+        applyAfterCommit(() -> {
+            remove(businessId);
+            if (entry != null) {
+                put(entry);
+            }
+        });
+    }
+
+    public void recordDeleted(Long businessId) {
+        applyAfterCommit(() -> {
+            remove(businessId);
+        });
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private void visit(List<Entry> cell, double lat, double lng, double radius, String categoryKey,
+                       int size, PriorityQueue<Hit> nearest) {
+        for (Entry entry : cell) {
+            if (categoryKey != null && !categoryKey.equals(entry.categoryKey)) {
+                continue;
+            }
+            double distance = distanceKm(lat, lng, entry.lat, entry.lng);
+            if (distance > radius) {
+                continue;
+            }
+            Hit hit = new Hit(entry, distance);
+            if (nearest.size() < size) {
+                nearest.add(hit);
+            } else if (FURTHEST_FIRST.compare(hit, nearest.peek()) > 0) {
+                nearest.poll();
+                nearest.add(hit);
+            }
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.businessId, entry);
+        cells.computeIfAbsent(entry.cell, c -> new ArrayList<>()).add(entry);
+    }
+
+    private void remove(Long businessId) {
+        Entry previous = entries.remove(businessId);
+        if (previous == null) {
+            return;
+        }
+        List<Entry> cell = cells.get(previous.cell);
+        cell.remove(previous);
+        if (cell.isEmpty()) {
+            cells.remove(previous.cell);
+        }
+    }
+
+    private static int row(double lat) {
+        return Math.min(ROWS - 1, (int) Math.floor((lat + 90) / CELL_DEGREES));
+    }
+
+    private static int column(double lng) {
+        return Math.floorMod((int) Math.floor((lng + 180) / CELL_DEGREES), COLUMNS);
+    }
+
+    private static final class Hit {
+        private final Entry entry;
+        private final double distanceKm;
+
+        Hit(Entry entry, double distanceKm) {
+            this.entry = entry;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    /**
+     * A listed business with a location, as it was when the change was made.
+     */
+    private static final class Entry {
+        private final Long businessId;
+        private final String businessName;
+        private final String category;
+        private final String categoryKey;
+        private final String town;
+        private final String county;
+        private final double lat;
+        private final double lng;
+        private final int cell;
+
+        private Entry(Business business) {
+            this.businessId = business.getId();
+            this.businessName = business.getBusinessName();
+            this.category = business.getCategory();
+            this.categoryKey = SearchText.nameKey(business.getCategory());
+            this.town = business.getTown();
+            this.county = business.getCounty();
+            this.lat = business.getLat();
+            this.lng = business.getLng();
+            this.cell = row(lat) * COLUMNS + column(lng);
+        }
+
+        // Null when the business shouldn't be found: not listed, or no usable location
+        static Entry of(Business business) {
+            boolean listed = business.isListed();
+            Double lat = business.getLat();
+            Double lng = business.getLng();
+            if (!listed || lat == null || lng == null
+                    || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+                return null;
+            }
+            return new Entry(business);
+        }
+    }
+}
@@ -12,6 +12,12 @@ public class BusinessHoursService {
     @Autowired
     private BusinessHoursRepository businessHoursRepository;
     
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+    
+    @Autowired
+    private BusinessFacetIndex businessFacetIndex;
+    
     /**
      * Get all business hours for a specific business
      */
@@ -30,7 +36,10 @@ public class BusinessHoursService {
      * Create or update business hours for a specific day
      */
     public BusinessHours saveBusinessHours(BusinessHours businessHours) {
-        return businessHoursRepository.save(businessHours);
+        BusinessHours saved = businessHoursRepository.save(businessHours);
+        slotAvailabilityService.evictBusiness(saved.getBusinessId());
+        businessFacetIndex.recordChanged(saved.getBusinessId());
+        return saved;
     }
     
     /**
@@ -57,6 +66,9 @@ public class BusinessHoursService {
             
             businessHoursRepository.save(hours);
         }
+        
+        slotAvailabilityService.evictBusiness(businessId);
+        businessFacetIndex.recordChanged(businessId);
     }
     
     /**
@@ -64,7 +76,15 @@ public class BusinessHoursService {
      */
     @Transactional
     public List<BusinessHours> updateMultipleHours(List<BusinessHours> hoursList) {
-        return businessHoursRepository.saveAll(hoursList);
+        List<BusinessHours> saved = businessHoursRepository.saveAll(hoursList);
+        saved.stream()
+            .map(BusinessHours::getBusinessId)
+            .distinct()
+            .forEach(businessId -> {
+                slotAvailabilityService.evictBusiness(businessId);
+                businessFacetIndex.recordChanged(businessId);
+            });
+        return saved;
     }
     
     /**
@@ -73,6 +93,8 @@ public class BusinessHoursService {
     @Transactional
     public void deleteBusinessHours(Long businessId) {
         businessHoursRepository.deleteByBusinessId(businessId);
+        slotAvailabilityService.evictBusiness(businessId);
+        businessFacetIndex.recordChanged(businessId);
     }
     
     /**
@@ -0,0 +1,509 @@
+package com.localbook.service;
+
+import com.localbook.model.Business;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.util.SearchText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over every business's name, description, category,
+ * location, town and county, for the search endpoints.
+ *
+ * Each token (see SearchText) maps to the businesses containing it and the fields
+ * it appears in. A query matches a business when every query token matches one of
+ * its tokens exactly or as a prefix, or, for a query token with no such match,
+ * within SearchText.maxEdits typos; matches are scored by field (a hit in the
+ * name counts most) and by how exact they are. A query walks the businesses of
+ * its rarest token and looks the other tokens up, keeping only the best limit.
+ * Built from one read of the businesses table at startup, then kept current by
+ * BusinessService after each business change commits.
+ */
+@Service
+public class BusinessSearchIndex extends InMemoryIndex {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    // A short prefix like "s" would expand to a large share of the dictionary
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 500;
+    // Typo fallback: dictionary terms compared with the token, and terms it may expand to
+    private static final int MAX_TYPO_CANDIDATES = 20_000;
+    private static final int MAX_TYPO_TERMS = 50;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.7;
+    private static final double TYPO = 0.5;
+
+    public enum Field {
+        NAME(3),
+        CATEGORY(2),
+        TOWN(2),
+        COUNTY(2),
+        LOCATION(2),
+        DESCRIPTION(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    // Field bit set -> weight of its heaviest field
+    private static final int[] BEST_WEIGHT = new int[1 << Field.values().length];
+
+    static {
+        for (int fields = 1; fields < BEST_WEIGHT.length; fields++) {
+            for (Field field : Field.values()) {
+                if ((fields & field.bit()) != 0) {
+                    BEST_WEIGHT[fields] = Math.max(BEST_WEIGHT[fields], field.weight);
+                }
+            }
+        }
+    }
+
+    public static final Set<Field> ALL_FIELDS = EnumSet.allOf(Field.class);
+    public static final Set<Field> PLACE_FIELDS = EnumSet.of(Field.LOCATION, Field.TOWN, Field.COUNTY);
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    // Businesses are numbered densely in the index so postings can be int arrays
+    private final Map<Long, Integer> docs = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    // The same by number, flat for the query loop
+    private long[] businessIds = new long[1024];
+    private final BitSet listed = new BitSet();
+
+    // Term -> the businesses containing it, with the fields it appears in
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Ids of the businesses matching every token of query in any of fields, best
+     * match first (ties by id). listedOnly drops unapproved and suspended ones.
+     */
+    public List<Long> search(String query, Set<Field> fields, boolean listedOnly, int limit) {
+        return search(query, fields, listedOnly, 0, limit);
+    }
+
+    // The same, skipping the best offset matches
+    public List<Long> search(String query, Set<Field> fields, boolean listedOnly, int offset, int limit) {
+        List<String> tokens = SearchText.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        int fieldMask = 0;
+        for (Field field : fields) {
+            fieldMask |= field.bit();
+        }
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<TokenMatch> matches = new ArrayList<>();
+            TokenMatch rarest = null;
+            for (String token : tokens) {
+                TokenMatch match = match(token);
+                if (match.size == 0) {
+                    return List.of();
+                }
+                matches.add(match);
+                if (rarest == null || match.size < rarest.size) {
+                    rarest = match;
+                }
+            }
+
+            // Walk the rarest token's businesses and look the others up, keeping the best limit
+            // Deep pages can't ask for more hits than there are businesses
+            TopHits best = new TopHits((int) Math.min((long) offset + limit, documents.size()));
+            BitSet seen = rarest.postings.size() > 1 ? new BitSet(documents.size()) : null;
+            for (Posting posting : rarest.postings) {
+                for (TokenMatch match : matches) {
+                    match.rewind();
+                }
+                for (int i = 0; i < posting.size; i++) {
+                    int doc = posting.docs[i];
+                    if (seen != null) {
+                        if (seen.get(doc)) {
+                            continue;
+                        }
+                        seen.set(doc);
+                    }
+                    if (listedOnly && !listed.get(doc)) {
+                        continue;
+                    }
+                    double score = 0;
+                    for (TokenMatch match : matches) {
+                        double tokenScore = match.score(doc, fieldMask);
+                        if (tokenScore == 0) {
+                            score = 0;
+                            break;
+                        }
+                        score += tokenScore;
+                    }
+                    if (score > 0) {
+                        best.offer(businessIds[doc], score);
+                    }
+                }
+            }
+            List<Long> ranked = best.ranked();
+            return ranked.subList(Math.min(offset, ranked.size()), ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================
+    // WRITES
+    // ========================================
+
+    // Every business, read for rebuild(): at startup, by the first search if that comes earlier, or as a repair
+    @Override
+    protected Runnable load() {
+        List<Business> businesses = businessRepository.findAll();
+        return () -> {
+            postings.clear();
+            docs.clear();
+            documents.clear();
+            listed.clear();
+            for (Business business : businesses) {
+                put(Document.of(business));
+            }
+            System.out.println("🔎 Search index built: " + businesses.size() + " businesses, " + postings.size() + " terms");
+        };
+    }
+
+    // The business was registered or changed; applied once the current transaction commits
+    public void recordSaved(Business business) {
+        Document document = Document.of(business);
+        applyAfterCommit(() -> {
+            put(document);
+        });
+    }
+
+    public void recordDeleted(Long businessId) {
+        applyAfterCommit(() -> {
+            remove(businessId);
+        });
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    /**
+     * The postings one query token reaches: the exact term and terms it is a prefix
+     * of, or, only when there are none, terms within SearchText.maxEdits typos.
+     * The typo scan stops after MAX_TYPO_CANDIDATES terms or MAX_TYPO_TERMS hits, so
+     * a letter with a huge vocabulary can't make one query walk all of it.
+     */
+    private TokenMatch match(String token) {
+        TokenMatch match = new TokenMatch();
+        match.add(postings.get(token), EXACT);
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int expanded = 0;
+            for (Posting posting : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if (++expanded > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                match.add(posting, PREFIX);
+            }
+        }
+
+        int maxEdits = SearchText.maxEdits(token.length());
+        if (match.size == 0 && maxEdits > 0) {
+            // Typos are looked for among terms with the same first letter only
+            String first = token.substring(0, 1);
+            int candidates = 0;
+            int found = 0;
+            for (Map.Entry<String, Posting> term
+                    : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                if (++candidates > MAX_TYPO_CANDIDATES || found == MAX_TYPO_TERMS) {
+                    break;
+                }
+                if (SearchText.withinEdits(token, term.getKey(), maxEdits)) {
+                    match.add(term.getValue(), TYPO);
+                    found++;
+                }
+            }
+        }
+        return match;
+    }
+
+    // Index a new business, or replace what an existing one was indexed as, keeping its number
+    private void put(Document document) {
+        Integer doc = docs.get(document.businessId);
+        if (doc == null) {
+            doc = documents.size();
+            docs.put(document.businessId, doc);
+            documents.add(document);
+            if (doc == businessIds.length) {
+                businessIds = Arrays.copyOf(businessIds, doc * 2);
+            }
+            businessIds[doc] = document.businessId;
+        } else {
+            removeTerms(doc);
+            documents.set(doc, document);
+        }
+        listed.set(doc, document.listed);
+        for (Map.Entry<String, Integer> term : document.terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new Posting()).put(doc, term.getValue());
+        }
+    }
+
+    // The number stays taken (by a null) until the next rebuild
+    private void remove(Long businessId) {
+        Integer doc = docs.remove(businessId);
+        if (doc != null) {
+            removeTerms(doc);
+            documents.set(doc, null);
+            listed.clear(doc);
+        }
+    }
+
+    private void removeTerms(int doc) {
+        for (String term : documents.get(doc).terms.keySet()) {
+            Posting posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(doc);
+                if (posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * The businesses containing one term, as business numbers in ascending order
+     * with the field bit set of each alongside.
+     */
+    private static final class Posting {
+        private int[] docs = new int[4];
+        private int[] fields = new int[4];
+        private int size;
+
+        // Position of the first business numbered doc or above, galloping forward from position from
+        int seek(int from, int doc) {
+            int step = 1;
+            while (from + step < size && docs[from + step] < doc) {
+                step <<= 1;
+            }
+            int i = Arrays.binarySearch(docs, from, Math.min(size, from + step + 1), doc);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        void put(int doc, int fieldBits) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                fields[i] = fieldBits;
+                return;
+            }
+            i = -i - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            System.arraycopy(fields, i, fields, i + 1, size - i);
+            docs[i] = doc;
+            fields[i] = fieldBits;
+            size++;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * The postings a query token reaches. score() must be asked about businesses in
+     * ascending number order between rewinds, so each posting is read front to back.
+     */
+    private static final class TokenMatch {
+        private final List<Posting> postings = new ArrayList<>();
+        private double[] qualities = new double[4];
+        private int[] cursors;
+        private long size;
+
+        void add(Posting posting, double quality) {
+            if (posting != null) {
+                if (postings.size() == qualities.length) {
+                    qualities = Arrays.copyOf(qualities, qualities.length * 2);
+                }
+                qualities[postings.size()] = quality;
+                postings.add(posting);
+                size += posting.size;
+            }
+        }
+
+        void rewind() {
+            cursors = new int[postings.size()];
+        }
+
+        // Best score the business gets for this token in the searched fields; 0 for none
+        double score(int doc, int fieldMask) {
+            double best = 0;
+            for (int i = 0; i < postings.size(); i++) {
+                Posting posting = postings.get(i);
+                int at = posting.seek(cursors[i], doc);
+                cursors[i] = at;
+                if (at < posting.size && posting.docs[at] == doc) {
+                    int fields = posting.fields[at] & fieldMask;
+                    if (fields != 0) {
+                        best = Math.max(best, qualities[i] * BEST_WEIGHT[fields]);
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * The best limit hits offered so far, as a min-heap whose root is the weakest
+     * (lowest score, then highest id).
+     */
+    private static final class TopHits {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        TopHits(int limit) {
+            ids = new long[Math.max(0, limit)];
+            scores = new double[ids.length];
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && weaker(0, id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Best first
+        List<Long> ranked() {
+            Long[] ranked = new Long[size];
+            while (size > 0) {
+                ranked[size - 1] = ids[0];
+                swap(0, --size);
+                siftDown(0);
+            }
+            return Arrays.asList(ranked);
+        }
+
+        private boolean weaker(int i, long id, double score) {
+            return scores[i] < score || (scores[i] == score && ids[i] > id);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!weaker(i, ids[parent], scores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && weaker(child + 1, ids[child], scores[child])) {
+                    child++;
+                }
+                if (!weaker(child, ids[i], scores[i])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+
+    /**
+     * A business as the index sees it: its terms with the fields each came from,
+     * captured when the change was made.
+     */
+    private static final class Document {
+        private final Long businessId;
+        private final Map<String, Integer> terms = new HashMap<>();
+        private final boolean listed;
+
+        private Document(Long businessId, boolean listed) {
+            this.businessId = businessId;
+            this.listed = listed;
+        }
+
+        static Document of(Business business) {
+            boolean listed = business.isListed();
+            Document document = new Document(business.getId(), listed);
+            document.addField(Field.NAME, business.getBusinessName());
+            document.addField(Field.CATEGORY, business.getCategory());
+            document.addField(Field.TOWN, business.getTown());
+            document.addField(Field.COUNTY, business.getCounty());
+            document.addField(Field.LOCATION, business.getLocation());
+            document.addField(Field.DESCRIPTION, business.getDescription());
+            return document;
+        }
+
+        private void addField(Field field, String text) {
+            for (String token : SearchText.tokenize(text)) {
+                terms.merge(token, field.bit(), (a, b) -> a | b);
+            }
+        }
+    }
+}
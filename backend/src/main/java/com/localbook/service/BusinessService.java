@@ -1,4 +1,5 @@
 package com.localbook.service;
+import com.localbook.dto.FacetedSearchDTO;
 import com.localbook.model.Notification; 
 import com.localbook.model.Business;
 import com.localbook.model.User;
@@ -10,8 +11,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BusinessService {
@@ -24,6 +30,24 @@ public class BusinessService {
 
     @Autowired
 private NotificationRepository notificationRepository;
+
+    @Autowired
+    private BusinessCategoryCounts businessCategoryCounts;
+    
+    @Autowired
+    private BusinessSearchIndex businessSearchIndex;
+    
+    @Autowired
+    private BusinessGeoIndex businessGeoIndex;
+    
+    @Autowired
+    private BusinessFacetIndex businessFacetIndex;
+    
+    @Autowired
+    private OpeningHoursService openingHoursService;
+    
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
     
     public Business registerBusiness(Business business, Long ownerId) {
         System.out.println("=== REGISTER BUSINESS SERVICE ===");
@@ -61,6 +85,11 @@ private NotificationRepository notificationRepository;
         
         // Save
         Business saved = businessRepository.save(business);
+        businessCategoryCounts.recordMoved(null, saved.getCategory());
+        businessSearchIndex.recordSaved(saved);
+        businessGeoIndex.recordSaved(saved);
+        businessFacetIndex.recordSaved(saved);
+        typeaheadIndex.recordSaved(saved);
         System.out.println("✅ Business saved with ID: " + saved.getId());
         
         return saved;
@@ -82,8 +111,9 @@ private NotificationRepository notificationRepository;
         return businessRepository.findById(id);
     }
     
-    public List<Business> searchByLocation(String location) {
-        return businessRepository.findByLocationContainingIgnoreCase(location);
+    // Location, town or county words, answered by the search index a page at a time
+    public List<Business> searchByLocation(String location, Integer page, Integer size) {
+        return searchPage(location, BusinessSearchIndex.PLACE_FIELDS, page, size);
     }
     
     public List<Business> searchByCategory(String category) {
@@ -94,8 +124,41 @@ private NotificationRepository notificationRepository;
         return businessRepository.findByLocationContainingIgnoreCaseAndCategory(location, category);
     }
     
-    public List<Business> searchByName(String keyword) {
-        return businessRepository.findByBusinessNameContainingIgnoreCase(keyword);
+    public List<Business> searchByName(String keyword, Integer page, Integer size) {
+        return searchPage(keyword, EnumSet.of(BusinessSearchIndex.Field.NAME), page, size);
+    }
+
+    // One page of matches, best first; a page shorter than size is the last one
+    private List<Business> searchPage(String query, Set<BusinessSearchIndex.Field> fields, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? BusinessSearchIndex.MAX_LIMIT : size;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        if (pageSize <= 0 || pageSize > BusinessSearchIndex.MAX_LIMIT) {
+            throw new IllegalArgumentException("Size must be between 1 and " + BusinessSearchIndex.MAX_LIMIT);
+        }
+        long offset = (long) pageNumber * pageSize;
+        if (offset > Integer.MAX_VALUE - pageSize) {
+            return List.of();
+        }
+        return loadInOrder(businessSearchIndex.search(query, fields, false, (int) offset, pageSize));
+    }
+    
+    // Free-text search over listed businesses' names, descriptions, categories and places
+    public List<Business> search(String query, Integer limit) {
+        int size = limit == null ? BusinessSearchIndex.DEFAULT_LIMIT
+            : Math.max(1, Math.min(limit, BusinessSearchIndex.MAX_LIMIT));
+        return loadInOrder(businessSearchIndex.search(query, BusinessSearchIndex.ALL_FIELDS, true, size));
+    }
+    
+    // Listed businesses by category, place, price, rating and opening, with facet counts
+    public FacetedSearchDTO<Business> facetedSearch(String category, String county, String town, Double minPrice,
+                                                    Double maxPrice, Double minRating, LocalDateTime openAt,
+                                                    Integer page, Integer size) {
+        FacetedSearchDTO<Long> found = businessFacetIndex.search(category, county, town, minPrice, maxPrice,
+            minRating, openAt, page, size);
+        return found.withItems(loadInOrder(found.getItems()));
     }
     
     public List<Business> getBusinessesByOwner(Long ownerId) {
@@ -116,6 +179,8 @@ private NotificationRepository notificationRepository;
             throw new IllegalArgumentException("You can only update your own business");
         }
         
+        String previousCategory = business.getCategory();
+        
         // Update fields
         business.setBusinessName(updatedBusiness.getBusinessName());
         business.setOwnerName(updatedBusiness.getOwnerName());
@@ -130,7 +195,13 @@ private NotificationRepository notificationRepository;
         business.setDescription(updatedBusiness.getDescription());
         business.setUpdatedAt(LocalDateTime.now());
         
-        return businessRepository.save(business);
+        Business saved = businessRepository.save(business);
+        businessCategoryCounts.recordMoved(previousCategory, saved.getCategory());
+        businessSearchIndex.recordSaved(saved);
+        businessGeoIndex.recordSaved(saved);
+        businessFacetIndex.recordSaved(saved);
+        typeaheadIndex.recordSaved(saved);
+        return saved;
     }
     
     /**
@@ -152,6 +223,12 @@ private NotificationRepository notificationRepository;
         }
         
         businessRepository.deleteById(id);
+        businessCategoryCounts.recordMoved(business.getCategory(), null);
+        businessSearchIndex.recordDeleted(id);
+        businessGeoIndex.recordDeleted(id);
+        businessFacetIndex.recordDeleted(id);
+        typeaheadIndex.recordDeleted(id);
+        openingHoursService.recordDeleted(id);
     }
 
     /**
@@ -166,6 +243,10 @@ public Business approveBusiness(Long businessId) {
     business.setUpdatedAt(LocalDateTime.now());
     
     Business approved = businessRepository.save(business);
+    businessSearchIndex.recordSaved(approved);
+    businessGeoIndex.recordSaved(approved);
+    businessFacetIndex.recordSaved(approved);
+    typeaheadIndex.recordSaved(approved);
     
     // Console notification
     System.out.println("\n========================================");
@@ -200,6 +281,10 @@ public Business rejectBusiness(Long businessId, String reason) {
     business.setUpdatedAt(LocalDateTime.now());
     
     Business rejected = businessRepository.save(business);
+    businessSearchIndex.recordSaved(rejected);
+    businessGeoIndex.recordSaved(rejected);
+    businessFacetIndex.recordSaved(rejected);
+    typeaheadIndex.recordSaved(rejected);
     
     // Console notification
     System.out.println("\n========================================");
@@ -223,8 +308,20 @@ public Business rejectBusiness(Long businessId, String reason) {
 }
     @Transactional
 public Business saveBusinessDirect(Business business) {
+    return saveBusinessDirect(business, business.getCategory());
+}
+
+// previousCategory: the category before the caller changed the entity
+@Transactional
+public Business saveBusinessDirect(Business business, String previousCategory) {
     business.setUpdatedAt(LocalDateTime.now());
-    return businessRepository.save(business);
+    Business saved = businessRepository.save(business);
+    businessCategoryCounts.recordMoved(previousCategory, saved.getCategory());
+    businessSearchIndex.recordSaved(saved);
+    businessGeoIndex.recordSaved(saved);
+    businessFacetIndex.recordSaved(saved);
+    typeaheadIndex.recordSaved(saved);
+    return saved;
 }
 
 
@@ -238,8 +335,30 @@ public void deleteBusinessDirect(Long businessId) {
     System.out.println("Deleting: " + business.getBusinessName());
     
     businessRepository.delete(business);
+    businessCategoryCounts.recordMoved(business.getCategory(), null);
+    businessSearchIndex.recordDeleted(businessId);
+    businessGeoIndex.recordDeleted(businessId);
+    businessFacetIndex.recordDeleted(businessId);
+    typeaheadIndex.recordDeleted(businessId);
+    openingHoursService.recordDeleted(businessId);
     
     System.out.println("✅ Deleted successfully");
 }
 
-}
\ No newline at end of file
+// Businesses by id in the given (ranked) order
+private List<Business> loadInOrder(List<Long> ids) {
+    Map<Long, Business> byId = new HashMap<>();
+    for (Business business : businessRepository.findAllById(ids)) {
+        byId.put(business.getId(), business);
+    }
+    List<Business> ordered = new ArrayList<>();
+    for (Long id : ids) {
+        Business business = byId.get(id);
+        if (business != null) {
+            ordered.add(business);
+        }
+    }
+    return ordered;
+}
+
+}
@@ -0,0 +1,244 @@
+package com.localbook.service;
+
+import com.localbook.dto.BusinessDashboardStatsDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.BusinessDailyStats;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessCustomerRepository;
+import com.localbook.repository.BusinessDailyStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incrementally maintained dashboard counters.
+ *
+ * AppointmentService reports every appointment change here inside its own
+ * transaction; each report becomes an atomic upsert on the affected day's
+ * business_daily_stats row (and business_customers row), so the counters commit
+ * or roll back together with the appointment. The dashboard then sums a month of
+ * day rows at most, however many bookings the business has. Bookings, cancellations
+ * and completions are also passed on to AnalyticsRollupService as activity events,
+ * completed visits to RetentionService, bookings to CustomerSketchService and
+ * TypeaheadIndex, and every change drops the business's cached dashboard once it
+ * commits.
+ */
+@Service
+public class BusinessStatsService {
+
+    @Autowired
+    private BusinessDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private BusinessCustomerRepository businessCustomerRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private CustomerSketchService customerSketchService;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Same figures the dashboard used to compute from the full appointment list:
+     * today's bookings, bookings since Monday (through tomorrow), revenue of
+     * completed bookings this month, and distinct customers ever.
+     */
+    public BusinessDashboardStatsDTO getDashboardStats(Long businessId) {
+        LocalDate today = LocalDate.now();
+        LocalDate tomorrow = today.plusDays(1);
+        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        LocalDate from = startOfWeek.isBefore(startOfMonth) ? startOfWeek : startOfMonth;
+
+        long todayAppointments = 0;
+        long weekAppointments = 0;
+        double monthRevenue = 0.0;
+
+        for (BusinessDailyStats day : dailyStatsRepository.findByBusinessIdAndStatDateBetween(businessId, from, tomorrow)) {
+            LocalDate date = day.getStatDate();
+            if (date.equals(today)) {
+                todayAppointments += day.getAppointmentCount();
+            }
+            if (!date.isBefore(startOfWeek)) {
+                weekAppointments += day.getAppointmentCount();
+            }
+            if (!date.isBefore(startOfMonth)) {
+                monthRevenue += day.getCompletedRevenue();
+            }
+        }
+
+        long totalCustomers = businessCustomerRepository.countByBusinessId(businessId);
+
+        return new BusinessDashboardStatsDTO(todayAppointments, weekAppointments, monthRevenue, totalCustomers);
+    }
+
+    // ========================================
+    // WRITES (called by AppointmentService inside its transaction)
+    // ========================================
+
+    public void recordCreated(Appointment appointment) {
+        DayDeltas deltas = new DayDeltas();
+        deltas.add(appointment, appointment.getAppointmentDateTime(), appointment.getStatus(), 1);
+        deltas.flush();
+        businessCustomerRepository.addAppointments(appointment.getBusiness().getId(), appointment.getUser().getId(), 1);
+        analyticsRollupService.recordBooked(appointment);
+        customerSketchService.recordBooking(appointment);
+        typeaheadIndex.recordBooked(appointment.getBusiness().getId(), appointment.getService().getServiceName());
+        if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            retentionService.recordVisits(List.of(appointment), 1);
+        }
+        dashboardCache.invalidate(appointment.getBusiness().getId());
+    }
+
+    public void recordDeleted(Appointment appointment) {
+        Long businessId = appointment.getBusiness().getId();
+        Long userId = appointment.getUser().getId();
+
+        DayDeltas deltas = new DayDeltas();
+        deltas.add(appointment, appointment.getAppointmentDateTime(), appointment.getStatus(), -1);
+        deltas.flush();
+        if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            retentionService.recordVisits(List.of(appointment), -1);
+        }
+        businessCustomerRepository.addAppointments(businessId, userId, -1);
+        businessCustomerRepository.deleteIfNoAppointments(businessId, userId);
+        dashboardCache.invalidate(businessId);
+    }
+
+    /**
+     * The appointment's status went from previousStatus to its current status.
+     */
+    public void recordStatusChange(Appointment appointment, AppointmentStatus previousStatus) {
+        recordStatusChange(List.of(appointment), previousStatus, appointment.getStatus());
+    }
+
+    /**
+     * Bulk form: one upsert per affected day rather than one per appointment.
+     */
+    public void recordStatusChange(Collection<Appointment> appointments, AppointmentStatus previousStatus, AppointmentStatus newStatus) {
+        if (previousStatus == newStatus) {
+            return;
+        }
+        DayDeltas deltas = new DayDeltas();
+        for (Appointment appointment : appointments) {
+            // Counted once on the day either way; only the status breakdown moves
+            deltas.add(appointment, appointment.getAppointmentDateTime(), previousStatus, -1);
+            deltas.add(appointment, appointment.getAppointmentDateTime(), newStatus, 1);
+        }
+        deltas.flush();
+        analyticsRollupService.recordStatusChange(appointments, newStatus);
+        if (previousStatus == AppointmentStatus.COMPLETED) {
+            retentionService.recordVisits(appointments, -1);
+        } else if (newStatus == AppointmentStatus.COMPLETED) {
+            retentionService.recordVisits(appointments, 1);
+        }
+        appointments.stream()
+            .map(appointment -> appointment.getBusiness().getId())
+            .distinct()
+            .forEach(dashboardCache::invalidate);
+    }
+
+    /**
+     * The appointment moved from previousDateTime (with previousStatus) to its current date and status.
+     */
+    public void recordRescheduled(Appointment appointment, LocalDateTime previousDateTime, AppointmentStatus previousStatus) {
+        DayDeltas deltas = new DayDeltas();
+        deltas.add(appointment, previousDateTime, previousStatus, -1);
+        deltas.add(appointment, appointment.getAppointmentDateTime(), appointment.getStatus(), 1);
+        deltas.flush();
+        retentionService.recordRescheduled(appointment, previousDateTime, previousStatus);
+        customerSketchService.recordBooking(appointment);
+        dashboardCache.invalidate(appointment.getBusiness().getId());
+    }
+
+    /**
+     * Recompute every counter from the appointments table. Used to seed the tables
+     * for existing data, and as a repair if they are ever suspected to have drifted.
+     */
+    @Transactional
+    public void rebuildAll() {
+        dailyStatsRepository.deleteAllRows();
+        businessCustomerRepository.deleteAllRows();
+        int days = dailyStatsRepository.rebuildFromAppointments();
+        int customers = businessCustomerRepository.rebuildFromAppointments();
+        System.out.println("✅ Rebuilt dashboard stats: " + days + " business days, " + customers + " business customers");
+    }
+
+    public void backfillIfEmpty() {
+        if (dailyStatsRepository.count() > 0 || appointmentRepository.count() == 0) {
+            return;
+        }
+        rebuildAll();
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private static double priceOf(Appointment appointment) {
+        if (appointment.getService() == null || appointment.getService().getPrice() == null) {
+            return 0.0;
+        }
+        return appointment.getService().getPrice();
+    }
+
+    /**
+     * Net change per (business, day), applied in key order so concurrent
+     * transactions lock the day rows in the same order.
+     */
+    private final class DayDeltas {
+        private final Map<Long, Map<LocalDate, double[]>> byBusiness = new TreeMap<>();
+
+        // sign = +1 when the appointment starts counting in this state, -1 when it stops
+        void add(Appointment appointment, LocalDateTime dateTime, AppointmentStatus status, int sign) {
+            double[] day = byBusiness
+                .computeIfAbsent(appointment.getBusiness().getId(), id -> new TreeMap<>())
+                .computeIfAbsent(dateTime.toLocalDate(), date -> new double[4]);
+            day[0] += sign;
+            if (status == AppointmentStatus.COMPLETED) {
+                day[1] += sign;
+                day[3] += sign * priceOf(appointment);
+            } else if (status == AppointmentStatus.CANCELED) {
+                day[2] += sign;
+            }
+        }
+
+        void flush() {
+            for (Map.Entry<Long, Map<LocalDate, double[]>> business : byBusiness.entrySet()) {
+                for (Map.Entry<LocalDate, double[]> day : business.getValue().entrySet()) {
+                    double[] d = day.getValue();
+                    if (d[0] == 0 && d[1] == 0 && d[2] == 0 && d[3] == 0) {
+                        continue;
+                    }
+                    dailyStatsRepository.addToDay(business.getKey(), day.getKey(),
+                        (long) d[0], (long) d[1], (long) d[2], d[3]);
+                }
+            }
+        }
+    }
+}
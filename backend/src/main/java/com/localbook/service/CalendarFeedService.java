@@ -0,0 +1,246 @@
+package com.localbook.service;
+
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.CalendarSyncStateDTO;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.util.CursorCodec;
+import com.localbook.util.ICalendarWriter;
+import com.localbook.util.RecurrenceExpander;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * iCalendar (.ics) feed of a business's appointments for Google/Outlook.
+ *
+ * The feed is written page by page straight to the response, so a long history
+ * is never held in memory. Every response carries an ETag and a sync token built
+ * from the business's updatedAt high-water mark: unchanged calendars get a 304,
+ * and clients that send the token back only receive what changed since.
+ *
+ * Recurring series have no appointment rows, so the full feed expands their
+ * occurrences for a window around today. Any series change, or a new day moving
+ * the window, sends clients back to the full feed.
+ */
+@Service
+public class CalendarFeedService {
+
+    public static final int PAGE_SIZE = 500;
+
+    // Re-send a little before the high-water mark: an update stamped just before the
+    // token was issued may only have committed after it
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+    private static final LocalDateTime NEVER = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    // Series occurrences in the full feed: from this many days back up to the booking horizon
+    public static final int SERIES_PAST_DAYS = 30;
+
+    private static final DateTimeFormatter UID_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+
+    public CalendarSyncStateDTO getState(Long businessId) {
+        CalendarSyncStateDTO state = appointmentRepository.findCalendarSyncState(businessId);
+        CalendarSyncStateDTO series = appointmentSeriesRepository.findCalendarSyncState(businessId);
+        state.setSeriesVersion(CursorCodec.encode(series.getLastUpdatedAt(), series.getMaxId(), series.getCount(), LocalDate.now()));
+        return state;
+    }
+
+    /**
+     * Changes whenever an appointment is created, updated or deleted, a series
+     * changes or the day moves on. The sync token the client sent is part of it:
+     * a changes-only response is a different body from the full feed.
+     */
+    public String etagFor(CalendarSyncStateDTO state, String syncToken) {
+        return CursorCodec.encode(state.getLastUpdatedAt(), state.getMaxId(), state.getCount(), state.getSeriesVersion(),
+            syncToken == null || syncToken.isEmpty() ? "full" : syncToken);
+    }
+
+    public String syncTokenFor(CalendarSyncStateDTO state) {
+        LocalDateTime lastUpdatedAt = state.getLastUpdatedAt() == null ? NEVER : state.getLastUpdatedAt();
+        return CursorCodec.encode(lastUpdatedAt, state.getMaxId(), state.getCount(), state.getSeriesVersion());
+    }
+
+    /**
+     * Where an incremental feed should start for a sync token, or null when the
+     * client needs the full feed (no token, appointments it had were deleted, or
+     * the series occurrences changed, neither of which a changes-only feed can express).
+     */
+    public LocalDateTime resolveSince(Long businessId, CalendarSyncStateDTO state, String syncToken) {
+        if (syncToken == null || syncToken.isEmpty()) {
+            return null;
+        }
+
+        String[] parts = CursorCodec.decode(syncToken, 4);
+        LocalDateTime lastUpdatedAt;
+        long maxId;
+        long count;
+        try {
+            lastUpdatedAt = LocalDateTime.parse(parts[0]);
+            maxId = Long.parseLong(parts[1]);
+            count = Long.parseLong(parts[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+
+        if (!parts[3].equals(state.getSeriesVersion())) {
+            return null;
+        }
+        // Everything the client knew about has an id <= maxId; fewer of those now means deletions
+        if (appointmentRepository.countByBusiness_IdAndIdLessThanEqual(businessId, maxId) < count) {
+            return null;
+        }
+        return lastUpdatedAt.minus(SYNC_OVERLAP);
+    }
+
+    /**
+     * Stream the calendar. With since == null every appointment is written, otherwise
+     * only those updated at or after it (cancellations come through as STATUS:CANCELLED).
+     * The full feed also carries the series occurrences in the window.
+     */
+    public void writeFeed(Long businessId, String businessName, LocalDateTime since, OutputStream output) throws IOException {
+        ICalendarWriter ics = new ICalendarWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+
+        ics.property("BEGIN", "VCALENDAR");
+        ics.property("VERSION", "2.0");
+        ics.property("PRODID", "-//LocalBook//Business Calendar//EN");
+        ics.property("CALSCALE", "GREGORIAN");
+        ics.property("METHOD", "PUBLISH");
+        ics.property("X-WR-CALNAME", ICalendarWriter.text(businessName + " bookings"));
+
+        if (since == null) {
+            Long afterId = 0L;
+            List<AppointmentSummaryDTO> page;
+            do {
+                page = appointmentRepository.findBusinessFeedPageAfter(businessId, afterId, PageRequest.of(0, PAGE_SIZE));
+                for (AppointmentSummaryDTO appointment : page) {
+                    writeEvent(ics, appointment);
+                    afterId = appointment.getId();
+                }
+                ics.flush();
+            } while (page.size() == PAGE_SIZE);
+
+            writeSeries(ics, businessId);
+        } else {
+            LocalDateTime afterTime = since;
+            Long afterId = 0L;
+            List<AppointmentSummaryDTO> page;
+            do {
+                page = appointmentRepository.findBusinessChangesAfter(businessId, afterTime, afterId, PageRequest.of(0, PAGE_SIZE));
+                for (AppointmentSummaryDTO appointment : page) {
+                    writeEvent(ics, appointment);
+                    afterTime = appointment.getUpdatedAt();
+                    afterId = appointment.getId();
+                }
+                ics.flush();
+            } while (page.size() == PAGE_SIZE);
+        }
+
+        ics.property("END", "VCALENDAR");
+        ics.flush();
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Occurrences of the active series, in start order, one event each
+    private void writeSeries(ICalendarWriter ics, Long businessId) throws IOException {
+        LocalDate today = LocalDate.now();
+        LocalDateTime windowStart = today.minusDays(SERIES_PAST_DAYS).atStartOfDay();
+        LocalDateTime windowEnd = today.plusDays(SlotAvailabilityService.MAX_DAYS_AHEAD + 1).atStartOfDay();
+
+        List<SeriesEvent> events = new ArrayList<>();
+        for (AppointmentSeries series : appointmentSeriesRepository.findActiveForBusinessInWindow(
+                businessId, windowStart.toLocalDate(), windowEnd)) {
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(series, windowStart, windowEnd)) {
+                events.add(new SeriesEvent(series, occurrence));
+            }
+        }
+        events.sort(Comparator.comparing((SeriesEvent e) -> e.start).thenComparing(e -> e.series.getId()));
+
+        for (SeriesEvent event : events) {
+            AppointmentSeries series = event.series;
+            LocalDateTime modified = series.getUpdatedAt() != null ? series.getUpdatedAt()
+                : series.getCreatedAt() != null ? series.getCreatedAt() : event.start;
+            writeEvent(ics, "series-" + series.getId() + "-" + event.start.format(UID_DATE), event.start,
+                series.getService().getDurationMinutes(), modified, series.getService().getServiceName(),
+                series.getUser().getName(), series.getUser().getPhoneNumber(), series.getNotes(), false);
+        }
+        ics.flush();
+    }
+
+    private void writeEvent(ICalendarWriter ics, AppointmentSummaryDTO appointment) throws IOException {
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        LocalDateTime modified = appointment.getUpdatedAt() != null ? appointment.getUpdatedAt()
+            : appointment.getCreatedAt() != null ? appointment.getCreatedAt() : start;
+
+        writeEvent(ics, "appointment-" + appointment.getId(), start,
+            appointment.getService() == null ? null : appointment.getService().getDurationMinutes(), modified,
+            appointment.getService() == null ? null : appointment.getService().getServiceName(),
+            appointment.getUser() == null ? null : appointment.getUser().getName(),
+            appointment.getUser() == null ? null : appointment.getUser().getPhoneNumber(),
+            appointment.getNotes(), appointment.getStatus() == AppointmentStatus.CANCELED);
+    }
+
+    private void writeEvent(ICalendarWriter ics, String uid, LocalDateTime start, Integer duration, LocalDateTime modified,
+                            String serviceName, String customerName, String phoneNumber, String notes,
+                            boolean cancelled) throws IOException {
+        LocalDateTime end = start.plusMinutes(duration == null ? SlotAvailabilityService.SLOT_MINUTES : duration);
+        String title = serviceName == null ? "Appointment" : serviceName;
+
+        StringBuilder description = new StringBuilder();
+        if (phoneNumber != null) {
+            description.append("Phone: ").append(phoneNumber);
+        }
+        if (notes != null && !notes.isEmpty()) {
+            if (description.length() > 0) {
+                description.append('\n');
+            }
+            description.append("Notes: ").append(notes);
+        }
+
+        ics.property("BEGIN", "VEVENT");
+        ics.property("UID", uid + "@localbook");
+        ics.property("DTSTAMP", ICalendarWriter.utc(modified));
+        ics.property("LAST-MODIFIED", ICalendarWriter.utc(modified));
+        ics.property("DTSTART", ICalendarWriter.local(start));
+        ics.property("DTEND", ICalendarWriter.local(end));
+        ics.property("SUMMARY", ICalendarWriter.text(customerName == null ? title : title + " - " + customerName));
+        if (description.length() > 0) {
+            ics.property("DESCRIPTION", ICalendarWriter.text(description.toString()));
+        }
+        ics.property("STATUS", cancelled ? "CANCELLED" : "CONFIRMED");
+        ics.property("END", "VEVENT");
+    }
+
+    private static final class SeriesEvent {
+        private final AppointmentSeries series;
+        private final LocalDateTime start;
+
+        SeriesEvent(AppointmentSeries series, LocalDateTime start) {
+            this.series = series;
+            this.start = start;
+        }
+    }
+}
@@ -19,17 +19,17 @@ public class CategoryService {
     @Autowired
     private BusinessRepository businessRepository;
     
+    @Autowired
+    private BusinessCategoryCounts businessCategoryCounts;
+    
     public List<Category> getAllCategories() {
         System.out.println("=== GET ALL CATEGORIES ===");
         
         List<Category> categories = categoryRepository.findAll();
         System.out.println("Found " + categories.size() + " categories");
         
-        // ✅ Set businessCount for each category
-        categories.forEach(category -> {
-            Long count = businessRepository.countByCategory(category.getName());
-            category.setBusinessCount(count);
-        });
+        // Counts come from memory: no query per category
+        categories.forEach(category -> category.setBusinessCount(businessCategoryCounts.countFor(category.getName())));
         
         return categories;
     }
@@ -40,8 +40,7 @@ public class CategoryService {
             .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
         
         // ✅ Set businessCount
-        Long count = businessRepository.countByCategory(category.getName());
-        category.setBusinessCount(count);
+        category.setBusinessCount(businessCategoryCounts.countFor(category.getName()));
         
         return category;
     }
@@ -84,8 +83,7 @@ public class CategoryService {
         Category updated = categoryRepository.save(category);
         
         // ✅ Set businessCount
-        Long count = businessRepository.countByCategory(updated.getName());
-        updated.setBusinessCount(count);
+        updated.setBusinessCount(businessCategoryCounts.countFor(updated.getName()));
         
         System.out.println("✅ Category updated");
         
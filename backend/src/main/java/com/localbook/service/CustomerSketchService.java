@@ -0,0 +1,208 @@
+package com.localbook.service;
+
+import com.localbook.dto.BusinessDayCustomerDTO;
+import com.localbook.dto.DistinctCustomersDTO;
+import com.localbook.dto.SketchRegisterDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.Business;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.CustomerGroupSketchRegisterRepository;
+import com.localbook.repository.CustomerSketchRegisterRepository;
+import com.localbook.util.HyperLogLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Approximate distinct customer counts from HyperLogLog sketches: one per business
+ * per day (customer_sketch_registers), and one per day for the whole platform and
+ * for each category and county (customer_group_sketch_registers).
+ *
+ * BusinessStatsService reports each booking here inside its transaction. A customer
+ * lands in one register of each sketch, so a booking is four upserts that raise
+ * that register to at least the customer's value. Nothing is read or locked first,
+ * and repeating a booking, or two bookings racing, gives the same registers. A
+ * count over a date range merges the day's registers in the query, so a platform,
+ * category or county count reads those groups' sketches, never every business's,
+ * and never touches appointments. Sketches only grow: a customer whose booking is
+ * canceled or deleted still counts for that day, as someone who booked. Category
+ * and county sketches keep what the business was in when the customer booked.
+ *
+ * The precision (localbook.analytics.customer-sketch-precision) sets the error:
+ * about 1.04 / sqrt(2^precision) per estimate. Registers written before a change of
+ * precision still merge, at the lower of the two.
+ */
+@Service
+public class CustomerSketchService {
+
+    public static final int DEFAULT_RANGE_DAYS = 30;
+    public static final int MAX_RANGE_DAYS = 366;
+
+    public enum GroupBy {
+        PLATFORM,
+        CATEGORY,
+        COUNTY
+    }
+
+    private static final String PLATFORM_GROUP = "All";
+
+    @Autowired
+    private CustomerSketchRegisterRepository registerRepository;
+
+    @Autowired
+    private CustomerGroupSketchRegisterRepository groupRegisterRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${localbook.analytics.customer-sketch-precision:12}")
+    private int precision = 12;
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Distinct customers who booked with the business from..to (inclusive; defaults
+     * to the last DEFAULT_RANGE_DAYS days).
+     */
+    public DistinctCustomersDTO getBusinessCustomers(Long businessId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        checkRange(start, end);
+
+        return estimate(String.valueOf(businessId),
+            registerRepository.findBusinessRegisters(businessId, start, end.plusDays(1)));
+    }
+
+    /**
+     * Distinct customers from..to across the platform, or per category or county. A
+     * customer who booked in two categories counts once in each, and once in total.
+     */
+    public List<DistinctCustomersDTO> getGroupedCustomers(String groupBy, LocalDate from, LocalDate to) {
+        GroupBy grouping = parseGroupBy(groupBy);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        checkRange(start, end);
+
+        Map<String, List<SketchRegisterDTO>> byGroup = new TreeMap<>();
+        for (SketchRegisterDTO register : groupRegisterRepository.findGroupRegisters(grouping.name(), start, end.plusDays(1))) {
+            byGroup.computeIfAbsent(register.getGroup(), g -> new ArrayList<>()).add(register);
+        }
+        if (grouping == GroupBy.PLATFORM) {
+            return List.of(estimate(PLATFORM_GROUP, byGroup.getOrDefault(PLATFORM_GROUP, List.of())));
+        }
+
+        List<DistinctCustomersDTO> result = new ArrayList<>();
+        for (Map.Entry<String, List<SketchRegisterDTO>> group : byGroup.entrySet()) {
+            result.add(estimate(group.getKey(), group.getValue()));
+        }
+        result.sort((a, b) -> Long.compare(b.getEstimate(), a.getEstimate()));
+        return result;
+    }
+
+    // ========================================
+    // WRITES (called by BusinessStatsService inside the appointment's transaction)
+    // ========================================
+
+    // The appointment's customer booked with its business on its day
+    public void recordBooking(Appointment appointment) {
+        recordCustomer(appointment.getBusiness(), appointment.getAppointmentDateTime().toLocalDate(),
+            appointment.getUser().getId());
+    }
+
+    /**
+     * Recompute every sketch from the appointments table, a business at a time.
+     */
+    @Transactional
+    public void rebuildAll() {
+        registerRepository.deleteAllRows();
+        groupRegisterRepository.deleteAllRows();
+        int days = 0;
+        for (Business business : businessRepository.findAllById(registerRepository.findBusinessIdsWithAppointments())) {
+            Set<LocalDate> businessDays = new HashSet<>();
+            for (BusinessDayCustomerDTO row : registerRepository.findDayCustomers(business.getId())) {
+                recordCustomer(business, row.getDate(), row.getUserId());
+                businessDays.add(row.getDate());
+            }
+            days += businessDays.size();
+        }
+        System.out.println("✅ Rebuilt customer sketches: " + days + " business days at precision " + precision);
+    }
+
+    public void backfillIfEmpty() {
+        if (registerRepository.count() > 0 || appointmentRepository.count() == 0) {
+            return;
+        }
+        rebuildAll();
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Raise the customer's register in the business's, the platform's, the category's and the county's sketch for the day
+    private void recordCustomer(Business business, LocalDate day, Long userId) {
+        int index = HyperLogLog.registerIndex(userId, precision);
+        int value = HyperLogLog.registerValue(userId, precision);
+        registerRepository.raise(business.getId(), day, precision, index, value);
+        groupRegisterRepository.raise(GroupBy.PLATFORM.name(), PLATFORM_GROUP, day, precision, index, value);
+        groupRegisterRepository.raise(GroupBy.CATEGORY.name(), groupName(business.getCategory(), "Other"), day, precision, index, value);
+        groupRegisterRepository.raise(GroupBy.COUNTY.name(), groupName(business.getCounty(), "Unknown"), day, precision, index, value);
+    }
+
+    // Registers come merged over the days, one sketch per precision they were written at
+    private DistinctCustomersDTO estimate(String group, List<SketchRegisterDTO> registers) {
+        Map<Integer, HyperLogLog> byPrecision = new HashMap<>();
+        for (SketchRegisterDTO register : registers) {
+            byPrecision.computeIfAbsent(register.getPrecision(), HyperLogLog::new)
+                .raise(register.getIndex(), register.getValue());
+        }
+        HyperLogLog union = HyperLogLog.union(byPrecision.values(), precision);
+        return new DistinctCustomersDTO(group, union.estimate(), round(union.standardError()));
+    }
+
+    private static String groupName(String name, String missing) {
+        return name == null || name.isBlank() ? missing : name.trim();
+    }
+
+    private static GroupBy parseGroupBy(String groupBy) {
+        if (groupBy == null || groupBy.isEmpty()) {
+            return GroupBy.PLATFORM;
+        }
+        try {
+            return GroupBy.valueOf(groupBy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown groupBy: " + groupBy + " (use platform, category or county)");
+        }
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+}
@@ -0,0 +1,132 @@
+package com.localbook.service;
+
+import com.localbook.dto.DashboardCacheStatsDTO;
+import com.localbook.util.AfterCommit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Computed business dashboard payloads, kept until something they depend on
+ * changes rather than for a fixed time.
+ *
+ * Every open Dashboard tab polls every few seconds; with this cache the polls
+ * for a business are answered from memory until one of its appointments,
+ * services or ratings changes, when the writer calls invalidate. Concurrent
+ * misses for the same business share a single computation. The cache holds at
+ * most MAX_ENTRIES businesses, dropping the least recently read.
+ */
+@Service
+public class DashboardCache {
+
+    public static final int MAX_ENTRIES = 1000;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The cached payload for the business, computing it with loader if there is
+     * none (or it was computed on an earlier day: "today" figures roll over).
+     */
+    public Map<String, Object> get(Long businessId, Supplier<Map<String, Object>> loader) {
+        LocalDate today = LocalDate.now();
+        Entry entry;
+        boolean load = false;
+
+        synchronized (entries) {
+            entry = entries.get(businessId);
+            if (entry == null || !entry.day.equals(today)) {
+                entry = new Entry(today);
+                entries.put(businessId, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            misses.incrementAndGet();
+            try {
+                entry.payload.complete(loader.get());
+            } catch (RuntimeException e) {
+                // Don't cache the failure: the next poll tries again
+                entry.payload.completeExceptionally(e);
+                remove(businessId, entry);
+                throw e;
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+
+        try {
+            return entry.payload.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Drop the business's payload once the current transaction commits (at once
+     * outside a transaction). Dropping it earlier would let a concurrent poll
+     * re-cache the state from before the change.
+     */
+    public void invalidate(Long businessId) {
+        if (businessId == null) {
+            return;
+        }
+        AfterCommit.run(() -> evict(businessId));
+    }
+
+    public DashboardCacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new DashboardCacheStatsDTO(size, MAX_ENTRIES, hits.get(), misses.get(),
+            invalidations.get(), evictions.get());
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private void evict(Long businessId) {
+        synchronized (entries) {
+            if (entries.remove(businessId) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(Long businessId, Entry entry) {
+        synchronized (entries) {
+            entries.remove(businessId, entry);
+        }
+    }
+
+    private static final class Entry {
+        private final LocalDate day;
+        private final CompletableFuture<Map<String, Object>> payload = new CompletableFuture<>();
+
+        Entry(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.localbook.service;
+
+import com.localbook.dto.EarliestAvailabilityDTO;
+import com.localbook.dto.EarliestSlotDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.BusinessRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * "First free slot" search across every bookable business of a category.
+ *
+ * Each business is checked against its in-memory occupancy bitmaps on a
+ * dedicated fixed pool, so cold days load from the database in parallel. The
+ * pool is sized from the database connection pool, since every cold day a
+ * search thread loads holds a connection while it does.
+ * Whatever has answered when the latency budget runs out is ranked by start
+ * time; businesses still loading are left out and warm up for the next search.
+ */
+@Service
+public class EarliestAvailabilityService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+    public static final int MAX_WINDOW_DAYS = 14;
+    public static final long LATENCY_BUDGET_MS = 800;
+
+    // Connections left for bookings and everything else while searches load cold days
+    private static final int RESERVED_CONNECTIONS = 4;
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = 10;
+
+    // Over-budget searches are counted every time but logged at most once a minute
+    private static final long OVER_BUDGET_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private final ThreadPoolExecutor searchPool;
+
+    private final AtomicLong overBudget = new AtomicLong();
+    private final AtomicLong lastOverBudgetLog = new AtomicLong(System.nanoTime() - OVER_BUDGET_LOG_INTERVAL_NANOS);
+
+    public EarliestAvailabilityService() {
+        this(DEFAULT_CONNECTION_POOL_SIZE);
+    }
+
+    @Autowired
+    public EarliestAvailabilityService(
+            @Value("${spring.datasource.hikari.maximum-pool-size:" + DEFAULT_CONNECTION_POOL_SIZE + "}") int connectionPoolSize) {
+        int threads = Math.max(1, connectionPoolSize - RESERVED_CONNECTIONS);
+        AtomicInteger threadCount = new AtomicInteger();
+        searchPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "earliest-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Top results sorted by start time, one per business, for bookings of the
+     * given length starting in [from, to).
+     */
+    public EarliestAvailabilityDTO findEarliest(String category, String location,
+                                                LocalDateTime from, LocalDateTime to,
+                                                int durationMinutes, int limit) {
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (durationMinutes <= 0 || durationMinutes > 24 * 60) {
+            throw new IllegalArgumentException("Duration must be between 1 and 1440 minutes");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime windowEnd = to == null ? windowStart.toLocalDate().plusDays(1).atStartOfDay() : to;
+
+        if (!windowEnd.isAfter(windowStart)) {
+            throw new IllegalArgumentException("End of the window must be after its start");
+        }
+        if (windowEnd.isAfter(windowStart.plusDays(MAX_WINDOW_DAYS))) {
+            throw new IllegalArgumentException("Window cannot be longer than " + MAX_WINDOW_DAYS + " days");
+        }
+
+        String place = location == null || location.isBlank() ? null : location.trim();
+        List<Business> businesses = businessRepository.findBookableByCategoryAndLocation(category.trim(), place);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LATENCY_BUDGET_MS);
+
+        List<CompletableFuture<EarliestSlotDTO>> futures = new ArrayList<>(businesses.size());
+        for (Business business : businesses) {
+            futures.add(CompletableFuture.supplyAsync(
+                () -> earliestFor(business, windowStart, windowEnd, durationMinutes, deadline), searchPool));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            recordOverBudget(category);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Failed businesses are simply left out below
+        }
+
+        List<EarliestSlotDTO> found = new ArrayList<>();
+        int checked = 0;
+        for (CompletableFuture<EarliestSlotDTO> future : futures) {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                continue;
+            }
+            checked++;
+            EarliestSlotDTO slot = future.getNow(null);
+            if (slot != null) {
+                found.add(slot);
+            }
+        }
+
+        List<EarliestSlotDTO> results = found.stream()
+            .sorted(Comparator.comparing(EarliestSlotDTO::getStart).thenComparing(EarliestSlotDTO::getBusinessId))
+            .limit(limit)
+            .collect(Collectors.toList());
+
+        return new EarliestAvailabilityDTO(results, businesses.size(), checked);
+    }
+
+    // Searches that returned partial results because they hit LATENCY_BUDGET_MS
+    public long getOverBudgetSearches() {
+        return overBudget.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        searchPool.shutdownNow();
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private void recordOverBudget(String category) {
+        long total = overBudget.incrementAndGet();
+        long now = System.nanoTime();
+        long last = lastOverBudgetLog.get();
+        if (now - last >= OVER_BUDGET_LOG_INTERVAL_NANOS && lastOverBudgetLog.compareAndSet(last, now)) {
+            System.out.println("⏱️ Earliest slot searches have hit their " + LATENCY_BUDGET_MS + "ms budget "
+                + total + " times (latest: " + category + ")");
+        }
+    }
+
+    private EarliestSlotDTO earliestFor(Business business, LocalDateTime from, LocalDateTime to,
+                                        int durationMinutes, long deadline) {
+        // Queued behind a slow search and already too late to be used
+        if (System.nanoTime() > deadline) {
+            throw new CancellationException();
+        }
+
+        LocalDateTime start = slotAvailabilityService.earliestFree(business.getId(), from, to, durationMinutes);
+        if (start == null) {
+            return null;
+        }
+        return new EarliestSlotDTO(business.getId(), business.getBusinessName(),
+            business.getTown(), business.getCounty(), start);
+    }
+}
@@ -3,7 +3,9 @@ package com.localbook.service;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
@@ -13,30 +15,22 @@ public class ExpoPushService {
     
     private static final String EXPO_PUSH_URL = "https://exp.host/--/api/v2/push/send";
     
+    // Expo accepts at most 100 messages per request
+    static final int MAX_MESSAGES_PER_REQUEST = 100;
+    
+    // A slow or unreachable Expo must not hold up the request that sends the push
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+    
+    private final RestTemplate restTemplate = createRestTemplate();
+    
     public void sendPushNotification(String expoPushToken, String title, String body, Map<String, Object> data) {
         try {
             System.out.println("📤 Sending Expo push notification to: " + expoPushToken);
             
-            RestTemplate restTemplate = new RestTemplate();
-            
-            Map<String, Object> message = new HashMap<>();
-            message.put("to", expoPushToken);
-            message.put("sound", "default");
-            message.put("title", title);
-            message.put("body", body);
-            message.put("priority", "high");
-            message.put("channelId", "default");
-            
-            if (data != null && !data.isEmpty()) {
-                message.put("data", data);
-            }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Accept", "application/json");
-            headers.set("Accept-Encoding", "gzip, deflate");
+            Map<String, Object> message = buildMessage(expoPushToken, title, body, data);
             
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(message, headers);
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(message, jsonHeaders());
             
             ResponseEntity<String> response = restTemplate.postForEntity(EXPO_PUSH_URL, request, String.class);
             
@@ -62,4 +56,59 @@ public class ExpoPushService {
             System.err.println("❌ Error sending multicast: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Send many different messages (built with buildMessage) using Expo's array form:
+     * one HTTP request per 100 messages instead of one per message.
+     */
+    public void sendBatch(List<Map<String, Object>> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        
+        for (int from = 0; from < messages.size(); from += MAX_MESSAGES_PER_REQUEST) {
+            List<Map<String, Object>> chunk = messages.subList(from, Math.min(from + MAX_MESSAGES_PER_REQUEST, messages.size()));
+            try {
+                System.out.println("📤 Sending batch of " + chunk.size() + " Expo push notifications");
+                
+                HttpEntity<List<Map<String, Object>>> request = new HttpEntity<>(chunk, jsonHeaders());
+                ResponseEntity<String> response = restTemplate.postForEntity(EXPO_PUSH_URL, request, String.class);
+                
+                System.out.println("✅ Expo push batch sent: " + response.getBody());
+                
+            } catch (Exception e) {
+                System.err.println("❌ Error sending Expo push batch: " + e.getMessage());
+            }
+        }
+    }
+    
+    public Map<String, Object> buildMessage(String expoPushToken, String title, String body, Map<String, Object> data) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("to", expoPushToken);
+        message.put("sound", "default");
+        message.put("title", title);
+        message.put("body", body);
+        message.put("priority", "high");
+        message.put("channelId", "default");
+        
+        if (data != null && !data.isEmpty()) {
+            message.put("data", data);
+        }
+        return message;
+    }
+    
+    private static RestTemplate createRestTemplate() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(CONNECT_TIMEOUT);
+        factory.setReadTimeout(READ_TIMEOUT);
+        return new RestTemplate(factory);
+    }
+    
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Accept", "application/json");
+        headers.set("Accept-Encoding", "gzip, deflate");
+        return headers;
+    }
+}
@@ -0,0 +1,114 @@
+package com.localbook.service;
+
+import com.localbook.util.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * What the in-memory business indexes have in common: one read/write lock, a full
+ * rebuild() the first time a read finds the index empty, and single changes
+ * applied under the write lock once the transaction that made them commits.
+ *
+ * rebuild() reads the database without the lock, so a change can commit after
+ * the read and reach the index before the rebuilt state is installed. Changes
+ * applied while a rebuild is reading are therefore kept and replayed onto the
+ * rebuilt state. Replaying is harmless for changes the read already saw: they
+ * replace a business's entry with what it already is. Only counters (typeahead
+ * bookings) can then count one booking twice until the next rebuild.
+ */
+abstract class InMemoryIndex {
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by the write lock
+    private boolean loaded;
+    private int rebuildsReading;
+    // Changes applied since the oldest rebuild still reading started; null when none is
+    private List<Runnable> sinceRead;
+
+    /**
+     * Load everything from the database. Called at startup (and by the first read if
+     * that comes earlier); safe to call again as a repair.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (rebuildsReading++ == 0) {
+                sinceRead = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Runnable install = load();
+            lock.writeLock().lock();
+            try {
+                install.run();
+                for (Runnable change : sinceRead) {
+                    change.run();
+                }
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (--rebuildsReading == 0) {
+                    sinceRead = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Read everything from the database, without holding the lock. The returned
+     * step replaces the index contents with it and runs under the write lock.
+     */
+    protected abstract Runnable load();
+
+    protected void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (this) {
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            rebuild();
+        }
+    }
+
+    // Apply a change under the write lock once the current transaction commits
+    protected void applyAfterCommit(Runnable change) {
+        AfterCommit.run(() -> apply(change));
+    }
+
+    // Apply a change under the write lock now, e.g. values just re-read from the database
+    protected void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (sinceRead != null) {
+                sinceRead.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
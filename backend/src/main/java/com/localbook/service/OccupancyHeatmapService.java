@@ -0,0 +1,143 @@
+package com.localbook.service;
+
+import com.localbook.dto.OccupancyHeatmapDTO;
+import com.localbook.dto.StartTimeCountDTO;
+import com.localbook.model.BusinessHours;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Which weekday/time-of-day cells of a business are busiest over the last few weeks.
+ *
+ * The appointments are counted per (day, start time, length) by the database and the
+ * counts spread over a primitive [7][96] grid of booked minutes, so the cost depends
+ * on the number of distinct start times, not bookings, and nothing is boxed or
+ * materialised per appointment. Utilisation is booked minutes over the minutes the
+ * business was open in that cell according to its BusinessHours.
+ */
+@Service
+public class OccupancyHeatmapService {
+
+    public static final int CELL_MINUTES = 15;
+    public static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+    public static final int DEFAULT_WEEKS = 12;
+    public static final int MAX_WEEKS = 52;
+
+    private static final int CELLS_PER_WEEK = 7 * CELLS_PER_DAY;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessHoursRepository businessHoursRepository;
+
+    /**
+     * Heatmap over the whole weeks before today, so every weekday is counted exactly
+     * weeks times.
+     */
+    public OccupancyHeatmapDTO getHeatmap(Long businessId, Integer weeks) {
+        int span = weeks == null ? DEFAULT_WEEKS : weeks;
+        if (span < 1 || span > MAX_WEEKS) {
+            throw new IllegalArgumentException("weeks must be between 1 and " + MAX_WEEKS);
+        }
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusWeeks(span);
+
+        int[][] booked = new int[7][CELLS_PER_DAY];
+        for (StartTimeCountDTO row : appointmentRepository.countStartTimes(businessId, from.atStartOfDay(), to.atStartOfDay())) {
+            int duration = row.getDurationMinutes() == null ? SlotAvailabilityService.SLOT_MINUTES : row.getDurationMinutes();
+            addBooking(booked, row.getDate().getDayOfWeek().getValue() - 1, row.getStartMinute(), duration, (int) row.getCount());
+        }
+
+        int[][] open = openMinutes(businessHoursRepository.findByBusinessId(businessId));
+
+        double[][] utilization = new double[7][CELLS_PER_DAY];
+        long bookedInHours = 0;
+        long openInWindow = 0;
+        long outsideHours = 0;
+        for (int day = 0; day < 7; day++) {
+            for (int cell = 0; cell < CELLS_PER_DAY; cell++) {
+                if (open[day][cell] == 0) {
+                    outsideHours += booked[day][cell];
+                    continue;
+                }
+                long available = (long) open[day][cell] * span;
+                utilization[day][cell] = round(booked[day][cell] / (double) available);
+                bookedInHours += booked[day][cell];
+                openInWindow += available;
+            }
+        }
+
+        double overall = openInWindow == 0 ? 0.0 : round(bookedInHours / (double) openInWindow);
+        return new OccupancyHeatmapDTO(businessId, from, to, span, CELL_MINUTES,
+            booked, open, utilization, overall, outsideHours);
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    /**
+     * Add count bookings of duration minutes starting at startMinute on day to the
+     * grid, minute-accurate at the cell edges. Bookings running past midnight carry
+     * on into the next day (Sunday into Monday).
+     */
+    static void addBooking(int[][] grid, int day, int startMinute, int duration, int count) {
+        int start = day * MINUTES_PER_DAY + startMinute;
+        int end = start + Math.min(Math.max(duration, 1), MINUTES_PER_DAY);
+        for (int minute = start; minute < end; ) {
+            int cellEnd = (minute / CELL_MINUTES + 1) * CELL_MINUTES;
+            int taken = Math.min(cellEnd, end) - minute;
+            int cell = (minute / CELL_MINUTES) % CELLS_PER_WEEK;
+            grid[cell / CELLS_PER_DAY][cell % CELLS_PER_DAY] += taken * count;
+            minute += taken;
+        }
+    }
+
+    /**
+     * Open minutes per cell in one week. A day without saved hours gets the same
+     * default as the booking grid; a day marked closed, or closing before it opens,
+     * has none.
+     */
+    static int[][] openMinutes(List<BusinessHours> hoursList) {
+        int[][] open = new int[7][CELLS_PER_DAY];
+        boolean[] saved = new boolean[7];
+
+        for (BusinessHours hours : hoursList) {
+            int day = hours.getDayOfWeek().ordinal();
+            saved[day] = true;
+            if (Boolean.TRUE.equals(hours.getIsOpen()) && hours.getOpenTime() != null && hours.getCloseTime() != null) {
+                markOpen(open[day], hours.getOpenTime(), hours.getCloseTime());
+            }
+        }
+        for (int day = 0; day < 7; day++) {
+            if (!saved[day]) {
+                markOpen(open[day], SlotAvailabilityService.DEFAULT_OPEN, SlotAvailabilityService.DEFAULT_CLOSE);
+            }
+        }
+        return open;
+    }
+
+    private static void markOpen(int[] cells, LocalTime openTime, LocalTime closeTime) {
+        int from = openTime.getHour() * 60 + openTime.getMinute();
+        int to = closeTime.equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : closeTime.getHour() * 60 + closeTime.getMinute();
+        for (int minute = from; minute < to; ) {
+            int cellEnd = (minute / CELL_MINUTES + 1) * CELL_MINUTES;
+            int taken = Math.min(cellEnd, to) - minute;
+            cells[minute / CELL_MINUTES] += taken;
+            minute += taken;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,214 @@
+package com.localbook.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.util.WeeklyHours;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Business opening hours, worked out once per change rather than on every read.
+ *
+ * Hours live in two places: the openingHours JSON on Business, which business
+ * pages show, and the BusinessHours rows the booking grid uses. displayHours()
+ * keeps each business's normalised JSON and parses it again only when the string
+ * changes. compile() turns a business's rows into a WeeklyHours bit set; a day
+ * without a saved row follows the hours its page shows.
+ */
+@Service
+public class OpeningHoursService {
+
+    private static final String[] DAY_NAMES =
+        {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
+
+    private static final Map<String, Map<String, Object>> DEFAULT_HOURS = createDefaultOpeningHours();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Business id -> its openingHours string and what it parsed to
+    private final Map<Long, Parsed> parsed = new ConcurrentHashMap<>();
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Opening hours as business pages show them: day name -> openTime, closeTime and
+     * isClosed, whichever spelling the JSON used. The result is shared, read-only.
+     */
+    public Map<String, Map<String, Object>> displayHours(Business business) {
+        String json = business.getOpeningHours();
+        Parsed cached = business.getId() == null ? null : parsed.get(business.getId());
+        if (cached != null && Objects.equals(cached.json, json)) {
+            return cached.hours;
+        }
+        Map<String, Map<String, Object>> hours = parseOpeningHours(json);
+        if (business.getId() != null) {
+            parsed.put(business.getId(), new Parsed(json, hours));
+        }
+        return hours;
+    }
+
+    /**
+     * The week a business is open: its BusinessHours rows, and for days without a
+     * row, displayHours (a day it doesn't list is closed).
+     */
+    public static WeeklyHours compile(List<BusinessHours> rows, Map<String, Map<String, Object>> displayHours) {
+        WeeklyHours.Builder week = WeeklyHours.builder();
+        boolean[] saved = new boolean[7];
+        for (BusinessHours row : rows) {
+            int day = row.getDayOfWeek().ordinal();
+            saved[day] = true;
+            if (Boolean.TRUE.equals(row.getIsOpen()) && row.getOpenTime() != null && row.getCloseTime() != null) {
+                week.open(day, minuteOf(row.getOpenTime()),
+                    row.getCloseTime().equals(LocalTime.MIDNIGHT) ? WeeklyHours.MINUTES_PER_DAY : minuteOf(row.getCloseTime()));
+            }
+        }
+
+        Map<String, Map<String, Object>> shownByDay = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> day : displayHours.entrySet()) {
+            shownByDay.put(day.getKey().trim().toLowerCase(Locale.ROOT), day.getValue());
+        }
+        for (int day = 0; day < 7; day++) {
+            Map<String, Object> shown = shownByDay.get(DAY_NAMES[day]);
+            if (saved[day] || shown == null || Boolean.TRUE.equals(shown.get("isClosed"))) {
+                continue;
+            }
+            Integer from = parseMinute(shown.get("openTime"));
+            Integer to = parseMinute(shown.get("closeTime"));
+            if (from != null && to != null) {
+                week.open(day, from, to == 0 ? WeeklyHours.MINUTES_PER_DAY : to);
+            }
+        }
+        return week.build();
+    }
+
+    // ========================================
+    // WRITES
+    // ========================================
+
+    public void recordDeleted(Long businessId) {
+        parsed.remove(businessId);
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Parse opening hours with normalization
+    private Map<String, Map<String, Object>> parseOpeningHours(String openingHoursJson) {
+        if (openingHoursJson == null || openingHoursJson.trim().isEmpty()) {
+            return DEFAULT_HOURS;
+        }
+
+        try {
+            Map<String, Object> rawMap = objectMapper.readValue(openingHoursJson, Map.class);
+            Map<String, Map<String, Object>> openingHours = new HashMap<>();
+
+            for (Map.Entry<String, Object> entry : rawMap.entrySet()) {
+                String day = entry.getKey();
+                Object value = entry.getValue();
+
+                if (value instanceof Map) {
+                    Map<String, Object> dayHours = (Map<String, Object>) value;
+                    Map<String, Object> normalizedHours = new HashMap<>();
+
+                    // Normalize field names
+                    if (dayHours.containsKey("open")) {
+                        normalizedHours.put("openTime", dayHours.get("open"));
+                    } else if (dayHours.containsKey("openTime")) {
+                        normalizedHours.put("openTime", dayHours.get("openTime"));
+                    }
+
+                    if (dayHours.containsKey("close")) {
+                        normalizedHours.put("closeTime", dayHours.get("close"));
+                    } else if (dayHours.containsKey("closeTime")) {
+                        normalizedHours.put("closeTime", dayHours.get("closeTime"));
+                    }
+
+                    if (dayHours.containsKey("enabled")) {
+                        Boolean enabled = (Boolean) dayHours.get("enabled");
+                        normalizedHours.put("isClosed", !enabled);
+                    } else if (dayHours.containsKey("isClosed")) {
+                        normalizedHours.put("isClosed", dayHours.get("isClosed"));
+                    }
+
+                    openingHours.put(day, Collections.unmodifiableMap(normalizedHours));
+                }
+            }
+
+            return Collections.unmodifiableMap(openingHours);
+
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to parse opening hours, using defaults");
+            return DEFAULT_HOURS;
+        }
+    }
+
+    // Shown for businesses that haven't entered hours
+    private static Map<String, Map<String, Object>> createDefaultOpeningHours() {
+        Map<String, Map<String, Object>> hours = new HashMap<>();
+
+        String[] weekdays = {"monday", "tuesday", "wednesday", "thursday", "friday"};
+        for (String day : weekdays) {
+            Map<String, Object> dayHours = new HashMap<>();
+            dayHours.put("openTime", "09:00");
+            dayHours.put("closeTime", "18:00");
+            dayHours.put("isClosed", false);
+            hours.put(day, Collections.unmodifiableMap(dayHours));
+        }
+
+        Map<String, Object> saturdayHours = new HashMap<>();
+        saturdayHours.put("openTime", "10:00");
+        saturdayHours.put("closeTime", "16:00");
+        saturdayHours.put("isClosed", false);
+        hours.put("saturday", Collections.unmodifiableMap(saturdayHours));
+
+        Map<String, Object> sundayHours = new HashMap<>();
+        sundayHours.put("isClosed", true);
+        hours.put("sunday", Collections.unmodifiableMap(sundayHours));
+
+        return Collections.unmodifiableMap(hours);
+    }
+
+    // "9:00", "09:00" or "09:00:00" -> minutes into the day; null when unreadable
+    private static Integer parseMinute(Object time) {
+        if (!(time instanceof String)) {
+            return null;
+        }
+        String[] parts = ((String) time).trim().split(":");
+        try {
+            int hour = Integer.parseInt(parts[0]);
+            int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            if (hour < 0 || hour > 24 || minute < 0 || minute > 59) {
+                return null;
+            }
+            return Math.min(WeeklyHours.MINUTES_PER_DAY, hour * 60 + minute);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static final class Parsed {
+        private final String json;
+        private final Map<String, Map<String, Object>> hours;
+
+        Parsed(String json, Map<String, Map<String, Object>> hours) {
+            this.json = json;
+            this.hours = hours;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.localbook.service;
+
+import com.localbook.dto.BenchmarkDTO;
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.BusinessTotalDTO;
+import com.localbook.dto.PeerBenchmarksDTO;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.RatingRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.util.AfterCommit;
+import com.localbook.util.SearchText;
+import com.localbook.util.TDigest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * How a business's prices, rating and occupancy compare with its peers: listed
+ * businesses of the same category, in the same county or anywhere.
+ *
+ * Each metric keeps one t-digest per (category, county) group in memory, with
+ * one value per business, so a business's own figure is ranked against figures
+ * of the same kind; a category-wide benchmark merges the county digests.
+ * Everything is loaded with one pass per metric on first use and reloaded
+ * nightly. In between, a business's new mean price or average rating is streamed
+ * into its group after the change commits. A digest cannot forget a value, so
+ * replaced or removed values are only counted, and once they reach
+ * MAX_STALE_SHARE of a group that group is rebuilt from its own businesses on the
+ * next read. Occupancy (booked over open minutes in the last OCCUPANCY_WEEKS
+ * weeks) moves with the calendar and is refreshed by the nightly reload only.
+ *
+ * Loads and rebuilds query the database without holding the service's lock and
+ * swap their result in; changes that land meanwhile count as stale in it.
+ */
+@Service
+public class PeerBenchmarkService {
+
+    public static final int OCCUPANCY_WEEKS = 4;
+
+    // Share of a group's values that may be outdated before it is rebuilt
+    static final double MAX_STALE_SHARE = 0.1;
+
+    private static final double[] QUANTILES = {0.25, 0.5, 0.75, 0.9};
+
+    public enum Metric {
+        PRICE,      // every business's mean service price
+        RATING,     // every rated business's average rating
+        OCCUPANCY   // every business's booked share of its opening hours
+    }
+
+    public enum Scope {
+        COUNTY,     // same category, same county
+        CATEGORY    // same category, any county
+    }
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessHoursRepository businessHoursRepository;
+
+    // Guarded by this. Group key -> listed businesses in it; null until first load
+    private Map<String, Set<Long>> members;
+    private Map<Metric, Map<String, Group>> digests = new EnumMap<>(Metric.class);
+    // Changes applied while reload() is querying, per metric and group; null otherwise
+    private Map<Metric, Map<String, Integer>> changedDuringReload;
+
+    // One reload at a time; readers and writers don't wait for it
+    private final Object reloadLock = new Object();
+
+    // ========================================
+    // READS
+    // ========================================
+
+    public PeerBenchmarksDTO getBenchmarks(Long businessId, String scope) {
+        Scope area = parseScope(scope);
+        Business business = businessRepository.findById(businessId)
+            .orElseThrow(() -> new IllegalArgumentException("Business not found with ID: " + businessId));
+
+        // The business's own figures: small queries on its own rows
+        Map<Metric, Double> own = new EnumMap<>(Metric.class);
+        OptionalDouble averagePrice = serviceRepository.findByBusiness_Id(businessId).stream()
+            .filter(s -> s.getPrice() != null)
+            .mapToDouble(com.localbook.model.Service::getPrice)
+            .average();
+        own.put(Metric.PRICE, averagePrice.isPresent() ? averagePrice.getAsDouble() : null);
+        own.put(Metric.RATING, ratingRepository.getAverageRatingByBusinessId(businessId));
+        own.put(Metric.OCCUPANCY, occupancyOf(businessHoursRepository.findByBusinessId(businessId),
+            totalOf(appointmentRepository.sumBookedMinutes(businessId, occupancyFrom(), occupancyTo()))));
+
+        Map<Metric, TDigest> peers = peerDigests(business.getCategory(), business.getCounty(), area);
+
+        List<BenchmarkDTO> benchmarks = new ArrayList<>();
+        for (Metric metric : Metric.values()) {
+            TDigest digest = peers.get(metric);
+            Double value = own.get(metric);
+            if (digest.size() == 0) {
+                benchmarks.add(new BenchmarkDTO(metric.name(), round(value), null, 0, null, null, null, null));
+                continue;
+            }
+            Double percentile = value == null ? null : Math.round(digest.cdf(value) * 1000.0) / 10.0;
+            benchmarks.add(new BenchmarkDTO(metric.name(), round(value), percentile, digest.size(),
+                round(digest.quantile(QUANTILES[0])), round(digest.quantile(QUANTILES[1])),
+                round(digest.quantile(QUANTILES[2])), round(digest.quantile(QUANTILES[3]))));
+        }
+
+        return new PeerBenchmarksDTO(businessId, business.getCategory(),
+            area == Scope.COUNTY ? business.getCounty() : null, area.name(), benchmarks);
+    }
+
+    @Scheduled(cron = "0 50 3 * * *")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                changedDuringReload = new EnumMap<>(Metric.class);
+            }
+
+            Map<String, Set<Long>> loaded = new HashMap<>();
+            Map<Long, String> groupOf = new HashMap<>();
+            for (BenchmarkValueDTO peer : businessRepository.findBenchmarkPeers()) {
+                String key = key(peer.getCategory(), peer.getCounty());
+                loaded.computeIfAbsent(key, k -> new HashSet<>()).add(peer.getBusinessId());
+                groupOf.put(peer.getBusinessId(), key);
+            }
+
+            Map<Metric, Map<String, Group>> built = new EnumMap<>(Metric.class);
+            built.put(Metric.PRICE, load(serviceRepository.findBenchmarkPrices()));
+            built.put(Metric.RATING, load(ratingRepository.findBenchmarkRatings()));
+
+            // Occupancy: booked minutes per business in one GROUP BY, opening hours in one read
+            Map<Long, Long> booked = new HashMap<>();
+            for (BusinessTotalDTO row : appointmentRepository.sumBookedMinutes(null, occupancyFrom(), occupancyTo())) {
+                booked.put(row.getBusinessId(), row.getTotal());
+            }
+            Map<Long, List<BusinessHours>> hours = new HashMap<>();
+            for (BusinessHours row : businessHoursRepository.findAll()) {
+                hours.computeIfAbsent(row.getBusinessId(), id -> new ArrayList<>()).add(row);
+            }
+            Map<String, Group> occupancy = new HashMap<>();
+            for (Map.Entry<Long, String> business : groupOf.entrySet()) {
+                Double share = occupancyOf(hours.getOrDefault(business.getKey(), List.of()),
+                    booked.getOrDefault(business.getKey(), 0L));
+                if (share != null) {
+                    occupancy.computeIfAbsent(business.getValue(), k -> new Group()).add(business.getKey(), share);
+                }
+            }
+            built.put(Metric.OCCUPANCY, occupancy);
+
+            synchronized (this) {
+                // The queries may or may not have seen these changes
+                for (Map.Entry<Metric, Map<String, Integer>> metric : changedDuringReload.entrySet()) {
+                    for (Map.Entry<String, Integer> group : metric.getValue().entrySet()) {
+                        built.get(metric.getKey()).computeIfAbsent(group.getKey(), k -> new Group()).stale += group.getValue();
+                    }
+                }
+                changedDuringReload = null;
+                members = loaded;
+                digests = built;
+            }
+        }
+    }
+
+    // ========================================
+    // WRITES (applied once the caller's transaction commits)
+    // ========================================
+
+    // A service was added at price
+    public void recordPriceAdded(Business business, Double price) {
+        if (price != null) {
+            recordPriceChange(business);
+        }
+    }
+
+    // A service's price went from previousPrice to price (null when it was deleted)
+    public void recordPriceChanged(Business business, Double previousPrice, Double price) {
+        if (!Objects.equals(previousPrice, price)) {
+            recordPriceChange(business);
+        }
+    }
+
+    // The business's average rating went from previousAverage to average (null: no ratings)
+    public void recordRatingChanged(Business business, Double previousAverage, Double average) {
+        if (!Objects.equals(previousAverage, average)) {
+            Long businessId = business.getId();
+            String key = key(business.getCategory(), business.getCounty());
+            AfterCommit.run(() -> apply(Metric.RATING, businessId, key, average));
+        }
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // The business's mean price moved: read the new mean once the change has committed
+    private void recordPriceChange(Business business) {
+        Long businessId = business.getId();
+        String key = key(business.getCategory(), business.getCounty());
+        AfterCommit.run(() -> {
+            if (!isMember(key, businessId)) {
+                return;
+            }
+            List<BenchmarkValueDTO> mean = serviceRepository.findBenchmarkPrices(List.of(businessId));
+            apply(Metric.PRICE, businessId, key, mean.isEmpty() ? null : mean.get(0).getValue());
+        });
+    }
+
+    // Not loaded yet, the first read loads the change; unlisted businesses aren't benchmarked
+    private synchronized boolean isMember(String key, Long businessId) {
+        return members != null && members.getOrDefault(key, Set.of()).contains(businessId);
+    }
+
+    // The business's value is now value (null: it no longer has one)
+    private synchronized void apply(Metric metric, Long businessId, String key, Double value) {
+        if (!isMember(key, businessId)) {
+            return;
+        }
+        Group group = digests.get(metric).computeIfAbsent(key, k -> new Group());
+        group.changes++;
+        if (group.valued.contains(businessId)) {
+            group.stale++;
+        }
+        if (value != null) {
+            group.add(businessId, value);
+        } else {
+            group.valued.remove(businessId);
+        }
+        if (changedDuringReload != null) {
+            changedDuringReload.computeIfAbsent(metric, m -> new HashMap<>()).merge(key, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Copies of the digests the scope covers, merged per metric. Groups with too
+     * many outdated values are rebuilt first, outside the lock.
+     */
+    private Map<Metric, TDigest> peerDigests(String category, String county, Scope scope) {
+        if (!isLoaded()) {
+            synchronized (reloadLock) {
+                if (!isLoaded()) {
+                    reload();
+                }
+            }
+        }
+        String categoryKey = SearchText.nameKey(category);
+        String groupKey = key(category, county);
+
+        List<Rebuild> rebuilds = new ArrayList<>();
+        synchronized (this) {
+            for (Metric metric : List.of(Metric.PRICE, Metric.RATING)) {
+                for (Map.Entry<String, Group> group : digests.get(metric).entrySet()) {
+                    Group current = group.getValue();
+                    if (inScope(group.getKey(), groupKey, categoryKey, scope)
+                            && current.stale > MAX_STALE_SHARE * current.digest.size()) {
+                        rebuilds.add(new Rebuild(metric, group.getKey(), current,
+                            new ArrayList<>(members.getOrDefault(group.getKey(), Set.of()))));
+                    }
+                }
+            }
+        }
+
+        for (Rebuild rebuild : rebuilds) {
+            rebuild.result = rebuild(rebuild.metric, rebuild.businessIds);
+        }
+
+        synchronized (this) {
+            for (Rebuild rebuild : rebuilds) {
+                Map<String, Group> groups = digests.get(rebuild.metric);
+                // Left alone if a reload replaced the group meanwhile
+                if (groups.get(rebuild.key) == rebuild.replaced) {
+                    rebuild.result.stale += rebuild.replaced.changes - rebuild.changesSeen;
+                    groups.put(rebuild.key, rebuild.result);
+                }
+            }
+
+            Map<Metric, TDigest> merged = new EnumMap<>(Metric.class);
+            for (Metric metric : Metric.values()) {
+                TDigest digest = new TDigest();
+                for (Map.Entry<String, Group> group : digests.get(metric).entrySet()) {
+                    if (inScope(group.getKey(), groupKey, categoryKey, scope)) {
+                        digest.merge(group.getValue().digest);
+                    }
+                }
+                merged.put(metric, digest);
+            }
+            return merged;
+        }
+    }
+
+    private synchronized boolean isLoaded() {
+        return members != null;
+    }
+
+    private static boolean inScope(String key, String groupKey, String categoryKey, Scope scope) {
+        return scope == Scope.COUNTY ? key.equals(groupKey) : key.startsWith(categoryKey + "|");
+    }
+
+    private Group rebuild(Metric metric, List<Long> ids) {
+        Group group = new Group();
+        // IN lists in chunks: a group may hold thousands of businesses
+        for (int from = 0; from < ids.size(); from += 1000) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + 1000));
+            List<BenchmarkValueDTO> rows = metric == Metric.PRICE
+                ? serviceRepository.findBenchmarkPrices(chunk)
+                : ratingRepository.findBenchmarkRatings(chunk);
+            for (BenchmarkValueDTO row : rows) {
+                group.add(row.getBusinessId(), row.getValue());
+            }
+        }
+        return group;
+    }
+
+    private static Map<String, Group> load(List<BenchmarkValueDTO> rows) {
+        Map<String, Group> groups = new HashMap<>();
+        for (BenchmarkValueDTO row : rows) {
+            groups.computeIfAbsent(key(row.getCategory(), row.getCounty()), k -> new Group()).add(row.getBusinessId(), row.getValue());
+        }
+        return groups;
+    }
+
+    // Booked share of the opening hours over the window; null when never open
+    private static Double occupancyOf(List<BusinessHours> hours, long bookedMinutes) {
+        long openPerWeek = 0;
+        for (int[] day : OccupancyHeatmapService.openMinutes(hours)) {
+            for (int minutes : day) {
+                openPerWeek += minutes;
+            }
+        }
+        if (openPerWeek == 0) {
+            return null;
+        }
+        return bookedMinutes / (double) (openPerWeek * OCCUPANCY_WEEKS);
+    }
+
+    private static long totalOf(List<BusinessTotalDTO> rows) {
+        return rows.isEmpty() ? 0L : rows.get(0).getTotal();
+    }
+
+    private static LocalDateTime occupancyFrom() {
+        return LocalDate.now().minusWeeks(OCCUPANCY_WEEKS).atStartOfDay();
+    }
+
+    private static LocalDateTime occupancyTo() {
+        return LocalDate.now().atStartOfDay();
+    }
+
+    private static Scope parseScope(String scope) {
+        if (scope == null || scope.isEmpty()) {
+            return Scope.COUNTY;
+        }
+        try {
+            return Scope.valueOf(scope.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown scope: " + scope + " (use county or category)");
+        }
+    }
+
+    // Peers are grouped by category and county
+    private static String key(String category, String county) {
+        return SearchText.nameKey(category) + "|" + SearchText.nameKey(county);
+    }
+
+    private static Double round(Double value) {
+        return value == null ? null : Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static final class Group {
+        private final TDigest digest = new TDigest();
+        // Businesses whose current value is in the digest
+        private final Set<Long> valued = new HashSet<>();
+        // Values replaced or removed since the group was built
+        private long stale;
+        // Changes applied since the group was built
+        private long changes;
+
+        void add(Long businessId, double value) {
+            digest.add(value);
+            valued.add(businessId);
+        }
+    }
+
+    // A stale group being rebuilt from the database outside the lock
+    private static final class Rebuild {
+        private final Metric metric;
+        private final String key;
+        private final Group replaced;
+        private final long changesSeen;
+        private final List<Long> businessIds;
+        private Group result;
+
+        Rebuild(Metric metric, String key, Group replaced, List<Long> businessIds) {
+            this.metric = metric;
+            this.key = key;
+            this.replaced = replaced;
+            this.changesSeen = replaced.changes;
+            this.businessIds = businessIds;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.localbook.service;
+
+import com.localbook.dto.ApprovalBacklogDTO;
+import com.localbook.dto.CategoryRevenueDTO;
+import com.localbook.dto.DailyBookingsDTO;
+import com.localbook.dto.DailyCountDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.dto.PlatformOverviewDTO;
+import com.localbook.dto.WeeklySignupsDTO;
+import com.localbook.model.UserRole;
+import com.localbook.repository.BusinessDailyStatsRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Platform-wide figures for the admin Analytics page.
+ *
+ * Everything is aggregated in the database: booking series come from the
+ * business_daily_stats rollup, sign-ups and registrations from GROUP BY counts
+ * over indexed createdAt ranges. Responses are bounded by the date range (capped
+ * at MAX_RANGE_DAYS) or by a fixed number of buckets, never by platform size.
+ */
+@Service
+public class PlatformAnalyticsService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+    private static final int DEFAULT_DAYS = 30;
+    private static final int DEFAULT_WEEKS = 12;
+    private static final int TOP_CATEGORIES = 6;
+
+    // "All time" as the Analytics page has always counted it
+    private static final LocalDateTime ALL_TIME_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private BusinessDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // ========================================
+    // TIME SERIES
+    // ========================================
+
+    /**
+     * Bookings per appointment day in [from, to], one entry per day (zeros included).
+     * Defaults to the last 30 days.
+     */
+    public List<DailyBookingsDTO> getBookingsPerDay(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        checkRange(start, end);
+
+        Map<LocalDate, DailyBookingsDTO> byDay = new TreeMap<>();
+        for (DailyBookingsDTO day : dailyStatsRepository.sumByDay(start, end)) {
+            byDay.put(day.getDate(), day);
+        }
+
+        List<DailyBookingsDTO> series = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            DailyBookingsDTO day = byDay.get(date);
+            series.add(day != null ? day : new DailyBookingsDTO(date, 0L, 0L, 0L, 0.0));
+        }
+        return series;
+    }
+
+    /**
+     * Bookings and completed revenue per business category in [from, to], highest revenue first.
+     */
+    public List<CategoryRevenueDTO> getRevenueByCategory(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        checkRange(start, end);
+
+        return dailyStatsRepository.sumByCategory(start, end);
+    }
+
+    /**
+     * New clients, business owners and businesses per week (weeks start on Monday),
+     * covering the weeks that contain from..to. Defaults to the last 12 weeks.
+     */
+    public List<WeeklySignupsDTO> getSignupsPerWeek(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = (from != null ? from : end.minusWeeks(DEFAULT_WEEKS - 1)).with(DayOfWeek.MONDAY);
+        checkRange(start, end);
+
+        LocalDateTime rangeStart = start.atStartOfDay();
+        LocalDateTime rangeEnd = end.plusDays(1).atStartOfDay();
+
+        // Day counts from the database, folded into weeks here: week functions are not portable JPQL
+        Map<LocalDate, long[]> byWeek = new TreeMap<>();
+        for (LocalDate week = start; !week.isAfter(end); week = week.plusWeeks(1)) {
+            byWeek.put(week, new long[3]);
+        }
+        addToWeeks(byWeek, userRepository.countSignupsByDay(UserRole.CLIENT, rangeStart, rangeEnd), 0);
+        addToWeeks(byWeek, userRepository.countSignupsByDay(UserRole.BUSINESS_OWNER, rangeStart, rangeEnd), 1);
+        addToWeeks(byWeek, businessRepository.countRegistrationsByDay(rangeStart, rangeEnd), 2);
+
+        List<WeeklySignupsDTO> series = new ArrayList<>();
+        for (Map.Entry<LocalDate, long[]> week : byWeek.entrySet()) {
+            long[] counts = week.getValue();
+            series.add(new WeeklySignupsDTO(week.getKey(), counts[0], counts[1], counts[2]));
+        }
+        return series;
+    }
+
+    // ========================================
+    // SNAPSHOTS
+    // ========================================
+
+    /**
+     * Businesses waiting for approval, how long the oldest has waited, and how the
+     * backlog splits by days waiting.
+     */
+    public ApprovalBacklogDTO getApprovalBacklog() {
+        LocalDate today = LocalDate.now();
+        long[] buckets = new long[5];
+        long pending = 0;
+
+        for (DailyCountDTO day : businessRepository.countAwaitingApprovalByDay()) {
+            long waited = day.getDate() == null ? Long.MAX_VALUE : ChronoUnit.DAYS.between(day.getDate(), today);
+            int bucket = waited <= 1 ? 0 : waited <= 7 ? 1 : waited <= 14 ? 2 : waited <= 30 ? 3 : 4;
+            buckets[bucket] += day.getCount();
+            pending += day.getCount();
+        }
+
+        List<NamedCountDTO> byAge = List.of(
+            new NamedCountDTO("0-1 days", buckets[0]),
+            new NamedCountDTO("2-7 days", buckets[1]),
+            new NamedCountDTO("8-14 days", buckets[2]),
+            new NamedCountDTO("15-30 days", buckets[3]),
+            new NamedCountDTO("Over 30 days", buckets[4])
+        );
+
+        LocalDateTime oldest = pending == 0 ? null : businessRepository.findOldestAwaitingApproval();
+        return new ApprovalBacklogDTO(pending, oldest, byAge);
+    }
+
+    /**
+     * The headline figures of the Analytics page for WEEK, MONTH, YEAR or ALL,
+     * with growth against the previous period of the same length.
+     */
+    public PlatformOverviewDTO getOverview(String timeframe) {
+        String period = timeframe == null || timeframe.isEmpty() ? "MONTH" : timeframe.toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start;
+        LocalDateTime previousStart;
+        LocalDateTime previousEnd;
+
+        switch (period) {
+            case "WEEK":
+                start = now.minusDays(7);
+                previousStart = now.minusDays(14);
+                previousEnd = start;
+                break;
+            case "MONTH":
+                start = now.minusMonths(1);
+                previousStart = now.minusMonths(2);
+                previousEnd = start;
+                break;
+            case "YEAR":
+                start = now.minusYears(1);
+                previousStart = now.minusYears(2);
+                previousEnd = start;
+                break;
+            case "ALL":
+                start = ALL_TIME_START;
+                previousStart = ALL_TIME_START;
+                previousEnd = ALL_TIME_START;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown timeframe: " + timeframe + " (use WEEK, MONTH, YEAR or ALL)");
+        }
+
+        long bookings = dailyStatsRepository.sumAppointments(start.toLocalDate(), now.toLocalDate());
+        long previousBookings = previousEnd.isAfter(previousStart)
+            ? dailyStatsRepository.sumAppointments(previousStart.toLocalDate(), previousEnd.toLocalDate().minusDays(1))
+            : 0;
+
+        long newBusinesses = businessRepository.countByCreatedAtBetween(start, now);
+        long previousNewBusinesses = businessRepository.countByCreatedAtBetween(previousStart, previousEnd);
+
+        long newClients = userRepository.countByRoleAndCreatedAtBetween(UserRole.CLIENT, start, now);
+        long previousNewClients = userRepository.countByRoleAndCreatedAtBetween(UserRole.CLIENT, previousStart, previousEnd);
+
+        long totalBusinesses = businessRepository.count();
+        long carlowBusinesses = businessRepository.countInCarlow();
+
+        List<NamedCountDTO> carlowTowns = new ArrayList<>();
+        for (NamedCountDTO town : businessRepository.countInCarlowByTown()) {
+            carlowTowns.add(new NamedCountDTO(capitalize(town.getName()), town.getCount()));
+        }
+
+        return new PlatformOverviewDTO(period,
+            bookings, growth(bookings, previousBookings),
+            newBusinesses, growth(newBusinesses, previousNewBusinesses),
+            newClients, growth(newClients, previousNewClients),
+            totalBusinesses, businessRepository.countActive(), businessRepository.countAwaitingApproval(),
+            carlowBusinesses, totalBusinesses - carlowBusinesses,
+            businessRepository.countByCategoryDesc(PageRequest.of(0, TOP_CATEGORIES)),
+            carlowTowns);
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static void addToWeeks(Map<LocalDate, long[]> byWeek, List<DailyCountDTO> days, int column) {
+        for (DailyCountDTO day : days) {
+            long[] week = byWeek.get(day.getDate().with(DayOfWeek.MONDAY));
+            if (week != null) {
+                week[column] += day.getCount();
+            }
+        }
+    }
+
+    // Percentage change; 100% when something appears from nothing
+    private static double growth(long current, long previous) {
+        if (previous > 0) {
+            return (current - previous) * 100.0 / previous;
+        }
+        return current > 0 ? 100.0 : 0.0;
+    }
+
+    private static String capitalize(String town) {
+        if (town == null || town.isEmpty()) {
+            return "Unknown";
+        }
+        return Character.toUpperCase(town.charAt(0)) + town.substring(1);
+    }
+}
@@ -30,6 +30,15 @@ public class RatingService {
     
     @Autowired
     private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private DashboardCache dashboardCache;
+    
+    @Autowired
+    private PeerBenchmarkService peerBenchmarkService;
+    
+    @Autowired
+    private BusinessFacetIndex businessFacetIndex;
      // ✅ NEW: Inject Sentiment Analysis Service
    @Autowired
     private IBMWatsonSentimentService ibmWatsonSentimentService;
@@ -123,7 +132,12 @@ public class RatingService {
 }
     // ✅✅✅ END OF NEW CODE ✅✅✅
     
+    final Double previousAverage = ratingRepository.getAverageRatingByBusinessId(businessId);
     final Rating savedRating = ratingRepository.save(newRating);
+    dashboardCache.invalidate(appointmentBusinessId);
+    peerBenchmarkService.recordRatingChanged(business, previousAverage,
+        ratingRepository.getAverageRatingByBusinessId(businessId));
+    businessFacetIndex.recordChanged(businessId);
     
     System.out.println("✅ Rating created with ID: " + savedRating.getId());
     
@@ -218,7 +232,13 @@ public class RatingService {
             throw new IllegalArgumentException("Not authorized to delete this rating");
         }
         
+        final Long businessId = rating.getBusiness().getId();
+        final Double previousAverage = ratingRepository.getAverageRatingByBusinessId(businessId);
         ratingRepository.delete(rating);
+        dashboardCache.invalidate(businessId);
+        peerBenchmarkService.recordRatingChanged(rating.getBusiness(), previousAverage,
+            ratingRepository.getAverageRatingByBusinessId(businessId));
+        businessFacetIndex.recordChanged(businessId);
         
         System.out.println("✅ Rating deleted successfully");
     }
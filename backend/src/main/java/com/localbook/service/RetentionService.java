@@ -0,0 +1,237 @@
+package com.localbook.service;
+
+import com.localbook.dto.RetentionCohortDTO;
+import com.localbook.dto.RetentionReportDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.RetentionCohort;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessCustomerRepository;
+import com.localbook.repository.CustomerVisitMonthRepository;
+import com.localbook.repository.RetentionCohortRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Repeat-customer retention per business: of the customers whose first completed
+ * visit was in month M, what share came back in M+1, M+2, ...
+ *
+ * BusinessStatsService reports every appointment entering or leaving COMPLETED here,
+ * inside the appointment's transaction. customer_visit_months counts each customer's
+ * completed visits per month, and only a month going from no visits to some (or
+ * back) touches the retention_cohorts matrix: one cell, or the customer's handful of
+ * cells when their first visit month itself changes. The report reads the matrix
+ * for the months asked for and never rescans appointments.
+ */
+@Service
+public class RetentionService {
+
+    public static final int DEFAULT_MONTHS = 12;
+    public static final int MAX_MONTHS = 36;
+
+    @Autowired
+    private CustomerVisitMonthRepository visitMonthRepository;
+
+    @Autowired
+    private RetentionCohortRepository cohortRepository;
+
+    @Autowired
+    private BusinessCustomerRepository businessCustomerRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * One cohort per month for the last months months (the current one included).
+     */
+    public RetentionReportDTO getReport(Long businessId, Integer months) {
+        int span = months == null ? DEFAULT_MONTHS : months;
+        if (span < 1 || span > MAX_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_MONTHS);
+        }
+
+        LocalDate current = LocalDate.now().withDayOfMonth(1);
+        LocalDate from = current.minusMonths(span - 1);
+
+        // Row k of each cohort: customers seen k months after it started (0 = the cohort itself)
+        Map<LocalDate, long[]> matrix = new HashMap<>();
+        for (RetentionCohort cell : cohortRepository
+                .findByBusinessIdAndCohortMonthGreaterThanEqualOrderByCohortMonthAscMonthsAfterAsc(businessId, from)) {
+            long[] row = matrix.computeIfAbsent(cell.getCohortMonth(), m -> new long[monthsBetween(m, current) + 1]);
+            if (cell.getMonthsAfter() < row.length) {
+                row[cell.getMonthsAfter()] = cell.getCustomers();
+            }
+        }
+
+        long[] returnedAfter = new long[span - 1];
+        long[] eligibleAfter = new long[span - 1];
+        List<RetentionCohortDTO> cohorts = new ArrayList<>();
+        for (LocalDate month = from; !month.isAfter(current); month = month.plusMonths(1)) {
+            long[] row = matrix.getOrDefault(month, new long[monthsBetween(month, current) + 1]);
+            long size = row[0];
+            long[] returning = new long[row.length - 1];
+            double[] retention = new double[row.length - 1];
+            for (int k = 1; k < row.length; k++) {
+                returning[k - 1] = row[k];
+                retention[k - 1] = size == 0 ? 0.0 : round(row[k] / (double) size);
+                returnedAfter[k - 1] += row[k];
+                eligibleAfter[k - 1] += size;
+            }
+            cohorts.add(new RetentionCohortDTO(month, size, returning, retention));
+        }
+
+        double[] average = new double[span - 1];
+        for (int k = 0; k < average.length; k++) {
+            average[k] = eligibleAfter[k] == 0 ? 0.0 : round(returnedAfter[k] / (double) eligibleAfter[k]);
+        }
+        return new RetentionReportDTO(businessId, from, current, cohorts, average);
+    }
+
+    // ========================================
+    // WRITES (called by BusinessStatsService inside the appointment's transaction)
+    // ========================================
+
+    // The appointments became COMPLETED (sign = +1) or stopped being COMPLETED (sign = -1)
+    public void recordVisits(Collection<Appointment> appointments, int sign) {
+        VisitDeltas deltas = new VisitDeltas();
+        for (Appointment appointment : appointments) {
+            deltas.add(appointment, appointment.getAppointmentDateTime(), sign);
+        }
+        deltas.flush();
+    }
+
+    public void recordRescheduled(Appointment appointment, LocalDateTime previousDateTime, AppointmentStatus previousStatus) {
+        VisitDeltas deltas = new VisitDeltas();
+        if (previousStatus == AppointmentStatus.COMPLETED) {
+            deltas.add(appointment, previousDateTime, -1);
+        }
+        if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            deltas.add(appointment, appointment.getAppointmentDateTime(), 1);
+        }
+        deltas.flush();
+    }
+
+    /**
+     * Recompute every business's visit months and matrix from the appointments table.
+     */
+    @Transactional
+    public void rebuildAll() {
+        cohortRepository.deleteAllRows();
+        visitMonthRepository.deleteAllRows();
+        int visitMonths = visitMonthRepository.rebuildFromAppointments();
+        int cells = cohortRepository.rebuildFromVisitMonths();
+        System.out.println("✅ Rebuilt retention cohorts: " + visitMonths + " customer months, " + cells + " cohort cells");
+    }
+
+    public void backfillIfEmpty() {
+        if (visitMonthRepository.count() > 0 || appointmentRepository.count() == 0) {
+            return;
+        }
+        rebuildAll();
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    /**
+     * Change one customer's completed visits in one month by delta and, if that
+     * month gained its first visit or lost its last, update the matrix.
+     */
+    private void apply(Long businessId, Long userId, LocalDate month, int delta) {
+        businessCustomerRepository.lockCustomer(businessId, userId);
+
+        List<LocalDate> before = visitMonthRepository.findMonths(businessId, userId);
+        Integer current = visitMonthRepository.findVisits(businessId, userId, month);
+        int was = current == null ? 0 : current;
+        int now = was + delta;
+
+        visitMonthRepository.addVisits(businessId, userId, month, delta);
+        if (now <= 0) {
+            visitMonthRepository.deleteIfNoVisits(businessId, userId, month);
+        }
+        if ((was > 0) == (now > 0)) {
+            return;
+        }
+
+        List<LocalDate> after = new ArrayList<>(before);
+        if (now > 0) {
+            after.add(month);
+            after.sort(null);
+        } else {
+            after.remove(month);
+        }
+
+        LocalDate oldCohort = before.isEmpty() ? null : before.get(0);
+        LocalDate newCohort = after.isEmpty() ? null : after.get(0);
+        if (Objects.equals(oldCohort, newCohort)) {
+            cohortRepository.addCustomers(businessId, newCohort, monthsBetween(newCohort, month), now > 0 ? 1 : -1);
+            return;
+        }
+
+        // The customer's first visit moved (an earlier visit was completed late, or the first undone):
+        // take their months out of the old cohort and put them into the new one
+        addCells(businessId, oldCohort, before, -1);
+        addCells(businessId, newCohort, after, 1);
+    }
+
+    private void addCells(Long businessId, LocalDate cohort, List<LocalDate> months, int sign) {
+        if (cohort == null) {
+            return;
+        }
+        for (LocalDate month : months) {
+            cohortRepository.addCustomers(businessId, cohort, monthsBetween(cohort, month), sign);
+        }
+    }
+
+    private static int monthsBetween(LocalDate from, LocalDate to) {
+        return (int) ChronoUnit.MONTHS.between(from, to);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    /**
+     * Net visit change per (business, customer, month), applied in key order so
+     * concurrent transactions lock the customers in the same order.
+     */
+    private final class VisitDeltas {
+        private final Map<Long, Map<Long, Map<LocalDate, Integer>>> byBusiness = new TreeMap<>();
+
+        void add(Appointment appointment, LocalDateTime dateTime, int sign) {
+            byBusiness
+                .computeIfAbsent(appointment.getBusiness().getId(), id -> new TreeMap<>())
+                .computeIfAbsent(appointment.getUser().getId(), id -> new TreeMap<>())
+                .merge(dateTime.toLocalDate().withDayOfMonth(1), sign, Integer::sum);
+        }
+
+        void flush() {
+            for (Map.Entry<Long, Map<Long, Map<LocalDate, Integer>>> business : byBusiness.entrySet()) {
+                for (Map.Entry<Long, Map<LocalDate, Integer>> customer : business.getValue().entrySet()) {
+                    for (Map.Entry<LocalDate, Integer> month : customer.getValue().entrySet()) {
+                        if (month.getValue() != 0) {
+                            apply(business.getKey(), customer.getKey(), month.getKey(), month.getValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.localbook.service;
+
+import com.localbook.model.RollupGranularity;
+import com.localbook.repository.AnalyticsRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background compaction of the analytics rollups. Each business is compacted in
+ * its own transaction, several at a time; a business that fails is simply left
+ * for the next run, which picks up wherever the last one stopped.
+ */
+@Service
+public class RollupCompactionScheduler {
+
+    private static final int COMPACTION_PARALLELISM = 4;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    private final ExecutorService compactionPool = Executors.newFixedThreadPool(COMPACTION_PARALLELISM);
+
+    // ========================================
+    // Run at ten past every hour
+    // ========================================
+
+    @Scheduled(cron = "0 10 * * * *")
+    public void compact() {
+        compactUpTo(LocalDateTime.now());
+    }
+
+    /**
+     * Compact every business with buckets past the retention cutoffs for the given
+     * time. Returns the number of businesses that failed.
+     */
+    public int compactUpTo(LocalDateTime now) {
+        LocalDateTime hourCutoff = AnalyticsRollupService.hourlyKeptFrom(now);
+        LocalDateTime dayCutoff = AnalyticsRollupService.dailyKeptFrom(now);
+
+        Set<Long> businessIds = new TreeSet<>(rollupRepository.findBusinessIdsWithBucketsBefore(RollupGranularity.HOUR, hourCutoff));
+        businessIds.addAll(rollupRepository.findBusinessIdsWithBucketsBefore(RollupGranularity.DAY, dayCutoff));
+        if (businessIds.isEmpty()) {
+            return 0;
+        }
+
+        AtomicInteger buckets = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (Long businessId : businessIds) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    buckets.addAndGet(analyticsRollupService.compactBusiness(businessId, hourCutoff, dayCutoff));
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.err.println("❌ Rollup compaction failed for business " + businessId + ": " + e.getMessage());
+                }
+            }, compactionPool));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+
+        System.out.println("✅ Compacted " + buckets.get() + " analytics buckets for " + businessIds.size()
+            + " businesses" + (failed.get() > 0 ? " (" + failed.get() + " failed, retried next run)" : ""));
+        return failed.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactionPool.shutdownNow();
+    }
+}
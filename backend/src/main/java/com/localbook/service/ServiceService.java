@@ -17,6 +17,18 @@ public class ServiceService {
     @Autowired
     private BusinessRepository businessRepository;
     
+    @Autowired
+    private DashboardCache dashboardCache;
+    
+    @Autowired
+    private PeerBenchmarkService peerBenchmarkService;
+    
+    @Autowired
+    private BusinessFacetIndex businessFacetIndex;
+    
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+    
     // Create a new service for a business
     public Service createService(Service service, Long businessId) {
         // Verify the business exists
@@ -36,7 +48,12 @@ public class ServiceService {
         // Link the service to the business
         service.setBusiness(business.get());
         
-        return serviceRepository.save(service);
+        Service saved = serviceRepository.save(service);
+        dashboardCache.invalidate(businessId);
+        peerBenchmarkService.recordPriceAdded(business.get(), saved.getPrice());
+        businessFacetIndex.recordChanged(businessId);
+        typeaheadIndex.recordServiceSaved(saved.getId(), businessId, saved.getServiceName());
+        return saved;
     }
     
     // Get all services
@@ -85,13 +102,20 @@ public class ServiceService {
                 "You can only update services for your own business.");
         }
         
+        Double previousPrice = service.getPrice();
+        
         // Update fields
         service.setServiceName(updatedService.getServiceName());
         service.setDurationMinutes(updatedService.getDurationMinutes());
         service.setPrice(updatedService.getPrice());
         service.setDescription(updatedService.getDescription());
         
-        return serviceRepository.save(service);
+        Service saved = serviceRepository.save(service);
+        dashboardCache.invalidate(businessId);
+        peerBenchmarkService.recordPriceChanged(saved.getBusiness(), previousPrice, saved.getPrice());
+        businessFacetIndex.recordChanged(businessId);
+        typeaheadIndex.recordServiceSaved(saved.getId(), businessId, saved.getServiceName());
+        return saved;
     }
     
     // Delete service (Business owner only)
@@ -109,5 +133,9 @@ public class ServiceService {
         }
         
         serviceRepository.deleteById(id);
+        dashboardCache.invalidate(businessId);
+        peerBenchmarkService.recordPriceChanged(service.get().getBusiness(), service.get().getPrice(), null);
+        businessFacetIndex.recordChanged(businessId);
+        typeaheadIndex.recordServiceDeleted(id);
     }
 }
\ No newline at end of file
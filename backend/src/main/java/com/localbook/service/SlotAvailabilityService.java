@@ -0,0 +1,538 @@
+package com.localbook.service;
+
+import com.localbook.dto.SlotAvailabilityDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.BusinessHours;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.util.AfterCommit;
+import com.localbook.util.RecurrenceExpander;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory slot availability engine.
+ *
+ * Keeps one occupancy bitmap per business per day, built once from the
+ * business hours and the CONFIRMED appointments of that day, then updated
+ * in place by AppointmentService whenever a booking is created, cancelled,
+ * completed or rescheduled. Recurring series are expanded into the bitmap
+ * for the day being loaded. Warm reads never touch the database.
+ *
+ * Each slot counts the bookings holding it, so releasing one of two
+ * overlapping bookings (legacy data, a series over a booking) leaves the slot
+ * taken. Only days from today to MAX_DAYS_AHEAD of existing businesses are
+ * served, and at most MAX_CACHED_DAYS are kept, dropping the least recently
+ * read. Days are loaded outside the cache's lock.
+ */
+@Service
+public class SlotAvailabilityService {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    // Used when a business has not saved its hours yet (same as the mobile booking grid)
+    static final LocalTime DEFAULT_OPEN = LocalTime.of(9, 0);
+    static final LocalTime DEFAULT_CLOSE = LocalTime.of(18, 0);
+
+    public static final int MAX_DAYS_AHEAD = 366;
+    public static final int MAX_CACHED_DAYS = 20_000;
+
+    private static final int CHANGE_STRIPES = 64;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessHoursRepository businessHoursRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+
+    // Guarded by itself
+    private final Map<DayKey, DayOccupancy> days = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DayKey, DayOccupancy> eldest) {
+            return size() > MAX_CACHED_DAYS;
+        }
+    };
+    // Bumped (under days' lock) by every change to a day, by stripe of its key: a load
+    // that overlapped a change to its day may have missed it, so it isn't cached
+    private final long[] dayChanges = new long[CHANGE_STRIPES];
+
+    // Business id -> its active recurring series, detached copies; kept up to date by recordSeriesChanged
+    private final ConcurrentHashMap<Long, List<AppointmentSeries>> series = new ConcurrentHashMap<>();
+    // Bumped by every series change, so a load that overlapped one isn't cached
+    private long seriesChanges;
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Free and booked slots for a business on a date. A slot is free when the
+     * business is open and a booking of the given length fits from that slot on.
+     */
+    public SlotAvailabilityDTO getAvailability(Long businessId, LocalDate date, int durationMinutes) {
+        checkHorizon(date);
+        DayOccupancy day = getDay(businessId, date);
+        int length = slotsFor(durationMinutes);
+
+        List<String> free = new ArrayList<>();
+        List<String> booked = new ArrayList<>();
+
+        synchronized (day) {
+            for (int slot = day.open.nextSetBit(0); slot >= 0; slot = day.open.nextSetBit(slot + 1)) {
+                if (day.booked.get(slot)) {
+                    booked.add(label(slot));
+                } else if (fits(day, slot, length)) {
+                    free.add(label(slot));
+                }
+            }
+            // Bookings outside opening hours (e.g. hours changed after booking) still count as booked
+            for (int slot = day.booked.nextSetBit(0); slot >= 0; slot = day.booked.nextSetBit(slot + 1)) {
+                if (!day.open.get(slot)) {
+                    booked.add(label(slot));
+                }
+            }
+        }
+
+        booked.sort(null);
+        return new SlotAvailabilityDTO(businessId, date, SLOT_MINUTES, free, booked);
+    }
+
+    public List<String> getBookedSlots(Long businessId, LocalDate date) {
+        checkHorizon(date);
+        DayOccupancy day = getDay(businessId, date);
+        List<String> booked = new ArrayList<>();
+
+        synchronized (day) {
+            for (int slot = day.booked.nextSetBit(0); slot >= 0; slot = day.booked.nextSetBit(slot + 1)) {
+                booked.add(label(slot));
+            }
+        }
+
+        return booked;
+    }
+
+    /**
+     * The run of open, unbooked slots [from, to) around an interval, as slot indexes.
+     * With releasing=true the interval itself counts as free because it is being
+     * cancelled in the current transaction, unless another booking holds it too.
+     * Returns null when the interval is not inside opening hours or is still booked.
+     */
+    public int[] freeRunAround(Long businessId, LocalDateTime start, int durationMinutes, boolean releasing) {
+        DayOccupancy day = getDay(businessId, start.toLocalDate());
+        int from = slotOf(start.toLocalTime());
+        int to = endSlot(start.toLocalTime(), durationMinutes);
+
+        synchronized (day) {
+            for (int slot = from; slot < to; slot++) {
+                if (!day.open.get(slot) || day.holds[slot] > (releasing ? 1 : 0)) {
+                    return null;
+                }
+            }
+            while (from > 0 && day.open.get(from - 1) && !day.booked.get(from - 1)) {
+                from--;
+            }
+            while (to < SLOTS_PER_DAY && day.open.get(to) && !day.booked.get(to)) {
+                to++;
+            }
+        }
+
+        return new int[]{from, to};
+    }
+
+    /**
+     * Earliest start in [from, to) where a booking of the given length fits,
+     * or null when nothing is free in the window. Scans the day bitmaps, so
+     * only days not yet in memory cost a database round trip. The window is
+     * cut to today .. MAX_DAYS_AHEAD.
+     */
+    public LocalDateTime earliestFree(Long businessId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        int length = slotsFor(durationMinutes);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime horizon = LocalDate.now().plusDays(MAX_DAYS_AHEAD + 1).atStartOfDay();
+        if (from.isBefore(today)) {
+            from = today;
+        }
+        if (to.isAfter(horizon)) {
+            to = horizon;
+        }
+
+        for (LocalDate date = from.toLocalDate(); date.atStartOfDay().isBefore(to); date = date.plusDays(1)) {
+            int first = date.equals(from.toLocalDate()) ? slotAtOrAfter(from.toLocalTime()) : 0;
+            int last = date.equals(to.toLocalDate()) ? slotAtOrAfter(to.toLocalTime()) : SLOTS_PER_DAY;
+            if (first >= last) {
+                continue;
+            }
+
+            DayOccupancy day = getDay(businessId, date);
+            synchronized (day) {
+                for (int slot = day.open.nextSetBit(first); slot >= 0 && slot < last; slot = day.open.nextSetBit(slot + 1)) {
+                    if (fits(day, slot, length)) {
+                        return date.atStartOfDay().plusMinutes((long) slot * SLOT_MINUTES);
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The business's active recurring series that haven't ended before today, from
+     * memory after the first call. The copies carry only the rule, the skipped dates
+     * and the service duration: what RecurrenceExpander and durationOf read.
+     */
+    public List<AppointmentSeries> activeSeries(Long businessId) {
+        List<AppointmentSeries> cached = series.get(businessId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long changes;
+        synchronized (series) {
+            changes = seriesChanges;
+        }
+        List<AppointmentSeries> loaded = new ArrayList<>();
+        for (AppointmentSeries found : appointmentSeriesRepository.findActiveForBusinessFrom(businessId, LocalDate.now())) {
+            loaded.add(detached(found));
+        }
+        loaded = Collections.unmodifiableList(loaded);
+
+        synchronized (series) {
+            if (seriesChanges == changes) {
+                series.putIfAbsent(businessId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // ========================================
+    // WRITES (called by AppointmentService)
+    // ========================================
+
+    /**
+     * Mark the appointment's interval as booked once the surrounding transaction commits.
+     */
+    public void occupy(Appointment appointment) {
+        Long businessId = appointment.getBusiness().getId();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        int duration = durationOf(appointment);
+
+        AfterCommit.run(() -> apply(businessId, start, duration, true));
+    }
+
+    /**
+     * Free the appointment's interval once the surrounding transaction commits.
+     */
+    public void release(Appointment appointment) {
+        release(appointment.getBusiness().getId(), appointment.getAppointmentDateTime(), durationOf(appointment));
+    }
+
+    public void release(Long businessId, LocalDateTime start, int durationMinutes) {
+        AfterCommit.run(() -> apply(businessId, start, durationMinutes, false));
+    }
+
+    /**
+     * Drop every cached day for a business, e.g. after its opening hours change.
+     */
+    public void evictBusiness(Long businessId) {
+        synchronized (days) {
+            days.keySet().removeIf(key -> key.businessId.equals(businessId));
+            for (int i = 0; i < CHANGE_STRIPES; i++) {
+                dayChanges[i]++;
+            }
+        }
+    }
+
+    /**
+     * A recurring series was created, changed or cancelled. Once the surrounding
+     * transaction commits, the cached series of its business are updated and its
+     * days dropped (a series touches an open-ended set of days).
+     */
+    public void recordSeriesChanged(AppointmentSeries changed) {
+        Long businessId = changed.getBusiness().getId();
+        AppointmentSeries copy = detached(changed);
+
+        AfterCommit.run(() -> {
+            synchronized (series) {
+                seriesChanges++;
+                series.computeIfPresent(businessId, (key, cached) -> {
+                    List<AppointmentSeries> updated = new ArrayList<>();
+                    for (AppointmentSeries existing : cached) {
+                        if (!existing.getId().equals(copy.getId())) {
+                            updated.add(existing);
+                        }
+                    }
+                    if (Boolean.TRUE.equals(copy.getActive())) {
+                        updated.add(copy);
+                    }
+                    return Collections.unmodifiableList(updated);
+                });
+            }
+            evictBusiness(businessId);
+        });
+    }
+
+    @Scheduled(cron = "0 0 3 * * *")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        synchronized (days) {
+            days.keySet().removeIf(key -> key.date.isBefore(today));
+        }
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Dates outside today .. MAX_DAYS_AHEAD are read but never cached
+    private DayOccupancy getDay(Long businessId, LocalDate date) {
+        DayKey key = new DayKey(businessId, date);
+        long changes;
+        synchronized (days) {
+            DayOccupancy cached = days.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            changes = dayChanges[key.stripe()];
+        }
+
+        // The database is read without holding the cache's lock
+        DayOccupancy loaded = loadDay(key);
+
+        synchronized (days) {
+            DayOccupancy raced = days.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            if (dayChanges[key.stripe()] == changes && inHorizon(date)) {
+                days.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private DayOccupancy loadDay(DayKey key) {
+        if (!businessRepository.existsById(key.businessId)) {
+            throw new IllegalArgumentException("Business not found with ID: " + key.businessId);
+        }
+        DayOccupancy day = new DayOccupancy();
+
+        BusinessHours.DayOfWeek dayOfWeek = BusinessHours.DayOfWeek.valueOf(key.date.getDayOfWeek().name());
+        BusinessHours hours = businessHoursRepository.findByBusinessIdAndDayOfWeek(key.businessId, dayOfWeek);
+
+        if (hours == null) {
+            markOpen(day, DEFAULT_OPEN, DEFAULT_CLOSE);
+        } else if (Boolean.TRUE.equals(hours.getIsOpen()) && hours.getOpenTime() != null && hours.getCloseTime() != null) {
+            markOpen(day, hours.getOpenTime(), hours.getCloseTime());
+        }
+
+        LocalDateTime startOfDay = key.date.atStartOfDay();
+        LocalDateTime endOfDay = key.date.plusDays(1).atStartOfDay().minusNanos(1);
+
+        List<Appointment> appointments = appointmentRepository.findByBusinessIdAndStatusAndAppointmentDateTimeBetween(
+            key.businessId, AppointmentStatus.CONFIRMED, startOfDay, endOfDay);
+
+        for (Appointment appointment : appointments) {
+            int from = slotOf(appointment.getAppointmentDateTime().toLocalTime());
+            int to = endSlot(appointment.getAppointmentDateTime().toLocalTime(), durationOf(appointment));
+            day.hold(from, to);
+        }
+
+        // Recurring series are expanded for just this day
+        for (AppointmentSeries rule : activeSeries(key.businessId)) {
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(rule, startOfDay, key.date.plusDays(1).atStartOfDay())) {
+                day.hold(slotOf(occurrence.toLocalTime()), endSlot(occurrence.toLocalTime(), durationOf(rule)));
+            }
+        }
+
+        return day;
+    }
+
+    private void apply(Long businessId, LocalDateTime start, int durationMinutes, boolean book) {
+        int from = slotOf(start.toLocalTime());
+        int to = endSlot(start.toLocalTime(), durationMinutes);
+
+        // Only days already in memory need updating; cold days are built fresh on first read.
+        // A load of the same day running now sees the change bumped and doesn't cache its result.
+        DayKey key = new DayKey(businessId, start.toLocalDate());
+        DayOccupancy day;
+        synchronized (days) {
+            dayChanges[key.stripe()]++;
+            day = days.get(key);
+        }
+        if (day != null) {
+            synchronized (day) {
+                if (book) {
+                    day.hold(from, to);
+                } else {
+                    day.free(from, to);
+                }
+            }
+        }
+    }
+
+    private static boolean inHorizon(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(MAX_DAYS_AHEAD));
+    }
+
+    private static void checkHorizon(LocalDate date) {
+        if (!inHorizon(date)) {
+            throw new IllegalArgumentException("Date must be between today and " + MAX_DAYS_AHEAD + " days ahead");
+        }
+    }
+
+    private void markOpen(DayOccupancy day, LocalTime open, LocalTime close) {
+        int from = slotOf(open);
+        int to = close.equals(LocalTime.MIDNIGHT) ? SLOTS_PER_DAY : slotOf(close);
+        if (to > from) {
+            day.open.set(from, to);
+        }
+    }
+
+    private boolean fits(DayOccupancy day, int slot, int length) {
+        if (slot + length > SLOTS_PER_DAY) {
+            return false;
+        }
+        // Every slot in [slot, slot + length) must be open and unbooked
+        int firstClosed = day.open.nextClearBit(slot);
+        int firstBooked = day.booked.nextSetBit(slot);
+        int end = slot + length;
+        return firstClosed >= end && (firstBooked < 0 || firstBooked >= end);
+    }
+
+    private static AppointmentSeries detached(AppointmentSeries source) {
+        AppointmentSeries copy = new AppointmentSeries();
+        copy.setId(source.getId());
+        copy.setFirstOccurrence(source.getFirstOccurrence());
+        copy.setFrequency(source.getFrequency());
+        copy.setIntervalCount(source.getIntervalCount());
+        copy.setUntilDate(source.getUntilDate());
+        copy.setMaxOccurrences(source.getMaxOccurrences());
+        copy.setActive(source.getActive());
+        copy.setSkippedDates(new HashSet<>(source.getSkippedDates()));
+
+        com.localbook.model.Service service = new com.localbook.model.Service();
+        service.setDurationMinutes(durationOf(source));
+        copy.setService(service);
+        return copy;
+    }
+
+    static int durationOf(Appointment appointment) {
+        if (appointment.getService() == null || appointment.getService().getDurationMinutes() == null) {
+            return SLOT_MINUTES;
+        }
+        return appointment.getService().getDurationMinutes();
+    }
+
+    static int durationOf(AppointmentSeries series) {
+        if (series.getService() == null || series.getService().getDurationMinutes() == null) {
+            return SLOT_MINUTES;
+        }
+        return series.getService().getDurationMinutes();
+    }
+
+    static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    // First slot starting at or after the given time (48 when none is left that day)
+    static int slotAtOrAfter(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 || time.getNano() > 0 ? 1 : 0);
+        return (minute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    static int endSlot(LocalTime start, int durationMinutes) {
+        int endMinute = start.getHour() * 60 + start.getMinute() + Math.max(durationMinutes, 1);
+        // Bookings running past midnight are clipped to the end of their start day
+        return Math.min(SLOTS_PER_DAY, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    static int slotsFor(int durationMinutes) {
+        return Math.max(1, (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    static String label(int slot) {
+        int minute = slot * SLOT_MINUTES;
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    static final class DayKey {
+        private final Long businessId;
+        private final LocalDate date;
+
+        DayKey(Long businessId, LocalDate date) {
+            this.businessId = businessId;
+            this.date = date;
+        }
+
+        LocalDate date() {
+            return date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DayKey)) return false;
+            DayKey that = (DayKey) o;
+            return businessId.equals(that.businessId) && date.equals(that.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(businessId, date);
+        }
+
+        int stripe() {
+            return Math.floorMod(hashCode(), CHANGE_STRIPES);
+        }
+    }
+
+    private static final class DayOccupancy {
+        private final BitSet open = new BitSet(SLOTS_PER_DAY);
+        // Slots held by at least one booking: holds[slot] > 0
+        private final BitSet booked = new BitSet(SLOTS_PER_DAY);
+        private final int[] holds = new int[SLOTS_PER_DAY];
+
+        void hold(int from, int to) {
+            for (int slot = from; slot < to; slot++) {
+                if (holds[slot]++ == 0) {
+                    booked.set(slot);
+                }
+            }
+        }
+
+        void free(int from, int to) {
+            for (int slot = from; slot < to; slot++) {
+                if (holds[slot] > 0 && --holds[slot] == 0) {
+                    booked.clear(slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.localbook.service;
+
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.SlotClaim;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.SlotClaimRepository;
+import com.localbook.util.RecurrenceExpander;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Atomic slot reservation for appointments.
+ *
+ * A booking claims every 30-minute slot it covers in the slot_claims table,
+ * whose unique key on (business_id, slot_start) rejects overlaps at the
+ * database level. Within this instance, bookings for the same business and
+ * day are additionally serialized on one of a fixed set of lock stripes,
+ * held until the transaction completes, so competing requests fail fast on
+ * the existence check instead of piling up on the unique index. Bookings for
+ * other businesses or other days proceed in parallel.
+ *
+ * Recurring series hold no claim rows: bookings check them from the series
+ * SlotAvailabilityService keeps in memory, and a new series is checked against
+ * every booking and every other series it can ever meet. A series change takes
+ * its business's lock exclusively (bookings take it shared), so a booking and
+ * a series can't both get in on the same slot.
+ */
+@Service
+public class SlotReservationService {
+
+    public static final String SLOT_TAKEN_MESSAGE = "This time slot is already booked";
+
+    private static final int STRIPES = 256;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    // By business and day, for bookings
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // By business: shared by bookings, exclusive for series changes
+    private final ReentrantReadWriteLock[] businessStripes = new ReentrantReadWriteLock[STRIPES];
+
+    public SlotReservationService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+            businessStripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Claim the slots covered by a saved appointment. Throws IllegalArgumentException
+     * when any of them is taken, which rolls back the caller's transaction.
+     */
+    public void reserve(Appointment appointment) {
+        reserve(appointment.getBusiness().getId(), appointment.getId(),
+                appointment.getAppointmentDateTime(), SlotAvailabilityService.durationOf(appointment));
+    }
+
+    public void reserve(Long businessId, Long appointmentId, LocalDateTime start, int durationMinutes) {
+        List<LocalDateTime> slots = slotStarts(start, durationMinutes);
+
+        Lock seriesGuard = businessStripeFor(businessId).readLock();
+        ReentrantLock lock = stripeFor(businessId, start.toLocalDate());
+        seriesGuard.lock();
+        lock.lock();
+        boolean handedOff = false;
+
+        try {
+            if (slotClaimRepository.existsByBusinessIdAndSlotStartIn(businessId, slots)
+                    || takenBySeries(businessId, slots)) {
+                throw new IllegalArgumentException(SLOT_TAKEN_MESSAGE);
+            }
+
+            List<SlotClaim> claims = new ArrayList<>();
+            for (LocalDateTime slot : slots) {
+                claims.add(new SlotClaim(businessId, slot, appointmentId));
+            }
+
+            try {
+                slotClaimRepository.saveAllAndFlush(claims);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance claimed one of the slots first
+                throw new IllegalArgumentException(SLOT_TAKEN_MESSAGE);
+            }
+
+            handedOff = unlockFirstAfterCommit(lock, seriesGuard);
+        } finally {
+            if (!handedOff) {
+                lock.unlock();
+                seriesGuard.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hold off bookings and other series changes at the business until the current
+     * transaction completes. Series changes call this before their first read, so
+     * under MySQL's REPEATABLE READ their snapshot has every booking that got in
+     * ahead of them. Returns false when there is no transaction and the caller
+     * must unlock.
+     */
+    public boolean lockBusiness(Long businessId) {
+        ReentrantReadWriteLock.WriteLock lock = businessStripeFor(businessId).writeLock();
+        if (lock.isHeldByCurrentThread()) {
+            return true;
+        }
+        lock.lock();
+        return unlockAfterCompletion(lock);
+    }
+
+    /**
+     * Check a new recurring series against existing bookings and other series, over
+     * its whole run. Bookings are finite, so they are checked up to the last claimed
+     * slot; another series by the dates the two rules share, up to where either ends.
+     */
+    public void assertSeriesFree(AppointmentSeries series) {
+        Long businessId = series.getBusiness().getId();
+        boolean handedOff = lockBusiness(businessId);
+
+        try {
+            LocalDateTime from = series.getFirstOccurrence().toLocalDate().atStartOfDay();
+            LocalDateTime end = RecurrenceExpander.end(series);
+
+            LocalDateTime lastClaim = slotClaimRepository.findLastSlotStart(businessId);
+            if (lastClaim != null && !lastClaim.isBefore(from)) {
+                LocalDateTime to = earliest(end, lastClaim.toLocalDate().plusDays(1).atStartOfDay());
+                Set<LocalDateTime> taken = new HashSet<>(slotClaimRepository.findSlotStartsInRange(businessId, from, to));
+                for (LocalDateTime occurrence : RecurrenceExpander.occurrences(series, from, to)) {
+                    for (LocalDateTime slot : slotStarts(occurrence, SlotAvailabilityService.durationOf(series))) {
+                        if (taken.contains(slot)) {
+                            throw new IllegalArgumentException(SLOT_TAKEN_MESSAGE);
+                        }
+                    }
+                }
+            }
+
+            for (AppointmentSeries other : appointmentSeriesRepository.findActiveForBusinessFrom(businessId, from.toLocalDate())) {
+                if (!other.getId().equals(series.getId()) && clash(series, other)) {
+                    throw new IllegalArgumentException(SLOT_TAKEN_MESSAGE);
+                }
+            }
+        } finally {
+            if (!handedOff) {
+                businessStripeFor(businessId).writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Give back every slot held by an appointment (cancel, delete, before reschedule).
+     */
+    public void release(Long appointmentId) {
+        slotClaimRepository.releaseByAppointmentId(appointmentId);
+    }
+
+    /**
+     * Same as release(Long) for a batch of appointments, in one DELETE.
+     */
+    public void release(Collection<Long> appointmentIds) {
+        if (!appointmentIds.isEmpty()) {
+            slotClaimRepository.releaseByAppointmentIdIn(appointmentIds);
+        }
+    }
+
+    /**
+     * Claims for CONFIRMED appointments booked before slot_claims existed.
+     * Runs once, when the table is still empty.
+     */
+    @Transactional
+    public void backfillFutureClaims() {
+        if (slotClaimRepository.count() > 0) {
+            return;
+        }
+
+        List<Appointment> upcoming = appointmentRepository.findByStatusAndAppointmentDateTimeAfter(
+            AppointmentStatus.CONFIRMED, LocalDateTime.now());
+
+        Set<String> seen = new HashSet<>();
+        List<SlotClaim> claims = new ArrayList<>();
+
+        for (Appointment appointment : upcoming) {
+            Long businessId = appointment.getBusiness().getId();
+            for (LocalDateTime slot : slotStarts(appointment.getAppointmentDateTime(), SlotAvailabilityService.durationOf(appointment))) {
+                // Legacy data may already overlap; the first booking keeps the slot
+                if (seen.add(businessId + "@" + slot)) {
+                    claims.add(new SlotClaim(businessId, slot, appointment.getId()));
+                }
+            }
+        }
+
+        slotClaimRepository.saveAll(claims);
+        System.out.println("✅ Backfilled " + claims.size() + " slot claims for " + upcoming.size() + " upcoming appointments");
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    static List<LocalDateTime> slotStarts(LocalDateTime start, int durationMinutes) {
+        LocalDate date = start.toLocalDate();
+        int from = SlotAvailabilityService.slotOf(start.toLocalTime());
+        int to = SlotAvailabilityService.endSlot(start.toLocalTime(), durationMinutes);
+
+        List<LocalDateTime> slots = new ArrayList<>(to - from);
+        for (int slot = from; slot < to; slot++) {
+            slots.add(date.atStartOfDay().plusMinutes((long) slot * SlotAvailabilityService.SLOT_MINUTES));
+        }
+        return slots;
+    }
+
+    // Does an occurrence of a recurring series on that day overlap these slots?
+    private boolean takenBySeries(Long businessId, List<LocalDateTime> slots) {
+        LocalDate date = slots.get(0).toLocalDate();
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+        Set<LocalDateTime> wanted = new HashSet<>(slots);
+        for (AppointmentSeries series : slotAvailabilityService.activeSeries(businessId)) {
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(series, dayStart, dayEnd)) {
+                for (LocalDateTime slot : slotStarts(occurrence, SlotAvailabilityService.durationOf(series))) {
+                    if (wanted.contains(slot)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Do two series ever have overlapping occurrences? Every occurrence of a series
+     * starts at the same time of day, so they clash exactly when their times overlap
+     * and they share a date that neither skips before either ends. Shared dates come
+     * straight from the two rules (RecurrenceExpander.firstSharedDate); only skipped
+     * ones are stepped over.
+     */
+    private static boolean clash(AppointmentSeries a, AppointmentSeries b) {
+        List<LocalDateTime> timesA = slotStarts(a.getFirstOccurrence(), SlotAvailabilityService.durationOf(a));
+        List<LocalDateTime> timesB = slotStarts(a.getFirstOccurrence().toLocalDate().atTime(b.getFirstOccurrence().toLocalTime()),
+            SlotAvailabilityService.durationOf(b));
+        if (Collections.disjoint(timesA, timesB)) {
+            return false;
+        }
+
+        LocalDateTime to = earliest(RecurrenceExpander.end(a), RecurrenceExpander.end(b));
+        LocalDate shared = RecurrenceExpander.firstSharedDate(a, b, latest(a.getFirstOccurrence(), b.getFirstOccurrence()).toLocalDate());
+        while (shared != null && (to == null || shared.atStartOfDay().isBefore(to))) {
+            if (!a.getSkippedDates().contains(shared) && !b.getSkippedDates().contains(shared)) {
+                return true;
+            }
+            shared = RecurrenceExpander.firstSharedDate(a, b, shared.plusDays(1));
+        }
+        return false;
+    }
+
+    // The earlier of two times, where null means never
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private ReentrantReadWriteLock businessStripeFor(Long businessId) {
+        int hash = businessId.hashCode();
+        hash ^= (hash >>> 16);
+        return businessStripes[hash & (STRIPES - 1)];
+    }
+
+    private ReentrantLock stripeFor(Long businessId, LocalDate date) {
+        int hash = Objects.hash(businessId, date);
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPES - 1)];
+    }
+
+    /**
+     * Keep a booking's locks until the surrounding transaction commits or rolls back,
+     * so the next booking for that day sees our claims. On commit they go first,
+     * before any other after-commit work (pushes, cache updates) of the transaction.
+     * Returns false when there is no transaction and the caller must unlock straight away.
+     */
+    private boolean unlockFirstAfterCommit(Lock... locks) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                unlockAll(locks);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // afterCommit only runs for a successful commit
+                if (status != STATUS_COMMITTED) {
+                    unlockAll(locks);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Keep a series change's lock until the transaction has completed, which is after
+     * the after-commit callbacks have brought the cached series up to date.
+     */
+    private boolean unlockAfterCompletion(Lock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        return true;
+    }
+
+    private static void unlockAll(Lock... locks) {
+        for (Lock lock : locks) {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.localbook.service;
+
+import com.localbook.dto.BusinessTotalDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.dto.ServiceNameDTO;
+import com.localbook.dto.SuggestionDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.util.PrefixTrie;
+import com.localbook.util.SearchText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Search-box suggestions: listed business names, the service names they offer and
+ * their towns, most booked first.
+ *
+ * Every suggestion sits in a PrefixTrie under its whole name and under each later
+ * word of it, so "cu" finds "Kate's Cuts". Each trie node keeps its best
+ * MAX_LIMIT suggestions, so a keystroke is one walk down the typed prefix.
+ * Services and towns are shared: "Haircut" is one suggestion however many
+ * businesses offer it, and it goes once the last of them stops.
+ *
+ * Popularity is non-cancelled bookings: of the business, of every service with
+ * that name, and of the businesses in the town. Built at startup and reloaded
+ * nightly; in between, business and service changes and new bookings are applied
+ * once they commit, each repairing only the trie paths of the suggestions it
+ * touches.
+ */
+@Service
+public class TypeaheadIndex extends InMemoryIndex {
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private enum Kind { BUSINESS, SERVICE, TOWN }
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Suggestion number -> suggestion; null once removed
+    private final List<Suggestion> suggestions = new ArrayList<>();
+    private final PrefixTrie trie = new PrefixTrie(MAX_LIMIT, this::compare);
+    private final Map<Long, Integer> businessSuggestions = new HashMap<>();
+    private final Map<String, Integer> serviceSuggestions = new HashMap<>();
+    private final Map<String, Integer> townSuggestions = new HashMap<>();
+
+    // What the suggestions are made from, listed or not, so a change can undo what it replaces
+    private final Map<Long, Listing> businesses = new HashMap<>();
+    private final Map<Long, Offering> services = new HashMap<>();
+    private final Map<Long, Set<Long>> servicesOf = new HashMap<>();
+    private final Map<String, Long> serviceBookings = new HashMap<>();
+
+    // ========================================
+    // READS
+    // ========================================
+
+    // Up to limit suggestions with a word starting with the query (the last word may be partial)
+    public List<SuggestionDTO> suggest(String query, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size <= 0 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String prefix = SearchText.normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] best = trie.top(prefix);
+            List<SuggestionDTO> results = new ArrayList<>(Math.min(size, best.length));
+            for (int i = 0; i < best.length && results.size() < size; i++) {
+                Suggestion suggestion = suggestions.get(best[i]);
+                results.add(new SuggestionDTO(suggestion.kind.name(), suggestion.text, suggestion.businessId,
+                    suggestion.popularity));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================
+    // WRITES
+    // ========================================
+
+    // Nightly, so popularity catches up with cancellations and bookings made outside the booking flow
+    @Scheduled(cron = "0 55 3 * * *")
+    public void nightlyRebuild() {
+        rebuild();
+    }
+
+    // Every business, service name and booking count, read for rebuild(): at startup, by the first query or nightly
+    @Override
+    protected Runnable load() {
+        List<Business> allBusinesses = businessRepository.findAll();
+        List<ServiceNameDTO> allServices = serviceRepository.findAllNames();
+        Map<Long, Long> bookings = new HashMap<>();
+        for (BusinessTotalDTO row : appointmentRepository.countBookingsByBusiness()) {
+            bookings.put(row.getBusinessId(), row.getTotal());
+        }
+        Map<String, Long> byServiceName = new HashMap<>();
+        for (NamedCountDTO row : appointmentRepository.countBookingsByServiceName()) {
+            byServiceName.merge(SearchText.normalize(row.getName()), row.getCount(), Long::sum);
+        }
+
+        return () -> {
+            suggestions.clear();
+            trie.clear();
+            businessSuggestions.clear();
+            serviceSuggestions.clear();
+            townSuggestions.clear();
+            businesses.clear();
+            services.clear();
+            servicesOf.clear();
+            serviceBookings.clear();
+            serviceBookings.putAll(byServiceName);
+            for (ServiceNameDTO service : allServices) {
+                Offering offering = new Offering(service.getBusinessId(), service.getServiceName());
+                services.put(service.getServiceId(), offering);
+                servicesOf.computeIfAbsent(offering.businessId, id -> new HashSet<>()).add(service.getServiceId());
+            }
+            for (Business business : allBusinesses) {
+                Listing listing = new Listing(business, bookings.getOrDefault(business.getId(), 0L));
+                businesses.put(listing.businessId, listing);
+                if (listing.listed) {
+                    list(listing, false);
+                }
+            }
+            trie.rerankAll();
+            System.out.println("🔤 Typeahead built: " + businessSuggestions.size() + " businesses, "
+                + serviceSuggestions.size() + " service names, " + townSuggestions.size() + " towns");
+        };
+    }
+
+    // The business was registered or changed; applied once the current transaction commits
+    public void recordSaved(Business business) {
+        Long businessId = business.getId();
+        String name = business.getBusinessName();
+        String town = business.getTown();
+        boolean listed = business.isListed();
+        applyAfterCommit(() -> {
+            Listing previous = businesses.get(businessId);
+            Listing saved = new Listing(businessId, name, town, listed, previous == null ? 0 : previous.bookings);
+            if (previous != null && previous.sameAs(saved)) {
+                return;
+            }
+            if (previous != null && previous.listed) {
+                unlist(previous);
+            }
+            businesses.put(businessId, saved);
+            if (saved.listed) {
+                list(saved, true);
+            }
+        });
+    }
+
+    public void recordDeleted(Long businessId) {
+        applyAfterCommit(() -> {
+            Listing previous = businesses.remove(businessId);
+            if (previous != null && previous.listed) {
+                unlist(previous);
+            }
+            // Its services went with it
+            Set<Long> offered = servicesOf.remove(businessId);
+            if (offered != null) {
+                offered.forEach(services::remove);
+            }
+        });
+    }
+
+    // A service was added or renamed
+    public void recordServiceSaved(Long serviceId, Long businessId, String serviceName) {
+        applyAfterCommit(() -> {
+            Offering previous = services.get(serviceId);
+            Offering saved = new Offering(businessId, serviceName);
+            if (previous != null && previous.nameKey.equals(saved.nameKey)) {
+                return;
+            }
+            if (previous != null) {
+                withdraw(serviceId, previous);
+            }
+            services.put(serviceId, saved);
+            servicesOf.computeIfAbsent(businessId, id -> new HashSet<>()).add(serviceId);
+            if (isListed(businessId)) {
+                offer(saved.name, true);
+            }
+        });
+    }
+
+    public void recordServiceDeleted(Long serviceId) {
+        applyAfterCommit(() -> {
+            Offering previous = services.get(serviceId);
+            if (previous != null) {
+                withdraw(serviceId, previous);
+            }
+        });
+    }
+
+    // A booking was made: the business, its town and the service name each gain one
+    public void recordBooked(Long businessId, String serviceName) {
+        applyAfterCommit(() -> {
+            Listing listing = businesses.get(businessId);
+            if (listing == null) {
+                return;
+            }
+            listing.bookings++;
+            if (listing.listed) {
+                bump(businessSuggestions.get(businessId), 1);
+                bump(townSuggestions.get(listing.townKey), 1);
+            }
+            String nameKey = SearchText.normalize(serviceName);
+            if (!nameKey.isEmpty()) {
+                serviceBookings.merge(nameKey, 1L, Long::sum);
+                bump(serviceSuggestions.get(nameKey), 1);
+            }
+        });
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // Suggest a listed business, its town and its services; rank false while bulk loading
+    private void list(Listing listing, boolean rank) {
+        if (!listing.nameKey.isEmpty()) {
+            int number = create(Kind.BUSINESS, listing.name, listing.nameKey, listing.businessId, listing.bookings, rank);
+            businessSuggestions.put(listing.businessId, number);
+        }
+        if (!listing.townKey.isEmpty()) {
+            Integer town = townSuggestions.get(listing.townKey);
+            if (town == null) {
+                townSuggestions.put(listing.townKey,
+                    create(Kind.TOWN, listing.town, listing.townKey, null, listing.bookings, rank));
+            } else {
+                suggestions.get(town).members++;
+                if (rank) {
+                    bump(town, listing.bookings);
+                } else {
+                    suggestions.get(town).popularity += listing.bookings;
+                }
+            }
+        }
+        for (Long serviceId : servicesOf.getOrDefault(listing.businessId, Set.of())) {
+            offer(services.get(serviceId).name, rank);
+        }
+    }
+
+    private void unlist(Listing listing) {
+        Integer business = businessSuggestions.remove(listing.businessId);
+        if (business != null) {
+            delete(business);
+        }
+        Integer town = townSuggestions.get(listing.townKey);
+        if (town != null && leave(town)) {
+            townSuggestions.remove(listing.townKey);
+        } else if (town != null) {
+            bump(town, -listing.bookings);
+        }
+        for (Long serviceId : servicesOf.getOrDefault(listing.businessId, Set.of())) {
+            String nameKey = services.get(serviceId).nameKey;
+            Integer service = serviceSuggestions.get(nameKey);
+            if (service != null && leave(service)) {
+                serviceSuggestions.remove(nameKey);
+            }
+        }
+    }
+
+    // One more listed business offers a service with this name
+    private void offer(String name, boolean rank) {
+        String nameKey = SearchText.normalize(name);
+        if (nameKey.isEmpty()) {
+            return;
+        }
+        Integer service = serviceSuggestions.get(nameKey);
+        if (service == null) {
+            serviceSuggestions.put(nameKey,
+                create(Kind.SERVICE, name, nameKey, null, serviceBookings.getOrDefault(nameKey, 0L), rank));
+        } else {
+            suggestions.get(service).members++;
+        }
+    }
+
+    // Forget the service, and its name if no other listed business offers it
+    private void withdraw(Long serviceId, Offering offering) {
+        services.remove(serviceId);
+        Set<Long> offered = servicesOf.get(offering.businessId);
+        if (offered != null) {
+            offered.remove(serviceId);
+        }
+        Integer service = serviceSuggestions.get(offering.nameKey);
+        if (isListed(offering.businessId) && service != null && leave(service)) {
+            serviceSuggestions.remove(offering.nameKey);
+        }
+    }
+
+    private int create(Kind kind, String text, String key, Long businessId, long popularity, boolean rank) {
+        int number = suggestions.size();
+        suggestions.add(new Suggestion(kind, text.trim(), key, businessId, popularity));
+        for (String word : keys(key)) {
+            if (rank) {
+                trie.add(word, number);
+            } else {
+                trie.load(word, number);
+            }
+        }
+        return number;
+    }
+
+    private void delete(int number) {
+        Suggestion suggestion = suggestions.get(number);
+        for (String word : keys(suggestion.key)) {
+            trie.remove(word, number);
+        }
+        suggestions.set(number, null);
+    }
+
+    // One fewer business behind a shared suggestion; true (and deleted) when that was the last
+    private boolean leave(int number) {
+        if (--suggestions.get(number).members > 0) {
+            return false;
+        }
+        delete(number);
+        return true;
+    }
+
+    private void bump(Integer number, long bookings) {
+        if (number == null || bookings == 0) {
+            return;
+        }
+        Suggestion suggestion = suggestions.get(number);
+        suggestion.popularity += bookings;
+        for (String word : keys(suggestion.key)) {
+            trie.rerank(word);
+        }
+    }
+
+    // Most booked first, then alphabetical, then oldest
+    private int compare(int a, int b) {
+        Suggestion first = suggestions.get(a);
+        Suggestion second = suggestions.get(b);
+        int byPopularity = Long.compare(second.popularity, first.popularity);
+        if (byPopularity != 0) {
+            return byPopularity;
+        }
+        int byText = first.key.compareTo(second.key);
+        return byText != 0 ? byText : Integer.compare(a, b);
+    }
+
+    // The whole normalised name and every suffix starting at a later word
+    private static List<String> keys(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private boolean isListed(Long businessId) {
+        Listing listing = businesses.get(businessId);
+        return listing != null && listing.listed;
+    }
+
+    private static final class Suggestion {
+        private final Kind kind;
+        private final String text;
+        private final String key;           // normalised text
+        private final Long businessId;
+        private long popularity;
+        private int members = 1;            // listed businesses behind a service or town
+
+        private Suggestion(Kind kind, String text, String key, Long businessId, long popularity) {
+            this.kind = kind;
+            this.text = text;
+            this.key = key;
+            this.businessId = businessId;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Listing {
+        private final Long businessId;
+        private final String name;
+        private final String nameKey;
+        private final String town;
+        private final String townKey;
+        private final boolean listed;
+        private long bookings;
+
+        private Listing(Business business, long bookings) {
+            this(business.getId(), business.getBusinessName(), business.getTown(), business.isListed(), bookings);
+        }
+
+        private Listing(Long businessId, String name, String town, boolean listed, long bookings) {
+            this.businessId = businessId;
+            this.name = name;
+            this.nameKey = SearchText.normalize(name);
+            this.town = town;
+            this.townKey = SearchText.normalize(town);
+            this.listed = listed;
+            this.bookings = bookings;
+        }
+
+        boolean sameAs(Listing other) {
+            return listed == other.listed && nameKey.equals(other.nameKey) && townKey.equals(other.townKey)
+                && String.valueOf(name).trim().equals(String.valueOf(other.name).trim());
+        }
+    }
+
+    private static final class Offering {
+        private final Long businessId;
+        private final String name;
+        private final String nameKey;
+
+        private Offering(Long businessId, String name) {
+            this.businessId = businessId;
+            this.name = name;
+            this.nameKey = SearchText.normalize(name);
+        }
+    }
+}
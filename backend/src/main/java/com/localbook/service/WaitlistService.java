@@ -0,0 +1,410 @@
+package com.localbook.service;
+
+import com.localbook.model.PushToken;
+import com.localbook.model.Service;
+import com.localbook.model.UserNotificationSettings;
+import com.localbook.model.WaitlistEntry;
+import com.localbook.model.WaitlistStatus;
+import com.localbook.repository.PushTokenRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.repository.UserNotificationSettingsRepository;
+import com.localbook.repository.UserRepository;
+import com.localbook.repository.WaitlistEntryRepository;
+import com.localbook.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-business, per-day waitlist that back-fills freed slots.
+ *
+ * Each day's queue lives in memory, split into one priority queue per booking
+ * length (in 30 minute slots) ordered by join time. Matching a freed run of n
+ * slots only compares the heads of the first n queues, so it stays cheap no
+ * matter how many customers are waiting. WaitlistEntry rows are the source of
+ * truth; a day's queue is rebuilt from them the first time it is needed.
+ */
+@org.springframework.stereotype.Service
+public class WaitlistService {
+
+    // How long a customer has the offer before it moves on to the next one. The slot is
+    // not held meanwhile: anyone can still book it, so the push says so
+    public static final int OFFER_MINUTES = 15;
+
+    private static final EnumSet<WaitlistStatus> ACTIVE = EnumSet.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+
+    // Join order, oldest first
+    private static final Comparator<Waiting> ORDER =
+        Comparator.comparing((Waiting w) -> w.joinedAt).thenComparing(w -> w.id);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @Autowired
+    private PushTokenRepository pushTokenRepository;
+
+    @Autowired
+    private UserNotificationSettingsRepository settingsRepository;
+
+    @Autowired
+    private ExpoPushService expoPushService;
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd 'at' h:mm a");
+
+    private final ConcurrentHashMap<SlotAvailabilityService.DayKey, DayWaitlist> days = new ConcurrentHashMap<>();
+
+    // ========================================
+    // JOIN / LEAVE
+    // ========================================
+
+    @Transactional
+    public WaitlistEntry join(Long userId, Long businessId, Long serviceId, LocalDate date) {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found with ID: " + userId);
+        }
+
+        Service service = serviceRepository.findById(serviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Service not found with ID: " + serviceId));
+
+        if (service.getBusiness() == null || !service.getBusiness().getId().equals(businessId)) {
+            throw new IllegalArgumentException("Service does not belong to this business");
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot join the waitlist for a past date");
+        }
+        if (waitlistEntryRepository.existsByUserIdAndBusinessIdAndWaitDateAndStatusIn(userId, businessId, date, ACTIVE)) {
+            throw new IllegalArgumentException("You are already on the waitlist for this day");
+        }
+
+        int duration = service.getDurationMinutes() == null ? SlotAvailabilityService.SLOT_MINUTES : service.getDurationMinutes();
+
+        WaitlistEntry entry = new WaitlistEntry(userId, businessId, serviceId, date, duration);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setUpdatedAt(LocalDateTime.now());
+
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        // Cold days pick the row up when they are first loaded
+        AfterCommit.run(() -> days.computeIfPresent(key(saved), (key, day) -> {
+            day.add(waiting(saved));
+            return day;
+        }));
+
+        System.out.println("✅ User " + userId + " joined waitlist for business " + businessId + " on " + date);
+        return saved;
+    }
+
+    @Transactional
+    public WaitlistEntry leave(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+            .orElseThrow(() -> new IllegalArgumentException("Waitlist entry not found with ID: " + entryId));
+
+        if (!entry.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Unauthorized: You can only leave your own waitlist entries");
+        }
+        if (!ACTIVE.contains(entry.getStatus())) {
+            throw new IllegalArgumentException("This waitlist entry is no longer active");
+        }
+
+        entry.setStatus(WaitlistStatus.CANCELED);
+        entry.setUpdatedAt(LocalDateTime.now());
+
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        AfterCommit.run(() -> removeFromMemory(saved));
+        return saved;
+    }
+
+    public List<WaitlistEntry> getUserEntries(Long userId) {
+        return waitlistEntryRepository.findByUserIdAndStatusInOrderByWaitDateAsc(userId, ACTIVE);
+    }
+
+    public List<WaitlistEntry> getBusinessQueue(Long businessId, LocalDate date) {
+        List<WaitlistEntry> entries = waitlistEntryRepository.findByBusinessIdAndWaitDateAndStatus(
+            businessId, date, WaitlistStatus.WAITING);
+        entries.sort(Comparator.comparing(WaitlistEntry::getCreatedAt).thenComparing(WaitlistEntry::getId));
+        return entries;
+    }
+
+    /**
+     * A waiting customer booked that day themselves: stop offering them slots.
+     */
+    public void markFulfilled(Long userId, Long businessId, LocalDate date) {
+        List<WaitlistEntry> entries = waitlistEntryRepository.findByUserIdAndBusinessIdAndWaitDateAndStatusIn(
+            userId, businessId, date, ACTIVE);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        for (WaitlistEntry entry : entries) {
+            entry.setStatus(WaitlistStatus.FULFILLED);
+            entry.setUpdatedAt(LocalDateTime.now());
+        }
+        waitlistEntryRepository.saveAll(entries);
+
+        AfterCommit.run(() -> entries.forEach(this::removeFromMemory));
+    }
+
+    // ========================================
+    // MATCHING
+    // ========================================
+
+    /**
+     * Called from inside the transaction that frees [start, start + durationMinutes).
+     * Offers the freed time, merged with any free slots next to it, to the longest
+     * waiting customers whose service fits. Offers are persisted in the same
+     * transaction and pushed once it commits; on rollback the customers go back
+     * into the queue.
+     */
+    public void offerFreedSlot(Long businessId, LocalDateTime start, int durationMinutes) {
+        int[] run = slotAvailabilityService.freeRunAround(businessId, start, durationMinutes, true);
+        if (run != null) {
+            offerRun(businessId, start.toLocalDate(), run[0], run[1]);
+        }
+    }
+
+    @Scheduled(fixedRate = 60000)
+    @Transactional
+    public void expireOffers() {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> stale = waitlistEntryRepository.findByStatusAndOfferedAtBefore(
+            WaitlistStatus.OFFERED, now.minusMinutes(OFFER_MINUTES));
+
+        for (WaitlistEntry entry : stale) {
+            entry.setStatus(WaitlistStatus.EXPIRED);
+            entry.setUpdatedAt(now);
+        }
+        waitlistEntryRepository.saveAll(stale);
+
+        // Whatever is still free goes to the next customer in line
+        for (WaitlistEntry entry : stale) {
+            if (entry.getOfferedStart() != null && entry.getOfferedStart().isAfter(now)) {
+                int[] run = slotAvailabilityService.freeRunAround(
+                    entry.getBusinessId(), entry.getOfferedStart(), entry.getDurationMinutes(), false);
+                if (run != null) {
+                    offerRun(entry.getBusinessId(), entry.getWaitDate(), run[0], run[1]);
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 0 3 * * *")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> key.date().isBefore(today));
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private void offerRun(Long businessId, LocalDate date, int fromSlot, int toSlot) {
+        LocalDateTime now = LocalDateTime.now();
+        if (date.isBefore(now.toLocalDate())) {
+            return;
+        }
+
+        // Never offer time that has already started
+        int from = fromSlot;
+        if (date.equals(now.toLocalDate())) {
+            from = Math.max(from, SlotAvailabilityService.slotOf(now.toLocalTime()) + 1);
+        }
+
+        DayWaitlist day = getDay(businessId, date);
+        List<Waiting> picked = new ArrayList<>();
+        Map<Long, LocalDateTime> offeredStarts = new HashMap<>();
+
+        while (from < toSlot) {
+            Waiting best = day.pollBest(toSlot - from);
+            if (best == null) {
+                break;
+            }
+            picked.add(best);
+            offeredStarts.put(best.id, date.atStartOfDay().plusMinutes((long) from * SlotAvailabilityService.SLOT_MINUTES));
+            from += best.length;
+        }
+
+        if (picked.isEmpty()) {
+            return;
+        }
+
+        List<WaitlistEntry> entries = waitlistEntryRepository.findAllById(offeredStarts.keySet());
+        for (WaitlistEntry entry : entries) {
+            entry.setStatus(WaitlistStatus.OFFERED);
+            entry.setOfferedStart(offeredStarts.get(entry.getId()));
+            entry.setOfferedAt(now);
+            entry.setUpdatedAt(now);
+        }
+        waitlistEntryRepository.saveAll(entries);
+
+        List<Map<String, Object>> messages = buildOfferMessages(entries);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        expoPushService.sendBatch(messages);
+                    } else {
+                        picked.forEach(day::add);
+                    }
+                }
+            });
+        } else {
+            expoPushService.sendBatch(messages);
+        }
+
+        System.out.println("📣 Offered " + picked.size() + " freed slot(s) at business " + businessId + " on " + date);
+    }
+
+    private List<Map<String, Object>> buildOfferMessages(List<WaitlistEntry> entries) {
+        Set<Long> userIds = new HashSet<>();
+        for (WaitlistEntry entry : entries) {
+            userIds.add(entry.getUserId());
+        }
+
+        Map<Long, UserNotificationSettings> settingsByUser = new HashMap<>();
+        for (UserNotificationSettings settings : settingsRepository.findByUserIdIn(userIds)) {
+            settingsByUser.put(settings.getUserId(), settings);
+        }
+        Map<Long, String> tokenByUser = new HashMap<>();
+        for (PushToken token : pushTokenRepository.findByUserIdIn(userIds)) {
+            tokenByUser.putIfAbsent(token.getUserId(), token.getPushToken());
+        }
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        for (WaitlistEntry entry : entries) {
+            String token = tokenByUser.get(entry.getUserId());
+            UserNotificationSettings settings = settingsByUser.get(entry.getUserId());
+            if (token == null || (settings != null && Boolean.FALSE.equals(settings.getEnableBookingNotifications()))) {
+                continue;
+            }
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("type", "waitlist_offer");
+            data.put("waitlistEntryId", entry.getId().toString());
+            data.put("businessId", entry.getBusinessId().toString());
+            data.put("serviceId", entry.getServiceId().toString());
+            data.put("dateTime", entry.getOfferedStart().toString());
+
+            messages.add(expoPushService.buildMessage(token,
+                "A slot just opened up! 🎉",
+                "A slot is free on " + entry.getOfferedStart().format(formatter) +
+                    ". It isn't held for you, so book soon - after " + OFFER_MINUTES +
+                    " minutes we'll offer it to the next person too.",
+                data));
+        }
+        return messages;
+    }
+
+    private DayWaitlist getDay(Long businessId, LocalDate date) {
+        return days.computeIfAbsent(new SlotAvailabilityService.DayKey(businessId, date), key -> {
+            DayWaitlist day = new DayWaitlist();
+            for (WaitlistEntry entry : waitlistEntryRepository.findByBusinessIdAndWaitDateAndStatus(
+                    businessId, date, WaitlistStatus.WAITING)) {
+                day.add(waiting(entry));
+            }
+            return day;
+        });
+    }
+
+    private void removeFromMemory(WaitlistEntry entry) {
+        DayWaitlist day = days.get(key(entry));
+        if (day != null) {
+            day.remove(entry.getId());
+        }
+    }
+
+    private static SlotAvailabilityService.DayKey key(WaitlistEntry entry) {
+        return new SlotAvailabilityService.DayKey(entry.getBusinessId(), entry.getWaitDate());
+    }
+
+    private static Waiting waiting(WaitlistEntry entry) {
+        int length = Math.min(SlotAvailabilityService.slotsFor(entry.getDurationMinutes()), SlotAvailabilityService.SLOTS_PER_DAY);
+        return new Waiting(entry.getId(), length, entry.getCreatedAt());
+    }
+
+    private static final class Waiting {
+        private final Long id;
+        private final int length;
+        private final LocalDateTime joinedAt;
+
+        Waiting(Long id, int length, LocalDateTime joinedAt) {
+            this.id = id;
+            this.length = length;
+            this.joinedAt = joinedAt;
+        }
+    }
+
+    private static final class DayWaitlist {
+        // byLength[n] holds everyone needing exactly n slots, oldest first
+        private final List<PriorityQueue<Waiting>> byLength = new ArrayList<>();
+        private final Map<Long, Waiting> byId = new HashMap<>();
+
+        DayWaitlist() {
+            for (int i = 0; i <= SlotAvailabilityService.SLOTS_PER_DAY; i++) {
+                byLength.add(null);
+            }
+        }
+
+        synchronized void add(Waiting waiting) {
+            if (byId.putIfAbsent(waiting.id, waiting) != null) {
+                return;
+            }
+            PriorityQueue<Waiting> queue = byLength.get(waiting.length);
+            if (queue == null) {
+                queue = new PriorityQueue<>(ORDER);
+                byLength.set(waiting.length, queue);
+            }
+            queue.add(waiting);
+        }
+
+        synchronized void remove(Long id) {
+            Waiting waiting = byId.remove(id);
+            if (waiting != null) {
+                byLength.get(waiting.length).remove(waiting);
+            }
+        }
+
+        // Longest-waiting customer needing at most maxLength slots
+        synchronized Waiting pollBest(int maxLength) {
+            Waiting best = null;
+            for (int length = 1; length <= Math.min(maxLength, SlotAvailabilityService.SLOTS_PER_DAY); length++) {
+                PriorityQueue<Waiting> queue = byLength.get(length);
+                if (queue != null && !queue.isEmpty() && (best == null || ORDER.compare(queue.peek(), best) < 0)) {
+                    best = queue.peek();
+                }
+            }
+            if (best != null) {
+                byLength.get(best.length).poll();
+                byId.remove(best.id);
+            }
+            return best;
+        }
+    }
+}
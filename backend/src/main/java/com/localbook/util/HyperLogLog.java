@@ -0,0 +1,252 @@
+package com.localbook.util;
+
+import java.util.Collection;
+
+/**
+ * HyperLogLog distinct-count sketch over long values (user ids).
+ *
+ * 2^precision one-byte registers give a relative standard error of about
+ * 1.04 / sqrt(2^precision): 1.6% at precision 12 for 4 KB dense. Sketches merge by
+ * taking the register-wise maximum, so the distinct count of a union of days or
+ * businesses comes from their sketches alone. A sketch can be folded to a lower
+ * precision, which lets sketches written at different precisions be merged.
+ *
+ * toBytes stores only the non-empty registers while that is smaller (most
+ * business-days have a few dozen customers), and all of them once it is not.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final int SPARSE_FLAG = 0x80;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        checkPrecision(precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Add a value. Returns whether the sketch changed; false means the stored form
+     * does not need rewriting.
+     */
+    public boolean add(long value) {
+        return raise(registerIndex(value, precision), registerValue(value, precision));
+    }
+
+    /**
+     * Raise one register to at least value, as merging a sketch with only that
+     * register set would. Returns whether the sketch changed.
+     */
+    public boolean raise(int index, int value) {
+        if (value > registers[index]) {
+            registers[index] = (byte) value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The register a value lands in at a precision, and (registerValue) what
+     * adding it raises that register to. A sketch can then be stored register by
+     * register and kept with a max upsert per value, without reading it back.
+     */
+    public static int registerIndex(long value, int precision) {
+        checkPrecision(precision);
+        return (int) (mix(value) >>> (64 - precision));
+    }
+
+    public static int registerValue(long value, int precision) {
+        checkPrecision(precision);
+        long rest = mix(value) << precision;
+        return rest == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+    }
+
+    /**
+     * Merge other into this sketch. other must have at least this precision; it is
+     * folded down first when it has more.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            throw new IllegalArgumentException("Cannot merge a precision " + other.precision
+                + " sketch into a precision " + precision + " one; fold this sketch first");
+        }
+        HyperLogLog source = other.precision == precision ? other : other.fold(precision);
+        for (int i = 0; i < registers.length; i++) {
+            if (source.registers[i] > registers[i]) {
+                registers[i] = source.registers[i];
+            }
+        }
+    }
+
+    /**
+     * The same sketch at a lower precision, exactly as if every value had been
+     * added at that precision.
+     */
+    public HyperLogLog fold(int lowerPrecision) {
+        if (lowerPrecision > precision) {
+            throw new IllegalArgumentException("Can only fold to a lower precision");
+        }
+        HyperLogLog folded = new HyperLogLog(lowerPrecision);
+        int shift = precision - lowerPrecision;
+        int lowMask = (1 << shift) - 1;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            // The index bits dropped from this register's index now lead the rank bits
+            int low = i & lowMask;
+            int rank = low != 0 ? shift - (32 - Integer.numberOfLeadingZeros(low)) + 1 : shift + registers[i];
+            int index = i >>> shift;
+            if (rank > folded.registers[index]) {
+                folded.registers[index] = (byte) rank;
+            }
+        }
+        return folded;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // Small cardinalities: linear counting over the empty registers is more accurate
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Union of the sketches at the lowest precision among them (emptyPrecision when
+     * there are none).
+     */
+    public static HyperLogLog union(Collection<HyperLogLog> sketches, int emptyPrecision) {
+        int lowest = emptyPrecision;
+        if (!sketches.isEmpty()) {
+            lowest = MAX_PRECISION;
+            for (HyperLogLog sketch : sketches) {
+                lowest = Math.min(lowest, sketch.precision);
+            }
+        }
+        HyperLogLog union = new HyperLogLog(lowest);
+        for (HyperLogLog sketch : sketches) {
+            union.merge(sketch);
+        }
+        return union;
+    }
+
+    // ========================================
+    // SERIALIZATION
+    // ========================================
+
+    /**
+     * First byte: precision, with the high bit set for the sparse form. Sparse: a
+     * 2-byte index and 1-byte value per non-empty register. Dense: every register.
+     */
+    public byte[] toBytes() {
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                used++;
+            }
+        }
+
+        if (used * 3 < registers.length) {
+            byte[] out = new byte[1 + used * 3];
+            out[0] = (byte) (precision | SPARSE_FLAG);
+            int at = 1;
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    out[at++] = (byte) (i >>> 8);
+                    out[at++] = (byte) i;
+                    out[at++] = registers[i];
+                }
+            }
+            return out;
+        }
+
+        byte[] out = new byte[1 + registers.length];
+        out[0] = (byte) precision;
+        System.arraycopy(registers, 0, out, 1, registers.length);
+        return out;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Empty HyperLogLog sketch");
+        }
+        boolean sparse = (bytes[0] & SPARSE_FLAG) != 0;
+        HyperLogLog sketch = new HyperLogLog(bytes[0] & ~SPARSE_FLAG & 0xFF);
+        int m = sketch.registers.length;
+
+        if (sparse) {
+            if ((bytes.length - 1) % 3 != 0) {
+                throw new IllegalArgumentException("Corrupt sparse HyperLogLog sketch");
+            }
+            for (int at = 1; at < bytes.length; at += 3) {
+                int index = ((bytes[at] & 0xFF) << 8) | (bytes[at + 1] & 0xFF);
+                if (index >= m) {
+                    throw new IllegalArgumentException("Corrupt sparse HyperLogLog sketch");
+                }
+                sketch.registers[index] = bytes[at + 2];
+            }
+        } else {
+            if (bytes.length != 1 + m) {
+                throw new IllegalArgumentException("Corrupt dense HyperLogLog sketch");
+            }
+            System.arraycopy(bytes, 1, sketch.registers, 0, m);
+        }
+        return sketch;
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    private static void checkPrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+    }
+
+    // SplitMix64 finaliser: sequential ids spread over all 64 bits
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.localbook.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal RFC 5545 content-line writer. Lines end in CRLF and are folded at
+ * 75 octets; nothing is buffered beyond the underlying writer, so a feed can
+ * be streamed event by event.
+ */
+public final class ICalendarWriter {
+
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Writer out;
+
+    public ICalendarWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void property(String name, String value) throws IOException {
+        String line = name + ":" + value;
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // TEXT values: backslash, semicolon, comma and newlines must be escaped
+    public static String text(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\")
+            .replace(";", "\\;")
+            .replace(",", "\\,")
+            .replace("\r\n", "\\n")
+            .replace("\n", "\\n")
+            .replace("\r", "\\n");
+    }
+
+    // Floating local time: shown at the same wall-clock time in every calendar
+    public static String local(LocalDateTime dateTime) {
+        return dateTime.format(DATE_TIME);
+    }
+
+    public static String utc(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+    }
+}
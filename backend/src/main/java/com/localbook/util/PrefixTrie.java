@@ -0,0 +1,286 @@
+package com.localbook.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Compressed (radix) trie from string keys to int ids, where every node keeps the
+ * best topK ids found anywhere beneath it. A prefix lookup walks at most one node
+ * per distinct branch in the prefix and returns the cached list, so it costs the
+ * same however many keys share the prefix.
+ *
+ * Ids are ordered by the ranking given at construction, which may read mutable
+ * state (a popularity count, say). When that changes for an id, rerank() each of
+ * its keys: only the nodes on those paths can hold it. add(), remove() and
+ * rerank() repair the path they touch, deepest node first; load() skips that for
+ * bulk loading, and rerankAll() then ranks every node once.
+ *
+ * Not thread-safe; callers lock around it.
+ */
+public final class PrefixTrie {
+
+    private static final int[] NONE = new int[0];
+
+    private final int topK;
+    private final IntBinaryOperator ranking;
+    private Node root = new Node("");
+
+    // ranking.applyAsInt(a, b) < 0 when id a ranks before id b
+    public PrefixTrie(int topK, IntBinaryOperator ranking) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.topK = topK;
+        this.ranking = ranking;
+    }
+
+    // The best topK ids with a key starting with prefix, best first (each id once)
+    public int[] top(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return NONE;
+            }
+            int common = commonPrefix(child.edge, prefix, i);
+            if (i + common == prefix.length()) {
+                return child.top.clone();   // the prefix ends on or inside this edge
+            }
+            if (common < child.edge.length()) {
+                return NONE;
+            }
+            node = child;
+            i += common;
+        }
+        return node.top.clone();
+    }
+
+    public void add(String key, int id) {
+        load(key, id);
+        rerank(key);
+    }
+
+    // Add without ranking: call rerankAll() once the keys are in
+    public void load(String key, int id) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.putChild(child);
+                node = child;
+                break;
+            }
+            int common = commonPrefix(child.edge, key, i);
+            if (common < child.edge.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.putChild(child);
+                node.putChild(middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.here = append(node.here, id);
+    }
+
+    public void remove(String key, int id) {
+        List<Node> path = path(key);
+        if (!endsAt(path, key)) {
+            return;
+        }
+        Node end = path.get(path.size() - 1);
+        end.here = without(end.here, id);
+        prune(path);
+        rerank(key);
+    }
+
+    // The ranking of ids under key changed; repair the nodes on its path
+    public void rerank(String key) {
+        List<Node> path = path(key);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rank(path.get(i));
+        }
+    }
+
+    public void rerankAll() {
+        rankSubtree(root);
+    }
+
+    public void clear() {
+        root = new Node("");
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    // The root and every node whose edge the key runs into, in order
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                break;
+            }
+            path.add(child);
+            int common = commonPrefix(child.edge, key, i);
+            if (common < child.edge.length()) {
+                break;
+            }
+            node = child;
+            i += common;
+        }
+        return path;
+    }
+
+    // Whether the path spells out exactly the key, i.e. the key has a node of its own
+    private static boolean endsAt(List<Node> path, String key) {
+        int i = 0;
+        for (Node node : path) {
+            if (!key.startsWith(node.edge, i)) {
+                return false;
+            }
+            i += node.edge.length();
+        }
+        return i == key.length();
+    }
+
+    // Drop the end of the path if nothing is left under it, and fold single-child nodes into their child
+    private void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.here.length == 0 && node.childCount() == 0) {
+                parent.removeChild(node);
+            } else if (node.here.length == 0 && node.childCount() == 1) {
+                Node only = node.children.values().iterator().next();
+                only.edge = node.edge + only.edge;
+                parent.putChild(only);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                rankSubtree(child);
+            }
+        }
+        rank(node);
+    }
+
+    // Best topK of the ids ending here and the children's best, kept sorted by insertion
+    private void rank(Node node) {
+        int[] best = new int[topK];
+        int size = 0;
+        size = merge(best, size, node.here);
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                size = merge(best, size, child.top);
+            }
+        }
+        node.top = size == topK ? best : Arrays.copyOf(best, size);
+    }
+
+    private int merge(int[] best, int size, int[] ids) {
+        for (int id : ids) {
+            if (size == topK && ranking.applyAsInt(id, best[size - 1]) >= 0) {
+                continue;   // children's lists are sorted, but here is not: keep scanning
+            }
+            boolean seen = false;
+            for (int i = 0; i < size && !seen; i++) {
+                seen = best[i] == id;
+            }
+            if (seen) {
+                continue;
+            }
+            int at = size == topK ? size - 1 : size++;
+            while (at > 0 && ranking.applyAsInt(id, best[at - 1]) < 0) {
+                best[at] = best[at - 1];
+                at--;
+            }
+            best[at] = id;
+        }
+        return size;
+    }
+
+    private static int commonPrefix(String edge, String key, int from) {
+        int max = Math.min(edge.length(), key.length() - from);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        for (int existing : ids) {
+            if (existing == id) {
+                return ids;
+            }
+        }
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                int[] shrunk = new int[ids.length - 1];
+                System.arraycopy(ids, 0, shrunk, 0, i);
+                System.arraycopy(ids, i + 1, shrunk, i, ids.length - i - 1);
+                return shrunk;
+            }
+        }
+        return ids;
+    }
+
+    private static final class Node {
+        private String edge;                    // label of the edge from the parent
+        private Map<Character, Node> children;  // by first character of their edge; null when a leaf
+        private int[] here = NONE;              // ids whose key ends at this node
+        private int[] top = NONE;               // best ids in this subtree, best first
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char first) {
+            return children == null ? null : children.get(first);
+        }
+
+        void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(child.edge.charAt(0), child);
+        }
+
+        void removeChild(Node child) {
+            children.remove(child.edge.charAt(0));
+            if (children.isEmpty()) {
+                children = null;
+            }
+        }
+
+        int childCount() {
+            return children == null ? 0 : children.size();
+        }
+    }
+}
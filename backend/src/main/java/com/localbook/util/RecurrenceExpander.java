@@ -0,0 +1,222 @@
+package com.localbook.util;
+
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.RecurrenceFrequency;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands an AppointmentSeries into concrete occurrence start times for a window.
+ * Jumps straight to the first occurrence inside the window, so the cost depends
+ * on the window size and not on how long ago the series started.
+ */
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * Occurrences starting in [from, to), minus skipped dates. Skipped occurrences
+     * still count towards maxOccurrences, like EXDATE against COUNT in iCalendar.
+     */
+    public static List<LocalDateTime> occurrences(AppointmentSeries series, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> result = new ArrayList<>();
+        LocalDateTime first = series.getFirstOccurrence();
+
+        if (!to.isAfter(first) || !to.isAfter(from)) {
+            return result;
+        }
+
+        long index = from.isAfter(first) ? firstIndexOnOrAfter(series, from) : 0;
+
+        while (true) {
+            if (series.getMaxOccurrences() != null && index >= series.getMaxOccurrences()) {
+                break;
+            }
+
+            LocalDateTime occurrence = nth(series, index);
+            if (!occurrence.isBefore(to)) {
+                break;
+            }
+            if (series.getUntilDate() != null && occurrence.toLocalDate().isAfter(series.getUntilDate())) {
+                break;
+            }
+
+            if (!series.getSkippedDates().contains(occurrence.toLocalDate())) {
+                result.add(occurrence);
+            }
+            index++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Start of the day after the last occurrence a finite series can have, or null
+     * for a series that never ends.
+     */
+    public static LocalDateTime end(AppointmentSeries series) {
+        LocalDateTime end = null;
+        if (series.getMaxOccurrences() != null) {
+            end = nth(series, series.getMaxOccurrences() - 1).toLocalDate().plusDays(1).atStartOfDay();
+        }
+        if (series.getUntilDate() != null) {
+            LocalDateTime until = series.getUntilDate().plusDays(1).atStartOfDay();
+            if (end == null || until.isBefore(end)) {
+                end = until;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The first date on or after from on which both series have an occurrence,
+     * ignoring skipped dates and where the series end; null when they never share
+     * one. Worked out from the two rules rather than by listing occurrences: day
+     * and week steps are congruences on the epoch day, solved directly. A monthly
+     * series is back on the same calendar position after a whole number of 400-year
+     * cycles (146097 days, 4800 months), so at most one cycle of it (4800 steps or
+     * fewer) is walked, solving a congruence for each.
+     */
+    public static LocalDate firstSharedDate(AppointmentSeries a, AppointmentSeries b, LocalDate from) {
+        if (a.getFrequency() != RecurrenceFrequency.MONTHLY && b.getFrequency() == RecurrenceFrequency.MONTHLY) {
+            return firstSharedDate(b, a, from);
+        }
+        LocalDate start = latest(from, latest(a.getFirstOccurrence().toLocalDate(), b.getFirstOccurrence().toLocalDate()));
+
+        // a repeats every `cycle` occurrences, `cycleDays` (and for monthly `cycleMonths`) later
+        long cycle = 1;
+        long cycleDays = stepDays(a);
+        long cycleMonths = 0;
+        if (a.getFrequency() == RecurrenceFrequency.MONTHLY) {
+            cycle = 4800 / gcd(interval(a), 4800);
+            cycleMonths = interval(a) * cycle;
+            cycleDays = 146097 * (cycleMonths / 4800);
+        }
+
+        LocalDate best = null;
+        long first = firstIndexOnOrAfter(a, start.atStartOfDay());
+        for (long index = first; index < first + cycle; index++) {
+            LocalDate date = nth(a, index).toLocalDate();
+            if (best != null && !date.isBefore(best)) {
+                break;
+            }
+            // Smallest number of cycles after date that lands on an occurrence of b
+            long cycles;
+            if (b.getFrequency() == RecurrenceFrequency.MONTHLY) {
+                LocalDate bFirst = b.getFirstOccurrence().toLocalDate();
+                if (date.getDayOfMonth() != Math.min(bFirst.getDayOfMonth(), date.lengthOfMonth())) {
+                    continue;
+                }
+                long months = ChronoUnit.MONTHS.between(bFirst.withDayOfMonth(1), date.withDayOfMonth(1));
+                cycles = solve(cycleMonths, -months, interval(b));
+            } else {
+                long days = b.getFirstOccurrence().toLocalDate().toEpochDay() - date.toEpochDay();
+                cycles = solve(cycleDays, days, stepDays(b));
+            }
+            if (cycles >= 0) {
+                LocalDate shared = date.plusDays(cycleDays * cycles);
+                if (best == null || shared.isBefore(best)) {
+                    best = shared;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The index-th occurrence (0 = first), always computed from the first one so
+     * monthly series on the 31st don't drift after a short month.
+     */
+    static LocalDateTime nth(AppointmentSeries series, long index) {
+        long steps = index * interval(series);
+        switch (series.getFrequency()) {
+            case DAILY:
+                return series.getFirstOccurrence().plusDays(steps);
+            case WEEKLY:
+                return series.getFirstOccurrence().plusWeeks(steps);
+            case MONTHLY:
+                return series.getFirstOccurrence().plusMonths(steps);
+            default:
+                throw new IllegalArgumentException("Unsupported frequency: " + series.getFrequency());
+        }
+    }
+
+    private static long firstIndexOnOrAfter(AppointmentSeries series, LocalDateTime from) {
+        ChronoUnit unit;
+        switch (series.getFrequency()) {
+            case DAILY:
+                unit = ChronoUnit.DAYS;
+                break;
+            case WEEKLY:
+                unit = ChronoUnit.WEEKS;
+                break;
+            default:
+                unit = ChronoUnit.MONTHS;
+                break;
+        }
+
+        // Whole units elapsed, rounded down to a multiple of the interval, then step over the last gap
+        long index = unit.between(series.getFirstOccurrence(), from) / interval(series);
+        while (nth(series, index).isBefore(from)) {
+            index++;
+        }
+        return index;
+    }
+
+    // Days between occurrences of a daily or weekly series
+    private static long stepDays(AppointmentSeries series) {
+        return series.getFrequency() == RecurrenceFrequency.WEEKLY ? 7L * interval(series) : interval(series);
+    }
+
+    // Smallest j >= 0 with step * j congruent to target modulo modulus, or -1 when there is none
+    private static long solve(long step, long target, long modulus) {
+        step = Math.floorMod(step, modulus);
+        target = Math.floorMod(target, modulus);
+        long g = gcd(step, modulus);
+        if (target % g != 0) {
+            return -1;
+        }
+        long m = modulus / g;
+        return Math.floorMod((target / g) * inverse(step / g, m), m);
+    }
+
+    // Inverse of a modulo m, for a and m with no common factor
+    private static long inverse(long a, long m) {
+        long r0 = m;
+        long r1 = Math.floorMod(a, m);
+        long t0 = 0;
+        long t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+        return Math.floorMod(t0, m);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long next = a % b;
+            a = b;
+            b = next;
+        }
+        return a;
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static int interval(AppointmentSeries series) {
+        return series.getIntervalCount() == null ? 1 : Math.max(1, series.getIntervalCount());
+    }
+}
@@ -0,0 +1,109 @@
+package com.localbook.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Text normalisation shared by the in-memory search indexes, so indexed text and
+ * queries are cut into the same tokens: lower case, accents dropped ("Seán" and
+ * "Sean" match), apostrophes removed ("O'Neill" is "oneill"), split on anything
+ * that isn't a letter or digit.
+ */
+public final class SearchText {
+
+    private SearchText() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}+", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("['’]", "");
+        return folded.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * Key for matching category, county and town names the way MySQL compares them:
+     * ignoring case and surrounding spaces ("Barber " and "barber" are one category).
+     */
+    public static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct tokens in order of first appearance
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalized.split(" ")) {
+            tokens.add(token);
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Typos tolerated in a query token of this length: none in short words (too
+     * many false matches), one from four letters, two from eight.
+     */
+    public static int maxEdits(int length) {
+        if (length >= 8) {
+            return 2;
+        }
+        return length >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Whether a and b are at most max insertions, deletions, substitutions or
+     * swaps of neighbouring letters apart ("massgae" is one edit from "massage").
+     * Only the diagonal band of width max is computed, and it stops as soon as a
+     * whole row is over the limit.
+     */
+    public static boolean withinEdits(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return false;
+        }
+        int over = max + 1;
+        int[] beforePrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : over;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            Arrays.fill(current, over);
+            current[0] = i <= max ? i : over;
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j] + 1, current[j - 1] + 1));
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m] <= max;
+    }
+}
@@ -0,0 +1,227 @@
+package com.localbook.util;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: a streaming quantile sketch over doubles (prices, ratings,
+ * occupancy shares).
+ *
+ * Values are buffered and periodically merged into at most about compression
+ * centroids, kept small near the tails so p90 stays accurate. Memory is bounded
+ * by the compression whatever the number of values, and two digests merge into
+ * one describing both streams. Values cannot be removed: a caller whose values
+ * change has to rebuild the digest now and then.
+ */
+public final class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    // Merged centroids, sorted by mean
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    // Values added since the last merge
+    private final double[] buffer;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("t-digest compression must be at least 10");
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 5];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN to a t-digest");
+        }
+        if (buffered == buffer.length) {
+            compress(null, null, 0);
+        }
+        buffer[buffered++] = value;
+        totalWeight++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Fold other's values into this digest; other is left as it was.
+     */
+    public void merge(TDigest other) {
+        other.compress(null, null, 0);
+        if (other.centroids == 0) {
+            return;
+        }
+        compress(other.means, other.weights, other.centroids);
+        totalWeight += other.totalWeight;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // Number of values added
+    public long size() {
+        return (long) totalWeight;
+    }
+
+    /**
+     * The value below which a share q (0..1) of the values fall; NaN when empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress(null, null, 0);
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+
+        // Each centroid's weight is centred on its mean; interpolate between neighbours
+        double index = q * totalWeight;
+        double leftHalf = weights[0] / 2;
+        if (index < leftHalf) {
+            return min + (means[0] - min) * index / leftHalf;
+        }
+        double cumulative = leftHalf;
+        for (int i = 0; i < centroids - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + gap > index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / gap;
+            }
+            cumulative += gap;
+        }
+        double rightHalf = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1.0, (index - cumulative) / rightHalf);
+    }
+
+    /**
+     * Share (0..1) of the values at or below value; NaN when empty.
+     */
+    public double cdf(double value) {
+        compress(null, null, 0);
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (value < min) {
+            return 0.0;
+        }
+        if (value >= max) {
+            return 1.0;
+        }
+        if (centroids == 1) {
+            return (value - min) / (max - min);
+        }
+
+        double leftHalf = weights[0] / 2;
+        if (value < means[0]) {
+            return leftHalf * (value - min) / (means[0] - min) / totalWeight;
+        }
+        double cumulative = leftHalf;
+        for (int i = 0; i < centroids - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (value < means[i + 1]) {
+                return (cumulative + gap * (value - means[i]) / (means[i + 1] - means[i])) / totalWeight;
+            }
+            cumulative += gap;
+        }
+        double rightHalf = weights[centroids - 1] / 2;
+        return (cumulative + rightHalf * (value - means[centroids - 1]) / (max - means[centroids - 1])) / totalWeight;
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    /**
+     * Merge the buffer (and extra centroids, if any) into the centroid list in one
+     * sorted pass, starting a new centroid whenever the current one would span more
+     * than one unit of the scale function k(q) = compression / 2pi * asin(2q - 1).
+     */
+    private void compress(double[] extraMeans, double[] extraWeights, int extra) {
+        if (buffered == 0 && extra == 0) {
+            return;
+        }
+
+        int incoming = centroids + buffered + extra;
+        double[] inMeans = new double[incoming];
+        double[] inWeights = new double[incoming];
+        System.arraycopy(means, 0, inMeans, 0, centroids);
+        System.arraycopy(weights, 0, inWeights, 0, centroids);
+        System.arraycopy(buffer, 0, inMeans, centroids, buffered);
+        Arrays.fill(inWeights, centroids, centroids + buffered, 1.0);
+        if (extra > 0) {
+            System.arraycopy(extraMeans, 0, inMeans, centroids + buffered, extra);
+            System.arraycopy(extraWeights, 0, inWeights, centroids + buffered, extra);
+        }
+        Integer[] order = new Integer[incoming];
+        for (int i = 0; i < incoming; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(inMeans[a], inMeans[b]));
+
+        double total = 0;
+        for (int i = 0; i < incoming; i++) {
+            total += inWeights[i];
+        }
+
+        double[] outMeans = new double[incoming];
+        double[] outWeights = new double[incoming];
+        int out = 0;
+        outMeans[0] = inMeans[order[0]];
+        outWeights[0] = inWeights[order[0]];
+        double weightSoFar = 0;
+        double limit = total * qLimit(0, total);
+
+        for (int i = 1; i < incoming; i++) {
+            double mean = inMeans[order[i]];
+            double weight = inWeights[order[i]];
+            if (weightSoFar + outWeights[out] + weight <= limit) {
+                outWeights[out] += weight;
+                outMeans[out] += (mean - outMeans[out]) * weight / outWeights[out];
+            } else {
+                weightSoFar += outWeights[out];
+                limit = total * qLimit(weightSoFar, total);
+                out++;
+                outMeans[out] = mean;
+                outWeights[out] = weight;
+            }
+        }
+        out++;
+
+        if (out > means.length) {
+            means = new double[out];
+            weights = new double[out];
+        }
+        System.arraycopy(outMeans, 0, means, 0, out);
+        System.arraycopy(outWeights, 0, weights, 0, out);
+        centroids = out;
+        buffered = 0;
+    }
+
+    // Right edge (as a share of the weight) of a centroid starting at weightSoFar
+    private double qLimit(double weightSoFar, double total) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * weightSoFar / total - 1) + 1;
+        double maxK = compression / 4;
+        if (k >= maxK) {
+            return 1.0;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+}
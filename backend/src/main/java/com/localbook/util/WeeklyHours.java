@@ -0,0 +1,90 @@
+package com.localbook.util;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opening hours for one week compiled to one bit per minute, Monday 00:00 being
+ * minute 0, so "open at" is a single bit test.
+ *
+ * Instances are immutable and interned: businesses share a small number of
+ * distinct schedules, so each 1.3 KB bit set is held once per schedule, not once
+ * per business, and equal schedules are the same instance. The pool never
+ * shrinks, which is fine while distinct schedules number in the thousands.
+ */
+public final class WeeklyHours {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private static final Map<WeeklyHours, WeeklyHours> INTERNED = new ConcurrentHashMap<>();
+
+    public static final WeeklyHours CLOSED = builder().build();
+
+    private final long[] words;
+    private final int hash;
+
+    private WeeklyHours(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+    }
+
+    public boolean isOpenAt(LocalDateTime time) {
+        return isOpenAt(minuteOfWeek(time));
+    }
+
+    public boolean isOpenAt(int minuteOfWeek) {
+        return (words[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    public static int minuteOfWeek(LocalDateTime time) {
+        return time.getDayOfWeek().ordinal() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof WeeklyHours && hash == ((WeeklyHours) other).hash
+            && Arrays.equals(words, ((WeeklyHours) other).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    public static final class Builder {
+        private final long[] words = new long[(MINUTES_PER_WEEK + 63) / 64];
+
+        private Builder() {
+        }
+
+        /**
+         * Open on day (0 is Monday) from minute from up to, not including, minute to
+         * of that day. As in the booking grid, closing at or before opening time
+         * leaves the day closed; close at 24:00 with to = MINUTES_PER_DAY.
+         */
+        public Builder open(int day, int from, int to) {
+            if (day < 0 || day > 6) {
+                throw new IllegalArgumentException("Day must be between 0 (Monday) and 6 (Sunday)");
+            }
+            int start = day * MINUTES_PER_DAY + Math.max(0, from);
+            int end = day * MINUTES_PER_DAY + Math.min(MINUTES_PER_DAY, to);
+            for (int minute = start; minute < end; minute++) {
+                words[minute >>> 6] |= 1L << minute;
+            }
+            return this;
+        }
+
+        public WeeklyHours build() {
+            WeeklyHours built = new WeeklyHours(words.clone());
+            WeeklyHours existing = INTERNED.putIfAbsent(built, built);
+            return existing != null ? existing : built;
+        }
+    }
+}
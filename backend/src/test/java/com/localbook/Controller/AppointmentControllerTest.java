@@ -1,19 +1,28 @@
 package com.localbook.Controller;
 import com.localbook.controller.AppointmentController;
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.BulkTransitionResultDTO;
+import com.localbook.dto.CursorPageDTO;
+import com.localbook.dto.SlotAvailabilityDTO;
 import com.localbook.model.Appointment;
 import com.localbook.model.AppointmentStatus;
 import com.localbook.service.AppointmentService;
+import com.localbook.service.SlotAvailabilityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +36,8 @@ import static org.hamcrest.Matchers.*;
         org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
     }
 )
+// @EnableJpaAuditing on the application needs a JPA mapping context, which the web slice doesn't build
+@MockBean(JpaMetamodelMappingContext.class)
 class AppointmentControllerTest {
     
     @Autowired
@@ -35,6 +46,9 @@ class AppointmentControllerTest {
     @MockBean
     private AppointmentService appointmentService;
     
+    @MockBean
+    private SlotAvailabilityService slotAvailabilityService;
+    
     private Appointment confirmedAppointment;
     private Appointment canceledAppointment;
     private LocalDateTime appointmentDateTime;
@@ -122,7 +136,7 @@ class AppointmentControllerTest {
         
         List<Appointment> appointments = Arrays.asList(confirmedAppointment, canceledAppointment, appointment3);
         
-        when(appointmentService.getAllAppointments()).thenReturn(appointments);
+        when(appointmentService.getAllAppointments()).thenReturn(summaries(appointments));
         
         mockMvc.perform(get("/api/appointments"))
                 .andExpect(status().isOk())
@@ -177,7 +191,7 @@ class AppointmentControllerTest {
         List<Appointment> userAppointments = Arrays.asList(confirmedAppointment, canceledAppointment);
         
         when(appointmentService.getUserAppointments(1L))
-            .thenReturn(userAppointments);
+            .thenReturn(summaries(userAppointments));
         
         mockMvc.perform(get("/api/appointments/user/1"))
                 .andExpect(status().isOk())
@@ -193,7 +207,7 @@ class AppointmentControllerTest {
         List<Appointment> upcomingAppointments = Arrays.asList(confirmedAppointment);
         
         when(appointmentService.getUpcomingUserAppointments(1L))
-            .thenReturn(upcomingAppointments);
+            .thenReturn(summaries(upcomingAppointments));
         
         mockMvc.perform(get("/api/appointments/user/1/upcoming"))
                 .andExpect(status().isOk())
@@ -208,7 +222,7 @@ class AppointmentControllerTest {
         List<Appointment> pastAppointments = Arrays.asList(canceledAppointment);
         
         when(appointmentService.getPastUserAppointments(1L))
-            .thenReturn(pastAppointments);
+            .thenReturn(summaries(pastAppointments));
         
         mockMvc.perform(get("/api/appointments/user/1/past"))
                 .andExpect(status().isOk())
@@ -223,7 +237,7 @@ class AppointmentControllerTest {
         List<Appointment> businessAppointments = Arrays.asList(confirmedAppointment);
         
         when(appointmentService.getBusinessAppointments(2L))
-            .thenReturn(businessAppointments);
+            .thenReturn(summaries(businessAppointments));
         
         mockMvc.perform(get("/api/appointments/business/2"))
                 .andExpect(status().isOk())
@@ -238,7 +252,7 @@ class AppointmentControllerTest {
         List<Appointment> upcomingAppointments = Arrays.asList(confirmedAppointment);
         
         when(appointmentService.getUpcomingBusinessAppointments(2L))
-            .thenReturn(upcomingAppointments);
+            .thenReturn(summaries(upcomingAppointments));
         
         mockMvc.perform(get("/api/appointments/business/2/upcoming"))
                 .andExpect(status().isOk())
@@ -336,7 +350,7 @@ class AppointmentControllerTest {
             .thenReturn(completedAppointment);
         
         mockMvc.perform(put("/api/appointments/1/complete")
-                .param("businessId", "2"))
+                .param("userId", "2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("COMPLETED"));
         
@@ -349,7 +363,7 @@ class AppointmentControllerTest {
             .thenThrow(new IllegalArgumentException("Cannot complete canceled appointment"));
         
         mockMvc.perform(put("/api/appointments/2/complete")
-                .param("businessId", "2"))
+                .param("userId", "2"))
                 .andExpect(status().isBadRequest());
     }
     
@@ -407,4 +421,99 @@ class AppointmentControllerTest {
                 .andExpect(status().isForbidden())
                 .andExpect(content().string("Not authorized to delete this appointment"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testGetBookedSlots() throws Exception {
+        when(slotAvailabilityService.getBookedSlots(2L, LocalDate.of(2025, 12, 25)))
+            .thenReturn(Arrays.asList("14:30", "15:00"));
+        
+        mockMvc.perform(get("/api/appointments/business/2/booked-slots")
+                .param("date", "2025-12-25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]").value("14:30"));
+        
+        verify(appointmentService, never()).getBusinessAppointments(anyLong());
+    }
+    
+    @Test
+    void testGetAvailability() throws Exception {
+        LocalDate date = LocalDate.of(2025, 12, 25);
+        SlotAvailabilityDTO availability = new SlotAvailabilityDTO(
+            2L, date, 30, Arrays.asList("09:00", "09:30"), Arrays.asList("14:30"));
+        
+        when(slotAvailabilityService.getAvailability(2L, date, 60)).thenReturn(availability);
+        
+        mockMvc.perform(get("/api/appointments/business/2/availability")
+                .param("date", "2025-12-25")
+                .param("durationMinutes", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeSlots", hasSize(2)))
+                .andExpect(jsonPath("$.bookedSlots[0]").value("14:30"));
+    }
+    
+    @Test
+    void testGetBusinessAppointments_KeysetPage() throws Exception {
+        CursorPageDTO<AppointmentSummaryDTO> page = new CursorPageDTO<>(
+            summaries(Arrays.asList(confirmedAppointment, canceledAppointment)), 2, "bmV4dA");
+        
+        when(appointmentService.getBusinessAppointmentsPage(2L, null, 2)).thenReturn(page);
+        
+        mockMvc.perform(get("/api/appointments/business/2")
+                .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").value("bmV4dA"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+        
+        verify(appointmentService, never()).getBusinessAppointments(anyLong());
+    }
+    
+    @Test
+    void testBulkCancelAppointments() throws Exception {
+        BulkTransitionResultDTO result = new BulkTransitionResultDTO(
+            AppointmentStatus.CANCELED, 3, Arrays.asList(1L, 2L), Map.of(3L, "Appointment is already CANCELED"));
+        
+        when(appointmentService.bulkTransition(Arrays.asList(1L, 2L, 3L), 5L, AppointmentStatus.CANCELED))
+            .thenReturn(result);
+        
+        mockMvc.perform(put("/api/appointments/bulk/cancel")
+                .param("userId", "5")
+                .contentType("application/json")
+                .content("[1, 2, 3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.updatedIds", hasSize(2)))
+                .andExpect(jsonPath("$.skipped.3").value("Appointment is already CANCELED"));
+        
+        verify(appointmentService, never()).cancelAppointment(anyLong(), anyLong());
+    }
+    
+    @Test
+    void testBulkCompleteAppointments_Unauthorized() throws Exception {
+        when(appointmentService.bulkTransition(anyList(), eq(5L), eq(AppointmentStatus.COMPLETED)))
+            .thenThrow(new IllegalArgumentException("Unauthorized: You can only update appointments for your business"));
+        
+        mockMvc.perform(put("/api/appointments/bulk/complete")
+                .param("userId", "5")
+                .contentType("application/json")
+                .content("[1, 2]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("Unauthorized")));
+    }
+    
+    @Test
+    void testGetUserAppointments_InvalidCursor() throws Exception {
+        when(appointmentService.getUserAppointmentsPage(1L, "garbage", null))
+            .thenThrow(new IllegalArgumentException("Invalid cursor"));
+        
+        mockMvc.perform(get("/api/appointments/user/1")
+                .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+    
+    private List<AppointmentSummaryDTO> summaries(List<Appointment> appointments) {
+        return appointments.stream().map(AppointmentSummaryDTO::new).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,220 @@
+package com.localbook.Repository;
+import com.localbook.dto.RollupPointDTO;
+import com.localbook.model.AnalyticsRollup;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.RollupGranularity;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.AnalyticsRollupRepository;
+import com.localbook.service.AnalyticsRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compaction folds hours into days and old days into months without changing any
+ * total, and running it again changes nothing; the backfill puts past events
+ * where compaction would have. Runs the MySQL upserts on H2 in MySQL mode.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AnalyticsRollupService.class)
+class AnalyticsRollupCompactionTest {
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Business business;
+    private Service cut;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        business = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", owner));
+        cut = entityManager.persist(new Service("Cut", 30, 25.0, business));
+    }
+
+    @Test
+    void testEventsLandInTheCurrentHour() {
+        Appointment first = appointment();
+        Appointment second = appointment();
+        analyticsRollupService.recordBooked(first);
+        analyticsRollupService.recordBooked(second);
+        analyticsRollupService.recordStatusChange(List.of(first), AppointmentStatus.CANCELED);
+        analyticsRollupService.recordStatusChange(List.of(second), AppointmentStatus.COMPLETED);
+        analyticsRollupService.recordStatusChange(List.of(second), AppointmentStatus.CONFIRMED);
+
+        List<AnalyticsRollup> rows = rollupRepository.findAll();
+        assertEquals(1, rows.size());
+        AnalyticsRollup hour = rows.get(0);
+        assertEquals(RollupGranularity.HOUR, hour.getGranularity());
+        assertEquals("Barber", hour.getCategory());
+        assertEquals(2, hour.getBookings());
+        assertEquals(1, hour.getCancellations());
+        assertEquals(1, hour.getCompletions());
+        assertEquals(25.0, hour.getRevenue(), 0.001);
+    }
+
+    @Test
+    void testCompactionKeepsTotalsAndIsIdempotent() {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime threeDaysAgo = today.minusDays(3).atStartOfDay();
+        LocalDateTime longAgo = today.withDayOfMonth(1).minusMonths(14).atStartOfDay();
+
+        hour(today.atStartOfDay(), 1, 0, 0, 0.0);                       // kept hourly
+        hour(threeDaysAgo.plusHours(9), 2, 1, 0, 0.0);                 // folded into a day
+        hour(threeDaysAgo.plusHours(15), 3, 0, 2, 50.0);               // same day
+        hour(today.minusDays(40).atTime(11, 0), 4, 0, 1, 25.0);        // another day
+        day(longAgo, 5, 1, 1, 25.0);                                   // folded into a month
+        day(longAgo.plusDays(9), 6, 0, 3, 75.0);                       // same month
+        entityManager.flush();
+
+        LocalDate from = longAgo.toLocalDate();
+        Map<LocalDateTime, String> monthsBefore = months(from, today);
+
+        int folded = analyticsRollupService.compactBusiness(business.getId(),
+            AnalyticsRollupService.hourlyKeptFrom(now), AnalyticsRollupService.dailyKeptFrom(now));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(5, folded);
+        List<String> afterFirstRun = snapshot();
+        assertEquals(List.of(
+            "MONTH " + longAgo + " 11/1/4/100.0",
+            "DAY " + today.minusDays(40).atStartOfDay() + " 4/0/1/25.0",
+            "DAY " + threeDaysAgo + " 5/1/2/50.0",
+            "HOUR " + today.atStartOfDay() + " 1/0/0/0.0"), afterFirstRun);
+        assertEquals(monthsBefore, months(from, today));
+
+        // Nothing left to fold: the second run is a no-op
+        assertEquals(0, analyticsRollupService.compactBusiness(business.getId(),
+            AnalyticsRollupService.hourlyKeptFrom(now), AnalyticsRollupService.dailyKeptFrom(now)));
+        entityManager.clear();
+        assertEquals(afterFirstRun, snapshot());
+
+        // Daily reads see folded days and the hours not yet folded alike
+        List<RollupPointDTO> days = analyticsRollupService.getSeries(RollupGranularity.DAY,
+            today.minusDays(3), today, business.getId(), null);
+        assertEquals(2, days.size());
+        assertEquals(5, days.get(0).getBookings());
+        assertEquals(1, days.get(1).getBookings());
+    }
+
+    @Test
+    void testBackfillBucketsPastEventsAsCompactionWould() {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime recent = now.minusHours(1);
+        LocalDateTime threeDaysAgo = today.minusDays(3).atStartOfDay();
+        LocalDateTime longAgo = today.withDayOfMonth(1).minusMonths(14).atStartOfDay();
+
+        // Booked an hour ago; booked and cancelled three days ago; booked and completed over a year ago
+        insert(AppointmentStatus.CONFIRMED, recent, recent);
+        insert(AppointmentStatus.CANCELED, threeDaysAgo.plusHours(9), threeDaysAgo.plusHours(15));
+        insert(AppointmentStatus.COMPLETED, longAgo.plusDays(2).plusHours(10), longAgo.plusDays(5));
+
+        analyticsRollupService.backfillIfEmpty();
+        entityManager.clear();
+
+        List<String> rebuilt = snapshot();
+        assertEquals(List.of(
+            "MONTH " + longAgo + " 1/0/1/25.0",
+            "DAY " + threeDaysAgo + " 1/1/0/0.0",
+            "HOUR " + recent.truncatedTo(ChronoUnit.HOURS) + " 1/0/0/0.0"), rebuilt);
+
+        // Already in the buckets compaction would leave them in
+        assertEquals(0, analyticsRollupService.compactBusiness(business.getId(),
+            AnalyticsRollupService.hourlyKeptFrom(now), AnalyticsRollupService.dailyKeptFrom(now)));
+
+        // Only while the table is empty: live events are not counted twice
+        insert(AppointmentStatus.CONFIRMED, recent, recent);
+        analyticsRollupService.backfillIfEmpty();
+        entityManager.clear();
+        assertEquals(rebuilt, snapshot());
+    }
+
+    @Test
+    void testReadsOnlyAtTheResolutionStillKept() {
+        LocalDate today = now.toLocalDate();
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsRollupService.getSeries(
+            RollupGranularity.HOUR, today.minusDays(5), today, null, null));
+        assertThrows(IllegalArgumentException.class, () -> analyticsRollupService.getSeries(
+            RollupGranularity.DAY, today.minusMonths(20), today, null, null));
+        assertThrows(IllegalArgumentException.class, () -> AnalyticsRollupService.parseGranularity("WEEK"));
+        assertNotNull(analyticsRollupService.getSeries(RollupGranularity.MONTH, today.minusMonths(20), today, null, "Barber"));
+    }
+
+    private Appointment appointment() {
+        Appointment appointment = new Appointment();
+        appointment.setBusiness(business);
+        appointment.setService(cut);
+        appointment.setAppointmentDateTime(now.plusDays(1));
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        return appointment;
+    }
+
+    private void insert(AppointmentStatus status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        jdbcTemplate.update(
+            "INSERT INTO appointments (user_id, business_id, service_id, appointment_date_time, status, " +
+            "notification_24hr_sent, notification_30min_sent, notification_start_sent, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, FALSE, FALSE, FALSE, ?, ?)",
+            owner.getId(), business.getId(), cut.getId(), Timestamp.valueOf(createdAt.plusDays(1)), status.name(),
+            Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt));
+    }
+
+    private void hour(LocalDateTime bucket, long bookings, long cancellations, long completions, double revenue) {
+        rollupRepository.addToBucket(business.getId(), "HOUR", bucket, "Barber", bookings, cancellations, completions, revenue);
+    }
+
+    private void day(LocalDateTime bucket, long bookings, long cancellations, long completions, double revenue) {
+        rollupRepository.addToBucket(business.getId(), "DAY", bucket, "Barber", bookings, cancellations, completions, revenue);
+    }
+
+    private Map<LocalDateTime, String> months(LocalDate from, LocalDate to) {
+        return analyticsRollupService.getSeries(RollupGranularity.MONTH, from, to, business.getId(), null).stream()
+            .collect(Collectors.toMap(RollupPointDTO::getBucketStart,
+                p -> p.getBookings() + "/" + p.getCancellations() + "/" + p.getCompletions() + "/" + p.getRevenue()));
+    }
+
+    private List<String> snapshot() {
+        return rollupRepository.findAll().stream()
+            .sorted(Comparator.comparing(AnalyticsRollup::getBucketStart))
+            .map(r -> r.getGranularity() + " " + r.getBucketStart().truncatedTo(ChronoUnit.SECONDS) + " "
+                + r.getBookings() + "/" + r.getCancellations() + "/" + r.getCompletions() + "/" + r.getRevenue())
+            .collect(Collectors.toList());
+    }
+}
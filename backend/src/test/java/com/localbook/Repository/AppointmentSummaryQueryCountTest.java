@@ -0,0 +1,144 @@
+package com.localbook.Repository;
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.AppointmentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-count harness for the appointment list reads: each listing must be served
+ * by exactly one SQL statement no matter how many users, businesses and services
+ * the rows point at.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+class AppointmentSummaryQueryCountTest {
+
+    private static final int CUSTOMERS = 10;
+    private static final int BUSINESSES = 5;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User firstCustomer;
+    private Business firstBusiness;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+
+        User owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        Business[] businesses = new Business[BUSINESSES];
+        Service[] services = new Service[BUSINESSES];
+        for (int b = 0; b < BUSINESSES; b++) {
+            businesses[b] = entityManager.persist(new Business("Shop " + b, "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+                "D01 X" + b, "Barber", "0851111111", "shop" + b + "@localbook.ie", owner));
+            services[b] = entityManager.persist(new Service("Cut " + b, 30, 20.0 + b, businesses[b]));
+        }
+
+        // Every customer books every business, so a naive entity load would touch 16 distinct rows per listing
+        for (int c = 0; c < CUSTOMERS; c++) {
+            User customer = entityManager.persist(new User("Customer " + c, "c" + c + "@localbook.ie", "secret", "0860000000", UserRole.CLIENT));
+            if (c == 0) {
+                firstCustomer = customer;
+            }
+            for (int b = 0; b < BUSINESSES; b++) {
+                Appointment appointment = new Appointment();
+                appointment.setUser(customer);
+                appointment.setBusiness(businesses[b]);
+                appointment.setService(services[b]);
+                appointment.setAppointmentDateTime(today.atTime(9, 0).plusMinutes(30L * c).plusDays(b - 2));
+                appointment.setStatus(AppointmentStatus.CONFIRMED);
+                entityManager.persist(appointment);
+            }
+        }
+        firstBusiness = businesses[0];
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testListingsRunExactlyOneStatement() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertSingleStatement(() -> appointmentRepository.findAllSummaries(), CUSTOMERS * BUSINESSES);
+        assertSingleStatement(() -> appointmentRepository.findSummariesByUserId(firstCustomer.getId()), BUSINESSES);
+        assertSingleStatement(() -> appointmentRepository.findSummariesByBusinessId(firstBusiness.getId()), CUSTOMERS);
+        assertSingleStatement(() -> appointmentRepository.findUserSummariesAfter(firstCustomer.getId(), now), -1);
+        assertSingleStatement(() -> appointmentRepository.findUserSummariesBefore(firstCustomer.getId(), now), -1);
+        assertSingleStatement(() -> appointmentRepository.findBusinessSummariesAfter(firstBusiness.getId(), now), -1);
+        assertSingleStatement(() -> appointmentRepository.findBusinessAppointmentsInRangeExcludingStatuses(
+            firstBusiness.getId(), today.atStartOfDay(), today.plusDays(1).atStartOfDay(),
+            EnumSet.of(AppointmentStatus.CANCELED, AppointmentStatus.COMPLETED)), -1);
+        assertSingleStatement(() -> appointmentRepository.findPageAfter(
+            LocalDateTime.of(1000, 1, 1, 0, 0), 0L, PageRequest.of(0, 20)), 20);
+        assertSingleStatement(() -> appointmentRepository.findBusinessFeedPageAfter(
+            firstBusiness.getId(), 0L, PageRequest.of(0, 500)), CUSTOMERS);
+        assertSingleStatement(() -> appointmentRepository.findBusinessChangesAfter(
+            firstBusiness.getId(), LocalDateTime.of(1000, 1, 1, 0, 0), 0L, PageRequest.of(0, 500)), CUSTOMERS);
+
+        assertEquals(CUSTOMERS, appointmentRepository.findCalendarSyncState(firstBusiness.getId()).getCount());
+    }
+
+    @Test
+    void testSummaryCarriesNestedFieldsClientsRead() {
+        List<AppointmentSummaryDTO> rows = appointmentRepository.findSummariesByUserId(firstCustomer.getId());
+
+        AppointmentSummaryDTO first = rows.get(0);
+        assertEquals("Customer 0", first.getUser().getName());
+        assertEquals("c0@localbook.ie", first.getUser().getEmail());
+        assertNotNull(first.getBusiness().getId());
+        assertTrue(first.getBusiness().getBusinessName().startsWith("Shop "));
+        assertEquals(30, first.getService().getDurationMinutes());
+        assertEquals(first.getService().getServiceName(), first.getService().getName());
+        assertNotNull(first.getService().getPrice());
+    }
+
+    private void assertSingleStatement(Supplier<List<AppointmentSummaryDTO>> query, int expectedRows) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<AppointmentSummaryDTO> rows = query.get();
+
+        assertEquals(1, statistics.getPrepareStatementCount(),
+            "Listing should be a single SQL statement");
+        if (expectedRows >= 0) {
+            assertEquals(expectedRows, rows.size());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.localbook.Repository;
+import com.localbook.dto.BusinessCustomerDTO;
+import com.localbook.dto.CursorPageDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.service.BusinessCustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The roster comes from one GROUP BY; walking it page by page in any sort order
+ * must visit every customer exactly once, in order, ties included.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BusinessCustomerService.class)
+class BusinessCustomerRosterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @Autowired
+    private BusinessCustomerService businessCustomerService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Business business;
+    private Service cut;
+    private Service colour;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        business = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", owner));
+        cut = entityManager.persist(new Service("Cut", 30, 25.0, business));
+        colour = entityManager.persist(new Service("Colour", 60, 60.0, business));
+
+        // Another business's bookings must not leak into this roster
+        Business other = entityManager.persist(new Business("Other", "Owner", "2 Main St", "Cork", "Cork", "Cork",
+            "T12 X1", "Barber", "0852222222", "other@localbook.ie", owner));
+        Service otherCut = entityManager.persist(new Service("Cut", 30, 99.0, other));
+
+        User anne = client("Anne", "anne1@localbook.ie");
+        User anneToo = client("Anne", "anne2@localbook.ie");
+        User bob = client("Bob", "bob@localbook.ie");
+        User cara = client("Cara | O'Neill", "cara@localbook.ie");
+        User dan = client("Dan", "dan@localbook.ie");
+
+        book(anne, cut, BASE, AppointmentStatus.COMPLETED);
+        book(anne, colour, BASE.plusDays(7), AppointmentStatus.COMPLETED);
+        book(anne, cut, BASE.plusDays(14), AppointmentStatus.CANCELED);
+        book(anneToo, cut, BASE.plusDays(14), AppointmentStatus.CONFIRMED);
+        book(bob, cut, BASE.plusDays(1), AppointmentStatus.COMPLETED);
+        book(bob, cut, BASE.plusDays(2), AppointmentStatus.CONFIRMED);
+        book(cara, colour, BASE.plusDays(3), AppointmentStatus.COMPLETED);
+        book(dan, cut, BASE.plusDays(14), AppointmentStatus.CANCELED);
+        book(dan, otherCut, BASE.plusDays(20), AppointmentStatus.COMPLETED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testAggregatesPerCustomer() {
+        List<BusinessCustomerDTO> all = walk("recent", null, 50);
+        BusinessCustomerDTO anne = all.stream().filter(c -> "anne1@localbook.ie".equals(c.getEmail())).findFirst().orElseThrow();
+
+        assertEquals(5, all.size());
+        assertEquals(3, anne.getTotalBookings());
+        assertEquals(2, anne.getVisitCount());
+        assertEquals(1, anne.getCancellationCount());
+        assertEquals(85.0, anne.getTotalSpend(), 0.001);
+        // The cancelled booking is neither a visit nor the last one
+        assertEquals(BASE.plusDays(7), anne.getLastVisit());
+
+        BusinessCustomerDTO bob = all.stream().filter(c -> "Bob".equals(c.getName())).findFirst().orElseThrow();
+        assertEquals(1, bob.getVisitCount());
+        assertEquals(BASE.plusDays(1), bob.getLastVisit());
+
+        BusinessCustomerDTO dan = all.stream().filter(c -> "Dan".equals(c.getName())).findFirst().orElseThrow();
+        assertEquals(0, dan.getVisitCount());
+        assertNull(dan.getLastVisit());
+        assertEquals(0.0, dan.getTotalSpend(), 0.001);
+    }
+
+    @Test
+    void testEverySortPagesThroughEachCustomerOnceInOrder() {
+        List<BusinessCustomerDTO> all = walk("recent", null, 50);
+
+        // Customers without a visit yet come last
+        assertSorted(all, Comparator.comparing(BusinessCustomerDTO::getLastVisit,
+            Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())), walk("recent", null, 2));
+        assertSorted(all, Comparator.comparingLong(BusinessCustomerDTO::getVisitCount).reversed(), walk("visits", null, 2));
+        assertSorted(all, Comparator.comparingDouble(BusinessCustomerDTO::getTotalSpend).reversed(), walk("spend", null, 2));
+        assertSorted(all, Comparator.comparing(BusinessCustomerDTO::getName), walk("name", null, 1));
+    }
+
+    @Test
+    void testSearchAndCursorValidation() {
+        List<BusinessCustomerDTO> annes = walk("name", "ANNE", 1);
+        assertEquals(2, annes.size());
+        assertEquals(1, walk("recent", "bob@", 10).size());
+        // LIKE wildcards in the term are matched literally
+        assertEquals(0, walk("recent", "%", 10).size());
+        assertEquals(0, walk("recent", "_", 10).size());
+        assertEquals(1, walk("recent", "cara | o", 10).size());
+
+        String cursor = businessCustomerService.getCustomers(business.getId(), "visits", null, null, 2).getNextCursor();
+        assertThrows(IllegalArgumentException.class,
+            () -> businessCustomerService.getCustomers(business.getId(), "spend", null, cursor, 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> businessCustomerService.getCustomers(business.getId(), "recent", null, "garbage", 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> businessCustomerService.getCustomers(business.getId(), "age", null, null, 2));
+    }
+
+    private List<BusinessCustomerDTO> walk(String sort, String search, int size) {
+        List<BusinessCustomerDTO> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<BusinessCustomerDTO> page = businessCustomerService.getCustomers(business.getId(), sort, search, cursor, size);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    // Pages in order (ties broken by user id) and nobody missed or repeated
+    private void assertSorted(List<BusinessCustomerDTO> all, Comparator<BusinessCustomerDTO> order, List<BusinessCustomerDTO> paged) {
+        List<Long> expected = all.stream()
+            .sorted(order.thenComparing(BusinessCustomerDTO::getUserId))
+            .map(BusinessCustomerDTO::getUserId)
+            .collect(Collectors.toList());
+        assertEquals(expected, paged.stream().map(BusinessCustomerDTO::getUserId).collect(Collectors.toList()));
+    }
+
+    private User client(String name, String email) {
+        return entityManager.persist(new User(name, email, "secret", "086" + Math.abs(email.hashCode()), UserRole.CLIENT));
+    }
+
+    private void book(User customer, Service service, LocalDateTime when, AppointmentStatus status) {
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setBusiness(service.getBusiness());
+        appointment.setService(service);
+        appointment.setAppointmentDateTime(when);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+    }
+}
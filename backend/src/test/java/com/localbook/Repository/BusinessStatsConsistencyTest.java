@@ -0,0 +1,148 @@
+package com.localbook.Repository;
+import com.localbook.dto.BusinessDashboardStatsDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessDailyStats;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.BusinessCustomerRepository;
+import com.localbook.repository.BusinessDailyStatsRepository;
+import com.localbook.service.AnalyticsRollupService;
+import com.localbook.service.BusinessStatsService;
+import com.localbook.service.CustomerSketchService;
+import com.localbook.service.DashboardCache;
+import com.localbook.service.RetentionService;
+import com.localbook.service.TypeaheadIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The counters BusinessStatsService maintains change by change must match what a
+ * rebuild from the appointments table produces. Runs the MySQL upserts on H2 in
+ * MySQL mode.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BusinessStatsService.class, AnalyticsRollupService.class, RetentionService.class, CustomerSketchService.class, DashboardCache.class,
+    TypeaheadIndex.class})
+class BusinessStatsConsistencyTest {
+
+    @Autowired
+    private BusinessStatsService businessStatsService;
+
+    @Autowired
+    private BusinessDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private BusinessCustomerRepository businessCustomerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Business business;
+    private Service cut;
+    private User alice;
+    private User bob;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        User owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        business = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", owner));
+        cut = entityManager.persist(new Service("Cut", 30, 25.0, business));
+        alice = entityManager.persist(new User("Alice", "alice@localbook.ie", "secret", "0860000001", UserRole.CLIENT));
+        bob = entityManager.persist(new User("Bob", "bob@localbook.ie", "secret", "0860000002", UserRole.CLIENT));
+    }
+
+    @Test
+    void testIncrementalCountersMatchRebuild() {
+        Appointment a1 = book(alice, today.atTime(9, 0));
+        Appointment a2 = book(alice, today.atTime(10, 0));
+        Appointment b1 = book(bob, today.atTime(11, 0));
+        Appointment b2 = book(bob, today.plusDays(3).atTime(9, 0));
+
+        // Complete one, cancel one, reschedule one to another day, delete one
+        changeStatus(a1, AppointmentStatus.COMPLETED);
+        changeStatus(a2, AppointmentStatus.CANCELED);
+
+        LocalDateTime previous = b2.getAppointmentDateTime();
+        b2.setAppointmentDateTime(today.plusDays(5).atTime(9, 0));
+        entityManager.persist(b2);
+        businessStatsService.recordRescheduled(b2, previous, AppointmentStatus.CONFIRMED);
+
+        businessStatsService.recordDeleted(b1);
+        entityManager.remove(b1);
+        entityManager.flush();
+
+        List<String> incremental = snapshot();
+        BusinessDashboardStatsDTO incrementalStats = businessStatsService.getDashboardStats(business.getId());
+
+        businessStatsService.rebuildAll();
+        entityManager.clear();
+
+        assertEquals(snapshot(), incremental);
+        assertEquals(2, businessCustomerRepository.countByBusinessId(business.getId()));
+        assertEquals(2, incrementalStats.getTodayAppointments());
+        assertEquals(25.0, incrementalStats.getMonthRevenue(), 0.001);
+        assertEquals(2, incrementalStats.getTotalCustomers());
+    }
+
+    @Test
+    void testCustomerDisappearsWithTheirLastAppointment() {
+        Appointment only = book(bob, today.atTime(9, 0));
+        assertEquals(1, businessCustomerRepository.countByBusinessId(business.getId()));
+
+        businessStatsService.recordDeleted(only);
+
+        assertEquals(0, businessCustomerRepository.countByBusinessId(business.getId()));
+    }
+
+    private Appointment book(User customer, LocalDateTime when) {
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setBusiness(business);
+        appointment.setService(cut);
+        appointment.setAppointmentDateTime(when);
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        entityManager.persist(appointment);
+        entityManager.flush();
+        businessStatsService.recordCreated(appointment);
+        return appointment;
+    }
+
+    private void changeStatus(Appointment appointment, AppointmentStatus status) {
+        AppointmentStatus previous = appointment.getStatus();
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        entityManager.flush();
+        businessStatsService.recordStatusChange(appointment, previous);
+    }
+
+    private List<String> snapshot() {
+        return dailyStatsRepository.findAll().stream()
+            .sorted(Comparator.comparing(BusinessDailyStats::getStatDate))
+            .filter(d -> d.getAppointmentCount() != 0 || d.getCompletedCount() != 0 || d.getCanceledCount() != 0)
+            .map(d -> d.getStatDate() + " " + d.getAppointmentCount() + "/" + d.getCompletedCount()
+                + "/" + d.getCanceledCount() + "/" + d.getCompletedRevenue())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,180 @@
+package com.localbook.Repository;
+import com.localbook.dto.DistinctCustomersDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.CustomerGroupSketchRegister;
+import com.localbook.model.CustomerSketchRegister;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.CustomerGroupSketchRegisterRepository;
+import com.localbook.repository.CustomerSketchRegisterRepository;
+import com.localbook.service.CustomerSketchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sketches kept booking by booking match a rebuild from appointments, repeating a
+ * booking changes no register, and merged counts over days and businesses are
+ * within the stated error. Runs the MySQL upserts on H2 in MySQL mode.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerSketchService.class)
+class CustomerSketchTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 3, 4);
+
+    @Autowired
+    private CustomerSketchService customerSketchService;
+
+    @Autowired
+    private CustomerSketchRegisterRepository registerRepository;
+
+    @Autowired
+    private CustomerGroupSketchRegisterRepository groupRegisterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Service dublinCut;
+    private Service corkNails;
+    private List<User> clients;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        Business dublin = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", owner));
+        Business cork = entityManager.persist(new Business("Nails", "Owner", "2 Main St", "Cork", "Cork", "Cork",
+            "T12 X1", "Beauty", "0852222222", "nails@localbook.ie", owner));
+        dublinCut = entityManager.persist(new Service("Cut", 30, 25.0, dublin));
+        corkNails = entityManager.persist(new Service("Nails", 45, 40.0, cork));
+
+        clients = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            clients.add(entityManager.persist(new User("Client " + i, "client" + i + "@localbook.ie", "secret",
+                "086" + (1_000_000 + i), UserRole.CLIENT)));
+        }
+        // Each native upsert flushes the session first; keep it small as in a real booking
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testIncrementalSketchesMatchRebuild() {
+        // Clients 0-199 book in Dublin across a week (most of them twice), 150-299 in Cork on Monday
+        for (int i = 0; i < 200; i++) {
+            book(clients.get(i), dublinCut, MONDAY.plusDays(i % 7));
+            book(clients.get(i), dublinCut, MONDAY.plusDays((i * 3) % 7));
+        }
+        for (int i = 150; i < 300; i++) {
+            book(clients.get(i), corkNails, MONDAY);
+        }
+        entityManager.flush();
+
+        Map<String, Integer> incremental = snapshot();
+        assertTrue(incremental.keySet().stream().anyMatch(key -> key.startsWith("CATEGORY Beauty")));
+
+        // The same bookings again (a retried transaction, a rebuild racing a booking) change nothing
+        for (int i = 150; i < 300; i++) {
+            customerSketchService.recordBooking(appointment(clients.get(i), corkNails, MONDAY));
+        }
+        assertEquals(incremental, snapshot());
+
+        customerSketchService.rebuildAll();
+
+        assertEquals(incremental, snapshot());
+    }
+
+    @Test
+    void testMergedCountsWithinError() {
+        for (int i = 0; i < 200; i++) {
+            book(clients.get(i), dublinCut, MONDAY.plusDays(i % 7));
+            book(clients.get(i), dublinCut, MONDAY.plusDays((i * 3) % 7));
+        }
+        for (int i = 150; i < 300; i++) {
+            book(clients.get(i), corkNails, MONDAY);
+        }
+        entityManager.flush();
+
+        DistinctCustomersDTO week = customerSketchService.getBusinessCustomers(
+            dublinCut.getBusiness().getId(), MONDAY, MONDAY.plusDays(6));
+        assertWithin(200, week);
+
+        DistinctCustomersDTO monday = customerSketchService.getBusinessCustomers(
+            dublinCut.getBusiness().getId(), MONDAY, MONDAY);
+        assertTrue(monday.getEstimate() < week.getEstimate());
+
+        List<DistinctCustomersDTO> platform = customerSketchService.getGroupedCustomers(null, MONDAY, MONDAY.plusDays(6));
+        assertEquals(1, platform.size());
+        assertWithin(300, platform.get(0));
+
+        Map<String, DistinctCustomersDTO> byCounty = customerSketchService
+            .getGroupedCustomers("county", MONDAY, MONDAY.plusDays(6)).stream()
+            .collect(Collectors.toMap(DistinctCustomersDTO::getGroup, c -> c));
+        assertWithin(200, byCounty.get("Dublin"));
+        assertWithin(150, byCounty.get("Cork"));
+        assertEquals(2, customerSketchService.getGroupedCustomers("CATEGORY", MONDAY, MONDAY).size());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> customerSketchService.getGroupedCustomers("town", MONDAY, MONDAY));
+        assertThrows(IllegalArgumentException.class,
+            () -> customerSketchService.getGroupedCustomers(null, MONDAY, MONDAY.minusDays(1)));
+    }
+
+    private void assertWithin(long exact, DistinctCustomersDTO counted) {
+        assertTrue(Math.abs(counted.getEstimate() - exact) <= 3 * counted.getRelativeError() * exact + 1,
+            counted.getGroup() + ": " + counted.getEstimate() + " for " + exact);
+    }
+
+    private void book(User customer, Service service, LocalDate day) {
+        Appointment appointment = appointment(customer, service, day);
+        entityManager.persist(appointment);
+        customerSketchService.recordBooking(appointment);
+        entityManager.flush();
+        entityManager.detach(appointment);
+    }
+
+    private Appointment appointment(User customer, Service service, LocalDate day) {
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setBusiness(service.getBusiness());
+        appointment.setService(service);
+        appointment.setAppointmentDateTime(day.atTime(10, 0));
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        return appointment;
+    }
+
+    // Every stored register, business and group sketches alike
+    private Map<String, Integer> snapshot() {
+        Map<String, Integer> registers = new TreeMap<>();
+        for (CustomerSketchRegister r : registerRepository.findAll()) {
+            registers.put("BUSINESS " + r.getBusinessId() + " " + r.getSketchDate() + " " + r.getSketchPrecision()
+                + " " + r.getRegisterIndex(), r.getRegisterValue());
+        }
+        for (CustomerGroupSketchRegister r : groupRegisterRepository.findAll()) {
+            registers.put(r.getGroupType() + " " + r.getGroupName() + " " + r.getSketchDate() + " " + r.getSketchPrecision()
+                + " " + r.getRegisterIndex(), r.getRegisterValue());
+        }
+        entityManager.clear();
+        return registers;
+    }
+}
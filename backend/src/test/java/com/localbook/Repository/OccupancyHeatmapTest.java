@@ -0,0 +1,198 @@
+package com.localbook.Repository;
+import com.localbook.dto.OccupancyHeatmapDTO;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.service.OccupancyHeatmapService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The heatmap is built from per-start-time counts; it must match a minute-by-minute
+ * walk over the individual appointments, and stay cheap for a business with a
+ * million bookings of history (tagged benchmark; run with mvn test -Pbenchmark).
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OccupancyHeatmapService.class)
+class OccupancyHeatmapTest {
+
+    private static final int SMALL_HISTORY = 5_000;
+    private static final int BENCHMARK_HISTORY = 1_000_000;
+    private static final int[] DURATIONS = {30, 45, 60, 90};
+
+    @Autowired
+    private OccupancyHeatmapService occupancyHeatmapService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User customer;
+    private Business business;
+    private Service cut;
+    private Service colour;
+
+    @BeforeEach
+    void setUp() {
+        customer = entityManager.persist(new User("Client", "client@localbook.ie", "secret", "0850000000", UserRole.CLIENT));
+        business = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", customer));
+        cut = entityManager.persist(new Service("Cut", 30, 25.0, business));
+        colour = entityManager.persist(new Service("Colour", 60, 60.0, business));
+    }
+
+    @Test
+    void testCellsUtilizationAndOpeningHours() {
+        entityManager.persist(new BusinessHours(business.getId(), BusinessHours.DayOfWeek.MONDAY, true, LocalTime.of(9, 0), LocalTime.of(17, 0)));
+        entityManager.persist(new BusinessHours(business.getId(), BusinessHours.DayOfWeek.TUESDAY, false, null, null));
+        entityManager.flush();
+
+        LocalDate from = LocalDate.now().minusWeeks(2);
+        LocalDate monday = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        LocalDate tuesday = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.TUESDAY));
+        LocalDate sunday = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+
+        insert(List.of(
+            row(cut, monday.atTime(9, 10), AppointmentStatus.COMPLETED),
+            row(cut, monday.atTime(9, 10), AppointmentStatus.CONFIRMED),
+            row(cut, monday.atTime(9, 10), AppointmentStatus.CANCELED),         // not counted
+            row(colour, sunday.atTime(23, 50), AppointmentStatus.COMPLETED),    // runs into Monday
+            row(cut, tuesday.atTime(10, 0), AppointmentStatus.COMPLETED),       // closed all day
+            row(cut, from.minusDays(1).atTime(9, 0), AppointmentStatus.COMPLETED)));  // before the window
+
+        OccupancyHeatmapDTO heatmap = occupancyHeatmapService.getHeatmap(business.getId(), 2);
+
+        int nine = 9 * 4;
+        assertArrayEquals(new int[]{10, 30, 20, 0}, Arrays.copyOfRange(heatmap.getBookedMinutes()[0], nine, nine + 4));
+        assertEquals(0.333, heatmap.getUtilization()[0][nine], 0.0001);
+        assertEquals(1.0, heatmap.getUtilization()[0][nine + 1], 0.0001);
+        assertEquals(10, heatmap.getBookedMinutes()[6][95]);
+        assertArrayEquals(new int[]{15, 15, 15, 5}, Arrays.copyOfRange(heatmap.getBookedMinutes()[0], 0, 4));
+
+        // Monday 9-17 as saved, Tuesday closed, the rest the 9-18 default
+        assertEquals(15, heatmap.getOpenMinutes()[0][nine]);
+        assertEquals(0, heatmap.getOpenMinutes()[0][17 * 4]);
+        assertEquals(0, Arrays.stream(heatmap.getOpenMinutes()[1]).sum());
+        assertEquals(9 * 60, Arrays.stream(heatmap.getOpenMinutes()[2]).sum());
+        assertEquals(10 + 50 + 30, heatmap.getBookedMinutesOutsideHours());
+
+        assertThrows(IllegalArgumentException.class, () -> occupancyHeatmapService.getHeatmap(business.getId(), 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> occupancyHeatmapService.getHeatmap(business.getId(), OccupancyHeatmapService.MAX_WEEKS + 1));
+    }
+
+    @Test
+    void testGridMatchesMinuteWalk() {
+        int[][] expected = insertHistory(SMALL_HISTORY);
+
+        OccupancyHeatmapDTO heatmap = occupancyHeatmapService.getHeatmap(business.getId(), null);
+
+        for (int day = 0; day < 7; day++) {
+            assertArrayEquals(expected[day], heatmap.getBookedMinutes()[day], "day " + day);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testMillionAppointmentHistory() {
+        int[][] expected = insertHistory(BENCHMARK_HISTORY);
+
+        occupancyHeatmapService.getHeatmap(business.getId(), null);
+        long[] samples = new long[5];
+        OccupancyHeatmapDTO heatmap = null;
+        for (int i = 0; i < samples.length; i++) {
+            long started = System.nanoTime();
+            heatmap = occupancyHeatmapService.getHeatmap(business.getId(), null);
+            samples[i] = (System.nanoTime() - started) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        System.out.println(String.format("appointments=%,d  heatmap median=%d ms", BENCHMARK_HISTORY, samples[samples.length / 2]));
+
+        for (int day = 0; day < 7; day++) {
+            assertArrayEquals(expected[day], heatmap.getBookedMinutes()[day], "day " + day);
+        }
+        assertTrue(samples[samples.length / 2] < 5_000, "Heatmap too slow: " + Arrays.toString(samples));
+    }
+
+    // Random history over the last three years; returns the expected grid, walked minute by minute over the in-window bookings
+    private int[][] insertHistory(int count) {
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusWeeks(OccupancyHeatmapService.DEFAULT_WEEKS);
+        Service[] services = {
+            cut,
+            entityManager.persist(new Service("Beard", 45, 15.0, business)),
+            colour,
+            entityManager.persist(new Service("Full", 90, 90.0, business))
+        };
+        entityManager.flush();
+
+        int[][] expected = new int[7][OccupancyHeatmapService.CELLS_PER_DAY];
+        Random random = new Random(11);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int s = random.nextInt(services.length);
+            LocalDateTime when = today.minusDays(1 + random.nextInt(3 * 365))
+                .atTime(7 + random.nextInt(14), random.nextInt(12) * 5);
+            AppointmentStatus status = AppointmentStatus.values()[random.nextInt(3)];
+            batch.add(row(services[s], when, status));
+
+            if (status != AppointmentStatus.CANCELED && !when.toLocalDate().isBefore(windowStart)) {
+                int day = when.getDayOfWeek().getValue() - 1;
+                int minute = when.getHour() * 60 + when.getMinute();
+                for (int m = minute; m < minute + DURATIONS[s]; m++) {
+                    expected[day][m / OccupancyHeatmapService.CELL_MINUTES]++;
+                }
+            }
+            if (batch.size() == 10_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+        return expected;
+    }
+
+    private Object[] row(Service service, LocalDateTime when, AppointmentStatus status) {
+        Timestamp ts = Timestamp.valueOf(when);
+        return new Object[]{customer.getId(), business.getId(), service.getId(), ts, status.name(), ts, ts};
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO appointments (user_id, business_id, service_id, appointment_date_time, status, " +
+            "notification_24hr_sent, notification_30min_sent, notification_start_sent, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, FALSE, FALSE, FALSE, ?, ?)",
+            rows);
+    }
+}
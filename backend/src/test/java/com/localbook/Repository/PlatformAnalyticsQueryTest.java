@@ -0,0 +1,186 @@
+package com.localbook.Repository;
+import com.localbook.dto.ApprovalBacklogDTO;
+import com.localbook.dto.CategoryRevenueDTO;
+import com.localbook.dto.DailyBookingsDTO;
+import com.localbook.dto.PlatformOverviewDTO;
+import com.localbook.dto.WeeklySignupsDTO;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessDailyStats;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.service.PlatformAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The admin analytics figures come straight from GROUP BY queries; checks them
+ * against a small known platform on H2 in MySQL mode.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PlatformAnalyticsService.class)
+class PlatformAnalyticsQueryTest {
+
+    @Autowired
+    private PlatformAnalyticsService platformAnalyticsService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LocalDate today;
+    private User owner;
+    private Business barber;
+    private Business salon;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+
+        barber = business("Barber One", "Carlow", "Barber", "R93 X1", true);
+        salon = business("Salon One", "Dublin", "Salon", "D01 X1", true);
+        Business pendingFresh = business("Barber Two", "Tullow", "Barber", "R93 X2", false);
+        Business pendingOld = business("Barber Three", "Dublin", "Barber", "D01 X2", false);
+        backdate("businesses", pendingFresh.getId(), LocalDateTime.now().minusHours(1));
+        backdate("businesses", pendingOld.getId(), today.minusDays(40).atTime(8, 0));
+
+        User recentClient = client("recent@localbook.ie");
+        User olderClient = client("older@localbook.ie");
+        backdate("users", recentClient.getId(), today.minusDays(3).atTime(12, 0));
+        backdate("users", olderClient.getId(), today.minusDays(45).atTime(12, 0));
+
+        entityManager.persist(new BusinessDailyStats(barber.getId(), today, 3, 1, 1, 20.0));
+        entityManager.persist(new BusinessDailyStats(salon.getId(), today, 2, 2, 0, 90.0));
+        entityManager.persist(new BusinessDailyStats(barber.getId(), today.minusDays(2), 4, 4, 0, 80.0));
+        entityManager.persist(new BusinessDailyStats(barber.getId(), today.minusDays(40), 7, 0, 0, 0.0));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testBookingsPerDay_OneRowPerDaySummedAcrossBusinesses() {
+        List<DailyBookingsDTO> series = platformAnalyticsService.getBookingsPerDay(today.minusDays(6), today);
+
+        assertEquals(7, series.size());
+        DailyBookingsDTO last = series.get(6);
+        assertEquals(today, last.getDate());
+        assertEquals(5, last.getBookings());
+        assertEquals(3, last.getCompleted());
+        assertEquals(110.0, last.getRevenue(), 0.001);
+        assertEquals(4, series.get(4).getBookings());
+        assertEquals(0, series.get(0).getBookings());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> platformAnalyticsService.getBookingsPerDay(today.minusDays(400), today));
+    }
+
+    @Test
+    void testRevenueByCategory_HighestFirst() {
+        List<CategoryRevenueDTO> categories = platformAnalyticsService.getRevenueByCategory(today.minusDays(6), today);
+
+        assertEquals(2, categories.size());
+        assertEquals("Barber", categories.get(0).getCategory());
+        assertEquals(100.0, categories.get(0).getRevenue(), 0.001);
+        assertEquals(7, categories.get(0).getBookings());
+        assertEquals("Salon", categories.get(1).getCategory());
+        assertEquals(90.0, categories.get(1).getRevenue(), 0.001);
+    }
+
+    @Test
+    void testSignupsPerWeek_FoldsDaysIntoMondayWeeks() {
+        List<WeeklySignupsDTO> weeks = platformAnalyticsService.getSignupsPerWeek(today.minusWeeks(7), today);
+
+        assertEquals(today.minusWeeks(7).with(DayOfWeek.MONDAY), weeks.get(0).getWeekStart());
+        assertEquals(today.with(DayOfWeek.MONDAY), weeks.get(weeks.size() - 1).getWeekStart());
+        assertEquals(2, weeks.stream().mapToLong(WeeklySignupsDTO::getNewClients).sum());
+        assertEquals(1, weeks.stream().mapToLong(WeeklySignupsDTO::getNewBusinessOwners).sum());
+        assertEquals(4, weeks.stream().mapToLong(WeeklySignupsDTO::getNewBusinesses).sum());
+    }
+
+    @Test
+    void testApprovalBacklog_BucketsByDaysWaiting() {
+        ApprovalBacklogDTO backlog = platformAnalyticsService.getApprovalBacklog();
+
+        assertEquals(2, backlog.getPendingBusinesses());
+        assertEquals(today.minusDays(40).atTime(8, 0), backlog.getOldestPendingSince());
+        assertEquals(1, backlog.getByAge().get(0).getCount());
+        assertEquals(1, backlog.getByAge().get(4).getCount());
+    }
+
+    @Test
+    void testOverview_MatchesWhatThePageUsedToCompute() {
+        PlatformOverviewDTO month = platformAnalyticsService.getOverview("MONTH");
+
+        assertEquals(9, month.getTotalBookings());
+        assertEquals(1, month.getNewClients());
+        assertEquals(0.0, month.getClientGrowth(), 0.001);
+        assertEquals(3, month.getNewBusinesses());
+        assertEquals(4, month.getTotalBusinesses());
+        assertEquals(2, month.getActiveBusinesses());
+        assertEquals(2, month.getPendingBusinesses());
+        assertEquals(2, month.getCarlowBusinesses());
+        assertEquals(2, month.getNonCarlowBusinesses());
+        assertEquals("Barber", month.getPopularCategories().get(0).getName());
+        assertEquals(3, month.getPopularCategories().get(0).getCount());
+        assertEquals(List.of("Carlow", "Tullow"), month.getCarlowTowns().stream().map(t -> t.getName()).sorted().toList());
+
+        assertEquals(16, platformAnalyticsService.getOverview("all").getTotalBookings());
+        assertThrows(IllegalArgumentException.class, () -> platformAnalyticsService.getOverview("DECADE"));
+    }
+
+    @Test
+    void testActiveBusinesses_CountsOnlyListedOnes() {
+        // The admin figure is the businesses customers can find: search and facets use the same rule.
+        // Approved while still suspended (setStatus clears the flag, approveBusiness sets it again)
+        Business suspended = business("Barber Four", "Carlow", "Barber", "R93 X4", false);
+        suspended.setStatus("SUSPENDED");
+        suspended.setApproved(true);
+        entityManager.merge(suspended);
+        // Rejected after it had gone ACTIVE: rejectBusiness only clears the flag
+        Business rejected = business("Barber Five", "Carlow", "Barber", "R93 X5", false);
+        rejected.setStatus("ACTIVE");
+        rejected.setApproved(false);
+        entityManager.merge(rejected);
+        entityManager.flush();
+
+        PlatformOverviewDTO overview = platformAnalyticsService.getOverview("all");
+        assertEquals(6, overview.getTotalBusinesses());
+        // "approved OR status ACTIVE" counted both of these
+        assertEquals(2, overview.getActiveBusinesses());
+    }
+
+    private Business business(String name, String town, String category, String eircode, boolean approved) {
+        Business business = new Business(name, "Owner", "1 Main St", town, town, town,
+            eircode, category, "0851111111", name.replace(" ", "") + "@localbook.ie", owner);
+        business.setApproved(approved);
+        return entityManager.persist(business);
+    }
+
+    private User client(String email) {
+        return entityManager.persist(new User("Client", email, "secret", "086" + email.hashCode(), UserRole.CLIENT));
+    }
+
+    // createdAt is stamped on insert and not updatable through the entity
+    private void backdate(String table, Long id, LocalDateTime createdAt) {
+        entityManager.flush();
+        entityManager.getEntityManager()
+            .createNativeQuery("UPDATE " + table + " SET created_at = :createdAt WHERE id = :id")
+            .setParameter("createdAt", createdAt)
+            .setParameter("id", id)
+            .executeUpdate();
+    }
+}
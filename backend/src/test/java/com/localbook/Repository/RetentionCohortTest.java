@@ -0,0 +1,196 @@
+package com.localbook.Repository;
+import com.localbook.dto.RetentionCohortDTO;
+import com.localbook.dto.RetentionReportDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.RetentionCohort;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.RetentionCohortRepository;
+import com.localbook.service.AnalyticsRollupService;
+import com.localbook.service.BusinessStatsService;
+import com.localbook.service.CustomerSketchService;
+import com.localbook.service.DashboardCache;
+import com.localbook.service.RetentionService;
+import com.localbook.service.TypeaheadIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The cohort matrix RetentionService maintains change by change must match a
+ * rebuild from the appointments table, including visits completed out of order
+ * and completions that are undone.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BusinessStatsService.class, AnalyticsRollupService.class, RetentionService.class, CustomerSketchService.class, DashboardCache.class,
+    TypeaheadIndex.class})
+class RetentionCohortTest {
+
+    @Autowired
+    private BusinessStatsService businessStatsService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private RetentionCohortRepository cohortRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Business business;
+    private Service cut;
+    private LocalDate firstMonth;
+
+    @BeforeEach
+    void setUp() {
+        firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(3);
+        User owner = entityManager.persist(new User("Owner", "owner@localbook.ie", "secret", "0850000000", UserRole.BUSINESS_OWNER));
+        business = entityManager.persist(new Business("Shop", "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+            "D01 X1", "Barber", "0851111111", "shop@localbook.ie", owner));
+        cut = entityManager.persist(new Service("Cut", 30, 25.0, business));
+    }
+
+    @Test
+    void testReportCountsReturnsPerCohort() {
+        User anne = client("anne");
+        User bob = client("bob");
+        User cara = client("cara");
+        User dan = client("dan");
+
+        complete(book(anne, month(0, 3)));
+        complete(book(anne, month(0, 20)));
+        complete(book(anne, month(1, 5)));
+        complete(book(anne, month(3, 1)));
+        complete(book(bob, month(0, 9)));
+        complete(book(bob, month(2, 9)));
+        // Cara's first month moves back when an earlier visit is completed late
+        complete(book(cara, month(1, 2)));
+        Appointment caraEarlier = book(cara, month(0, 28));
+        complete(caraEarlier);
+        // Dan's only completion is undone
+        Appointment danVisit = book(dan, month(2, 4));
+        complete(danVisit);
+        changeStatus(danVisit, AppointmentStatus.CONFIRMED);
+
+        RetentionReportDTO report = retentionService.getReport(business.getId(), 4);
+
+        assertEquals(firstMonth, report.getFromMonth());
+        assertEquals(4, report.getCohorts().size());
+        RetentionCohortDTO first = report.getCohorts().get(0);
+        assertEquals(3, first.getCustomers());
+        assertArrayEquals(new long[]{2, 1, 1}, first.getReturning());
+        assertArrayEquals(new double[]{0.667, 0.333, 0.333}, first.getRetention(), 0.0001);
+        assertEquals(0, report.getCohorts().get(1).getCustomers());
+        assertEquals(0, report.getCohorts().get(3).getReturning().length);
+        assertEquals(0.667, report.getAverageRetention()[0], 0.0001);
+
+        assertThrows(IllegalArgumentException.class, () -> retentionService.getReport(business.getId(), 0));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void testRandomChangesMatchRebuild() {
+        Random random = new Random(17);
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            customers.add(client("c" + i));
+        }
+        List<Appointment> appointments = new ArrayList<>();
+
+        for (int step = 0; step < 300; step++) {
+            int action = random.nextInt(10);
+            if (appointments.isEmpty() || action < 3) {
+                Appointment created = book(customers.get(random.nextInt(customers.size())), month(random.nextInt(4), 1 + random.nextInt(27)));
+                appointments.add(created);
+            } else {
+                Appointment appointment = appointments.get(random.nextInt(appointments.size()));
+                if (action < 7) {
+                    changeStatus(appointment, AppointmentStatus.values()[random.nextInt(3)]);
+                } else if (action < 9) {
+                    LocalDateTime previous = appointment.getAppointmentDateTime();
+                    appointment.setAppointmentDateTime(month(random.nextInt(4), 1 + random.nextInt(27)));
+                    entityManager.persist(appointment);
+                    entityManager.flush();
+                    businessStatsService.recordRescheduled(appointment, previous, appointment.getStatus());
+                } else {
+                    businessStatsService.recordDeleted(appointment);
+                    entityManager.remove(appointment);
+                    entityManager.flush();
+                    appointments.remove(appointment);
+                }
+            }
+        }
+
+        assertMatchesRebuild();
+    }
+
+    private void assertMatchesRebuild() {
+        entityManager.flush();
+        List<String> incremental = snapshot();
+        retentionService.rebuildAll();
+        entityManager.clear();
+        assertEquals(snapshot(), incremental);
+    }
+
+    private List<String> snapshot() {
+        return cohortRepository.findAll().stream()
+            .filter(c -> c.getCustomers() != 0)
+            .sorted(Comparator.comparing(RetentionCohort::getCohortMonth).thenComparing(RetentionCohort::getMonthsAfter))
+            .map(c -> c.getBusinessId() + " " + c.getCohortMonth() + " +" + c.getMonthsAfter() + " " + c.getCustomers())
+            .collect(Collectors.toList());
+    }
+
+    private LocalDateTime month(int offset, int day) {
+        return firstMonth.plusMonths(offset).withDayOfMonth(day).atTime(10, 0);
+    }
+
+    private User client(String name) {
+        return entityManager.persist(new User(name, name + "@localbook.ie", "secret", "086" + Math.abs(name.hashCode()), UserRole.CLIENT));
+    }
+
+    private Appointment book(User customer, LocalDateTime when) {
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setBusiness(business);
+        appointment.setService(cut);
+        appointment.setAppointmentDateTime(when);
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        entityManager.persist(appointment);
+        entityManager.flush();
+        businessStatsService.recordCreated(appointment);
+        return appointment;
+    }
+
+    private void complete(Appointment appointment) {
+        changeStatus(appointment, AppointmentStatus.COMPLETED);
+    }
+
+    private void changeStatus(Appointment appointment, AppointmentStatus status) {
+        AppointmentStatus previous = appointment.getStatus();
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        entityManager.flush();
+        businessStatsService.recordStatusChange(appointment, previous);
+    }
+}
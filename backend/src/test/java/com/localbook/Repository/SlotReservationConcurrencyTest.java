@@ -0,0 +1,265 @@
+package com.localbook.Repository;
+import com.localbook.model.SlotClaim;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.SlotClaimRepository;
+import com.localbook.service.SlotAvailabilityService;
+import com.localbook.service.SlotReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent bookings in real transactions on H2: the stripe lock is handed over
+ * when a transaction completes, and the unique key on slot_claims stops two
+ * instances (two services with separate locks) claiming the same slot. No two
+ * accepted bookings may overlap. The benchmark also holds bookings (accepted or
+ * turned away) to a throughput floor: mvn test -Pbenchmark.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SlotReservationService.class, SlotAvailabilityService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SlotReservationConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS = 400;
+    private static final int BUSINESSES = 3;
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 3);
+
+    // Benchmark: 20,000 bookings over a month of days, most of them turned away as taken
+    private static final int BENCHMARK_ATTEMPTS = 2500;
+    private static final int BENCHMARK_DAYS = 30;
+    // About 600/s on one core of a build agent; the floor leaves room for a slow one
+    private static final double MIN_BOOKINGS_PER_SECOND = 250;
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private final AtomicLong appointmentIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        slotClaimRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentBookingsNeverOverlap() throws Exception {
+        List<Booking> bookings = bookConcurrently(ATTEMPTS, 1);
+
+        assertFalse(bookings.isEmpty());
+        assertNoOverlaps(bookings);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testBookingThroughputUnderContention() throws Exception {
+        long started = System.nanoTime();
+        List<Booking> bookings = bookConcurrently(BENCHMARK_ATTEMPTS, BENCHMARK_DAYS);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        double perSecond = THREADS * BENCHMARK_ATTEMPTS / seconds;
+        System.out.println(String.format("bookings=%,d  accepted=%,d  %.1fs  %.0f bookings/s",
+            THREADS * BENCHMARK_ATTEMPTS, bookings.size(), seconds, perSecond));
+        assertNoOverlaps(bookings);
+        assertTrue(perSecond >= MIN_BOOKINGS_PER_SECOND, "Throughput too low: " + Math.round(perSecond) + " bookings/s");
+    }
+
+    @Test
+    void testUniqueKeyStopsSecondInstance() throws Exception {
+        // A second application instance: same database, its own stripe locks
+        SlotReservationService otherInstance = new SlotReservationService();
+        ReflectionTestUtils.setField(otherInstance, "slotClaimRepository", slotClaimRepository);
+        ReflectionTestUtils.setField(otherInstance, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(otherInstance, "appointmentSeriesRepository", appointmentSeriesRepository);
+        ReflectionTestUtils.setField(otherInstance, "slotAvailabilityService", slotAvailabilityService);
+
+        LocalDateTime tenAm = DAY.atTime(10, 0);
+        CountDownLatch firstReserved = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<Boolean> first = pool.submit(() -> transaction.execute(status -> {
+            slotReservationService.reserve(1L, 1L, tenAm, 60);
+            firstReserved.countDown();
+            await(commitFirst);
+            return true;
+        }));
+        firstReserved.await(30, TimeUnit.SECONDS);
+
+        // The first claims aren't committed, so the second instance's existence check passes
+        // and its insert waits on the unique key until the first transaction commits
+        Future<Boolean> second = pool.submit(() -> book(otherInstance, new Booking(1L, 2L, tenAm.plusMinutes(30), 30), 0));
+        Thread.sleep(200);
+        commitFirst.countDown();
+
+        assertTrue(first.get(30, TimeUnit.SECONDS));
+        assertFalse(second.get(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        List<SlotClaim> claims = slotClaimRepository.findAll();
+        assertEquals(2, claims.size());
+        assertTrue(claims.stream().allMatch(c -> c.getAppointmentId() == 1L));
+    }
+
+    @Test
+    void testLongBookingClaimsEveryCoveredSlot() {
+        LocalDateTime nineAm = DAY.atTime(9, 0);
+        assertTrue(book(slotReservationService, new Booking(1L, 1L, nineAm, 90), 0));
+        assertEquals(3, slotClaimRepository.count());
+
+        // 10:00 is inside the 90-minute booking; 10:30 is free again
+        assertFalse(book(slotReservationService, new Booking(1L, 2L, nineAm.plusMinutes(60), 30), 0));
+        assertTrue(book(slotReservationService, new Booking(1L, 3L, nineAm.plusMinutes(90), 30), 0));
+        // Same time at another business
+        assertTrue(book(slotReservationService, new Booking(2L, 4L, nineAm, 90), 0));
+    }
+
+    /**
+     * Each thread books attemptsPerThread random slots (09:00 to 17:00, 30 to 90
+     * minutes) across the businesses and days, all starting together so bookings
+     * contend. Returns the accepted ones.
+     */
+    private List<Booking> bookConcurrently(int attemptsPerThread, int days) throws Exception {
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    LocalDate day = DAY.plusDays(random.nextInt(days));
+                    Booking booking = new Booking(1L + random.nextInt(BUSINESSES), appointmentIds.incrementAndGet(),
+                        day.atTime(9, 0).plusMinutes(30L * random.nextInt(16)), 30 * (1 + random.nextInt(3)));
+                    if (book(slotReservationService, booking, 1)) {
+                        accepted.add(booking);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return new ArrayList<>(accepted);
+    }
+
+    private void assertNoOverlaps(List<Booking> bookings) {
+        for (int i = 0; i < bookings.size(); i++) {
+            for (int j = i + 1; j < bookings.size(); j++) {
+                assertFalse(bookings.get(i).overlaps(bookings.get(j)),
+                    "Overlapping bookings " + bookings.get(i) + " and " + bookings.get(j));
+            }
+        }
+        // Rejected bookings rolled back without leaving claims
+        long slots = bookings.stream().mapToLong(b -> b.durationMinutes / 30).sum();
+        assertEquals(slots, slotClaimRepository.count());
+    }
+
+    // Reserve in a transaction of its own; false when the slot was taken (and the transaction rolled back)
+    private boolean book(SlotReservationService service, Booking booking, long holdMillis) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                service.reserve(booking.businessId, booking.appointmentId, booking.start, booking.durationMinutes);
+                if (holdMillis > 0) {
+                    sleep(holdMillis);
+                }
+            });
+            return true;
+        } catch (IllegalArgumentException e) {
+            assertEquals(SlotReservationService.SLOT_TAKEN_MESSAGE, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Booking {
+        private final Long businessId;
+        private final Long appointmentId;
+        private final LocalDateTime start;
+        private final int durationMinutes;
+
+        Booking(Long businessId, Long appointmentId, LocalDateTime start, int durationMinutes) {
+            this.businessId = businessId;
+            this.appointmentId = appointmentId;
+            this.start = start;
+            this.durationMinutes = durationMinutes;
+        }
+
+        boolean overlaps(Booking other) {
+            return businessId.equals(other.businessId)
+                && start.isBefore(other.start.plusMinutes(other.durationMinutes))
+                && other.start.isBefore(start.plusMinutes(durationMinutes));
+        }
+
+        @Override
+        public String toString() {
+            return "business " + businessId + " at " + start + " for " + durationMinutes + " min";
+        }
+    }
+}
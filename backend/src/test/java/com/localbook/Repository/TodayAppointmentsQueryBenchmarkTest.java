@@ -0,0 +1,178 @@
+package com.localbook.Repository;
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.AppointmentRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration benchmark for the "today's schedule" query: grows the appointments
+ * table from 10k to 1M rows of unrelated history and checks that the query keeps
+ * using the composite index and its latency stays flat. The plan is checked on
+ * the SQL Hibernate generates for the repository query. Opt-in: mvn test -Pbenchmark
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.format_sql=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.localbook.Repository.TodayAppointmentsQueryBenchmarkTest$LastStatement"
+})
+@Tag("benchmark")
+class TodayAppointmentsQueryBenchmarkTest {
+
+    private static final int[] TABLE_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int BUSINESSES = 50;
+    private static final int WARMUP_RUNS = 50;
+    private static final int MEASURED_RUNS = 200;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testTodayQuery_CostStaysFlatAsTableGrows() {
+        User customer = entityManager.persist(new User("Bench Customer", "bench@localbook.ie", "secret", "0850000000", UserRole.CLIENT));
+
+        List<Business> businesses = new ArrayList<>();
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < BUSINESSES; i++) {
+            Business business = new Business("Bench " + i, "Owner", "1 Main St", "Dublin", "Dublin", "Dublin",
+                "D01 X" + i, "Barber", "0851111111", "bench" + i + "@localbook.ie", customer);
+            businesses.add(entityManager.persist(business));
+            services.add(entityManager.persist(new Service("Cut", 30, 20.0, business)));
+        }
+        entityManager.flush();
+
+        Long targetBusinessId = businesses.get(0).getId();
+        LocalDate today = LocalDate.now();
+
+        // The target business always has the same 20 bookings today, 5 of them inactive
+        List<Object[]> todayRows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AppointmentStatus status = i % 4 == 0 ? (i % 8 == 0 ? AppointmentStatus.CANCELED : AppointmentStatus.COMPLETED) : AppointmentStatus.CONFIRMED;
+            todayRows.add(row(customer.getId(), targetBusinessId, services.get(0).getId(), today.atTime(9, 0).plusMinutes(i * 30L), status));
+        }
+        insert(todayRows);
+
+        Random random = new Random(7);
+        int inserted = todayRows.size();
+        List<Double> medians = new ArrayList<>();
+
+        for (int size : TABLE_SIZES) {
+            // History for every business (including the target) on any day but today
+            List<Object[]> batch = new ArrayList<>();
+            while (inserted < size) {
+                int b = random.nextInt(BUSINESSES);
+                LocalDate day = today.minusDays(1 + random.nextInt(3 * 365));
+                LocalDateTime when = day.atTime(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+                AppointmentStatus status = AppointmentStatus.values()[random.nextInt(3)];
+                batch.add(row(customer.getId(), businesses.get(b).getId(), services.get(b).getId(), when, status));
+                inserted++;
+
+                if (batch.size() == 10_000) {
+                    insert(batch);
+                    batch.clear();
+                }
+            }
+            insert(batch);
+
+            double medianMicros = medianQueryMicros(targetBusinessId, today);
+            medians.add(medianMicros);
+            System.out.println(String.format("appointments=%,d  today-query median=%.1f us", size, medianMicros));
+        }
+
+        // Explain exactly what the repository sent, with its parameters in the order the JPQL binds them
+        runQuery(targetBusinessId, today, EnumSet.of(AppointmentStatus.CANCELED, AppointmentStatus.COMPLETED));
+        String sql = LastStatement.sql;
+        assertTrue(sql.toLowerCase().contains("appointments"), "Unexpected captured SQL: " + sql);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class,
+            targetBusinessId, Timestamp.valueOf(today.atStartOfDay()), Timestamp.valueOf(today.plusDays(1).atStartOfDay()),
+            AppointmentStatus.CANCELED.name(), AppointmentStatus.COMPLETED.name());
+
+        assertTrue(plan.toLowerCase().contains("idx_appointments_business_time_status"),
+            "Query should range-scan the composite index, plan was: " + plan);
+
+        // 100x more rows must not make the query meaningfully slower
+        double smallest = medians.get(0);
+        double largest = medians.get(medians.size() - 1);
+        assertTrue(largest <= smallest * 3 + 1000,
+            "Today query slowed down with table size: " + medians);
+    }
+
+    private double medianQueryMicros(Long businessId, LocalDate today) {
+        EnumSet<AppointmentStatus> inactive = EnumSet.of(AppointmentStatus.CANCELED, AppointmentStatus.COMPLETED);
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            runQuery(businessId, today, inactive);
+        }
+
+        double[] samples = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            List<AppointmentSummaryDTO> result = runQuery(businessId, today, inactive);
+            samples[i] = (System.nanoTime() - started) / 1000.0;
+            assertEquals(15, result.size());
+        }
+
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2];
+    }
+
+    private List<AppointmentSummaryDTO> runQuery(Long businessId, LocalDate today, EnumSet<AppointmentStatus> inactive) {
+        entityManager.clear();
+        return appointmentRepository.findBusinessAppointmentsInRangeExcludingStatuses(
+            businessId, today.atStartOfDay(), today.plusDays(1).atStartOfDay(), inactive);
+    }
+
+    private Object[] row(Long userId, Long businessId, Long serviceId, LocalDateTime when, AppointmentStatus status) {
+        Timestamp ts = Timestamp.valueOf(when);
+        return new Object[]{userId, businessId, serviceId, ts, status.name(), ts, ts};
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO appointments (user_id, business_id, service_id, appointment_date_time, status, " +
+            "notification_24hr_sent, notification_30min_sent, notification_start_sent, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, FALSE, FALSE, FALSE, ?, ?)",
+            rows);
+    }
+
+    // Keeps the last SQL statement Hibernate prepared
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            sql = statement;
+            return statement;
+        }
+    }
+}
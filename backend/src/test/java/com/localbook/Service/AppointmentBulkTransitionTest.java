@@ -0,0 +1,199 @@
+package com.localbook.Service;
+import com.localbook.dto.BulkTransitionResultDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.PushToken;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.PushTokenRepository;
+import com.localbook.repository.UserNotificationSettingsRepository;
+import com.localbook.service.AppointmentService;
+import com.localbook.service.BusinessStatsService;
+import com.localbook.service.ExpoPushService;
+import com.localbook.service.SlotAvailabilityService;
+import com.localbook.service.SlotReservationService;
+import com.localbook.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentBulkTransitionTest {
+
+    private static final Long OWNER_ID = 10L;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PushTokenRepository pushTokenRepository;
+
+    @Mock
+    private UserNotificationSettingsRepository settingsRepository;
+
+    @Mock
+    private ExpoPushService expoPushService;
+
+    @Mock
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @Mock
+    private SlotReservationService slotReservationService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private BusinessStatsService businessStatsService;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    private Business business;
+    private Service service;
+
+    @BeforeEach
+    void setUp() {
+        User owner = user(OWNER_ID, "Owner");
+        business = new Business();
+        business.setId(2L);
+        business.setOwner(owner);
+        service = new Service();
+        service.setId(3L);
+        service.setServiceName("Cut");
+        service.setDurationMinutes(30);
+    }
+
+    @Test
+    void testBulkCancel_OneLookupOneUpdateOnePushBatch() {
+        List<Appointment> appointments = new ArrayList<>();
+        List<PushToken> tokens = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            appointments.add(appointment(id, user(100 + id, "Customer " + id), LocalDateTime.now().plusDays(1), AppointmentStatus.CONFIRMED));
+            tokens.add(token(100 + id));
+        }
+        tokens.add(token(OWNER_ID));
+        List<Long> ids = appointments.stream().map(Appointment::getId).toList();
+
+        when(appointmentRepository.findWithOwnerByIdIn(anyCollection())).thenReturn(appointments);
+        when(appointmentRepository.updateStatusByIdIn(anyCollection(), eq(AppointmentStatus.CONFIRMED), eq(AppointmentStatus.CANCELED), any()))
+            .thenReturn(20);
+        when(settingsRepository.findByUserIdIn(anyCollection())).thenReturn(Collections.emptyList());
+        when(pushTokenRepository.findByUserIdIn(anyCollection())).thenReturn(tokens);
+        when(expoPushService.buildMessage(anyString(), anyString(), anyString(), anyMap())).thenReturn(Map.of());
+
+        BulkTransitionResultDTO result = appointmentService.bulkTransition(ids, OWNER_ID, AppointmentStatus.CANCELED);
+
+        assertEquals(20, result.getUpdated());
+        assertTrue(result.getSkipped().isEmpty());
+
+        verify(appointmentRepository, times(1)).findWithOwnerByIdIn(anyCollection());
+        verify(appointmentRepository, times(1)).updateStatusByIdIn(anyCollection(), any(), any(), any());
+        verify(appointmentRepository, never()).save(any());
+        verify(slotReservationService, times(1)).release(anyCollection());
+        verify(slotAvailabilityService, times(20)).release(any(Appointment.class));
+        verify(waitlistService, times(20)).offerFreedSlot(eq(2L), any(), eq(30));
+        verify(businessStatsService, times(1)).recordStatusChange(anyCollection(), eq(AppointmentStatus.CONFIRMED), eq(AppointmentStatus.CANCELED));
+
+        // 20 customers plus one summary for the owner, handed over in a single call
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Map<String, Object>>> batch = ArgumentCaptor.forClass(List.class);
+        verify(expoPushService, times(1)).sendBatch(batch.capture());
+        assertEquals(21, batch.getValue().size());
+        verify(expoPushService, never()).sendPushNotification(any(), any(), any(), any());
+    }
+
+    @Test
+    void testBulkComplete_SkipsFutureAndAlreadyClosed() {
+        Appointment past = appointment(1L, user(101L, "A"), LocalDateTime.now().minusHours(2), AppointmentStatus.CONFIRMED);
+        Appointment future = appointment(2L, user(102L, "B"), LocalDateTime.now().plusHours(2), AppointmentStatus.CONFIRMED);
+        Appointment canceled = appointment(3L, user(103L, "C"), LocalDateTime.now().minusHours(3), AppointmentStatus.CANCELED);
+
+        when(appointmentRepository.findWithOwnerByIdIn(anyCollection())).thenReturn(Arrays.asList(past, future, canceled));
+        when(appointmentRepository.updateStatusByIdIn(eq(List.of(1L)), eq(AppointmentStatus.CONFIRMED), eq(AppointmentStatus.COMPLETED), any()))
+            .thenReturn(1);
+
+        BulkTransitionResultDTO result = appointmentService.bulkTransition(Arrays.asList(1L, 2L, 3L), OWNER_ID, AppointmentStatus.COMPLETED);
+
+        assertEquals(List.of(1L), result.getUpdatedIds());
+        assertEquals("Cannot complete a future appointment", result.getSkipped().get(2L));
+        assertEquals("Appointment is already CANCELED", result.getSkipped().get(3L));
+        verify(slotReservationService, never()).release(anyCollection());
+        verifyNoInteractions(expoPushService);
+    }
+
+    @Test
+    void testBulkTransition_RejectsWholeBatchWhenOneIsNotOwned() {
+        Business other = new Business();
+        other.setId(9L);
+        other.setOwner(user(99L, "Someone else"));
+
+        Appointment mine = appointment(1L, user(101L, "A"), LocalDateTime.now().minusHours(1), AppointmentStatus.CONFIRMED);
+        Appointment theirs = appointment(2L, user(102L, "B"), LocalDateTime.now().minusHours(1), AppointmentStatus.CONFIRMED);
+        theirs.setBusiness(other);
+
+        when(appointmentRepository.findWithOwnerByIdIn(anyCollection())).thenReturn(Arrays.asList(mine, theirs));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> appointmentService.bulkTransition(Arrays.asList(1L, 2L), OWNER_ID, AppointmentStatus.CANCELED));
+
+        verify(appointmentRepository, never()).updateStatusByIdIn(any(), any(), any(), any());
+        verifyNoInteractions(expoPushService);
+    }
+
+    @Test
+    void testBulkTransition_ConcurrentChangeFailsBatch() {
+        Appointment a = appointment(1L, user(101L, "A"), LocalDateTime.now().minusHours(1), AppointmentStatus.CONFIRMED);
+        Appointment b = appointment(2L, user(102L, "B"), LocalDateTime.now().minusHours(1), AppointmentStatus.CONFIRMED);
+
+        when(appointmentRepository.findWithOwnerByIdIn(anyCollection())).thenReturn(Arrays.asList(a, b));
+        when(appointmentRepository.updateStatusByIdIn(anyCollection(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> appointmentService.bulkTransition(Arrays.asList(1L, 2L), OWNER_ID, AppointmentStatus.COMPLETED));
+
+        verifyNoInteractions(slotAvailabilityService);
+    }
+
+    private Appointment appointment(Long id, User customer, LocalDateTime when, AppointmentStatus status) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setUser(customer);
+        appointment.setBusiness(business);
+        appointment.setService(service);
+        appointment.setAppointmentDateTime(when);
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+    private User user(Long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+
+    private PushToken token(Long userId) {
+        PushToken token = new PushToken();
+        token.setUserId(userId);
+        token.setPushToken("ExponentPushToken[" + userId + "]");
+        return token;
+    }
+}
@@ -0,0 +1,282 @@
+package com.localbook.Service;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.Business;
+import com.localbook.model.RecurrenceFrequency;
+import com.localbook.model.Service;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.SlotClaimRepository;
+import com.localbook.service.SlotAvailabilityService;
+import com.localbook.service.SlotReservationService;
+import com.localbook.util.RecurrenceExpander;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentSeriesExpansionTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2030, 1, 7, 10, 0); // a Monday
+
+    @Test
+    void testFortnightlySeries_ExpandsOnlyTheWindow() {
+        AppointmentSeries series = series(RecurrenceFrequency.WEEKLY, 2);
+
+        List<LocalDateTime> march = RecurrenceExpander.occurrences(series,
+            LocalDate.of(2030, 3, 1).atStartOfDay(), LocalDate.of(2030, 4, 1).atStartOfDay());
+
+        assertEquals(List.of(
+            LocalDateTime.of(2030, 3, 4, 10, 0),
+            LocalDateTime.of(2030, 3, 18, 10, 0)), march);
+    }
+
+    @Test
+    void testOpenEndedSeries_FarWindowCostsTheSameAsNearOne() {
+        AppointmentSeries series = series(RecurrenceFrequency.WEEKLY, 1);
+
+        // Fifty years in: still just the four Mondays of that month
+        List<LocalDateTime> far = RecurrenceExpander.occurrences(series,
+            LocalDate.of(2080, 2, 1).atStartOfDay(), LocalDate.of(2080, 3, 1).atStartOfDay());
+
+        assertEquals(4, far.size());
+        assertTrue(far.stream().allMatch(t -> t.getDayOfWeek() == FIRST.getDayOfWeek() && t.toLocalTime().equals(FIRST.toLocalTime())));
+    }
+
+    @Test
+    void testSkippedDatesAndLimits() {
+        AppointmentSeries series = series(RecurrenceFrequency.WEEKLY, 1);
+        series.getSkippedDates().add(LocalDate.of(2030, 1, 14));
+        series.setMaxOccurrences(4);
+
+        List<LocalDateTime> all = RecurrenceExpander.occurrences(series, FIRST.minusDays(1), FIRST.plusYears(1));
+
+        // Skipped occurrence still counts towards the limit of 4
+        assertEquals(List.of(FIRST, FIRST.plusWeeks(2), FIRST.plusWeeks(3)), all);
+
+        series.setMaxOccurrences(null);
+        series.setUntilDate(LocalDate.of(2030, 1, 28));
+        assertEquals(3, RecurrenceExpander.occurrences(series, FIRST, FIRST.plusYears(1)).size());
+    }
+
+    @Test
+    void testMonthlySeriesOnThe31st_DoesNotDrift() {
+        AppointmentSeries series = series(RecurrenceFrequency.MONTHLY, 1);
+        series.setFirstOccurrence(LocalDateTime.of(2030, 1, 31, 9, 0));
+
+        List<LocalDateTime> spring = RecurrenceExpander.occurrences(series,
+            LocalDate.of(2030, 2, 1).atStartOfDay(), LocalDate.of(2030, 4, 1).atStartOfDay());
+
+        assertEquals(List.of(
+            LocalDateTime.of(2030, 2, 28, 9, 0),
+            LocalDateTime.of(2030, 3, 31, 9, 0)), spring);
+    }
+
+    @Test
+    void testSingleBookingOnSeriesSlot_IsRejected() {
+        AppointmentSeries series = series(RecurrenceFrequency.WEEKLY, 1);
+
+        SlotClaimRepository slotClaimRepository = mock(SlotClaimRepository.class);
+        AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+        when(seriesRepository.findActiveForBusinessFrom(eq(2L), any())).thenReturn(List.of(series));
+
+        SlotReservationService slotReservationService = reservationService(slotClaimRepository, seriesRepository);
+
+        // Overlaps the second half of the 10:00-11:00 occurrence ten weeks in
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> slotReservationService.reserve(2L, 99L, FIRST.plusWeeks(10).plusMinutes(30), 30));
+        assertEquals(SlotReservationService.SLOT_TAKEN_MESSAGE, e.getMessage());
+        verify(slotClaimRepository, never()).saveAllAndFlush(anyIterable());
+
+        // Right after it is fine
+        slotReservationService.reserve(2L, 100L, FIRST.plusWeeks(10).plusHours(1), 30);
+        verify(slotClaimRepository, times(1)).saveAllAndFlush(anyIterable());
+    }
+
+    @Test
+    void testNewSeriesClashingWithExistingBooking_IsRejected() {
+        AppointmentSeries series = series(RecurrenceFrequency.WEEKLY, 1);
+
+        SlotClaimRepository slotClaimRepository = mock(SlotClaimRepository.class);
+        AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+        when(seriesRepository.findActiveForBusinessFrom(anyLong(), any())).thenReturn(List.of(series));
+        // A booking two years in, well past any fixed look-ahead
+        LocalDateTime booked = FIRST.plusWeeks(104);
+        when(slotClaimRepository.findLastSlotStart(2L)).thenReturn(booked);
+        when(slotClaimRepository.findSlotStartsInRange(anyLong(), any(), any()))
+            .thenReturn(Collections.singletonList(booked));
+
+        SlotReservationService slotReservationService = reservationService(slotClaimRepository, seriesRepository);
+
+        assertThrows(IllegalArgumentException.class, () -> slotReservationService.assertSeriesFree(series));
+        verify(slotClaimRepository).findSlotStartsInRange(2L, FIRST.toLocalDate().atStartOfDay(),
+            booked.toLocalDate().plusDays(1).atStartOfDay());
+
+        series.getSkippedDates().add(booked.toLocalDate());
+        assertDoesNotThrow(() -> slotReservationService.assertSeriesFree(series));
+
+        // Ending before the booking is fine as well
+        series.getSkippedDates().clear();
+        series.setMaxOccurrences(100);
+        assertDoesNotThrow(() -> slotReservationService.assertSeriesFree(series));
+    }
+
+    @Test
+    void testOpenEndedSeries_CheckedAgainstEachOthersRules() {
+        AppointmentSeries fortnightly = series(RecurrenceFrequency.WEEKLY, 2);
+        AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+        SlotReservationService slotReservationService = reservationService(mock(SlotClaimRepository.class), seriesRepository);
+        when(seriesRepository.findActiveForBusinessFrom(anyLong(), any())).thenReturn(List.of(fortnightly));
+
+        // Every 2 weeks from the week after: never on the same Monday
+        AppointmentSeries otherWeeks = series(RecurrenceFrequency.WEEKLY, 2);
+        otherWeeks.setId(5L);
+        otherWeeks.setFirstOccurrence(FIRST.plusWeeks(1));
+        assertDoesNotThrow(() -> slotReservationService.assertSeriesFree(otherWeeks));
+
+        // Every 3 weeks from the week after: first meets it on week 4
+        AppointmentSeries everyThirdWeek = series(RecurrenceFrequency.WEEKLY, 3);
+        everyThirdWeek.setId(6L);
+        everyThirdWeek.setFirstOccurrence(FIRST.plusWeeks(1));
+        assertThrows(IllegalArgumentException.class, () -> slotReservationService.assertSeriesFree(everyThirdWeek));
+        // Skipping that date only moves the clash on six weeks
+        everyThirdWeek.getSkippedDates().add(FIRST.plusWeeks(4).toLocalDate());
+        assertThrows(IllegalArgumentException.class, () -> slotReservationService.assertSeriesFree(everyThirdWeek));
+
+        // Same weeks, but the hour after
+        AppointmentSeries later = series(RecurrenceFrequency.WEEKLY, 1);
+        later.setId(7L);
+        later.setFirstOccurrence(FIRST.plusHours(1));
+        assertDoesNotThrow(() -> slotReservationService.assertSeriesFree(later));
+
+        // Monthly on the 8th: now and then the 8th is one of its Mondays
+        AppointmentSeries monthly = series(RecurrenceFrequency.MONTHLY, 1);
+        monthly.setId(8L);
+        monthly.setFirstOccurrence(FIRST.plusDays(1));
+        assertThrows(IllegalArgumentException.class, () -> slotReservationService.assertSeriesFree(monthly));
+    }
+
+    @Test
+    void testFirstSharedDate() {
+        AppointmentSeries weekly = series(RecurrenceFrequency.WEEKLY, 2);
+        AppointmentSeries daily = series(RecurrenceFrequency.DAILY, 3);
+        daily.setFirstOccurrence(FIRST.plusDays(5));
+        // Every 14 days from day 0 and every 3 from day 5: first together on day 14, then every 42
+        assertEquals(FIRST.toLocalDate().plusDays(14), RecurrenceExpander.firstSharedDate(weekly, daily, FIRST.toLocalDate()));
+        assertEquals(FIRST.toLocalDate().plusDays(56), RecurrenceExpander.firstSharedDate(daily, weekly, FIRST.toLocalDate().plusDays(15)));
+
+        AppointmentSeries otherWeeks = series(RecurrenceFrequency.WEEKLY, 2);
+        otherWeeks.setFirstOccurrence(FIRST.plusWeeks(1));
+        assertNull(RecurrenceExpander.firstSharedDate(weekly, otherWeeks, FIRST.toLocalDate()));
+
+        // The 31st and the 30th both fall back to the 28th in February
+        AppointmentSeries on31st = series(RecurrenceFrequency.MONTHLY, 1);
+        on31st.setFirstOccurrence(LocalDateTime.of(2030, 1, 31, 10, 0));
+        AppointmentSeries on30th = series(RecurrenceFrequency.MONTHLY, 1);
+        on30th.setFirstOccurrence(LocalDateTime.of(2030, 1, 30, 10, 0));
+        assertEquals(LocalDate.of(2030, 2, 28), RecurrenceExpander.firstSharedDate(on31st, on30th, FIRST.toLocalDate()));
+        assertEquals(LocalDate.of(2030, 4, 30), RecurrenceExpander.firstSharedDate(on30th, on31st, LocalDate.of(2030, 3, 1)));
+
+        assertNull(RecurrenceExpander.end(weekly));
+        weekly.setMaxOccurrences(3);
+        assertEquals(FIRST.toLocalDate().plusWeeks(4).plusDays(1).atStartOfDay(), RecurrenceExpander.end(weekly));
+    }
+
+    @Test
+    void testFirstSharedDate_MatchesWalkingBothSeries() {
+        Random random = new Random(7);
+        RecurrenceFrequency[] frequencies = RecurrenceFrequency.values();
+        LocalDate horizon = FIRST.toLocalDate().plusYears(30);
+        for (int i = 0; i < 300; i++) {
+            AppointmentSeries a = series(frequencies[random.nextInt(frequencies.length)], 1 + random.nextInt(13));
+            AppointmentSeries b = series(frequencies[random.nextInt(frequencies.length)], 1 + random.nextInt(13));
+            // Starts spread over a few months, often on the 29th to 31st
+            a.setFirstOccurrence(FIRST.plusDays(random.nextBoolean() ? random.nextInt(90) : 22 + random.nextInt(3)));
+            b.setFirstOccurrence(FIRST.plusDays(random.nextBoolean() ? random.nextInt(90) : 22 + random.nextInt(3)));
+
+            Set<LocalDate> datesOfA = new HashSet<>();
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(a, FIRST, horizon.atStartOfDay())) {
+                datesOfA.add(occurrence.toLocalDate());
+            }
+            LocalDate walked = null;
+            for (LocalDateTime occurrence : RecurrenceExpander.occurrences(b, FIRST, horizon.atStartOfDay())) {
+                if (datesOfA.contains(occurrence.toLocalDate())) {
+                    walked = occurrence.toLocalDate();
+                    break;
+                }
+            }
+
+            LocalDate shared = RecurrenceExpander.firstSharedDate(a, b, FIRST.toLocalDate());
+            String pair = a.getFrequency() + "/" + a.getIntervalCount() + " from " + a.getFirstOccurrence().toLocalDate()
+                + " and " + b.getFrequency() + "/" + b.getIntervalCount() + " from " + b.getFirstOccurrence().toLocalDate();
+            if (walked != null) {
+                assertEquals(walked, shared, pair);
+            } else {
+                assertTrue(shared == null || !shared.isBefore(horizon), pair + " share " + shared);
+            }
+        }
+    }
+
+    @Test
+    void testOpenEndedMonthlySeries_ClashCheckStaysShort() {
+        // Every 7 months against every 52 weeks: their dates only line up again after
+        // hundreds of thousands of years, far too many occurrences to list
+        AppointmentSeries yearly = series(RecurrenceFrequency.WEEKLY, 52);
+        AppointmentSeries everySeventhMonth = series(RecurrenceFrequency.MONTHLY, 7);
+        everySeventhMonth.setId(9L);
+        everySeventhMonth.setFirstOccurrence(FIRST.plusDays(3));
+
+        AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+        when(seriesRepository.findActiveForBusinessFrom(anyLong(), any())).thenReturn(List.of(yearly));
+        SlotReservationService slotReservationService = reservationService(mock(SlotClaimRepository.class), seriesRepository);
+
+        long started = System.nanoTime();
+        LocalDate shared = RecurrenceExpander.firstSharedDate(yearly, everySeventhMonth, FIRST.toLocalDate());
+        if (shared == null) {
+            assertDoesNotThrow(() -> slotReservationService.assertSeriesFree(everySeventhMonth));
+        } else {
+            assertFalse(RecurrenceExpander.occurrences(yearly, shared.atStartOfDay(), shared.plusDays(1).atStartOfDay()).isEmpty());
+            assertFalse(RecurrenceExpander.occurrences(everySeventhMonth, shared.atStartOfDay(), shared.plusDays(1).atStartOfDay()).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> slotReservationService.assertSeriesFree(everySeventhMonth));
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(elapsedMs < 500, "Clash check took " + elapsedMs + "ms");
+    }
+
+    private static SlotReservationService reservationService(SlotClaimRepository slotClaimRepository,
+                                                             AppointmentSeriesRepository seriesRepository) {
+        SlotAvailabilityService slotAvailabilityService = new SlotAvailabilityService();
+        ReflectionTestUtils.setField(slotAvailabilityService, "appointmentSeriesRepository", seriesRepository);
+
+        SlotReservationService slotReservationService = new SlotReservationService();
+        ReflectionTestUtils.setField(slotReservationService, "slotClaimRepository", slotClaimRepository);
+        ReflectionTestUtils.setField(slotReservationService, "appointmentSeriesRepository", seriesRepository);
+        ReflectionTestUtils.setField(slotReservationService, "slotAvailabilityService", slotAvailabilityService);
+        return slotReservationService;
+    }
+
+    private AppointmentSeries series(RecurrenceFrequency frequency, int interval) {
+        Business business = new Business();
+        business.setId(2L);
+        Service service = new Service();
+        service.setId(3L);
+        service.setDurationMinutes(60);
+
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(1L);
+        series.setBusiness(business);
+        series.setService(service);
+        series.setFirstOccurrence(FIRST);
+        series.setFrequency(frequency);
+        series.setIntervalCount(interval);
+        return series;
+    }
+}
@@ -0,0 +1,126 @@
+package com.localbook.Service;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.model.Category;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.CategoryRepository;
+import com.localbook.service.BusinessCategoryCounts;
+import com.localbook.service.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BusinessCategoryCountsTest {
+
+    private BusinessCategoryCounts businessCategoryCounts;
+    private BusinessRepository businessRepository;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.countAllByCategory()).thenReturn(List.of(
+            new NamedCountDTO("Barber", 3L),
+            new NamedCountDTO("barber ", 1L),
+            new NamedCountDTO("Salon", 2L)));
+
+        businessCategoryCounts = new BusinessCategoryCounts();
+        ReflectionTestUtils.setField(businessCategoryCounts, "businessRepository", businessRepository);
+    }
+
+    @Test
+    void testCountsLoadOnceAndMatchCategoryNamesLikeTheDatabase() {
+        assertEquals(4, businessCategoryCounts.countFor("Barber"));
+        assertEquals(4, businessCategoryCounts.countFor("BARBER"));
+        assertEquals(2, businessCategoryCounts.countFor("Salon"));
+        assertEquals(0, businessCategoryCounts.countFor("Spa"));
+        assertEquals(0, businessCategoryCounts.countFor(null));
+
+        verify(businessRepository, times(1)).countAllByCategory();
+    }
+
+    @Test
+    void testRegisterMoveAndDeleteAdjustTheCounts() {
+        businessCategoryCounts.countFor("Barber");
+
+        businessCategoryCounts.recordMoved(null, "Spa");
+        businessCategoryCounts.recordMoved("Barber", "Salon");
+        businessCategoryCounts.recordMoved("Salon", "salon");   // same category, no change
+        businessCategoryCounts.recordMoved("Spa", null);
+
+        assertEquals(3, businessCategoryCounts.countFor("Barber"));
+        assertEquals(3, businessCategoryCounts.countFor("Salon"));
+        assertEquals(0, businessCategoryCounts.countFor("Spa"));
+        verify(businessRepository, times(1)).countAllByCategory();
+    }
+
+    @Test
+    void testChangesApplyOnlyOnceCommitted() {
+        businessCategoryCounts.countFor("Barber");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            businessCategoryCounts.recordMoved(null, "Barber");
+            assertEquals(4, businessCategoryCounts.countFor("Barber"));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(5, businessCategoryCounts.countFor("Barber"));
+    }
+
+    @Test
+    void testChangesBeforeTheFirstReadAreLeftToTheLoad() {
+        businessCategoryCounts.recordMoved(null, "Barber");
+        verify(businessRepository, never()).countAllByCategory();
+        assertEquals(4, businessCategoryCounts.countFor("Barber"));
+    }
+
+    @Test
+    void testReloadQueriesAgainWhenAChangeLandsDuringIt() {
+        businessCategoryCounts.countFor("Barber");
+
+        // The new Barber is already in the rows when its adjustment arrives mid-query
+        when(businessRepository.countAllByCategory())
+            .thenAnswer(invocation -> {
+                businessCategoryCounts.recordMoved(null, "Barber");
+                return List.of(new NamedCountDTO("Barber", 5L), new NamedCountDTO("Salon", 2L));
+            })
+            .thenReturn(List.of(new NamedCountDTO("Barber", 5L), new NamedCountDTO("Salon", 2L)));
+        businessCategoryCounts.reload();
+
+        assertEquals(5, businessCategoryCounts.countFor("Barber"));
+        verify(businessRepository, times(3)).countAllByCategory();
+    }
+
+    @Test
+    void testListingCategoriesRunsNoQueryPerCategory() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        Category barber = new Category();
+        barber.setName("Barber");
+        Category spa = new Category();
+        spa.setName("Spa");
+        when(categoryRepository.findAll()).thenReturn(List.of(barber, spa));
+
+        CategoryService categoryService = new CategoryService();
+        ReflectionTestUtils.setField(categoryService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(categoryService, "businessRepository", businessRepository);
+        ReflectionTestUtils.setField(categoryService, "businessCategoryCounts", businessCategoryCounts);
+
+        categoryService.getAllCategories();
+        List<Category> categories = categoryService.getAllCategories();
+
+        assertEquals(4L, categories.get(0).getBusinessCount());
+        assertEquals(0L, categories.get(1).getBusinessCount());
+        verify(businessRepository, never()).countByCategory(anyString());
+        verify(businessRepository, times(1)).countAllByCategory();
+    }
+}
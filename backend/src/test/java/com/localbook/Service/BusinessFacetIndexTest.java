@@ -0,0 +1,258 @@
+package com.localbook.Service;
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.FacetedSearchDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.RatingRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.service.BusinessFacetIndex;
+import com.localbook.service.OpeningHoursService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class BusinessFacetIndexTest {
+
+    // A Saturday, before any default opening
+    private static final LocalDateTime SATURDAY_3AM = LocalDateTime.of(2026, 3, 14, 3, 0);
+
+    // Generated businesses: a few thousand for the brute-force check, more for timing
+    private static final int BUSINESSES = 5_000;
+    private static final int BENCHMARK_BUSINESSES = 100_000;
+    private static final String[] CATEGORIES = {"Barber", "Beauty", "Physio", "Fitness", "Nails", "Spa", "Tattoo", "Dental"};
+    private static final String[] COUNTIES = {"Carlow", "Dublin", "Cork", "Galway", "Kilkenny", "Kerry", "Sligo", "Wexford"};
+
+    private BusinessFacetIndex index;
+    private BusinessRepository businessRepository;
+    private ServiceRepository serviceRepository;
+    private RatingRepository ratingRepository;
+    private BusinessHoursRepository businessHoursRepository;
+    private List<Business> many;
+    private Map<Long, double[]> pricesOf;
+    private Map<Long, Double> ratingOf;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        serviceRepository = mock(ServiceRepository.class);
+        ratingRepository = mock(RatingRepository.class);
+        businessHoursRepository = mock(BusinessHoursRepository.class);
+
+        when(businessRepository.findAll()).thenReturn(List.of(
+            business(1L, "Barber", "Carlow", "Carlow", true),
+            business(2L, "Barber", "Carlow", "Tullow", true),
+            business(3L, "Beauty", "Carlow", "Carlow", true),
+            business(4L, "Barber", "Kilkenny", "Kilkenny", true),
+            business(5L, "Barber", "Carlow", "Carlow", false),
+            business(6L, "Physio", "Dublin", "Dublin", true)));
+        when(serviceRepository.findBenchmarkPrices()).thenReturn(List.of(
+            value(1L, 15.0), value(1L, 25.0), value(2L, 45.0), value(3L, 60.0), value(3L, 120.0),
+            value(4L, 18.0), value(6L, 200.0)));
+        when(ratingRepository.findBenchmarkRatings()).thenReturn(List.of(
+            value(1L, 4.6), value(2L, 3.2), value(3L, 4.6), value(6L, 1.5)));
+        List<BusinessHours> hours = new ArrayList<>();
+        for (BusinessHours.DayOfWeek day : BusinessHours.DayOfWeek.values()) {
+            hours.add(new BusinessHours(1L, day, true, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+            hours.add(new BusinessHours(2L, day, null, null, null));
+            hours.add(new BusinessHours(3L, day, true, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+        }
+        when(businessHoursRepository.findAll()).thenReturn(hours);
+
+        index = new BusinessFacetIndex();
+        ReflectionTestUtils.setField(index, "businessRepository", businessRepository);
+        ReflectionTestUtils.setField(index, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(index, "ratingRepository", ratingRepository);
+        ReflectionTestUtils.setField(index, "businessHoursRepository", businessHoursRepository);
+        ReflectionTestUtils.setField(index, "openingHoursService", new OpeningHoursService());
+    }
+
+    @Test
+    void testFiltersAndFacets() {
+        FacetedSearchDTO<Long> barbers = index.search("barber", "CARLOW", null, null, null, null, null, null, null);
+        assertEquals(List.of(1L, 2L), barbers.getItems());
+        assertEquals(2, barbers.getTotal());
+        // Each facet leaves out its own filter
+        assertEquals(List.of("Barber=2", "Beauty=1"), counts(barbers.getCategories()));
+        assertEquals(List.of("Carlow=2", "Kilkenny=1"), counts(barbers.getCounties()));
+        assertEquals(List.of("0-20=1", "20-40=1", "40-60=1", "60-100=0", "100-150=0", "150+=0"),
+            counts(barbers.getPriceRanges()));
+        assertEquals(List.of("Unrated=0", "1-2=0", "2-3=0", "3-4=1", "4-5=1"), counts(barbers.getRatings()));
+
+        // Bounds inside a bucket are exact
+        assertEquals(List.of(1L, 2L), search(null, null, 20.0, 50.0, null, null));
+        assertEquals(List.of(4L), search(null, null, 16.0, 19.0, null, null));
+        assertEquals(List.of(1L, 3L), search(null, null, null, null, 4.5, null));
+        assertEquals(List.of(), search(null, null, null, null, 4.7, null));
+        assertEquals(List.of(2L), search(null, "tullow", null, null, null, null));
+        assertEquals(List.of(1L, 3L), search("", null, null, null, null, SATURDAY_3AM));
+
+        assertThrows(IllegalArgumentException.class, () -> search(null, null, 50.0, 20.0, null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> index.search(null, null, null, null, null, null, null, 0, 500));
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testPagesByRating() {
+        FacetedSearchDTO<Long> first = index.search(null, "Carlow", null, null, null, null, null, 0, 2);
+        assertEquals(List.of(1L, 3L), first.getItems());
+        assertTrue(first.isHasMore());
+        FacetedSearchDTO<Long> second = index.search(null, "Carlow", null, null, null, null, null, 1, 2);
+        assertEquals(List.of(2L), second.getItems());
+        assertFalse(second.isHasMore());
+        assertEquals(3, second.getTotal());
+        assertEquals(List.of(), index.search(null, "Carlow", null, null, null, null, null, 5, 2).getItems());
+    }
+
+    @Test
+    void testChangesApplyWithoutReloading() {
+        index.rebuild();
+        when(serviceRepository.findBenchmarkPrices(anyCollection())).thenReturn(List.of(value(5L, 10.0)));
+
+        index.recordSaved(business(5L, "Barber", "Carlow", "Carlow", true));   // approved
+        index.recordDeleted(1L);
+        index.recordSaved(business(3L, "Barber", "Carlow", "Carlow", true));   // changed category
+
+        assertEquals(List.of(5L), search(null, null, null, 12.0, null, null));
+        // Kept its rating and hours through the category change; unrated last
+        assertEquals(List.of(3L, 2L, 5L),
+            index.search("barber", "carlow", null, null, null, null, null, null, null).getItems());
+        assertEquals(List.of("Barber=3"), counts(
+            index.search(null, "carlow", null, null, null, null, null, null, null).getCategories()));
+
+        verify(businessRepository, times(1)).findAll();
+        verify(serviceRepository, times(1)).findBenchmarkPrices(anyCollection());
+    }
+
+    @Test
+    void testOpeningHoursChangeRecompilesSchedule() {
+        index.rebuild();
+        // Business 4 has no saved rows, so it follows the hours on its page: the default week
+        assertEquals(List.of(1L, 3L), search(null, null, null, null, null, SATURDAY_3AM));
+        assertEquals(List.of(1L, 3L, 6L, 4L), search(null, null, null, null, null, SATURDAY_3AM.plusHours(8)));
+
+        when(businessHoursRepository.findByBusinessIdIn(anyCollection())).thenReturn(List.of());
+        Business nightOwl = business(4L, "Barber", "Kilkenny", "Kilkenny", true);
+        nightOwl.setOpeningHours("{\"saturday\":{\"open\":\"02:00\",\"close\":\"04:00\",\"enabled\":true}}");
+        index.recordSaved(nightOwl);
+        assertEquals(List.of(1L, 3L, 4L), search(null, null, null, null, null, SATURDAY_3AM));
+        assertEquals(List.of(1L, 3L), search(null, null, null, null, null, SATURDAY_3AM.plusHours(1)));
+
+        // Saving again with the same hours keeps the compiled week
+        index.recordSaved(nightOwl);
+        assertEquals(List.of(1L, 3L, 4L), search(null, null, null, null, null, SATURDAY_3AM));
+        verify(businessHoursRepository, times(1)).findByBusinessIdIn(anyCollection());
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        loadBusinesses(BUSINESSES, new Random(9));
+
+        // Barbers in Cork with a service from 30 to 120 rated 2.5 or more, second page of five
+        List<Long> expected = many.stream()
+            .filter(b -> b.getIsApproved() && b.getCategory().equals("Barber") && b.getCounty().equals("Cork"))
+            .filter(b -> Arrays.stream(pricesOf.get(b.getId())).anyMatch(p -> p >= 30 && p <= 120))
+            .filter(b -> ratingOf.getOrDefault(b.getId(), 0.0) >= 2.5)
+            .sorted((a, b) -> {
+                int byRating = Double.compare(ratingOf.get(b.getId()), ratingOf.get(a.getId()));
+                return byRating != 0 ? byRating : a.getId().compareTo(b.getId());
+            })
+            .map(Business::getId)
+            .collect(Collectors.toList());
+        assertTrue(expected.size() > 10);
+        FacetedSearchDTO<Long> found = index.search("Barber", "Cork", null, 30.0, 120.0, 2.5, null, 1, 5);
+        assertEquals(expected.size(), found.getTotal());
+        assertEquals(expected.subList(5, 10), found.getItems());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testSearchLatencyAtScale() {
+        loadBusinesses(BENCHMARK_BUSINESSES, new Random(9));
+
+        long[] samples = new long[300];
+        for (int i = 0; i < 1000 + samples.length; i++) {
+            long started = System.nanoTime();
+            index.search(CATEGORIES[i % CATEGORIES.length], i % 2 == 0 ? null : COUNTIES[i % COUNTIES.length], null,
+                i % 3 == 0 ? 20.0 : null, i % 3 == 0 ? 80.0 : null, i % 4 == 0 ? 4.0 : null, i % 5 == 0 ? SATURDAY_3AM.plusHours(i % 168) : null, 0, 20);
+            if (i >= 1000) {
+                samples[i - 1000] = System.nanoTime() - started;
+            }
+        }
+        Arrays.sort(samples);
+        double medianMicros = samples[samples.length / 2] / 1000.0;
+        // Loose bound so a slow build machine doesn't fail it
+        assertTrue(medianMicros < 20000, "faceted search median " + medianMicros + " us");
+    }
+
+    // n businesses with one to four prices each, most of them rated, loaded into the index
+    private void loadBusinesses(int n, Random random) {
+        many = new ArrayList<>();
+        pricesOf = new HashMap<>();
+        ratingOf = new HashMap<>();
+        List<BenchmarkValueDTO> prices = new ArrayList<>();
+        List<BenchmarkValueDTO> ratings = new ArrayList<>();
+        for (long id = 1; id <= n; id++) {
+            String county = COUNTIES[random.nextInt(COUNTIES.length)];
+            many.add(business(id, CATEGORIES[random.nextInt(CATEGORIES.length)], county, county, random.nextInt(10) > 0));
+            double[] own = new double[1 + random.nextInt(4)];
+            for (int i = 0; i < own.length; i++) {
+                own[i] = 5 + random.nextInt(200);
+                prices.add(value(id, own[i]));
+            }
+            pricesOf.put(id, own);
+            if (random.nextInt(4) > 0) {
+                double rating = 1 + random.nextInt(41) / 10.0;
+                ratings.add(value(id, rating));
+                ratingOf.put(id, rating);
+            }
+        }
+        when(businessRepository.findAll()).thenReturn(many);
+        when(serviceRepository.findBenchmarkPrices()).thenReturn(prices);
+        when(ratingRepository.findBenchmarkRatings()).thenReturn(ratings);
+        when(businessHoursRepository.findAll()).thenReturn(List.of());
+        index.rebuild();
+    }
+
+    private List<Long> search(String category, String town, Double minPrice, Double maxPrice, Double minRating,
+                              LocalDateTime openAt) {
+        return index.search(category, null, town, minPrice, maxPrice, minRating, openAt, null, null).getItems();
+    }
+
+    private static List<String> counts(List<NamedCountDTO> facet) {
+        return facet.stream().map(c -> c.getName() + "=" + c.getCount()).collect(Collectors.toList());
+    }
+
+    private static BenchmarkValueDTO value(Long businessId, Double value) {
+        return new BenchmarkValueDTO(businessId, null, null, value);
+    }
+
+    private static Business business(Long id, String category, String county, String town, boolean approved) {
+        Business business = new Business();
+        business.setId(id);
+        business.setBusinessName("Business " + id);
+        business.setCategory(category);
+        business.setCounty(county);
+        business.setTown(town);
+        business.setIsApproved(approved);
+        return business;
+    }
+}
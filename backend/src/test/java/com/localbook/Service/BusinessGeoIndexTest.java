@@ -0,0 +1,154 @@
+package com.localbook.Service;
+import com.localbook.dto.NearbyBusinessDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.service.BusinessGeoIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BusinessGeoIndexTest {
+
+    // Carlow town centre
+    private static final double LAT = 52.8365;
+    private static final double LNG = -6.9341;
+
+    // Generated businesses: a few thousand for the brute-force check, more for timing
+    private static final int BUSINESSES = 5_000;
+    private static final int BENCHMARK_BUSINESSES = 300_000;
+
+    private BusinessGeoIndex index;
+    private BusinessRepository businessRepository;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.findAll()).thenReturn(List.of(
+            business(1L, "Barber", 52.8370, -6.9330, true),     // ~0.1 km
+            business(2L, "Beauty", 52.8400, -6.9200, true),     // ~1 km
+            business(3L, "Barber", 52.7270, -6.8320, true),     // Tullow road, ~14 km
+            business(4L, "Barber", 52.8360, -6.9350, false),    // not approved
+            business(5L, "Barber", 52.6541, -7.2448, true),     // Kilkenny, ~30 km
+            business(6L, "Barber", null, null, true)));         // no location
+
+        index = new BusinessGeoIndex();
+        ReflectionTestUtils.setField(index, "businessRepository", businessRepository);
+    }
+
+    @Test
+    void testRadiusCategoryAndNearest() {
+        assertEquals(List.of(1L, 2L), ids(index.nearby(LAT, LNG, 10.0, null, null)));
+        assertEquals(List.of(1L, 3L), ids(index.nearby(LAT, LNG, 20.0, " barber ", null)));
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(index.nearby(LAT, LNG, 50.0, null, 10)));
+
+        // k nearest: a wide radius with a small limit
+        List<NearbyBusinessDTO> nearest = index.nearby(52.65, -7.25, 100.0, "Barber", 1);
+        assertEquals(List.of(5L), ids(nearest));
+        assertTrue(nearest.get(0).getDistanceKm() < 1);
+        assertEquals(List.of(3L, 1L), ids(index.nearby(52.70, -7.00, 100.0, "Barber", 2)));
+
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(LAT, LNG, 500.0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(95.0, LNG, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(LAT, LNG, null, null, 0));
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testMovesAndApprovalsApplyWithoutReloading() {
+        index.rebuild();
+
+        index.recordSaved(business(5L, "Barber", 52.8380, -6.9300, true));   // moved to Carlow
+        index.recordSaved(business(4L, "Barber", 52.8360, -6.9350, true));   // approved
+        index.recordSaved(business(1L, "Barber", 52.8370, -6.9330, false));  // unapproved
+        index.recordDeleted(2L);
+
+        assertEquals(List.of(4L, 5L), ids(index.nearby(LAT, LNG, 5.0, null, null)));
+        assertEquals(List.of(), ids(index.nearby(52.6541, -7.2448, 5.0, null, null)));
+        assertEquals(3, index.size());
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(5);
+        List<Business> many = loadBusinesses(BUSINESSES, random);
+
+        for (int i = 0; i < 200; i++) {
+            double lat = 51.6 + random.nextDouble() * 3.6;
+            double lng = -10.0 + random.nextDouble() * 3.9;
+            double radius = i % 2 == 0 ? 5.0 : 100.0;
+            String category = i % 3 == 0 ? "Beauty" : null;
+            List<Long> expected = many.stream()
+                .filter(b -> category == null || category.equals(b.getCategory()))
+                .filter(b -> BusinessGeoIndex.distanceKm(lat, lng, b.getLat(), b.getLng()) <= radius)
+                .sorted(Comparator.comparingDouble((Business b) -> BusinessGeoIndex.distanceKm(lat, lng, b.getLat(), b.getLng()))
+                    .thenComparing(Business::getId))
+                .limit(20)
+                .map(Business::getId)
+                .collect(Collectors.toList());
+            assertEquals(expected, ids(index.nearby(lat, lng, radius, category, 20)));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testNearbyLatencyAtScale() {
+        Random random = new Random(5);
+        loadBusinesses(BENCHMARK_BUSINESSES, random);
+
+        long[] samples = new long[400];
+        for (int i = 0; i < 2000 + samples.length; i++) {
+            double lat = 51.6 + random.nextDouble() * 3.6;
+            double lng = -10.0 + random.nextDouble() * 3.9;
+            long started = System.nanoTime();
+            index.nearby(lat, lng, i % 2 == 0 ? 5.0 : 100.0, i % 3 == 0 ? "Beauty" : null, 20);
+            if (i >= 2000) {
+                samples[i - 2000] = System.nanoTime() - started;
+            }
+        }
+        Arrays.sort(samples);
+        double medianMicros = samples[samples.length / 2] / 1000.0;
+        // Loose bound so a slow build machine doesn't fail it
+        assertTrue(medianMicros < 5000, "nearby median " + medianMicros + " us");
+    }
+
+    // n listed businesses spread over roughly the island of Ireland, denser around Dublin, loaded into the index
+    private List<Business> loadBusinesses(int n, Random random) {
+        String[] categories = {"Barber", "Beauty", "Physiotherapy", "Fitness"};
+        List<Business> many = new ArrayList<>();
+        for (long id = 1; id <= n; id++) {
+            double lat = random.nextBoolean() ? 51.5 + random.nextDouble() * 3.8 : 53.35 + random.nextGaussian() * 0.1;
+            double lng = random.nextBoolean() ? -10.3 + random.nextDouble() * 4.3 : -6.26 + random.nextGaussian() * 0.15;
+            many.add(business(id, categories[random.nextInt(categories.length)], lat, lng, true));
+        }
+        when(businessRepository.findAll()).thenReturn(many);
+        index.rebuild();
+        return many;
+    }
+
+    private static List<Long> ids(List<NearbyBusinessDTO> results) {
+        return results.stream().map(NearbyBusinessDTO::getBusinessId).collect(Collectors.toList());
+    }
+
+    private static Business business(Long id, String category, Double lat, Double lng, boolean approved) {
+        Business business = new Business();
+        business.setId(id);
+        business.setBusinessName("Business " + id);
+        business.setCategory(category);
+        business.setLat(lat);
+        business.setLng(lng);
+        business.setIsApproved(approved);
+        return business;
+    }
+}
@@ -0,0 +1,160 @@
+package com.localbook.Service;
+import com.localbook.model.Business;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.service.BusinessSearchIndex;
+import com.localbook.util.SearchText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BusinessSearchIndexTest {
+
+    private BusinessSearchIndex index;
+    private BusinessRepository businessRepository;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.findAll()).thenReturn(List.of(
+            business(1L, "Seán's Barbers", "Barber", "Carlow", "Carlow", "Fades and beard trims", true),
+            business(2L, "Tullow Road Barbershop", "Barber", "Tullow", "Carlow", null, true),
+            business(3L, "Glow Beauty Studio", "Beauty", "Carlow", "Carlow", "Nails, brows and lashes", true),
+            business(4L, "Barber Bros", "Barber", "Kilkenny", "Kilkenny", null, false),
+            business(5L, "Carlow Physio", "Physiotherapy", "Carlow", "Carlow", "Sports massage", true)));
+
+        index = new BusinessSearchIndex();
+        ReflectionTestUtils.setField(index, "businessRepository", businessRepository);
+    }
+
+    @Test
+    void testTokensPrefixesAndTypos() {
+        // Every word must match; the name outranks the category
+        assertEquals(List.of(1L, 2L), index.search("barber carlow", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(1L), index.search("sean", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(1L), index.search("SEANS barb", BusinessSearchIndex.ALL_FIELDS, true, 10));
+
+        // Prefix of a word, and a one-letter typo in a longer one
+        assertEquals(List.of(3L), index.search("lash", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(5L), index.search("massgae", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(5L, 1L, 2L, 3L), index.search("carlwo", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        // Pages continue where the previous one stopped
+        assertEquals(List.of(2L, 3L), index.search("carlwo", BusinessSearchIndex.ALL_FIELDS, true, 2, 2));
+        assertEquals(List.of(), index.search("carlwo", BusinessSearchIndex.ALL_FIELDS, true, 4, 2));
+
+        // Short words must be exact; unlisted businesses only when asked for
+        assertEquals(List.of(), index.search("nal", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(4L), index.search("bros", BusinessSearchIndex.ALL_FIELDS, false, 10));
+        assertEquals(List.of(), index.search("bros", BusinessSearchIndex.ALL_FIELDS, true, 10));
+
+        // Field restriction: "Tullow" is a place for 2 but only a name word for nobody else
+        assertEquals(List.of(2L), index.search("tullow", BusinessSearchIndex.PLACE_FIELDS, false, 10));
+        assertEquals(List.of(), index.search("beard", EnumSet.of(BusinessSearchIndex.Field.NAME), false, 10));
+        assertEquals(List.of(), index.search("  ", BusinessSearchIndex.ALL_FIELDS, false, 10));
+
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testChangesApplyWithoutReloading() {
+        index.rebuild();
+
+        Business renamed = business(2L, "Kavanagh Cuts", "Barber", "Tullow", "Carlow", null, true);
+        index.recordSaved(renamed);
+        index.recordSaved(business(6L, "Bagenalstown Barbers", "Barber", "Bagenalstown", "Carlow", null, true));
+        index.recordDeleted(5L);
+
+        assertEquals(List.of(), index.search("barbershop", BusinessSearchIndex.ALL_FIELDS, false, 10));
+        assertEquals(List.of(2L), index.search("kavanagh", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(List.of(6L), index.search("bagenalstown", BusinessSearchIndex.PLACE_FIELDS, true, 10));
+        assertEquals(List.of(), index.search("physio", BusinessSearchIndex.ALL_FIELDS, false, 10));
+        assertEquals(5, index.size());
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testChangesDuringRebuildSurviveIt() {
+        index.rebuild();
+        List<Business> snapshot = businessRepository.findAll();
+
+        // A registration commits while the next rebuild is reading the older snapshot
+        when(businessRepository.findAll()).thenAnswer(invocation -> {
+            index.recordSaved(business(6L, "Bagenalstown Barbers", "Barber", "Bagenalstown", "Carlow", null, true));
+            return snapshot;
+        });
+        index.rebuild();
+
+        assertEquals(List.of(6L), index.search("bagenalstown", BusinessSearchIndex.ALL_FIELDS, true, 10));
+        assertEquals(6, index.size());
+
+        // Once that rebuild is done, nothing more is kept for replaying
+        when(businessRepository.findAll()).thenReturn(snapshot);
+        index.rebuild();
+        assertEquals(List.of(), index.search("bagenalstown", BusinessSearchIndex.ALL_FIELDS, true, 10));
+    }
+
+    @Test
+    void testEditDistance() {
+        assertTrue(SearchText.withinEdits("carlow", "carlwo", 1));
+        assertTrue(SearchText.withinEdits("massage", "masage", 1));
+        assertFalse(SearchText.withinEdits("carlow", "clarow", 1));
+        assertTrue(SearchText.withinEdits("barber", "barbers", 1));
+        assertFalse(SearchText.withinEdits("barber", "beauty", 2));
+        assertEquals(List.of("oneill", "seans", "cafe"), SearchText.tokenize("O'Neill & Seán's Café"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testQueriesAtScale() {
+        String[] words = {"barber", "beauty", "salon", "nails", "physio", "studio", "cuts", "spa", "clinic", "fitness"};
+        String[] towns = {"Carlow", "Tullow", "Dublin", "Cork", "Galway", "Kilkenny", "Naas", "Athy", "Sligo", "Ennis"};
+        Random random = new Random(3);
+        List<Business> many = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            String name = "Shop" + Long.toString(id, 36) + " " + words[random.nextInt(words.length)];
+            String town = towns[random.nextInt(towns.length)];
+            many.add(business(id, name, words[random.nextInt(words.length)], town, town, null, true));
+        }
+        when(businessRepository.findAll()).thenReturn(many);
+        index.rebuild();
+
+        String[] queries = {"barber carlow", "shop1a2", "nails galwy", "physio", "studio tullow", "fitnes sligo"};
+        for (int i = 0; i < 3000; i++) {
+            index.search(queries[i % queries.length], BusinessSearchIndex.ALL_FIELDS, true, 50);
+        }
+        long[] samples = new long[600];
+        for (int i = 0; i < samples.length; i++) {
+            long started = System.nanoTime();
+            index.search(queries[i % queries.length], BusinessSearchIndex.ALL_FIELDS, true, 50);
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        double medianMicros = samples[samples.length / 2] / 1000.0;
+        assertEquals(50, index.search("barber carlow", BusinessSearchIndex.ALL_FIELDS, true, 50).size());
+        // Loose bound so a slow build machine doesn't fail it; typically well under a millisecond
+        assertTrue(medianMicros < 5000, "search median " + medianMicros + " us");
+    }
+
+    private static Business business(Long id, String name, String category, String town, String county,
+                                     String description, boolean approved) {
+        Business business = new Business();
+        business.setId(id);
+        business.setBusinessName(name);
+        business.setCategory(category);
+        business.setTown(town);
+        business.setCounty(county);
+        business.setLocation(town);
+        business.setDescription(description);
+        business.setIsApproved(approved);
+        return business;
+    }
+}
@@ -0,0 +1,239 @@
+package com.localbook.Service;
+import com.localbook.dto.AppointmentSummaryDTO;
+import com.localbook.dto.CalendarSyncStateDTO;
+import com.localbook.model.AppointmentSeries;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.RecurrenceFrequency;
+import com.localbook.model.Service;
+import com.localbook.model.User;
+import com.localbook.model.UserRole;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.service.CalendarFeedService;
+import com.localbook.service.SlotAvailabilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CalendarFeedServiceTest {
+
+    private static final Long BUSINESS_ID = 2L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 5, 6, 9, 0);
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentSeriesRepository appointmentSeriesRepository;
+    private CalendarFeedService calendarFeedService;
+    private List<AppointmentSummaryDTO> rows;
+    private List<AppointmentSeries> series;
+
+    @BeforeEach
+    void setUp() {
+        rows = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            AppointmentStatus status = id % 100 == 0 ? AppointmentStatus.CANCELED : AppointmentStatus.CONFIRMED;
+            rows.add(row(id, BASE.plusHours(id), status, BASE.minusDays(1).plusMinutes(id)));
+        }
+
+        appointmentRepository = mock(AppointmentRepository.class);
+        // Keyset pages over the rows, as the database would serve them
+        when(appointmentRepository.findBusinessFeedPageAfter(eq(BUSINESS_ID), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                long afterId = invocation.getArgument(1);
+                Pageable pageable = invocation.getArgument(2);
+                return rows.stream().filter(r -> r.getId() > afterId).limit(pageable.getPageSize()).toList();
+            });
+        when(appointmentRepository.findBusinessChangesAfter(eq(BUSINESS_ID), any(), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                LocalDateTime afterTime = invocation.getArgument(1);
+                long afterId = invocation.getArgument(2);
+                Pageable pageable = invocation.getArgument(3);
+                return rows.stream()
+                    .filter(r -> r.getUpdatedAt().isAfter(afterTime) || (r.getUpdatedAt().equals(afterTime) && r.getId() > afterId))
+                    .limit(pageable.getPageSize()).toList();
+            });
+
+        series = new ArrayList<>();
+        appointmentSeriesRepository = mock(AppointmentSeriesRepository.class);
+        when(appointmentSeriesRepository.findActiveForBusinessInWindow(eq(BUSINESS_ID), any(), any()))
+            .thenAnswer(invocation -> series);
+        when(appointmentSeriesRepository.findCalendarSyncState(BUSINESS_ID))
+            .thenAnswer(invocation -> new CalendarSyncStateDTO(
+                series.stream().map(AppointmentSeries::getUpdatedAt).max(LocalDateTime::compareTo).orElse(null),
+                (long) series.size(), (long) series.size()));
+
+        calendarFeedService = new CalendarFeedService();
+        ReflectionTestUtils.setField(calendarFeedService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(calendarFeedService, "appointmentSeriesRepository", appointmentSeriesRepository);
+    }
+
+    @Test
+    void testFullFeed_StreamsEveryAppointmentInPages() throws Exception {
+        String ics = write(null);
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+        assertEquals(1200, count(ics, "BEGIN:VEVENT"));
+        assertEquals(12, count(ics, "STATUS:CANCELLED"));
+        assertTrue(ics.contains("DTSTART:20300506T100000\r\n"));
+
+        // 1200 rows in pages of 500, never the whole history at once
+        verify(appointmentRepository, times(3)).findBusinessFeedPageAfter(eq(BUSINESS_ID), anyLong(), any(Pageable.class));
+        verify(appointmentRepository, never()).findSummariesByBusinessId(any());
+    }
+
+    @Test
+    void testSyncToken_OnlyChangesSinceAreSent() throws Exception {
+        when(appointmentRepository.findCalendarSyncState(BUSINESS_ID))
+            .thenReturn(new CalendarSyncStateDTO(BASE.minusDays(1).plusMinutes(1200), 1200L, 1200L));
+        when(appointmentRepository.countByBusiness_IdAndIdLessThanEqual(BUSINESS_ID, 1200L)).thenReturn(1200L);
+        String token = calendarFeedService.syncTokenFor(calendarFeedService.getState(BUSINESS_ID));
+
+        // Two appointments change after the token was issued
+        rows.set(4, row(5L, BASE.plusHours(5), AppointmentStatus.CANCELED, BASE.plusDays(1)));
+        rows.set(9, row(10L, BASE.plusHours(30), AppointmentStatus.CONFIRMED, BASE.plusDays(1)));
+        rows.sort((a, b) -> a.getUpdatedAt().equals(b.getUpdatedAt())
+            ? a.getId().compareTo(b.getId()) : a.getUpdatedAt().compareTo(b.getUpdatedAt()));
+
+        String ics = write(calendarFeedService.resolveSince(BUSINESS_ID, calendarFeedService.getState(BUSINESS_ID), token));
+
+        // The changes plus the few rows inside the overlap window, not the whole calendar
+        int events = count(ics, "BEGIN:VEVENT");
+        assertTrue(events >= 2 && events <= 10, "Sent " + events + " events");
+        assertTrue(ics.contains("UID:appointment-5@localbook\r\n"));
+        assertTrue(ics.contains("UID:appointment-10@localbook\r\n"));
+    }
+
+    @Test
+    void testFullFeed_ExpandsSeriesOccurrences() throws Exception {
+        rows.clear();
+        LocalDate monday = LocalDate.now().plusDays(1);
+        AppointmentSeries weekly = series(7L, monday.atTime(11, 0));
+        weekly.getSkippedDates().add(monday.plusWeeks(1));
+        series.add(weekly);
+
+        String ics = write(null);
+
+        // Past the first month back, up to the booking horizon, minus the skipped week
+        int weeks = (SlotAvailabilityService.MAX_DAYS_AHEAD - 1) / 7 + 1;
+        assertEquals(weeks - 1, count(ics, "BEGIN:VEVENT"));
+        assertTrue(ics.contains("UID:series-7-" + monday.toString().replace("-", "") + "@localbook\r\n"));
+        assertFalse(ics.contains("UID:series-7-" + monday.plusWeeks(1).toString().replace("-", "") + "@localbook\r\n"));
+        assertTrue(ics.contains("SUMMARY:Colour - Regular\r\n"));
+        assertTrue(ics.contains("DTEND:" + monday.toString().replace("-", "") + "T120000\r\n"));
+
+        // Changes-only feeds never repeat the series
+        assertEquals(0, count(write(BASE), "UID:series-"));
+    }
+
+    @Test
+    void testSyncToken_FallsBackToFullFeedWhenSeriesChange() {
+        when(appointmentRepository.findCalendarSyncState(BUSINESS_ID))
+            .thenAnswer(invocation -> new CalendarSyncStateDTO(BASE, 1200L, 1200L));
+        when(appointmentRepository.countByBusiness_IdAndIdLessThanEqual(BUSINESS_ID, 1200L)).thenReturn(1200L);
+        String token = calendarFeedService.syncTokenFor(calendarFeedService.getState(BUSINESS_ID));
+        assertNotNull(calendarFeedService.resolveSince(BUSINESS_ID, calendarFeedService.getState(BUSINESS_ID), token));
+
+        series.add(series(7L, BASE));
+        assertNull(calendarFeedService.resolveSince(BUSINESS_ID, calendarFeedService.getState(BUSINESS_ID), token));
+    }
+
+    @Test
+    void testSyncToken_FallsBackToFullFeedAfterDeletion() {
+        CalendarSyncStateDTO state = new CalendarSyncStateDTO(BASE, 1200L, 1200L);
+        String token = calendarFeedService.syncTokenFor(state);
+        when(appointmentRepository.countByBusiness_IdAndIdLessThanEqual(BUSINESS_ID, 1200L)).thenReturn(1199L);
+
+        assertNull(calendarFeedService.resolveSince(BUSINESS_ID, state, token));
+        assertThrows(IllegalArgumentException.class, () -> calendarFeedService.resolveSince(BUSINESS_ID, state, "nonsense"));
+    }
+
+    @Test
+    void testEtagChangesOnDeleteEvenWithoutNewerUpdates() {
+        String before = calendarFeedService.etagFor(new CalendarSyncStateDTO(BASE, 1200L, 1200L), null);
+        String after = calendarFeedService.etagFor(new CalendarSyncStateDTO(BASE, 1200L, 1199L), null);
+
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void testEtagDiffersBetweenFullFeedAndChanges() {
+        CalendarSyncStateDTO state = new CalendarSyncStateDTO(BASE, 1200L, 1200L);
+        String token = calendarFeedService.syncTokenFor(new CalendarSyncStateDTO(BASE.minusDays(1), 1100L, 1100L));
+
+        String full = calendarFeedService.etagFor(state, null);
+        assertEquals(full, calendarFeedService.etagFor(state, ""));
+        assertNotEquals(full, calendarFeedService.etagFor(state, token));
+        assertNotEquals(calendarFeedService.etagFor(state, token),
+            calendarFeedService.etagFor(state, calendarFeedService.syncTokenFor(state)));
+    }
+
+    @Test
+    void testTextIsEscapedAndLongLinesFolded() throws Exception {
+        rows.clear();
+        rows.add(summary(1L, BASE, AppointmentStatus.CONFIRMED, "Bring photo; long fringe.\nSecond line " + "x".repeat(120),
+            BASE, "Ní Bhriain, Aoife", 45));
+
+        String ics = write(null);
+
+        // Clients unfold by dropping CRLF + space
+        String unfolded = ics.replace("\r\n ", "");
+        assertTrue(unfolded.contains("SUMMARY:Cut - Ní Bhriain\\, Aoife\r\n"));
+        assertTrue(unfolded.contains("DESCRIPTION:Phone: 0860000000\\nNotes: Bring photo\\; long fringe.\\nSecond line " + "x".repeat(120) + "\r\n"));
+        assertTrue(ics.contains("DTEND:20300506T094500\r\n"));
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, "Line longer than 75 octets: " + line);
+        }
+    }
+
+    private String write(LocalDateTime since) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        calendarFeedService.writeFeed(BUSINESS_ID, "Shop", since, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private AppointmentSeries series(Long id, LocalDateTime first) {
+        User user = new User("Regular", "regular@localbook.ie", "secret", "0861111111", UserRole.CLIENT);
+        AppointmentSeries weekly = new AppointmentSeries();
+        weekly.setId(id);
+        weekly.setUser(user);
+        weekly.setService(new Service("Colour", 60, 60.0, null));
+        weekly.setFirstOccurrence(first);
+        weekly.setFrequency(RecurrenceFrequency.WEEKLY);
+        weekly.setIntervalCount(1);
+        weekly.setActive(true);
+        weekly.setUpdatedAt(BASE.plusDays(2));
+        return weekly;
+    }
+
+    private AppointmentSummaryDTO row(Long id, LocalDateTime when, AppointmentStatus status, LocalDateTime updatedAt) {
+        return summary(id, when, status, null, updatedAt, "Customer " + id, 30);
+    }
+
+    private AppointmentSummaryDTO summary(Long id, LocalDateTime when, AppointmentStatus status, String notes,
+                                          LocalDateTime updatedAt, String customerName, int durationMinutes) {
+        return new AppointmentSummaryDTO(id, when, status, notes, updatedAt, updatedAt,
+            100 + id, customerName, "c" + id + "@localbook.ie", "0860000000",
+            BUSINESS_ID, "Shop", "1 Main St", "Dublin",
+            3L, "Cut", durationMinutes, 20.0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.localbook.Service;
+import com.localbook.dto.DashboardCacheStatsDTO;
+import com.localbook.service.DashboardCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardCacheTest {
+
+    private DashboardCache dashboardCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        dashboardCache = new DashboardCache();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromMemoryUntilInvalidated() {
+        Map<String, Object> first = dashboardCache.get(1L, () -> payload(1));
+        Map<String, Object> second = dashboardCache.get(1L, () -> payload(2));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        dashboardCache.invalidate(1L);
+        assertEquals(2, dashboardCache.get(1L, () -> payload(2)).get("version"));
+
+        // Another business's change leaves this entry alone
+        dashboardCache.invalidate(99L);
+        dashboardCache.get(1L, () -> payload(3));
+
+        DashboardCacheStatsDTO stats = dashboardCache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getInvalidations());
+        assertEquals(50.0, stats.getHitRate(), 0.001);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        int pollers = 16;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(pollers);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> dashboardCache.get(7L, () -> {
+                loading.countDown();
+                await(release);
+                return payload(1);
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < pollers; i++) {
+                results.add(pool.submit(() -> dashboardCache.get(7L, () -> payload(2))));
+            }
+            release.countDown();
+
+            for (Future<Map<String, Object>> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS).get("version"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, dashboardCache.getStats().getMisses());
+        assertEquals(pollers - 1, dashboardCache.getStats().getHits());
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> dashboardCache.get(3L, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(1, dashboardCache.get(3L, () -> payload(1)).get("version"));
+        assertEquals(1, dashboardCache.getStats().getSize());
+    }
+
+    @Test
+    void testInvalidationInsideATransactionWaitsForCommit() {
+        dashboardCache.get(5L, () -> payload(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dashboardCache.invalidate(5L);
+            // Not committed yet: a poll still sees the cached payload
+            assertEquals(1, dashboardCache.get(5L, () -> payload(2)).get("version"));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(2, dashboardCache.get(5L, () -> payload(2)).get("version"));
+    }
+
+    @Test
+    void testLeastRecentlyReadBusinessIsEvictedWhenFull() {
+        for (long id = 1; id <= DashboardCache.MAX_ENTRIES; id++) {
+            dashboardCache.get(id, () -> payload(1));
+        }
+        // Touch business 1 so business 2 becomes the eldest
+        dashboardCache.get(1L, () -> payload(1));
+        dashboardCache.get(DashboardCache.MAX_ENTRIES + 1L, () -> payload(1));
+
+        DashboardCacheStatsDTO stats = dashboardCache.getStats();
+        assertEquals(DashboardCache.MAX_ENTRIES, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+
+        int before = loads.get();
+        dashboardCache.get(1L, () -> payload(2));
+        assertEquals(before, loads.get());
+        dashboardCache.get(2L, () -> payload(2));
+        assertEquals(before + 1, loads.get());
+    }
+
+    private Map<String, Object> payload(int version) {
+        loads.incrementAndGet();
+        return Map.of("version", version);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.localbook.Service;
+import com.localbook.dto.EarliestAvailabilityDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.Service;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.service.EarliestAvailabilityService;
+import com.localbook.service.SlotAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EarliestAvailabilityServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(2);
+
+    private EarliestAvailabilityService earliestAvailabilityService;
+
+    @AfterEach
+    void tearDown() {
+        if (earliestAvailabilityService != null) {
+            earliestAvailabilityService.shutdown();
+        }
+    }
+
+    @Test
+    void testEarliestFree_SkipsBookedAndTooShortGaps() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        AppointmentSeriesRepository seriesRepository = mock(AppointmentSeriesRepository.class);
+        // 09:00-10:00 and 10:30-11:00 booked; no saved hours means the default 09:00-18:00
+        when(appointmentRepository.findByBusinessIdAndStatusAndAppointmentDateTimeBetween(
+                eq(2L), eq(AppointmentStatus.CONFIRMED), any(), any()))
+            .thenReturn(List.of(appointment(DAY.atTime(9, 0), 60), appointment(DAY.atTime(10, 30), 30)));
+        when(seriesRepository.findActiveForBusinessInWindow(anyLong(), any(), any())).thenReturn(Collections.emptyList());
+
+        SlotAvailabilityService slotAvailabilityService = new SlotAvailabilityService();
+        ReflectionTestUtils.setField(slotAvailabilityService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(slotAvailabilityService, "businessHoursRepository", mock(BusinessHoursRepository.class));
+        ReflectionTestUtils.setField(slotAvailabilityService, "appointmentSeriesRepository", seriesRepository);
+        BusinessRepository businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.existsById(2L)).thenReturn(true);
+        ReflectionTestUtils.setField(slotAvailabilityService, "businessRepository", businessRepository);
+
+        LocalDateTime from = DAY.atTime(7, 45);
+        LocalDateTime to = DAY.plusDays(1).atStartOfDay();
+
+        assertEquals(DAY.atTime(10, 0), slotAvailabilityService.earliestFree(2L, from, to, 30));
+        // An hour does not fit in the 10:00 gap
+        assertEquals(DAY.atTime(11, 0), slotAvailabilityService.earliestFree(2L, from, to, 60));
+        // Start mid-slot rounds up to the next one
+        assertEquals(DAY.atTime(11, 30), slotAvailabilityService.earliestFree(2L, DAY.atTime(11, 10), to, 30));
+        assertNull(slotAvailabilityService.earliestFree(2L, DAY.atTime(18, 0), to, 30));
+    }
+
+    @Test
+    void testFindEarliest_RanksTopKAndDropsBusinessesPastTheBudget() {
+        List<Business> businesses = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            businesses.add(business(id));
+        }
+        BusinessRepository businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.findBookableByCategoryAndLocation("Barber", "Dublin")).thenReturn(businesses);
+
+        SlotAvailabilityService slotAvailabilityService = mock(SlotAvailabilityService.class);
+        when(slotAvailabilityService.earliestFree(anyLong(), any(), any(), eq(30))).thenAnswer(invocation -> {
+            Long businessId = invocation.getArgument(0);
+            if (businessId == 1L) {
+                // Would be the earliest, but its day is stuck loading
+                Thread.sleep(3000);
+                return DAY.atTime(9, 0);
+            }
+            if (businessId % 10 == 0) {
+                return null; // fully booked
+            }
+            return DAY.atTime(9, 0).plusMinutes(30 * ((businessId * 7) % 17));
+        });
+
+        earliestAvailabilityService = new EarliestAvailabilityService();
+        ReflectionTestUtils.setField(earliestAvailabilityService, "businessRepository", businessRepository);
+        ReflectionTestUtils.setField(earliestAvailabilityService, "slotAvailabilityService", slotAvailabilityService);
+
+        long started = System.nanoTime();
+        EarliestAvailabilityDTO result = earliestAvailabilityService.findEarliest(
+            "Barber", "Dublin", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 30, 5);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMs < EarliestAvailabilityService.LATENCY_BUDGET_MS + 500, "Search took " + elapsedMs + "ms");
+        assertEquals(40, result.getBusinessesMatched());
+        assertEquals(39, result.getBusinessesChecked());
+        assertFalse(result.isComplete());
+        assertEquals(1, earliestAvailabilityService.getOverBudgetSearches());
+
+        assertEquals(5, result.getResults().size());
+        assertTrue(result.getResults().stream().noneMatch(slot -> slot.getBusinessId() == 1L));
+        for (int i = 1; i < result.getResults().size(); i++) {
+            assertFalse(result.getResults().get(i).getStart().isBefore(result.getResults().get(i - 1).getStart()));
+        }
+    }
+
+    @Test
+    void testFindEarliest_RejectsOversizedWindow() {
+        earliestAvailabilityService = new EarliestAvailabilityService();
+        LocalDateTime from = DAY.atStartOfDay();
+
+        assertThrows(IllegalArgumentException.class, () -> earliestAvailabilityService.findEarliest(
+            "Barber", null, from, from.plusDays(EarliestAvailabilityService.MAX_WINDOW_DAYS + 1), 30, 5));
+        assertThrows(IllegalArgumentException.class, () -> earliestAvailabilityService.findEarliest(
+            " ", null, from, from.plusDays(1), 30, 5));
+    }
+
+    private Appointment appointment(LocalDateTime when, int durationMinutes) {
+        Service service = new Service();
+        service.setDurationMinutes(durationMinutes);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentDateTime(when);
+        appointment.setService(service);
+        return appointment;
+    }
+
+    private Business business(Long id) {
+        Business business = new Business();
+        business.setId(id);
+        business.setBusinessName("Barber " + id);
+        business.setTown("Dublin");
+        business.setCounty("Dublin");
+        return business;
+    }
+}
@@ -0,0 +1,82 @@
+package com.localbook.Service;
+import com.localbook.util.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Estimates stay within a few standard errors, merging equals sketching the union,
+ * and folding and serialization lose nothing.
+ */
+class HyperLogLogTest {
+
+    @Test
+    void testEstimatesWithinErrorBound() {
+        for (int precision : new int[] {10, 12, 14}) {
+            for (long n : new long[] {10, 1_000, 100_000}) {
+                HyperLogLog sketch = new HyperLogLog(precision);
+                for (long id = 1; id <= n; id++) {
+                    sketch.add(id);
+                    sketch.add(id); // duplicates don't count
+                }
+                double error = Math.abs(sketch.estimate() - n) / (double) n;
+                assertTrue(error <= 3 * sketch.standardError(),
+                    "p=" + precision + " n=" + n + " estimate=" + sketch.estimate());
+            }
+        }
+    }
+
+    @Test
+    void testMergeEqualsUnionAndFoldEqualsDirect() {
+        HyperLogLog monday = new HyperLogLog(14);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        HyperLogLog both = new HyperLogLog(12);
+        for (long id = 0; id < 30_000; id++) {
+            monday.add(id);
+            both.add(id);
+        }
+        for (long id = 20_000; id < 50_000; id++) {
+            tuesday.add(id);
+            both.add(id);
+        }
+
+        HyperLogLog union = HyperLogLog.union(List.of(monday, tuesday), 12);
+        assertEquals(12, union.getPrecision());
+        assertArrayEquals(both.toBytes(), union.toBytes());
+
+        HyperLogLog direct = new HyperLogLog(12);
+        for (long id = 0; id < 30_000; id++) {
+            direct.add(id);
+        }
+        assertArrayEquals(direct.toBytes(), monday.fold(12).toBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> monday.merge(tuesday));
+    }
+
+    @Test
+    void testSerializationRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog(12);
+        for (long id = 1; id <= 40; id++) {
+            sparse.add(id);
+        }
+        byte[] small = sparse.toBytes();
+        assertTrue(small.length <= 1 + 40 * 3);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(small).estimate());
+        assertArrayEquals(small, HyperLogLog.fromBytes(small).toBytes());
+
+        HyperLogLog dense = new HyperLogLog(12);
+        for (long id = 1; id <= 20_000; id++) {
+            dense.add(id);
+        }
+        byte[] full = dense.toBytes();
+        assertEquals(1 + 4096, full.length);
+        assertArrayEquals(full, HyperLogLog.fromBytes(full).toBytes());
+
+        // Adding a customer already counted leaves the stored form alone
+        assertFalse(dense.add(7));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {(byte) 0x8C, 1}));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(20));
+    }
+}
@@ -0,0 +1,96 @@
+package com.localbook.Service;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.service.OpeningHoursService;
+import com.localbook.util.WeeklyHours;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Saved rows win over the page's JSON day by day, the bit set has exact minute
+ * boundaries, equal weeks are one instance, and JSON is parsed once per change.
+ */
+class OpeningHoursServiceTest {
+
+    // Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 3, 9, 0, 0);
+
+    @Test
+    void testRowsOverrideDisplayedHours() {
+        OpeningHoursService service = new OpeningHoursService();
+        Business business = business(1L,
+            "{\"Monday\":{\"open\":\"08:00\",\"close\":\"12:00\",\"enabled\":true},"
+                + "\"tuesday\":{\"openTime\":\"9:30\",\"closeTime\":\"00:00\",\"isClosed\":false},"
+                + "\"wednesday\":{\"open\":\"09:00\",\"close\":\"17:00\",\"enabled\":false}}");
+        WeeklyHours week = OpeningHoursService.compile(List.of(
+            new BusinessHours(1L, BusinessHours.DayOfWeek.MONDAY, true, LocalTime.of(13, 0), LocalTime.of(17, 30)),
+            new BusinessHours(1L, BusinessHours.DayOfWeek.SUNDAY, false, null, null)),
+            service.displayHours(business));
+
+        // Monday from the row, not the JSON
+        assertFalse(week.isOpenAt(MONDAY.withHour(9)));
+        assertFalse(week.isOpenAt(MONDAY.withHour(12).withMinute(59)));
+        assertTrue(week.isOpenAt(MONDAY.withHour(13)));
+        assertTrue(week.isOpenAt(MONDAY.withHour(17).withMinute(29)));
+        assertFalse(week.isOpenAt(MONDAY.withHour(17).withMinute(30)));
+        // Tuesday from the JSON, closing at midnight
+        assertFalse(week.isOpenAt(MONDAY.plusDays(1).withHour(9).withMinute(29)));
+        assertTrue(week.isOpenAt(MONDAY.plusDays(1).withHour(9).withMinute(30)));
+        assertTrue(week.isOpenAt(MONDAY.plusDays(1).withHour(23).withMinute(59)));
+        // Wednesday disabled, Thursday not listed
+        assertFalse(week.isOpenAt(MONDAY.plusDays(2).withHour(10)));
+        assertFalse(week.isOpenAt(MONDAY.plusDays(3).withHour(10)));
+    }
+
+    @Test
+    void testEqualWeeksAreOneInstance() {
+        WeeklyHours first = WeeklyHours.builder().open(0, 540, 1080).open(5, 600, 960).build();
+        WeeklyHours second = WeeklyHours.builder().open(5, 600, 960).open(0, 540, 1080).build();
+        assertSame(first, second);
+        assertNotSame(first, WeeklyHours.builder().open(0, 540, 1081).build());
+        // Closing at or before opening leaves the day shut
+        assertSame(WeeklyHours.CLOSED, WeeklyHours.builder().open(2, 600, 600).open(3, 700, 100).build());
+        assertThrows(IllegalArgumentException.class, () -> WeeklyHours.builder().open(7, 0, 60));
+
+        // The last minute of the week is Sunday 23:59
+        WeeklyHours always = WeeklyHours.builder().open(6, 0, WeeklyHours.MINUTES_PER_DAY).build();
+        assertTrue(always.isOpenAt(WeeklyHours.MINUTES_PER_WEEK - 1));
+        assertFalse(always.isOpenAt(WeeklyHours.MINUTES_PER_WEEK - WeeklyHours.MINUTES_PER_DAY - 1));
+    }
+
+    @Test
+    void testParsesOncePerChange() {
+        OpeningHoursService service = new OpeningHoursService();
+        Business business = business(1L, "{\"monday\":{\"open\":\"09:00\",\"close\":\"17:00\",\"enabled\":true}}");
+        Map<String, Map<String, Object>> first = service.displayHours(business);
+        assertEquals(Map.of("openTime", "09:00", "closeTime", "17:00", "isClosed", false), first.get("monday"));
+        assertSame(first, service.displayHours(business(1L, business.getOpeningHours())));
+
+        business.setOpeningHours("{\"monday\":{\"open\":\"10:00\",\"close\":\"17:00\",\"enabled\":true}}");
+        Map<String, Map<String, Object>> changed = service.displayHours(business);
+        assertNotSame(first, changed);
+        assertEquals("10:00", changed.get("monday").get("openTime"));
+        assertThrows(UnsupportedOperationException.class, () -> changed.remove("monday"));
+
+        // No hours or unreadable hours both show the default week
+        Map<String, Map<String, Object>> defaults = service.displayHours(business(2L, null));
+        assertSame(defaults, service.displayHours(business(3L, "not json")));
+        assertEquals(Boolean.TRUE, defaults.get("sunday").get("isClosed"));
+        WeeklyHours defaultWeek = OpeningHoursService.compile(List.of(), defaults);
+        assertTrue(defaultWeek.isOpenAt(MONDAY.plusDays(5).withHour(10)));
+        assertFalse(defaultWeek.isOpenAt(MONDAY.plusDays(6).withHour(10)));
+    }
+
+    private static Business business(Long id, String openingHours) {
+        Business business = new Business();
+        business.setId(id);
+        business.setOpeningHours(openingHours);
+        return business;
+    }
+}
@@ -0,0 +1,158 @@
+package com.localbook.Service;
+import com.localbook.dto.BenchmarkDTO;
+import com.localbook.dto.BenchmarkValueDTO;
+import com.localbook.dto.PeerBenchmarksDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.RatingRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.service.PeerBenchmarkService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PeerBenchmarkServiceTest {
+
+    private PeerBenchmarkService peerBenchmarkService;
+    private BusinessRepository businessRepository;
+    private ServiceRepository serviceRepository;
+    private RatingRepository ratingRepository;
+    private Business mine;
+    // Each business's mean service price, as the database would report it
+    private Map<Long, Double> means;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        serviceRepository = mock(ServiceRepository.class);
+        ratingRepository = mock(RatingRepository.class);
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        BusinessHoursRepository businessHoursRepository = mock(BusinessHoursRepository.class);
+
+        // Twenty Dublin barbers charging 10..29 (business 1 is ours), ten in Cork charging 50..59
+        List<BenchmarkValueDTO> peers = new ArrayList<>();
+        List<BenchmarkValueDTO> prices = new ArrayList<>();
+        means = new HashMap<>();
+        for (long id = 1; id <= 30; id++) {
+            String county = id <= 20 ? "Dublin" : "cork ";
+            peers.add(new BenchmarkValueDTO(id, "Barber", county));
+            prices.add(new BenchmarkValueDTO(id, "barber", county, id <= 20 ? 9.0 + id : 29.0 + id));
+            means.put(id, id <= 20 ? 9.0 + id : 29.0 + id);
+        }
+        peers.add(new BenchmarkValueDTO(99L, "Salon", "Dublin"));
+        prices.add(new BenchmarkValueDTO(99L, "Salon", "Dublin", 500.0));
+        // A listed Dublin barber with no prices yet
+        peers.add(new BenchmarkValueDTO(40L, "Barber", "Dublin"));
+
+        when(businessRepository.findBenchmarkPeers()).thenReturn(peers);
+        when(serviceRepository.findBenchmarkPrices()).thenReturn(prices);
+        when(serviceRepository.findBenchmarkPrices(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<BenchmarkValueDTO> rows = new ArrayList<>();
+            for (Long id : ids) {
+                if (means.containsKey(id)) {
+                    rows.add(new BenchmarkValueDTO(id, "Barber", "Dublin", means.get(id)));
+                }
+            }
+            return rows;
+        });
+        when(ratingRepository.findBenchmarkRatings()).thenReturn(List.of(
+            new BenchmarkValueDTO(2L, "Barber", "Dublin", 3.0),
+            new BenchmarkValueDTO(3L, "Barber", "Dublin", 5.0)));
+        when(appointmentRepository.sumBookedMinutes(any(), any(), any())).thenReturn(List.of());
+        when(businessHoursRepository.findAll()).thenReturn(List.of());
+
+        mine = new Business();
+        mine.setId(20L);
+        mine.setCategory("Barber");
+        mine.setCounty("Dublin");
+        when(businessRepository.findById(20L)).thenReturn(Optional.of(mine));
+        when(serviceRepository.findByBusiness_Id(20L)).thenReturn(List.of(service(27.0), service(29.0)));
+        when(ratingRepository.getAverageRatingByBusinessId(20L)).thenReturn(4.0);
+
+        peerBenchmarkService = new PeerBenchmarkService();
+        ReflectionTestUtils.setField(peerBenchmarkService, "businessRepository", businessRepository);
+        ReflectionTestUtils.setField(peerBenchmarkService, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(peerBenchmarkService, "ratingRepository", ratingRepository);
+        ReflectionTestUtils.setField(peerBenchmarkService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(peerBenchmarkService, "businessHoursRepository", businessHoursRepository);
+    }
+
+    @Test
+    void testCountyAndCategoryScopes() {
+        BenchmarkDTO county = metric(peerBenchmarkService.getBenchmarks(20L, null), "PRICE");
+        assertEquals(20, county.getPeers());
+        assertEquals(28.0, county.getValue());
+        assertEquals(19.5, county.getP50(), 0.5);
+        assertEquals(90.0, county.getPercentile(), 5.0);   // top 10-15% for price in Dublin
+
+        BenchmarkDTO category = metric(peerBenchmarkService.getBenchmarks(20L, "category"), "PRICE");
+        assertEquals(30, category.getPeers());
+        assertTrue(category.getPercentile() < county.getPercentile());
+        assertTrue(category.getP90() > 50);
+
+        BenchmarkDTO rating = metric(peerBenchmarkService.getBenchmarks(20L, null), "RATING");
+        assertEquals(2, rating.getPeers());
+        assertEquals(4.0, rating.getValue());
+
+        // Loaded once; both reads were served from memory
+        verify(serviceRepository, times(1)).findBenchmarkPrices();
+        assertThrows(IllegalArgumentException.class, () -> peerBenchmarkService.getBenchmarks(20L, "town"));
+    }
+
+    @Test
+    void testNewPricesStreamInAndStaleGroupsAreRebuilt() {
+        peerBenchmarkService.getBenchmarks(20L, null);
+
+        // A first price gives business 40 a mean, which joins the digest
+        means.put(40L, 35.0);
+        peerBenchmarkService.recordPriceAdded(business(40L), 35.0);
+        assertEquals(21, metric(peerBenchmarkService.getBenchmarks(20L, null), "PRICE").getPeers());
+        verify(serviceRepository, times(1)).findBenchmarkPrices(List.of(40L));
+
+        // Each change replaces business 20's mean; past the stale share the group is rebuilt
+        for (double mean = 30.0; mean <= 32.0; mean++) {
+            means.put(20L, mean);
+            peerBenchmarkService.recordPriceChanged(mine, mean - 1, mean);
+        }
+        // Without the rebuild the three replaced means would still count as peers
+        assertEquals(21, metric(peerBenchmarkService.getBenchmarks(20L, null), "PRICE").getPeers());
+        verify(serviceRepository, times(5)).findBenchmarkPrices(anyCollection());
+
+        // Unlisted businesses are left alone
+        peerBenchmarkService.recordPriceAdded(business(500L), 1.0);
+        assertEquals(21, metric(peerBenchmarkService.getBenchmarks(20L, null), "PRICE").getPeers());
+        verify(serviceRepository, times(5)).findBenchmarkPrices(anyCollection());
+    }
+
+    private static Business business(long id) {
+        Business business = new Business();
+        business.setId(id);
+        business.setCategory("Barber");
+        business.setCounty("Dublin");
+        return business;
+    }
+
+    private static BenchmarkDTO metric(PeerBenchmarksDTO benchmarks, String name) {
+        return benchmarks.getBenchmarks().stream().filter(b -> b.getMetric().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static com.localbook.model.Service service(double price) {
+        com.localbook.model.Service service = new com.localbook.model.Service();
+        service.setPrice(price);
+        return service;
+    }
+}
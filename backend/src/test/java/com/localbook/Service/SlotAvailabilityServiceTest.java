@@ -0,0 +1,149 @@
+package com.localbook.Service;
+import com.localbook.dto.SlotAvailabilityDTO;
+import com.localbook.model.Appointment;
+import com.localbook.model.AppointmentStatus;
+import com.localbook.model.Business;
+import com.localbook.model.BusinessHours;
+import com.localbook.model.Service;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.AppointmentSeriesRepository;
+import com.localbook.repository.BusinessHoursRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.service.SlotAvailabilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Free and booked slots from opening hours and bookings, per-slot booking
+ * counts, and the limits on what gets loaded and cached.
+ */
+class SlotAvailabilityServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    private SlotAvailabilityService slotAvailabilityService;
+    private AppointmentRepository appointmentRepository;
+    private BusinessRepository businessRepository;
+    private List<Appointment> bookings;
+
+    @BeforeEach
+    void setUp() {
+        bookings = new ArrayList<>();
+        appointmentRepository = mock(AppointmentRepository.class, withSettings().stubOnly());
+        when(appointmentRepository.findByBusinessIdAndStatusAndAppointmentDateTimeBetween(
+                eq(2L), eq(AppointmentStatus.CONFIRMED), any(), any()))
+            .thenAnswer(invocation -> bookings);
+
+        // Open 09:00-13:00 every day
+        BusinessHoursRepository businessHoursRepository = mock(BusinessHoursRepository.class, withSettings().stubOnly());
+        when(businessHoursRepository.findByBusinessIdAndDayOfWeek(anyLong(), any())).thenAnswer(invocation ->
+            new BusinessHours(invocation.getArgument(0), invocation.getArgument(1), true, LocalTime.of(9, 0), LocalTime.of(13, 0)));
+
+        businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.existsById(2L)).thenReturn(true);
+
+        slotAvailabilityService = new SlotAvailabilityService();
+        ReflectionTestUtils.setField(slotAvailabilityService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(slotAvailabilityService, "businessHoursRepository", businessHoursRepository);
+        ReflectionTestUtils.setField(slotAvailabilityService, "appointmentSeriesRepository", mock(AppointmentSeriesRepository.class));
+        ReflectionTestUtils.setField(slotAvailabilityService, "businessRepository", businessRepository);
+    }
+
+    @Test
+    void testAvailabilityFollowsHoursAndBookingLength() {
+        // 45 minutes rounds up to two slots; the late booking is clipped at midnight
+        bookings.add(appointment(DAY.atTime(10, 0), 45));
+        bookings.add(appointment(DAY.atTime(12, 0), 30));
+        bookings.add(appointment(DAY.atTime(23, 30), 90));
+
+        SlotAvailabilityDTO half = slotAvailabilityService.getAvailability(2L, DAY, 30);
+        assertEquals(List.of("09:00", "09:30", "11:00", "11:30", "12:30"), half.getFreeSlots());
+        // Bookings outside opening hours still show as booked
+        assertEquals(List.of("10:00", "10:30", "12:00", "23:30"), half.getBookedSlots());
+
+        // An hour only fits where two free slots follow each other before closing
+        assertEquals(List.of("09:00", "11:00"), slotAvailabilityService.getAvailability(2L, DAY, 60).getFreeSlots());
+        assertEquals(List.of(), slotAvailabilityService.getAvailability(2L, DAY, 300).getFreeSlots());
+    }
+
+    @Test
+    void testSlotStaysBookedUntilEveryHolderReleases() {
+        // Two bookings on the same slot (from before slot claims existed)
+        bookings.add(appointment(DAY.atTime(10, 0), 30));
+        bookings.add(appointment(DAY.atTime(10, 0), 60));
+        assertEquals(List.of("10:00", "10:30"), slotAvailabilityService.getBookedSlots(2L, DAY));
+
+        // No transaction here, so changes apply at once
+        slotAvailabilityService.release(2L, DAY.atTime(10, 0), 60);
+        assertEquals(List.of("10:00"), slotAvailabilityService.getBookedSlots(2L, DAY));
+        assertNull(slotAvailabilityService.freeRunAround(2L, DAY.atTime(10, 0), 30, false));
+
+        slotAvailabilityService.release(2L, DAY.atTime(10, 0), 30);
+        assertEquals(List.of(), slotAvailabilityService.getBookedSlots(2L, DAY));
+        // Releasing again doesn't go below zero
+        slotAvailabilityService.release(2L, DAY.atTime(10, 0), 30);
+        slotAvailabilityService.occupy(appointment(DAY.atTime(10, 0), 30));
+        assertEquals(List.of("10:00"), slotAvailabilityService.getBookedSlots(2L, DAY));
+
+        // Cancelling it frees the whole morning around it
+        assertArrayEquals(new int[]{18, 26}, slotAvailabilityService.freeRunAround(2L, DAY.atTime(10, 0), 30, true));
+    }
+
+    @Test
+    void testRejectsUnknownBusinessesAndFarDates() {
+        assertThrows(IllegalArgumentException.class, () -> slotAvailabilityService.getAvailability(9L, DAY, 30));
+        assertThrows(IllegalArgumentException.class, () -> slotAvailabilityService.getAvailability(9L, DAY, 30));
+        // Nothing cached for it, so it is looked up again
+        verify(businessRepository, times(2)).existsById(9L);
+
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> slotAvailabilityService.getBookedSlots(2L, today.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> slotAvailabilityService.getBookedSlots(2L, today.plusDays(SlotAvailabilityService.MAX_DAYS_AHEAD + 1)));
+        assertDoesNotThrow(() -> slotAvailabilityService.getBookedSlots(2L, today.plusDays(SlotAvailabilityService.MAX_DAYS_AHEAD)));
+
+        // Searching past the horizon stops at it
+        assertNull(slotAvailabilityService.earliestFree(2L, today.plusDays(SlotAvailabilityService.MAX_DAYS_AHEAD + 1).atStartOfDay(),
+            today.plusDays(SlotAvailabilityService.MAX_DAYS_AHEAD + 30).atStartOfDay(), 30));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        when(businessRepository.existsById(anyLong())).thenReturn(true);
+        int perBusiness = SlotAvailabilityService.MAX_DAYS_AHEAD;
+        int businesses = SlotAvailabilityService.MAX_CACHED_DAYS / perBusiness + 2;
+        LocalDate today = LocalDate.now();
+        for (long businessId = 100; businessId < 100 + businesses; businessId++) {
+            for (int d = 0; d < perBusiness; d++) {
+                slotAvailabilityService.getBookedSlots(businessId, today.plusDays(d));
+            }
+        }
+
+        Map<?, ?> days = (Map<?, ?>) ReflectionTestUtils.getField(slotAvailabilityService, "days");
+        assertEquals(SlotAvailabilityService.MAX_CACHED_DAYS, days.size());
+    }
+
+    private static Appointment appointment(LocalDateTime start, int durationMinutes) {
+        Business business = new Business();
+        business.setId(2L);
+        Service service = new Service();
+        service.setDurationMinutes(durationMinutes);
+        Appointment appointment = new Appointment();
+        appointment.setBusiness(business);
+        appointment.setService(service);
+        appointment.setAppointmentDateTime(start);
+        return appointment;
+    }
+}
@@ -0,0 +1,84 @@
+package com.localbook.Service;
+import com.localbook.util.TDigest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Quantiles stay within a small rank error of the exact ones, most of all in the
+ * tails, and a merged digest answers like one fed every value.
+ */
+class TDigestTest {
+
+    @Test
+    void testQuantilesCloseToExact() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            // Skewed like prices: many cheap services, a long expensive tail
+            values[i] = Math.exp(3 + random.nextGaussian());
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, digest.size());
+        for (double q : new double[] {0.01, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            double estimate = digest.quantile(q);
+            double rank = rankOf(values, estimate);
+            assertEquals(q, rank, q < 0.05 || q > 0.95 ? 0.002 : 0.01, "q=" + q);
+            assertEquals(q, digest.cdf(values[(int) (q * values.length)]), 0.01, "cdf at q=" + q);
+        }
+        assertEquals(values[0], digest.quantile(0), 1e-9);
+        assertEquals(values[values.length - 1], digest.quantile(1), 1e-9);
+        assertEquals(0.0, digest.cdf(values[0] - 1));
+        assertEquals(1.0, digest.cdf(values[values.length - 1]));
+    }
+
+    @Test
+    void testMergeMatchesSingleDigest() {
+        Random random = new Random(7);
+        TDigest all = new TDigest();
+        TDigest merged = new TDigest();
+        for (int part = 0; part < 10; part++) {
+            TDigest county = new TDigest();
+            for (int i = 0; i < 5_000; i++) {
+                double value = part * 10 + random.nextDouble() * 50;
+                county.add(value);
+                all.add(value);
+            }
+            merged.merge(county);
+        }
+
+        assertEquals(all.size(), merged.size());
+        for (double q : new double[] {0.25, 0.5, 0.75, 0.9}) {
+            assertEquals(all.quantile(q), merged.quantile(q), 0.5, "q=" + q);
+        }
+    }
+
+    @Test
+    void testSmallAndEmptyDigests() {
+        TDigest digest = new TDigest();
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertTrue(Double.isNaN(digest.cdf(1)));
+
+        digest.add(4.0);
+        assertEquals(4.0, digest.quantile(0.9));
+
+        for (double rating : new double[] {3.0, 4.5, 5.0, 5.0}) {
+            digest.add(rating);
+        }
+        assertEquals(4.5, digest.quantile(0.5), 1e-9);
+        assertEquals(1.0, digest.cdf(5.0));
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> digest.add(Double.NaN));
+    }
+
+    private static double rankOf(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+}
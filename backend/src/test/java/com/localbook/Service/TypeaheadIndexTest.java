@@ -0,0 +1,274 @@
+package com.localbook.Service;
+import com.localbook.dto.BusinessTotalDTO;
+import com.localbook.dto.NamedCountDTO;
+import com.localbook.dto.ServiceNameDTO;
+import com.localbook.dto.SuggestionDTO;
+import com.localbook.model.Business;
+import com.localbook.repository.AppointmentRepository;
+import com.localbook.repository.BusinessRepository;
+import com.localbook.repository.ServiceRepository;
+import com.localbook.service.TypeaheadIndex;
+import com.localbook.util.SearchText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TypeaheadIndexTest {
+
+    // The generated catalogue: a few thousand rows for the brute-force check, more for timing
+    private static final int CATALOGUE = 3_000;
+    private static final int BENCHMARK_CATALOGUE = 100_000;
+    private static final String[] PREFIXES = {"c", "ca", "carl", "k", "kate", "kates c", "h", "hair", "m", "ma",
+        "sports", "t", "tullow", "s", "sean", "seans spa", "b", "ba", "z", "a", "n", "p", "physio s", word(777)};
+
+    private TypeaheadIndex index;
+    private BusinessRepository businessRepository;
+    private ServiceRepository serviceRepository;
+    private AppointmentRepository appointmentRepository;
+
+    private List<Business> many;
+    private List<ServiceNameDTO> services;
+    private Map<Long, Long> bookingsOf;
+    private Map<String, Long> serviceBookings;
+
+    @BeforeEach
+    void setUp() {
+        businessRepository = mock(BusinessRepository.class);
+        serviceRepository = mock(ServiceRepository.class);
+        appointmentRepository = mock(AppointmentRepository.class);
+
+        when(businessRepository.findAll()).thenReturn(List.of(
+            business(1L, "Kate's Cuts", "Carlow", true),
+            business(2L, "Cutting Edge Barbers", "Carlow", true),
+            business(3L, "Carlow Physio", "Tullow", true),
+            business(4L, "Cuts R Us", "Carlow", false),
+            business(5L, "Seán's Spa", "Kilkenny", true)));
+        when(serviceRepository.findAllNames()).thenReturn(List.of(
+            new ServiceNameDTO(10L, 1L, "Haircut"),
+            new ServiceNameDTO(11L, 2L, "Haircut"),
+            new ServiceNameDTO(12L, 2L, "Beard Trim"),
+            new ServiceNameDTO(13L, 4L, "Cut and Colour"),
+            new ServiceNameDTO(14L, 5L, "Massage")));
+        when(appointmentRepository.countBookingsByBusiness()).thenReturn(List.of(
+            new BusinessTotalDTO(1L, 5L), new BusinessTotalDTO(2L, 9L), new BusinessTotalDTO(3L, 2L),
+            new BusinessTotalDTO(4L, 7L)));
+        when(appointmentRepository.countBookingsByServiceName()).thenReturn(List.of(
+            new NamedCountDTO("Haircut", 11L), new NamedCountDTO("haircut", 1L),
+            new NamedCountDTO("Beard Trim", 3L), new NamedCountDTO("Cut and Colour", 7L)));
+
+        index = new TypeaheadIndex();
+        ReflectionTestUtils.setField(index, "businessRepository", businessRepository);
+        ReflectionTestUtils.setField(index, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(index, "appointmentRepository", appointmentRepository);
+    }
+
+    @Test
+    void testSuggestsByPrefixMostBookedFirst() {
+        // Any word of the name; unlisted businesses and what only they offer are left out
+        assertEquals(List.of("BUSINESS Cutting Edge Barbers 9", "BUSINESS Kate's Cuts 5"), texts(index.suggest("cu", null)));
+        assertEquals(List.of("TOWN Carlow 14", "BUSINESS Carlow Physio 2"), texts(index.suggest("carl", null)));
+        assertEquals(List.of("BUSINESS Kate's Cuts 5"), texts(index.suggest("KATE'S  c", null)));
+        assertEquals(List.of("SERVICE Haircut 12"), texts(index.suggest("hair", null)));
+        assertEquals(List.of("BUSINESS Seán's Spa 0"), texts(index.suggest("sean", null)));
+        assertEquals(1L, index.suggest("kates", null).get(0).getBusinessId());
+        assertNull(index.suggest("hair", null).get(0).getBusinessId());
+
+        assertEquals(1, index.suggest("c", 1).size());
+        assertEquals(List.of(), index.suggest("  ", null));
+        assertEquals(List.of(), index.suggest("zz", null));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("c", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("c", TypeaheadIndex.MAX_LIMIT + 1));
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testChangesApplyWithoutReloading() {
+        index.rebuild();
+
+        index.recordSaved(business(4L, "Cuts R Us", "Carlow", true));      // approved, keeps its 7 bookings
+        assertEquals(List.of("BUSINESS Cutting Edge Barbers 9", "SERVICE Cut and Colour 7", "BUSINESS Cuts R Us 7",
+            "BUSINESS Kate's Cuts 5"), texts(index.suggest("cu", null)));
+        assertEquals(List.of("TOWN Carlow 21"), texts(index.suggest("carlo", null)).subList(0, 1));
+
+        for (int i = 0; i < 5; i++) {
+            index.recordBooked(1L, "Haircut");
+        }
+        assertEquals("BUSINESS Kate's Cuts 10", texts(index.suggest("cu", null)).get(0));
+        assertEquals(List.of("SERVICE Haircut 17"), texts(index.suggest("hair", null)));
+        assertEquals("TOWN Carlow 26", texts(index.suggest("carlo", null)).get(0));
+
+        // A service name goes with the last listed business offering it
+        index.recordServiceDeleted(10L);
+        assertEquals(List.of("SERVICE Haircut 17"), texts(index.suggest("hair", null)));
+        index.recordServiceDeleted(11L);
+        assertEquals(List.of(), index.suggest("hair", null));
+        index.recordServiceSaved(12L, 2L, "Beard Trim & Shape");
+        assertEquals(List.of("SERVICE Beard Trim & Shape 0"), texts(index.suggest("beard", null)));
+        assertEquals(List.of("SERVICE Beard Trim & Shape 0"), texts(index.suggest("shape", null)));
+
+        index.recordDeleted(2L);
+        assertEquals(List.of(), index.suggest("beard", null));
+        assertEquals(List.of("BUSINESS Kate's Cuts 10", "SERVICE Cut and Colour 7", "BUSINESS Cuts R Us 7"),
+            texts(index.suggest("cu", null)));
+
+        index.recordSaved(business(3L, "Physio Plus", "Tullow", true));    // renamed
+        assertEquals(List.of("TOWN Carlow 17"), texts(index.suggest("carl", null)));
+        index.recordSaved(business(5L, "Seán's Spa", "Kilkenny", false));  // suspended
+        assertEquals(List.of(), index.suggest("massage", null));
+        assertEquals(List.of(), index.suggest("kilk", null));
+
+        verify(businessRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(25);
+        loadCatalogue(CATALOGUE, random);
+
+        // Some bookings and approvals after the load
+        for (int i = 0; i < 200; i++) {
+            long id = 1 + random.nextInt(CATALOGUE);
+            index.recordBooked(id, "Haircut");
+            bookingsOf.merge(id, 1L, Long::sum);
+            serviceBookings.merge("haircut", 1L, Long::sum);
+        }
+        for (int i = 0; i < 200; i++) {
+            Business business = many.get(random.nextInt(CATALOGUE));
+            business.setIsApproved(!business.getIsApproved());
+            index.recordSaved(business);
+        }
+
+        for (String prefix : PREFIXES) {
+            List<String> expected = bruteForce(many, services, bookingsOf, serviceBookings, prefix);
+            List<String> found = index.suggest(prefix, TypeaheadIndex.MAX_LIMIT).stream()
+                .map(s -> s.getType() + " " + SearchText.normalize(s.getText()) + " " + s.getPopularity())
+                .collect(Collectors.toList());
+            assertEquals(expected, found, "prefix " + prefix);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testSuggestLatencyAtScale() {
+        loadCatalogue(BENCHMARK_CATALOGUE, new Random(25));
+
+        long[] samples = new long[1000];
+        for (int i = 0; i < 2000 + samples.length; i++) {
+            String prefix = PREFIXES[i % PREFIXES.length];
+            long started = System.nanoTime();
+            index.suggest(prefix, TypeaheadIndex.DEFAULT_LIMIT);
+            if (i >= 2000) {
+                samples[i - 2000] = System.nanoTime() - started;
+            }
+        }
+        Arrays.sort(samples);
+        double medianMicros = samples[samples.length / 2] / 1000.0;
+        // Loose bound so a slow build machine doesn't fail it
+        assertTrue(medianMicros < 5000, "typeahead median " + medianMicros + " us");
+    }
+
+    // n businesses with one to three services each and random booking counts, loaded into the index
+    private void loadCatalogue(int n, Random random) {
+        String[] firsts = {"Kate", "Sean", "Aoife", "Ciara", "Niamh", "Conor", "Darragh", "Roisin", "Eoin", "Grainne"};
+        String[] seconds = {"Cuts", "Barbers", "Beauty", "Physio", "Nails", "Spa", "Studio", "Clinic", "Fitness", "Tattoo"};
+        String[] towns = {"Carlow", "Tullow", "Bagenalstown", "Kilkenny", "Callan", "Castlecomer", "Athy", "Naas",
+            "Newbridge", "Kildare", "Portlaoise", "Tinahely"};
+        String[] serviceNames = {"Haircut", "Hair Colour", "Beard Trim", "Massage", "Manicure", "Pedicure",
+            "Physio Session", "Sports Massage", "Facial", "Cut and Blow Dry", "Personal Training", "Tattoo Consult"};
+        many = new ArrayList<>();
+        services = new ArrayList<>();
+        bookingsOf = new HashMap<>();
+        List<BusinessTotalDTO> bookings = new ArrayList<>();
+        for (long id = 1; id <= n; id++) {
+            // A made-up last word keeps names apart, so ties only fall between different names
+            String name = firsts[random.nextInt(firsts.length)] + "'s " + seconds[random.nextInt(seconds.length)]
+                + " " + word(id);
+            many.add(business(id, name, towns[random.nextInt(towns.length)], random.nextInt(10) > 0));
+            for (int s = random.nextInt(3); s >= 0; s--) {
+                services.add(new ServiceNameDTO(id * 10 + s, id, serviceNames[random.nextInt(serviceNames.length)]));
+            }
+            long booked = random.nextInt(500);
+            bookings.add(new BusinessTotalDTO(id, booked));
+            bookingsOf.put(id, booked);
+        }
+        serviceBookings = new HashMap<>();
+        for (int s = 0; s < serviceNames.length; s++) {
+            serviceBookings.put(SearchText.normalize(serviceNames[s]), 1000L + 37L * s);
+        }
+        when(businessRepository.findAll()).thenReturn(many);
+        when(serviceRepository.findAllNames()).thenReturn(services);
+        when(appointmentRepository.countBookingsByBusiness()).thenReturn(bookings);
+        when(appointmentRepository.countBookingsByServiceName()).thenReturn(serviceBookings.entrySet().stream()
+            .map(e -> new NamedCountDTO(e.getKey(), e.getValue())).collect(Collectors.toList()));
+        index.rebuild();
+    }
+
+    private static List<String> bruteForce(List<Business> businesses, List<ServiceNameDTO> services,
+                                           Map<Long, Long> bookingsOf, Map<String, Long> serviceBookings,
+                                           String prefix) {
+        Map<String, Long> candidates = new HashMap<>();
+        Map<Long, Boolean> listed = new HashMap<>();
+        for (Business business : businesses) {
+            boolean isListed = business.getIsApproved();
+            listed.put(business.getId(), isListed);
+            if (isListed) {
+                long booked = bookingsOf.get(business.getId());
+                candidates.put("BUSINESS " + SearchText.normalize(business.getBusinessName()), booked);
+                candidates.merge("TOWN " + SearchText.normalize(business.getTown()), booked, Long::sum);
+            }
+        }
+        for (ServiceNameDTO service : services) {
+            if (listed.get(service.getBusinessId())) {
+                String key = SearchText.normalize(service.getServiceName());
+                candidates.put("SERVICE " + key, serviceBookings.getOrDefault(key, 0L));
+            }
+        }
+        return candidates.entrySet().stream()
+            .filter(c -> {
+                String text = c.getKey().substring(c.getKey().indexOf(' ') + 1);
+                return text.startsWith(prefix) || text.contains(" " + prefix);
+            })
+            .sorted(Comparator.comparing((Map.Entry<String, Long> c) -> -c.getValue())
+                .thenComparing(c -> c.getKey().substring(c.getKey().indexOf(' ') + 1)))
+            .limit(TypeaheadIndex.MAX_LIMIT)
+            .map(c -> c.getKey() + " " + c.getValue())
+            .collect(Collectors.toList());
+    }
+
+    // Letters only, so it doesn't run into the numbers
+    private static String word(long id) {
+        StringBuilder word = new StringBuilder();
+        for (long rest = id; rest > 0; rest /= 26) {
+            word.append((char) ('a' + rest % 26));
+        }
+        return word.append("x").toString();
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream()
+            .map(s -> s.getType() + " " + s.getText() + " " + s.getPopularity())
+            .collect(Collectors.toList());
+    }
+
+    private static Business business(Long id, String name, String town, boolean approved) {
+        Business business = new Business();
+        business.setId(id);
+        business.setBusinessName(name);
+        business.setTown(town);
+        business.setIsApproved(approved);
+        return business;
+    }
+}
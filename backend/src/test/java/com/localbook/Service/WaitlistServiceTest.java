@@ -0,0 +1,146 @@
+package com.localbook.Service;
+import com.localbook.model.WaitlistEntry;
+import com.localbook.model.WaitlistStatus;
+import com.localbook.repository.PushTokenRepository;
+import com.localbook.repository.UserNotificationSettingsRepository;
+import com.localbook.repository.WaitlistEntryRepository;
+import com.localbook.service.ExpoPushService;
+import com.localbook.service.SlotAvailabilityService;
+import com.localbook.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceTest {
+
+    private static final Long BUSINESS_ID = 2L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    private WaitlistService waitlistService;
+    private WaitlistEntryRepository waitlistEntryRepository;
+    private SlotAvailabilityService slotAvailabilityService;
+    private ExpoPushService expoPushService;
+
+    // Stands in for the waitlist_entries table
+    private Map<Long, WaitlistEntry> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new HashMap<>();
+        waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+        slotAvailabilityService = mock(SlotAvailabilityService.class);
+        expoPushService = mock(ExpoPushService.class);
+
+        when(waitlistEntryRepository.findByBusinessIdAndWaitDateAndStatus(eq(BUSINESS_ID), eq(DAY), eq(WaitlistStatus.WAITING)))
+            .thenAnswer(invocation -> new ArrayList<>(table.values()));
+        when(waitlistEntryRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<WaitlistEntry> found = new ArrayList<>();
+            for (Long id : ids) {
+                found.add(table.get(id));
+            }
+            return found;
+        });
+
+        waitlistService = new WaitlistService();
+        ReflectionTestUtils.setField(waitlistService, "waitlistEntryRepository", waitlistEntryRepository);
+        ReflectionTestUtils.setField(waitlistService, "slotAvailabilityService", slotAvailabilityService);
+        ReflectionTestUtils.setField(waitlistService, "expoPushService", expoPushService);
+        ReflectionTestUtils.setField(waitlistService, "pushTokenRepository", mock(PushTokenRepository.class));
+        ReflectionTestUtils.setField(waitlistService, "settingsRepository", mock(UserNotificationSettingsRepository.class));
+    }
+
+    @Test
+    void testOffersLongestWaitingCustomerWhoseServiceFits() {
+        WaitlistEntry tooLong = entry(1L, 90, 0);
+        WaitlistEntry fits = entry(2L, 60, 1);
+        WaitlistEntry alsoFits = entry(3L, 30, 2);
+
+        // 10:00 cancelled, 10:00-11:00 is the free run around it
+        when(slotAvailabilityService.freeRunAround(eq(BUSINESS_ID), any(), anyInt(), eq(true))).thenReturn(new int[]{20, 22});
+
+        waitlistService.offerFreedSlot(BUSINESS_ID, DAY.atTime(10, 0), 60);
+
+        assertEquals(WaitlistStatus.WAITING, tooLong.getStatus());
+        assertEquals(WaitlistStatus.OFFERED, fits.getStatus());
+        assertEquals(DAY.atTime(10, 0), fits.getOfferedStart());
+        assertEquals(WaitlistStatus.WAITING, alsoFits.getStatus());
+        verify(expoPushService, times(1)).sendBatch(anyList());
+    }
+
+    @Test
+    void testFreedRunIsSplitBetweenSeveralShortBookings() {
+        WaitlistEntry first = entry(1L, 30, 0);
+        WaitlistEntry second = entry(2L, 30, 1);
+        WaitlistEntry third = entry(3L, 30, 2);
+
+        when(slotAvailabilityService.freeRunAround(eq(BUSINESS_ID), any(), anyInt(), eq(true))).thenReturn(new int[]{20, 22});
+
+        waitlistService.offerFreedSlot(BUSINESS_ID, DAY.atTime(10, 0), 60);
+
+        assertEquals(DAY.atTime(10, 0), first.getOfferedStart());
+        assertEquals(DAY.atTime(10, 30), second.getOfferedStart());
+        assertEquals(WaitlistStatus.WAITING, third.getStatus());
+
+        // Already offered customers are not offered the next freed slot again
+        waitlistService.offerFreedSlot(BUSINESS_ID, DAY.atTime(10, 0), 60);
+        assertEquals(DAY.atTime(10, 0), third.getOfferedStart());
+    }
+
+    @Test
+    void testQueueLoadedOnceWithThousandsWaiting() {
+        Random random = new Random(11);
+        for (long id = 1; id <= 5000; id++) {
+            entry(id, 30 * (1 + random.nextInt(6)), (int) id);
+        }
+        when(slotAvailabilityService.freeRunAround(eq(BUSINESS_ID), any(), anyInt(), eq(true)))
+            .thenAnswer(invocation -> {
+                LocalDateTime start = invocation.getArgument(1);
+                int from = start.getHour() * 2;
+                return new int[]{from, from + 2};
+            });
+
+        for (int i = 0; i < 1000; i++) {
+            waitlistService.offerFreedSlot(BUSINESS_ID, DAY.atTime(9 + i % 9, 0), 60);
+        }
+
+        // Queue was rebuilt from the table once, not per cancellation
+        verify(waitlistEntryRepository, times(1)).findByBusinessIdAndWaitDateAndStatus(any(), any(), any());
+
+        long offered = table.values().stream().filter(e -> e.getStatus() == WaitlistStatus.OFFERED).count();
+        assertTrue(offered > 1000);
+    }
+
+    @Test
+    void testNothingOfferedWhenFreedTimeIsOutsideOpeningHours() {
+        entry(1L, 30, 0);
+        when(slotAvailabilityService.freeRunAround(anyLong(), any(), anyInt(), anyBoolean())).thenReturn(null);
+
+        waitlistService.offerFreedSlot(BUSINESS_ID, DAY.atTime(22, 0), 30);
+
+        verify(waitlistEntryRepository, never()).saveAll(anyIterable());
+        verifyNoInteractions(expoPushService);
+    }
+
+    private WaitlistEntry entry(Long id, int durationMinutes, int joinedMinutesAgo) {
+        WaitlistEntry entry = new WaitlistEntry(100 + id, BUSINESS_ID, 3L, DAY, durationMinutes);
+        entry.setId(id);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(LocalDateTime.of(2030, 1, 1, 0, 0).plusMinutes(joinedMinutesAgo));
+        table.put(id, entry);
+        return entry;
+    }
+}
@@ -27,180 +27,50 @@ const Reports = () => {
     fetchAnalyticsData();
   }, [timeframe]);
 
-  const isInCarlow = (business) => {
-    const town = (business.town || "").toLowerCase();
-    const location = (business.location || "").toLowerCase();
-    const address = (business.address || "").toLowerCase();
-    const eircode = (business.eircode || "").toUpperCase();
-
-    return (
-      town === "carlow" ||
-      location.includes("carlow") ||
-      address.includes("carlow") ||
-      eircode.startsWith("R93")
-    );
-  };
-
   const fetchAnalyticsData = async () => {
     try {
       setLoading(true);
       setError(null);
 
-      const [businesses, bookings, users] = await Promise.all([
-        api.get("/businesses"),
-        api.get("/appointments"),
-        api.get("/users"),
-      ]);
-
-      const allBusinesses = businesses.data || [];
-      const allBookings = bookings.data || [];
-      const allUsers = users.data || [];
-
-      // Time calculations
-      const now = new Date();
-      const startDate = new Date();
-      const previousPeriodStart = new Date();
-      const previousPeriodEnd = new Date();
-
-      if (timeframe === "WEEK") {
-        startDate.setDate(now.getDate() - 7);
-        previousPeriodStart.setDate(now.getDate() - 14);
-        previousPeriodEnd.setDate(now.getDate() - 7);
-      } else if (timeframe === "MONTH") {
-        startDate.setMonth(now.getMonth() - 1);
-        previousPeriodStart.setMonth(now.getMonth() - 2);
-        previousPeriodEnd.setMonth(now.getMonth() - 1);
-      } else if (timeframe === "YEAR") {
-        startDate.setFullYear(now.getFullYear() - 1);
-        previousPeriodStart.setFullYear(now.getFullYear() - 2);
-        previousPeriodEnd.setFullYear(now.getFullYear() - 1);
-      } else {
-        // ALL TIME
-        startDate.setFullYear(2000);
-        previousPeriodStart.setFullYear(2000);
-        previousPeriodEnd.setFullYear(2000);
-      }
-
-      // Filter data by timeframe
-      const periodBookings = allBookings.filter((b) => {
-        const date = new Date(b.appointmentDate || b.date || b.createdAt);
-        return date >= startDate && date <= now;
-      });
-
-      const previousBookings = allBookings.filter((b) => {
-        const date = new Date(b.appointmentDate || b.date || b.createdAt);
-        return date >= previousPeriodStart && date <= previousPeriodEnd;
-      });
-
-      // Carlow business analysis
-      const carlowBusinesses = allBusinesses.filter((b) => isInCarlow(b));
-      const nonCarlowBusinesses = allBusinesses.filter((b) => !isInCarlow(b));
-
-      // Business status counts
-      const activeBusinesses = allBusinesses.filter(
-        (b) => b.status === "ACTIVE" || b.isApproved === true
-      ).length;
-      const pendingBusinesses = allBusinesses.filter(
-        (b) => b.status === "PENDING" || b.isApproved === false
-      ).length;
-
-      // New businesses in period
-      const newBusinesses = allBusinesses.filter((b) => {
-        const date = new Date(b.createdAt || b.registrationDate);
-        return date >= startDate && date <= now;
-      }).length;
-
-      const previousNewBusinesses = allBusinesses.filter((b) => {
-        const date = new Date(b.createdAt || b.registrationDate);
-        return date >= previousPeriodStart && date <= previousPeriodEnd;
-      }).length;
-
-      // New clients in period
-      const newClients = allUsers.filter((u) => {
-        const date = new Date(u.createdAt);
-        return u.role === "CLIENT" && date >= startDate && date <= now;
-      }).length;
-
-      const previousNewClients = allUsers.filter((u) => {
-        const date = new Date(u.createdAt);
-        return (
-          u.role === "CLIENT" &&
-          date >= previousPeriodStart &&
-          date <= previousPeriodEnd
-        );
-      }).length;
-
-      // Calculate growth rates
-      const businessGrowth =
-        previousNewBusinesses > 0
-          ? ((newBusinesses - previousNewBusinesses) / previousNewBusinesses) *
-            100
-          : newBusinesses > 0
-          ? 100
-          : 0;
-
-      const clientGrowth =
-        previousNewClients > 0
-          ? ((newClients - previousNewClients) / previousNewClients) * 100
-          : newClients > 0
-          ? 100
-          : 0;
-
-      const bookingGrowth =
-        previousBookings.length > 0
-          ? ((periodBookings.length - previousBookings.length) /
-              previousBookings.length) *
-            100
-          : periodBookings.length > 0
-          ? 100
-          : 0;
-
-      // Popular categories
-      const categoryCount = {};
-      allBusinesses.forEach((b) => {
-        const category = b.category || "Other";
-        categoryCount[category] = (categoryCount[category] || 0) + 1;
-      });
-
-      const popularCategories = Object.entries(categoryCount)
-        .map(([name, count]) => ({
-          name,
-          businesses: count,
-          percentage: ((count / allBusinesses.length) * 100).toFixed(1),
-        }))
-        .sort((a, b) => b.businesses - a.businesses)
-        .slice(0, 6);
-
-      // Carlow towns distribution - FIXED: Normalize town names
-      const townCount = {};
-      carlowBusinesses.forEach((b) => {
-        // Normalize town name (capitalize first letter)
-        let town = (b.town || b.location || "Unknown").trim();
-        town = town.charAt(0).toUpperCase() + town.slice(1).toLowerCase();
-        townCount[town] = (townCount[town] || 0) + 1;
+      // Aggregated on the server: a few KB however big the platform gets
+      const response = await api.get("/admin/analytics/overview", {
+        params: { timeframe },
       });
-
-      const carlowTowns = Object.entries(townCount)
-        .map(([town, businesses]) => ({
-          town,
-          businesses,
-          percentage: ((businesses / carlowBusinesses.length) * 100).toFixed(1),
-        }))
-        .sort((a, b) => b.businesses - a.businesses);
+      const overview = response.data;
+
+      const popularCategories = (overview.popularCategories || []).map(
+        (category) => ({
+          name: category.name,
+          businesses: category.count,
+          percentage:
+            overview.totalBusinesses > 0
+              ? ((category.count / overview.totalBusinesses) * 100).toFixed(1)
+              : "0.0",
+        })
+      );
+
+      const carlowTowns = (overview.carlowTowns || []).map((town) => ({
+        town: town.name,
+        businesses: town.count,
+        percentage:
+          overview.carlowBusinesses > 0
+            ? ((town.count / overview.carlowBusinesses) * 100).toFixed(1)
+            : "0.0",
+      }));
 
       setAnalytics({
-        totalBookings: periodBookings.length,
-        newBusinesses,
-        newClients,
-        carlowBusinesses: carlowBusinesses.length,
-        nonCarlowBusinesses: nonCarlowBusinesses.length,
+        totalBookings: overview.totalBookings,
+        newBusinesses: overview.newBusinesses,
+        newClients: overview.newClients,
+        carlowBusinesses: overview.carlowBusinesses,
+        nonCarlowBusinesses: overview.nonCarlowBusinesses,
         popularCategories,
         carlowTowns,
-        businessGrowth,
-        clientGrowth,
-        bookingGrowth,
-        activeBusinesses,
-        pendingBusinesses,
+        businessGrowth: overview.businessGrowth,
+        clientGrowth: overview.clientGrowth,
+        bookingGrowth: overview.bookingGrowth,
+        activeBusinesses: overview.activeBusinesses,
+        pendingBusinesses: overview.pendingBusinesses,
       });
 
       setLoading(false);